@@ -1,28 +1,15 @@
 package Fullsound.Fullsound;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+@Slf4j
 @SpringBootApplication
 public class FullsoundApplication {
 	public static void main(String[] args) {
-		SpringApplication.run(FullsoundApplication.class, args);
-		System.out.println("\n========================================");
-		System.out.println("FullSound Frontend Server iniciado");
-		System.out.println("Accede a: http://localhost:8080");
-		System.out.println("Health Check: http://localhost:8080/actuator/health");
-		System.out.println("========================================\n");
-	}
-	@Bean
-	public WebMvcConfigurer resourceConfigurer() {
-		return new WebMvcConfigurer() {
-			@Override
-			public void addResourceHandlers(ResourceHandlerRegistry registry) {
-				registry.addResourceHandler("/**")
-						.addResourceLocations("classpath:/static/")
-						.setCachePeriod(0);
-			}
-		};
+		SpringApplication application = new SpringApplication(FullsoundApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
+		log.info("FullSound Frontend Server iniciado - Accede a: http://localhost:8080 - Health Check: http://localhost:8080/actuator/health");
 	}
 }
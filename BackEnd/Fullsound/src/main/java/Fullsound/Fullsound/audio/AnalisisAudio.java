@@ -0,0 +1,17 @@
+package Fullsound.Fullsound.audio;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalisisAudio {
+    private String audioUrl;
+    private Integer duracion;
+    private Integer bpm;
+    private String tonalidad;
+    private double segundosAudio;
+    private double segundosCpu;
+}
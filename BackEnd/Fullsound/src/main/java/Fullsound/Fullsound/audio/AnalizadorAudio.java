@@ -0,0 +1,254 @@
+package Fullsound.Fullsound.audio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+/**
+ * Decodifica el audio en streaming (sin cargar el archivo completo en memoria) y estima
+ * duración, tempo y tonalidad.
+ * El tempo se obtiene autocorrelacionando la envolvente de onsets (100 Hz) y la tonalidad
+ * comparando un cromagrama (Goertzel, C3-B6) con los perfiles de Krumhansl.
+ */
+@Component
+public class AnalizadorAudio {
+    private static final double TASA_ENVOLVENTE = 100.0;
+    private static final int BPM_MIN = 60;
+    private static final int BPM_MAX = 200;
+    private static final int VENTANA_CROMA = 8192;
+    private static final int MIDI_INICIO = 48;
+    private static final int MIDI_FIN = 95;
+    private static final String[] NOTAS = {"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"};
+    private static final double[] PERFIL_MAYOR = {6.35, 2.23, 3.48, 2.33, 4.38, 4.09, 2.52, 5.19, 2.39, 3.66, 2.29, 2.88};
+    private static final double[] PERFIL_MENOR = {6.33, 2.68, 3.52, 5.38, 2.60, 3.53, 2.54, 4.75, 3.98, 2.69, 3.34, 3.17};
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    @Value("${audio.analisis.estimar-tonalidad:true}")
+    private boolean estimarTonalidad = true;
+    @Value("${audio.analisis.max-segundos:900}")
+    private int maxSegundos = 900;
+    public AnalisisAudio analizar(InputStream entrada) throws IOException, UnsupportedAudioFileException {
+        long cpuInicio = cpuHilo();
+        InputStream marcable = entrada.markSupported() ? entrada : new BufferedInputStream(entrada);
+        try (AudioInputStream original = AudioSystem.getAudioInputStream(marcable);
+             AudioInputStream pcm = aPcm16(original)) {
+            AudioFormat formato = pcm.getFormat();
+            Procesador procesador = new Procesador(formato.getSampleRate(), estimarTonalidad, maxSegundos);
+            int canales = formato.getChannels();
+            int tamanoFrame = formato.getFrameSize();
+            boolean bigEndian = formato.isBigEndian();
+            byte[] buffer = new byte[tamanoFrame * 4096];
+            int pendientes = 0;
+            int leidos;
+            while ((leidos = pcm.read(buffer, pendientes, buffer.length - pendientes)) != -1) {
+                int disponibles = pendientes + leidos;
+                int completos = disponibles / tamanoFrame;
+                for (int f = 0; f < completos; f++) {
+                    int base = f * tamanoFrame;
+                    float suma = 0f;
+                    for (int c = 0; c < canales; c++) {
+                        int i = base + c * 2;
+                        int muestra = bigEndian
+                                ? (buffer[i] << 8) | (buffer[i + 1] & 0xFF)
+                                : (buffer[i + 1] << 8) | (buffer[i] & 0xFF);
+                        suma += muestra;
+                    }
+                    procesador.agregar(suma / (canales * 32768f));
+                }
+                pendientes = disponibles - completos * tamanoFrame;
+                System.arraycopy(buffer, completos * tamanoFrame, buffer, 0, pendientes);
+            }
+            double segundos = original.getFrameLength() != AudioSystem.NOT_SPECIFIED
+                    ? original.getFrameLength() / (double) original.getFormat().getFrameRate()
+                    : procesador.muestras / (double) formato.getSampleRate();
+            return AnalisisAudio.builder()
+                    .duracion(segundos > 0 ? (int) Math.max(1, Math.round(segundos)) : null)
+                    .bpm(estimarBpm(procesador.onsets, procesador.totalOnsets, procesador.tasaEnvolvente))
+                    .tonalidad(estimarTonalidad ? estimarTonalidad(procesador.croma) : null)
+                    .segundosAudio(segundos)
+                    .segundosCpu((cpuHilo() - cpuInicio) / 1e9)
+                    .build();
+        }
+    }
+    private AudioInputStream aPcm16(AudioInputStream original) {
+        AudioFormat fuente = original.getFormat();
+        if (fuente.getEncoding() == AudioFormat.Encoding.PCM_SIGNED && fuente.getSampleSizeInBits() == 16) {
+            return original;
+        }
+        AudioFormat destino = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, fuente.getSampleRate(), 16,
+                fuente.getChannels(), fuente.getChannels() * 2, fuente.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(destino, original);
+    }
+    static Integer estimarBpm(float[] onsets, int n, double tasa) {
+        if (n < tasa * 4) {
+            return null;
+        }
+        double media = 0;
+        for (int i = 0; i < n; i++) {
+            media += onsets[i];
+        }
+        media /= n;
+        int lagMin = Math.max(1, (int) Math.floor(60 * tasa / BPM_MAX));
+        int lagMax = Math.min(n / 2, (int) Math.ceil(60 * tasa / BPM_MIN));
+        double[] autocorrelacion = new double[lagMax + 2];
+        for (int lag = lagMin - 1; lag <= lagMax + 1; lag++) {
+            if (lag <= 0) {
+                continue;
+            }
+            double suma = 0;
+            for (int i = 0; i + lag < n; i++) {
+                suma += (onsets[i] - media) * (onsets[i + lag] - media);
+            }
+            autocorrelacion[lag] = suma / (n - lag);
+        }
+        int mejor = -1;
+        double mejorPeso = 0;
+        for (int lag = lagMin; lag <= lagMax; lag++) {
+            double bpm = 60 * tasa / lag;
+            double octavas = Math.log(bpm / 120.0) / Math.log(2);
+            double peso = autocorrelacion[lag] * Math.exp(-0.5 * octavas * octavas);
+            if (peso > mejorPeso) {
+                mejorPeso = peso;
+                mejor = lag;
+            }
+        }
+        if (mejor < 0) {
+            return null;
+        }
+        double y0 = autocorrelacion[mejor - 1];
+        double y1 = autocorrelacion[mejor];
+        double y2 = autocorrelacion[mejor + 1];
+        double denominador = y0 - 2 * y1 + y2;
+        double delta = denominador != 0 ? 0.5 * (y0 - y2) / denominador : 0;
+        delta = Math.max(-0.5, Math.min(0.5, delta));
+        return (int) Math.round(60 * tasa / (mejor + delta));
+    }
+    static String estimarTonalidad(double[] croma) {
+        if (Arrays.stream(croma).sum() <= 0) {
+            return null;
+        }
+        double mejor = Double.NEGATIVE_INFINITY;
+        String tonalidad = null;
+        for (int tonica = 0; tonica < 12; tonica++) {
+            double mayor = correlacion(croma, PERFIL_MAYOR, tonica);
+            double menor = correlacion(croma, PERFIL_MENOR, tonica);
+            if (mayor > mejor) {
+                mejor = mayor;
+                tonalidad = NOTAS[tonica];
+            }
+            if (menor > mejor) {
+                mejor = menor;
+                tonalidad = NOTAS[tonica] + "m";
+            }
+        }
+        return tonalidad;
+    }
+    private static double correlacion(double[] croma, double[] perfil, int tonica) {
+        double mediaCroma = Arrays.stream(croma).average().orElse(0);
+        double mediaPerfil = Arrays.stream(perfil).average().orElse(0);
+        double numerador = 0;
+        double varCroma = 0;
+        double varPerfil = 0;
+        for (int i = 0; i < 12; i++) {
+            double a = croma[(i + tonica) % 12] - mediaCroma;
+            double b = perfil[i] - mediaPerfil;
+            numerador += a * b;
+            varCroma += a * a;
+            varPerfil += b * b;
+        }
+        return varCroma == 0 ? 0 : numerador / Math.sqrt(varCroma * varPerfil);
+    }
+    private static long cpuHilo() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+    private static final class Procesador {
+        private final int salto;
+        private final double tasaEnvolvente;
+        private final long maxMuestras;
+        private final boolean conCroma;
+        private float[] onsets = new float[4096];
+        private int totalOnsets;
+        private long muestras;
+        private double energia;
+        private int enSalto;
+        private double logAnterior;
+        private final double[] croma = new double[12];
+        private final float[] bloque;
+        private final double[] ventana;
+        private final double[] coeficientes;
+        private final int[] clases;
+        private int enBloque;
+        Procesador(float tasaMuestreo, boolean conCroma, int maxSegundos) {
+            this.salto = Math.max(1, Math.round(tasaMuestreo / (float) TASA_ENVOLVENTE));
+            this.tasaEnvolvente = tasaMuestreo / salto;
+            this.maxMuestras = (long) maxSegundos * (long) tasaMuestreo;
+            this.conCroma = conCroma;
+            this.bloque = conCroma ? new float[VENTANA_CROMA] : null;
+            this.ventana = new double[conCroma ? VENTANA_CROMA : 0];
+            for (int i = 0; i < ventana.length; i++) {
+                ventana[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / (VENTANA_CROMA - 1));
+            }
+            int bandas = 0;
+            double[] coef = new double[MIDI_FIN - MIDI_INICIO + 1];
+            int[] cls = new int[coef.length];
+            for (int midi = MIDI_INICIO; midi <= MIDI_FIN; midi++) {
+                double frecuencia = 440.0 * Math.pow(2, (midi - 69) / 12.0);
+                if (frecuencia >= tasaMuestreo / 2) {
+                    break;
+                }
+                coef[bandas] = 2 * Math.cos(2 * Math.PI * frecuencia / tasaMuestreo);
+                cls[bandas] = midi % 12;
+                bandas++;
+            }
+            this.coeficientes = Arrays.copyOf(coef, bandas);
+            this.clases = Arrays.copyOf(cls, bandas);
+        }
+        void agregar(float muestra) {
+            muestras++;
+            if (muestras > maxMuestras) {
+                return;
+            }
+            energia += muestra * muestra;
+            if (++enSalto == salto) {
+                double log = Math.log1p(1000 * energia / salto);
+                agregarOnset((float) Math.max(0, log - logAnterior));
+                logAnterior = log;
+                energia = 0;
+                enSalto = 0;
+            }
+            if (conCroma) {
+                bloque[enBloque++] = muestra;
+                if (enBloque == VENTANA_CROMA) {
+                    acumularCroma();
+                    enBloque = 0;
+                }
+            }
+        }
+        private void agregarOnset(float valor) {
+            if (totalOnsets == onsets.length) {
+                onsets = Arrays.copyOf(onsets, onsets.length * 2);
+            }
+            onsets[totalOnsets++] = valor;
+        }
+        private void acumularCroma() {
+            for (int b = 0; b < coeficientes.length; b++) {
+                double coef = coeficientes[b];
+                double s1 = 0;
+                double s2 = 0;
+                for (int i = 0; i < VENTANA_CROMA; i++) {
+                    double s0 = bloque[i] * ventana[i] + coef * s1 - s2;
+                    s2 = s1;
+                    s1 = s0;
+                }
+                double potencia = s1 * s1 + s2 * s2 - coef * s1 * s2;
+                croma[clases[b]] += Math.log1p(potencia);
+            }
+        }
+    }
+}
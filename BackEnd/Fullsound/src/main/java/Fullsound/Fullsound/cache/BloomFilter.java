@@ -0,0 +1,76 @@
+package Fullsound.Fullsound.cache;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+/**
+ * Filtro de Bloom concurrente sobre strings. {@link #puedeContener} nunca da falsos negativos,
+ * así que un {@code false} permite descartar la consulta a la base de datos.
+ * Usa doble hashing (Kirsch-Mitzenmacher) sobre un hash de 128 bits de los bytes UTF-8.
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funciones;
+    private final long capacidad;
+    private final LongAdder elementos = new LongAdder();
+    public BloomFilter(long capacidad, double probabilidadFalsoPositivo) {
+        long n = Math.max(1, capacidad);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (ln2 * ln2));
+        int palabras = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(palabras);
+        this.totalBits = (long) palabras * 64;
+        this.funciones = Math.max(1, (int) Math.round((double) totalBits / n * ln2));
+        this.capacidad = n;
+    }
+    public void agregar(String valor) {
+        long[] h = hash(valor);
+        for (int i = 0; i < funciones; i++) {
+            long bit = Math.floorMod(h[0] + i * h[1], totalBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+        elementos.increment();
+    }
+    public boolean puedeContener(String valor) {
+        long[] h = hash(valor);
+        for (int i = 0; i < funciones; i++) {
+            long bit = Math.floorMod(h[0] + i * h[1], totalBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    public boolean saturado() {
+        return elementos.sum() > capacidad;
+    }
+    public long getElementos() {
+        return elementos.sum();
+    }
+    public long getCapacidad() {
+        return capacidad;
+    }
+    private static long[] hash(String valor) {
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0x9E3779B97F4A7C15L;
+        long h2 = 0xC2B2AE3D27D4EB4FL;
+        for (byte b : bytes) {
+            h1 = (h1 ^ (b & 0xFF)) * 0x100000001B3L;
+            h2 = Long.rotateLeft(h2 ^ (b & 0xFF), 31) * 0x9E3779B97F4A7C15L;
+        }
+        return new long[]{mezclar(h1), mezclar(h2 ^ bytes.length) | 1L};
+    }
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,112 @@
+package Fullsound.Fullsound.cache;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+/**
+ * Filtros de Bloom sobre nombres de usuario y correos normalizados (trim + minúsculas).
+ * Un "no está" es definitivo y evita el SQL; un "puede estar" se confirma contra la base.
+ * Mientras no se haya construido responde siempre "puede estar". Las restricciones UNIQUE
+ * de la tabla siguen siendo el árbitro final.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceUnicidadUsuarios {
+    private final UsuarioRepository usuarioRepository;
+    private final MeterRegistry meterRegistry;
+    @Value("${usuarios.unicidad.probabilidad-falso-positivo:0.001}")
+    private double probabilidadFalsoPositivo;
+    @Value("${usuarios.unicidad.capacidad-minima:10000}")
+    private long capacidadMinima;
+    private volatile BloomFilter nombres;
+    private volatile BloomFilter correos;
+    private List<String[]> agregadosDuranteReconstruccion;
+    @EventListener(ApplicationReadyEvent.class)
+    @Carga(CargaTrabajo.TAREAS)
+    public void alIniciar() {
+        reconstruir();
+    }
+    @Scheduled(fixedDelayString = "${usuarios.unicidad.intervalo-reconstruccion-ms:21600000}",
+               initialDelayString = "${usuarios.unicidad.intervalo-reconstruccion-ms:21600000}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void reconstruirProgramado() {
+        reconstruir();
+    }
+    public void reconstruir() {
+        synchronized (this) {
+            agregadosDuranteReconstruccion = new ArrayList<>();
+        }
+        try {
+            List<Object[]> filas = usuarioRepository.findNombresYCorreos();
+            long capacidad = Math.max(capacidadMinima, filas.size() * 2L);
+            BloomFilter nuevosNombres = new BloomFilter(capacidad, probabilidadFalsoPositivo);
+            BloomFilter nuevosCorreos = new BloomFilter(capacidad, probabilidadFalsoPositivo);
+            for (Object[] fila : filas) {
+                agregar(nuevosNombres, (String) fila[0]);
+                agregar(nuevosCorreos, (String) fila[1]);
+            }
+            synchronized (this) {
+                for (String[] par : agregadosDuranteReconstruccion) {
+                    agregar(nuevosNombres, par[0]);
+                    agregar(nuevosCorreos, par[1]);
+                }
+                nombres = nuevosNombres;
+                correos = nuevosCorreos;
+            }
+            log.info("Índice de unicidad de usuarios construido con {} usuarios", filas.size());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo construir el índice de unicidad, se consultará la base de datos: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                agregadosDuranteReconstruccion = null;
+            }
+        }
+    }
+    public boolean puedeExistirNombreUsuario(String nombreUsuario) {
+        return consultar(nombres, nombreUsuario, "nombreUsuario");
+    }
+    public boolean puedeExistirCorreo(String correo) {
+        return consultar(correos, correo, "correo");
+    }
+    public synchronized void registrar(String nombreUsuario, String correo) {
+        agregar(nombres, nombreUsuario);
+        agregar(correos, correo);
+        if (agregadosDuranteReconstruccion != null) {
+            agregadosDuranteReconstruccion.add(new String[]{nombreUsuario, correo});
+        }
+        if ((nombres != null && nombres.saturado()) || (correos != null && correos.saturado())) {
+            log.info("Índice de unicidad sobre su capacidad, se reconstruirá en la próxima pasada");
+        }
+    }
+    public void registrarCorreo(String correo) {
+        registrar(null, correo);
+    }
+    private boolean consultar(BloomFilter filtro, String valor, String campo) {
+        if (filtro == null || valor == null) {
+            return true;
+        }
+        boolean posible = filtro.puedeContener(normalizar(valor));
+        meterRegistry.counter("usuarios.unicidad.consultas", "campo", campo,
+                "resultado", posible ? "posible" : "descartado").increment();
+        return posible;
+    }
+    private static void agregar(BloomFilter filtro, String valor) {
+        if (filtro != null && valor != null) {
+            filtro.agregar(normalizar(valor));
+        }
+    }
+    static String normalizar(String valor) {
+        return valor.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,36 @@
+package Fullsound.Fullsound.config;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+    @Value("${audio.analisis.hilos:2}")
+    private int hilosAnalisis;
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor analisisAudioExecutor() {
+        return new ThreadPoolExecutor(hilosAnalisis, hilosAnalisis, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), hilosDeFondo("analisis-audio-"));
+    }
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor notificacionesExecutor(@Value("${notificaciones.sse.hilos-envio:2}") int hilos) {
+        return new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), hilosDeFondo("sse-envio-"));
+    }
+    static ThreadFactory hilosDeFondo(String prefijo) {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, prefijo + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package Fullsound.Fullsound.config;
+import Fullsound.Fullsound.datasource.BulkheadDataSource;
+import Fullsound.Fullsound.datasource.CargasTrabajoProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import javax.sql.DataSource;
+@Configuration
+public class CargaTrabajoConfig {
+    /**
+     * Último en envolver el DataSource: el bulkhead queda por encima del MonitoredDataSource.
+     */
+    static final int ORDEN_BULKHEAD = Ordered.LOWEST_PRECEDENCE;
+    /**
+     * Los cupos se aplican sobre el DataSource principal (pool único, o el enrutador
+     * primario/réplica si está configurado), así que cubren ambos destinos.
+     */
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor(ObjectProvider<CargasTrabajoProperties> properties,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BulkheadDataSourcePostProcessor(properties, meterRegistry);
+    }
+    private record BulkheadDataSourcePostProcessor(ObjectProvider<CargasTrabajoProperties> properties,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) implements BeanPostProcessor, Ordered {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)
+                    && "dataSource".equals(beanName) && properties.getObject().isEnabled()) {
+                return new BulkheadDataSource(dataSource, properties.getObject(), meterRegistry.getObject());
+            }
+            return bean;
+        }
+        @Override
+        public int getOrder() {
+            return ORDEN_BULKHEAD;
+        }
+    }
+}
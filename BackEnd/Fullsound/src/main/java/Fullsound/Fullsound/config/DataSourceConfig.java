@@ -0,0 +1,89 @@
+package Fullsound.Fullsound.config;
+import Fullsound.Fullsound.datasource.ConsistenciaLecturaFilter;
+import Fullsound.Fullsound.datasource.ReplicaLagMonitor;
+import Fullsound.Fullsound.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+/**
+ * Solo se activa si hay {@code spring.datasource.replica.url}; sin réplica se mantiene el
+ * DataSource autoconfigurado de siempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.datasource.replica.url")
+public class DataSourceConfig {
+    /**
+     * Retraso de la réplica en ms. Si ya aplicó todo lo recibido está al día aunque el primario
+     * lleve rato sin escribir (now() - último replay crecería sin límite); solo con WAL pendiente
+     * se mide cuánto hace del último commit aplicado.
+     */
+    private static final String CONSULTA_LAG = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    /**
+     * LSN reproducido por la réplica; el retraso solo decide si está en servicio, no si ya tiene
+     * una escritura concreta (lo recibido puede estar al día y faltar WAL aún en camino).
+     */
+    private static final String CONSULTA_LSN_REPLICA = "SELECT COALESCE(pg_last_wal_replay_lsn(), pg_current_wal_lsn()) - '0/0'";
+    /**
+     * LSN del primario leído tras confirmar una escritura: es el token de consistencia.
+     */
+    private static final String CONSULTA_LSN_PRIMARIO = "SELECT pg_current_wal_lsn() - '0/0'";
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${spring.datasource.replica.url}") String url,
+            @Value("${spring.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${spring.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${spring.datasource.replica.consulta-lag:" + CONSULTA_LAG + "}") String consultaLag,
+            @Value("${spring.datasource.replica.consulta-lsn:" + CONSULTA_LSN_REPLICA + "}") String consultaLsn,
+            @Value("${spring.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+            MeterRegistry meterRegistry) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+        jdbcTemplate.setQueryTimeout(2);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(jdbcTemplate, consultaLag, consultaLsn, maxLagMs, meterRegistry);
+        monitor.verificar();
+        return monitor;
+    }
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor monitor,
+                                 ConsistenciaLecturaFilter consistencia,
+                                 @Value("${spring.datasource.replica.consulta-lsn-primario:" + CONSULTA_LSN_PRIMARIO + "}") String consultaLsnPrimario,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primario, replica, monitor, consistencia, consultaLsnPrimario, meterRegistry));
+    }
+}
@@ -1,5 +1,6 @@
 package Fullsound.Fullsound.config;
 import io.github.cdimascio.dotenv.Dotenv;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
@@ -7,6 +8,7 @@ import org.springframework.core.env.MapPropertySource;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+@Slf4j
 public class DotenvConfig implements ApplicationContextInitializer<ConfigurableApplicationContext> {
     @Override
     public void initialize(ConfigurableApplicationContext applicationContext) {
@@ -25,25 +27,24 @@ public class DotenvConfig implements ApplicationContextInitializer<ConfigurableA
                             .directory(location)
                             .ignoreIfMissing()
                             .load();
-                    System.out.println("✓ Archivo .env encontrado en: " + envFile.getAbsolutePath());
+                    log.info("Archivo .env encontrado en: {}", envFile.getAbsolutePath());
                     break;
                 }
             }
             if (dotenv == null) {
-                System.err.println("⚠ No se encontró el archivo .env");
+                log.warn("No se encontró el archivo .env");
                 return;
             }
             Map<String, Object> dotenvMap = new HashMap<>();
             dotenv.entries().forEach(entry -> {
                 dotenvMap.put(entry.getKey(), entry.getValue());
-                System.out.println("  → " + entry.getKey() + " cargada");
+                log.debug("Variable {} cargada", entry.getKey());
             });
             environment.getPropertySources()
                     .addFirst(new MapPropertySource("dotenvProperties", dotenvMap));
-            System.out.println("✓ Variables de entorno cargadas desde .env");
+            log.info("Variables de entorno cargadas desde .env ({})", dotenvMap.size());
         } catch (Exception e) {
-            System.err.println("⚠ Error al cargar el archivo .env: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error al cargar el archivo .env: {}", e.getMessage(), e);
         }
     }
 }
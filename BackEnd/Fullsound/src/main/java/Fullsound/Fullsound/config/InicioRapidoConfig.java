@@ -0,0 +1,29 @@
+package Fullsound.Fullsound.config;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+@Configuration
+public class InicioRapidoConfig {
+    /**
+     * Con spring.main.lazy-initialization=true (perfil faststart) solo se difieren los beans
+     * de documentación/administración listados en inicio-rapido.perezosos; el resto (filtros,
+     * seguridad, JPA, tareas programadas) se crea al arrancar como siempre.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter inicioRapidoExcludeFilter(Environment environment) {
+        String[] perezosos = environment.getProperty("inicio-rapido.perezosos", String[].class, new String[0]);
+        return (beanName, beanDefinition, beanType) -> {
+            String clase = beanType != null ? beanType.getName() : beanDefinition.getBeanClassName();
+            if (clase == null) {
+                return true;
+            }
+            for (String prefijo : perezosos) {
+                if (clase.startsWith(prefijo)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package Fullsound.Fullsound.config;
+import Fullsound.Fullsound.metrics.MonitorSql;
+import Fullsound.Fullsound.metrics.MonitoredDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import javax.sql.DataSource;
+@Configuration
+public class MetricsConfig {
+    /**
+     * Envuelve solo el DataSource principal; con réplica configurada es el proxy de enrutamiento,
+     * así que se mide una única vez sin importar el destino. Corre antes que el bulkhead de
+     * CargaTrabajoConfig, que queda por fuera: la espera por cupo no cuenta como tiempo SQL.
+     */
+    @Bean
+    public static BeanPostProcessor monitoredDataSourcePostProcessor(ObjectProvider<MonitorSql> monitorSql) {
+        return new MonitoredDataSourcePostProcessor(monitorSql);
+    }
+    private record MonitoredDataSourcePostProcessor(ObjectProvider<MonitorSql> monitorSql) implements BeanPostProcessor, Ordered {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof MonitoredDataSource)
+                    && "dataSource".equals(beanName)) {
+                return new MonitoredDataSource(dataSource, monitorSql.getObject());
+            }
+            return bean;
+        }
+        @Override
+        public int getOrder() {
+            return CargaTrabajoConfig.ORDEN_BULKHEAD - 1;
+        }
+    }
+}
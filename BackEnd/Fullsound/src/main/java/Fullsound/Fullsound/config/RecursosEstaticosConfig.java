@@ -0,0 +1,27 @@
+package Fullsound.Fullsound.config;
+import Fullsound.Fullsound.estaticos.RecursosEstaticosHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import java.util.List;
+import java.util.Map;
+@Configuration
+public class RecursosEstaticosConfig {
+    /**
+     * Reemplaza el ResourceHttpRequestHandler de Boot (spring.web.resources.add-mappings=false):
+     * queda detrás de los controllers y del welcome page, igual que el mapeo /** por defecto.
+     */
+    @Bean
+    public SimpleUrlHandlerMapping recursosEstaticosHandlerMapping(RecursosEstaticosHandler handler) {
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of("/**", handler), Ordered.LOWEST_PRECEDENCE - 1);
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOriginPatterns(List.of("*"));
+        cors.setAllowedMethods(List.of("GET", "HEAD", "OPTIONS"));
+        cors.setAllowedHeaders(List.of("*"));
+        cors.setMaxAge(3600L);
+        mapping.setCorsConfigurations(Map.of("/**", cors));
+        return mapping;
+    }
+}
@@ -1,14 +1,8 @@
 package Fullsound.Fullsound.config;
 
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.servlet.resource.PathResourceResolver;
-
-import java.io.IOException;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -20,7 +14,7 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
             .allowedHeaders("*")
             .allowCredentials(true)
-            .exposedHeaders("Authorization", "Content-Type")
+            .exposedHeaders("Authorization", "Content-Type", "X-Consistency-Token")
             .maxAge(3600);
         
         // Configuración adicional para recursos estáticos y assets
@@ -30,27 +24,4 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedHeaders("*")
             .maxAge(3600);
     }
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/**")
-            .addResourceLocations("classpath:/static/")
-            .resourceChain(true)
-            .addResolver(new PathResourceResolver() {
-                @Override
-                protected Resource getResource(String resourcePath, Resource location) throws IOException {
-                    Resource requestedResource = location.createRelative(resourcePath);
-                    
-                    if (requestedResource.exists() && requestedResource.isReadable()) {
-                        return requestedResource;
-                    }
-                    
-                    if (!resourcePath.startsWith("api/")) {
-                        return new ClassPathResource("/static/index.html");
-                    }
-                    
-                    return null;
-                }
-            });
-    }
 }
@@ -12,9 +12,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+@Slf4j
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -40,9 +43,7 @@ public class AuthController {
     })
     @PostMapping("/register")
     public ResponseEntity<MessageResponse> register(@Valid @RequestBody RegisterRequest request) {
-        System.out.println("[AUTH] Registro recibido - Usuario: " + request.getNombreUsuario() + 
-                         ", Correo: " + request.getCorreo() + 
-                         ", Rol: " + request.getRol());
+        log.debug("Registro recibido - Usuario: {}, Rol: {}", request.getNombreUsuario(), request.getRol());
         MessageResponse response = authService.register(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -67,6 +68,17 @@ public class AuthController {
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(response);
     }
+    @Operation(
+        summary = "Verificar disponibilidad",
+        description = "Indica si el nombre de usuario y/o correo están libres. Pensado para validar el formulario de registro mientras se escribe."
+    )
+    @ApiResponse(responseCode = "200", description = "Mapa campo -> disponible")
+    @GetMapping("/disponible")
+    public ResponseEntity<Map<String, Boolean>> disponible(
+            @RequestParam(required = false) String nombreUsuario,
+            @RequestParam(required = false) String correo) {
+        return ResponseEntity.ok(authService.verificarDisponibilidad(nombreUsuario, correo));
+    }
     @Operation(
         summary = "Health Check",
         description = "Verifica que el servicio de autenticación está funcionando correctamente."
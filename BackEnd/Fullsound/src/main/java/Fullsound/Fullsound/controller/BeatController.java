@@ -1,7 +1,10 @@
 package Fullsound.Fullsound.controller;
 import Fullsound.Fullsound.dto.request.BeatRequest;
+import Fullsound.Fullsound.dto.request.BeatsLoteRequest;
 import Fullsound.Fullsound.dto.response.BeatResponse;
+import Fullsound.Fullsound.dto.response.BeatsLoteResponse;
 import Fullsound.Fullsound.dto.response.MessageResponse;
+import Fullsound.Fullsound.security.UserDetailsImpl;
 import Fullsound.Fullsound.service.BeatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,9 +19,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
 import java.util.List;
+import java.util.Objects;
 @RestController
 @RequestMapping("/api/beats")
 @RequiredArgsConstructor
@@ -73,6 +78,54 @@ public class BeatController {
         BeatResponse response = beatService.getById(id);
         return ResponseEntity.ok(response);
     }
+    @Operation(
+        summary = "Obtener varios beats por ID",
+        description = "Devuelve los beats en el orden pedido y los ids que no existen, en una sola consulta. Pensado para hidratar el carrito; admite If-None-Match."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Beats encontrados",
+            content = @Content(schema = @Schema(implementation = BeatsLoteResponse.class))
+        ),
+        @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado", content = @Content),
+        @ApiResponse(responseCode = "400", description = "Demasiados ids", content = @Content)
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<BeatsLoteResponse> getByIds(
+        @Parameter(description = "IDs separados por coma", required = true, example = "1,2,3")
+        @RequestParam List<Integer> ids
+    ) {
+        BeatsLoteResponse response = beatService.getByIds(ids);
+        return ResponseEntity.ok().eTag(etag(response)).body(response);
+    }
+    @PostMapping("/lote")
+    public ResponseEntity<BeatsLoteResponse> getByIdsLote(@Valid @RequestBody BeatsLoteRequest request) {
+        BeatsLoteResponse response = beatService.getByIds(request.getIds());
+        return ResponseEntity.ok().eTag(etag(response)).body(response);
+    }
+    @Operation(
+        summary = "Beats similares",
+        description = "Beats más parecidos por tempo, tonalidad (rueda Camelot), género, emoción y etiquetas, precalculados en memoria."
+    )
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<BeatResponse>> getSimilares(
+        @PathVariable Integer id,
+        @RequestParam(defaultValue = "10") Integer limit
+    ) {
+        return ResponseEntity.ok(beatService.getSimilares(id, Math.max(limit, 0)));
+    }
+    @Operation(
+        summary = "Comprados juntos",
+        description = "Beats que otros clientes compraron en el mismo pedido, precalculados a partir del historial de pedidos completados."
+    )
+    @GetMapping("/{id}/also-bought")
+    public ResponseEntity<List<BeatResponse>> getCompradosJuntos(
+        @PathVariable Integer id,
+        @RequestParam(defaultValue = "10") Integer limit
+    ) {
+        return ResponseEntity.ok(beatService.getCompradosJuntos(id, Math.max(limit, 0)));
+    }
     @GetMapping("/slug/{slug}")
     public ResponseEntity<BeatResponse> getBySlug(@PathVariable String slug) {
         BeatResponse response = beatService.getBySlug(slug);
@@ -92,9 +145,16 @@ public class BeatController {
         List<BeatResponse> responses = beatService.getAllActive();
         return ResponseEntity.ok(responses);
     }
+    @Operation(
+        summary = "Beats en tendencia",
+        description = "Ranking precalculado por reproducciones y ventas recientes con decaimiento exponencial, global o por género."
+    )
     @GetMapping("/featured")
-    public ResponseEntity<List<BeatResponse>> getFeatured(@RequestParam(defaultValue = "10") Integer limit) {
-        List<BeatResponse> responses = beatService.getFeatured();
+    public ResponseEntity<List<BeatResponse>> getFeatured(
+        @RequestParam(defaultValue = "10") Integer limit,
+        @RequestParam(required = false) String genero
+    ) {
+        List<BeatResponse> responses = beatService.getFeatured(Math.max(limit, 0), genero);
         return ResponseEntity.ok(responses);
     }
     @GetMapping("/search")
@@ -123,8 +183,11 @@ public class BeatController {
         return ResponseEntity.ok(new MessageResponse("Beat eliminado correctamente", true));
     }
     @PostMapping("/{id}/play")
-    public ResponseEntity<Void> incrementPlays(@PathVariable Integer id) {
-        beatService.incrementPlays(id);
+    public ResponseEntity<Void> incrementPlays(@PathVariable Integer id, Authentication authentication) {
+        Integer usuarioId = authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl usuario
+                ? usuario.getId()
+                : null;
+        beatService.incrementPlays(id, usuarioId);
         return ResponseEntity.ok().build();
     }
     @PostMapping("/{id}/like")
@@ -133,4 +196,15 @@ public class BeatController {
         return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
             .body(new MessageResponse("La funcionalidad de likes ha sido removida", false));
     }
+    private static String etag(BeatsLoteResponse response) {
+        long hash = 17;
+        for (BeatResponse beat : response.getBeats()) {
+            hash = 31 * hash + beat.getIdBeat();
+            hash = 31 * hash + Objects.hashCode(beat.getUpdatedAt());
+        }
+        for (Integer id : response.getNoEncontrados()) {
+            hash = 31 * hash - id;
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
 }
@@ -1,4 +1,6 @@
 package Fullsound.Fullsound.controller;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
 import Fullsound.Fullsound.repository.BeatRepository;
 import Fullsound.Fullsound.repository.UsuarioRepository;
 import Fullsound.Fullsound.repository.PedidoRepository;
@@ -15,6 +17,7 @@ import java.util.*;
 @RestController
 @RequestMapping("/api/test/database")
 @CrossOrigin(origins = "*")
+@Carga(CargaTrabajo.ADMIN)
 public class DatabaseTestController {
     @Autowired
     private DataSource dataSource;
@@ -1,15 +1,24 @@
 package Fullsound.Fullsound.controller;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 @RestController
 @RequestMapping("/api/estadisticas")
 @RequiredArgsConstructor
 @CrossOrigin(originPatterns = "*", allowedHeaders = "*")
+@Carga(CargaTrabajo.ADMIN)
 public class EstadisticasController {
+    private final EntityManagerFactory entityManagerFactory;
     @GetMapping("/dashboard")
     @PreAuthorize("hasAuthority('administrador')")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
@@ -41,4 +50,31 @@ public class EstadisticasController {
         stats.put("limit", limit);
         return ResponseEntity.ok(stats);
     }
+    @GetMapping("/cache")
+    @PreAuthorize("hasAuthority('administrador')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> regiones = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+            if (regionStats == null) {
+                regionStats = statistics.getQueryRegionStatistics(region);
+            }
+            if (regionStats != null) {
+                Map<String, Object> detalle = new LinkedHashMap<>();
+                detalle.put("hits", regionStats.getHitCount());
+                detalle.put("misses", regionStats.getMissCount());
+                detalle.put("puts", regionStats.getPutCount());
+                detalle.put("elementos", regionStats.getElementCountInMemory());
+                regiones.put(region, detalle);
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("segundoNivelHits", statistics.getSecondLevelCacheHitCount());
+        stats.put("segundoNivelMisses", statistics.getSecondLevelCacheMissCount());
+        stats.put("consultasHits", statistics.getQueryCacheHitCount());
+        stats.put("consultasMisses", statistics.getQueryCacheMissCount());
+        stats.put("regiones", regiones);
+        return ResponseEntity.ok(stats);
+    }
 }
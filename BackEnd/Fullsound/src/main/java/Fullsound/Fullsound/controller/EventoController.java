@@ -0,0 +1,54 @@
+package Fullsound.Fullsound.controller;
+import Fullsound.Fullsound.dto.request.EventosLoteRequest;
+import Fullsound.Fullsound.dto.response.EventosDiarioResponse;
+import Fullsound.Fullsound.dto.response.MessageResponse;
+import Fullsound.Fullsound.security.RateLimitFilter;
+import Fullsound.Fullsound.security.RateLimitProperties;
+import Fullsound.Fullsound.security.UserDetailsImpl;
+import Fullsound.Fullsound.service.EventoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+@RestController
+@RequestMapping("/api/eventos")
+@RequiredArgsConstructor
+@Tag(name = "Eventos", description = "Diario de reproducciones y vistas")
+public class EventoController {
+    private final EventoService eventoService;
+    private final RateLimitProperties rateLimitProperties;
+    @Operation(
+        summary = "Registrar eventos en lote",
+        description = "Agrega varias reproducciones o vistas al diario de eventos en una sola llamada. Se procesan de forma asíncrona. Cuenta una reproducción por beat y lote, con un cupo por usuario o IP; las que exceden se descartan."
+    )
+    @PostMapping
+    public ResponseEntity<MessageResponse> registrar(@Valid @RequestBody EventosLoteRequest request,
+                                                     Authentication authentication,
+                                                     HttpServletRequest servletRequest) {
+        Integer usuarioId = authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl usuario
+                ? usuario.getId()
+                : null;
+        String cliente = usuarioId != null
+                ? "u:" + usuarioId
+                : "ip:" + RateLimitFilter.ipCliente(servletRequest, rateLimitProperties.getProxiesConfiables());
+        int registrados = eventoService.registrar(request.getEventos(), usuarioId, cliente);
+        return ResponseEntity.accepted().body(new MessageResponse(registrados + " eventos registrados", true));
+    }
+    @Operation(
+        summary = "Leer el diario de eventos",
+        description = "Eventos desde un offset, para análisis. La respuesta trae el offset de la siguiente página."
+    )
+    @GetMapping
+    @PreAuthorize("hasAuthority('administrador')")
+    public ResponseEntity<EventosDiarioResponse> leer(
+        @RequestParam(defaultValue = "0") long desde,
+        @RequestParam(defaultValue = "1000") int max
+    ) {
+        return ResponseEntity.ok(eventoService.leer(desde, max));
+    }
+}
@@ -1,5 +1,7 @@
 package Fullsound.Fullsound.controller;
 
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
@@ -8,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/fix")
 @CrossOrigin(originPatterns = "*")
 @RequiredArgsConstructor
+@Carga(CargaTrabajo.ADMIN)
 public class FixController {
     
     private final JdbcTemplate jdbcTemplate;
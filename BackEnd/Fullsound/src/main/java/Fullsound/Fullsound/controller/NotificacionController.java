@@ -0,0 +1,33 @@
+package Fullsound.Fullsound.controller;
+import Fullsound.Fullsound.notificaciones.CanalEstados;
+import Fullsound.Fullsound.security.UserDetailsImpl;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+@RestController
+@RequestMapping("/api/notificaciones")
+@RequiredArgsConstructor
+@Tag(name = "Notificaciones", description = "Cambios de estado de pedidos y pagos en tiempo real")
+public class NotificacionController {
+    private final CanalEstados canalEstados;
+    @Operation(
+        summary = "Suscribirse a cambios de estado",
+        description = "Server-Sent Events con los cambios de estado de los pedidos y pagos del usuario (eventos 'pedido' y 'pago'), " +
+                      "emitidos al confirmarse cada cambio en cualquier instancia. Reemplaza el sondeo de GET /api/pagos/{id} tras el checkout. " +
+                      "Requiere Authorization: Bearer, así que el cliente lee el stream con fetch (p. ej. @microsoft/fetch-event-source) " +
+                      "y no con EventSource nativo, que no envía cabeceras; el token no se acepta en la URL para que no quede en logs."
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter stream(Authentication authentication) {
+        UserDetailsImpl usuario = (UserDetailsImpl) authentication.getPrincipal();
+        return canalEstados.abrir(usuario.getId());
+    }
+}
@@ -1,4 +1,6 @@
 package Fullsound.Fullsound.controller;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
 import Fullsound.Fullsound.dto.request.PagoRequest;
 import Fullsound.Fullsound.dto.response.PagoResponse;
 import Fullsound.Fullsound.service.PagoService;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/pagos")
 @RequiredArgsConstructor
 @CrossOrigin(originPatterns = "*", allowedHeaders = "*")
+@Carga(CargaTrabajo.CHECKOUT)
 public class PagoController {
     private final PagoService pagoService;
     @PostMapping("/create-intent")
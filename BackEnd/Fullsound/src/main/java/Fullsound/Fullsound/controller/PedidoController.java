@@ -1,4 +1,7 @@
 package Fullsound.Fullsound.controller;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.dto.request.CambioEstadoLoteRequest;
 import Fullsound.Fullsound.dto.request.PedidoRequest;
 import Fullsound.Fullsound.dto.response.PedidoResponse;
 import Fullsound.Fullsound.exception.ResourceNotFoundException;
@@ -17,6 +20,7 @@ import java.util.List;
 @RequestMapping("/api/pedidos")
 @RequiredArgsConstructor
 @CrossOrigin(originPatterns = "*", allowedHeaders = "*")
+@Carga(CargaTrabajo.CHECKOUT)
 public class PedidoController {
     private final PedidoService pedidoService;
     private final UsuarioRepository usuarioRepository;
@@ -66,4 +70,10 @@ public class PedidoController {
         PedidoResponse response = pedidoService.updateEstado(id, estado);
         return ResponseEntity.ok(response);
     }
+    @PatchMapping("/estado")
+    @PreAuthorize("hasAuthority('administrador')")
+    public ResponseEntity<List<PedidoResponse>> updateEstadoLote(@Valid @RequestBody CambioEstadoLoteRequest request) {
+        List<PedidoResponse> responses = pedidoService.updateEstadoLote(request);
+        return ResponseEntity.ok(responses);
+    }
 }
@@ -1,6 +1,8 @@
 package Fullsound.Fullsound.controller;
-
+import Fullsound.Fullsound.metrics.LlamadasExternas;
+import Fullsound.Fullsound.service.AnalisisAudioService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,12 +20,16 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/upload")
 @CrossOrigin(originPatterns = "*", allowedHeaders = "*")
 @RequiredArgsConstructor
 public class UploadController {
 
+    private final AnalisisAudioService analisisAudioService;
+    private final LlamadasExternas llamadasExternas;
+
     @Value("${supabase.url:https://kivpcepyhfpqjfoycwel.supabase.co}")
     private String supabaseUrl;
 
@@ -38,8 +44,24 @@ public class UploadController {
 
     @PostMapping("/audio")
     @PreAuthorize("hasAuthority('administrador')")
-    public ResponseEntity<?> uploadAudio(@RequestParam("file") MultipartFile file) {
-        return uploadFile(file, "audios");
+    public ResponseEntity<?> uploadAudio(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "prioridad", defaultValue = "0") int prioridad) {
+        ResponseEntity<?> response = uploadFile(file, "audios");
+        // El análisis (duración, BPM, tonalidad) corre en segundo plano y se escribe en el beat por lotes
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() instanceof Map<?, ?> body) {
+            Map<String, Object> result = new HashMap<>();
+            body.forEach((k, v) -> result.put(String.valueOf(k), v));
+            result.put("analisisProgramado", analisisAudioService.programar(String.valueOf(body.get("url")), prioridad));
+            return ResponseEntity.ok(result);
+        }
+        return response;
+    }
+
+    @GetMapping("/audio/analisis/estadisticas")
+    @PreAuthorize("hasAuthority('administrador')")
+    public ResponseEntity<Map<String, Object>> getEstadisticasAnalisis() {
+        return ResponseEntity.ok(analisisAudioService.getEstadisticas());
     }
 
     private ResponseEntity<?> uploadFile(MultipartFile file, String bucket) {
@@ -86,7 +108,8 @@ public class UploadController {
                 .POST(HttpRequest.BodyPublishers.ofByteArray(file.getBytes()))
                 .build();
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> response = llamadasExternas.medir("supabase", "storage.subir",
+                () -> client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)));
 
             if (response.statusCode() == 200 || response.statusCode() == 201) {
                 // URL pública del archivo
@@ -101,8 +124,7 @@ public class UploadController {
                 return ResponseEntity.ok(result);
             } else {
                 // Log detallado del error
-                System.err.println("Supabase upload error - Status: " + response.statusCode());
-                System.err.println("Response body: " + response.body());
+                log.warn("Supabase upload error - Status: {} - Response body: {}", response.statusCode(), response.body());
                 
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Error al subir archivo a Supabase");
@@ -115,7 +137,7 @@ public class UploadController {
             }
 
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Error al leer el archivo {}: {}", file.getOriginalFilename(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Error al leer el archivo: " + e.getMessage()));
         } catch (InterruptedException e) {
@@ -123,7 +145,7 @@ public class UploadController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Proceso interrumpido: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error inesperado al subir {}", file.getOriginalFilename(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Error inesperado: " + e.getMessage(), "type", e.getClass().getName()));
         }
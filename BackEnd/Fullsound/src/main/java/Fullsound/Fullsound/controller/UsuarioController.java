@@ -1,8 +1,10 @@
 package Fullsound.Fullsound.controller;
+import Fullsound.Fullsound.dto.request.BusquedaUsuariosRequest;
 import Fullsound.Fullsound.dto.request.UpdatePasswordRequest;
 import Fullsound.Fullsound.dto.request.UpdateUsuarioRequest;
 import Fullsound.Fullsound.dto.response.MessageResponse;
 import Fullsound.Fullsound.dto.response.UsuarioResponse;
+import Fullsound.Fullsound.dto.response.UsuariosPaginaResponse;
 import Fullsound.Fullsound.service.UsuarioService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -45,6 +47,11 @@ public class UsuarioController {
         List<UsuarioResponse> responses = usuarioService.getAll();
         return ResponseEntity.ok(responses);
     }
+    @GetMapping("/buscar")
+    @PreAuthorize("hasAuthority('administrador')")
+    public ResponseEntity<UsuariosPaginaResponse> buscar(BusquedaUsuariosRequest filtros) {
+        return ResponseEntity.ok(usuarioService.buscar(filtros));
+    }
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('administrador')")
     public ResponseEntity<MessageResponse> deactivate(@PathVariable Integer id) {
@@ -0,0 +1,64 @@
+package Fullsound.Fullsound.datasource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+/**
+ * Cupo de conexiones de una clase de carga sobre el pool compartido. Si no hay cupo dentro
+ * de la espera configurada se falla de inmediato en lugar de hacer cola en Hikari.
+ */
+class Bulkhead {
+    private final CargaTrabajo carga;
+    private final int capacidad;
+    private final long esperaNanos;
+    private final Semaphore permisos;
+    private final Timer espera;
+    private final Counter rechazos;
+    Bulkhead(CargaTrabajo carga, int capacidad, Duration espera, MeterRegistry meterRegistry) {
+        this.carga = carga;
+        this.capacidad = capacidad;
+        this.esperaNanos = espera.toNanos();
+        this.permisos = new Semaphore(capacidad, true);
+        String tag = carga.name().toLowerCase();
+        this.espera = Timer.builder("datasource.bulkhead.espera")
+                .description("Espera por un cupo de conexión de la clase de carga")
+                .tag("carga", tag)
+                .register(meterRegistry);
+        this.rechazos = Counter.builder("datasource.bulkhead.rechazos")
+                .description("Solicitudes de conexión rechazadas por bulkhead lleno")
+                .tag("carga", tag)
+                .register(meterRegistry);
+        Gauge.builder("datasource.bulkhead.activas", permisos, p -> capacidad - p.availablePermits())
+                .description("Conexiones en uso por la clase de carga")
+                .tag("carga", tag)
+                .register(meterRegistry);
+        Gauge.builder("datasource.bulkhead.saturacion", permisos, p -> (capacidad - p.availablePermits()) / (double) capacidad)
+                .description("Fracción del cupo de la clase de carga en uso")
+                .tag("carga", tag)
+                .register(meterRegistry);
+    }
+    void adquirir() {
+        long inicio = System.nanoTime();
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        }
+        espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (!adquirido) {
+            rechazos.increment();
+            throw new BulkheadLlenoException(carga, capacidad);
+        }
+    }
+    void liberar() {
+        permisos.release();
+    }
+    int disponibles() {
+        return permisos.availablePermits();
+    }
+}
@@ -0,0 +1,74 @@
+package Fullsound.Fullsound.datasource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+/**
+ * Reparte el pool entre clases de carga: cada conexión ocupa un cupo de la carga del hilo
+ * ({@link ContextoCarga}) hasta que se cierra. Así un export de admin o una ráfaga de pagos
+ * no puede tomar todas las conexiones que necesita el catálogo.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+    private final Map<CargaTrabajo, Bulkhead> bulkheads = new EnumMap<>(CargaTrabajo.class);
+    public BulkheadDataSource(DataSource target, CargasTrabajoProperties properties, MeterRegistry meterRegistry) {
+        super(target);
+        properties.getLimites().forEach((carga, limite) -> {
+            if (limite.getMaxConexiones() > 0) {
+                bulkheads.put(carga, new Bulkhead(carga, limite.getMaxConexiones(), limite.getEspera(), meterRegistry));
+            }
+        });
+    }
+    @Override
+    public Connection getConnection() throws SQLException {
+        Bulkhead bulkhead = bulkheads.get(ContextoCarga.actual());
+        if (bulkhead == null) {
+            return obtainTargetDataSource().getConnection();
+        }
+        bulkhead.adquirir();
+        try {
+            return conCupo(obtainTargetDataSource().getConnection(), bulkhead);
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.liberar();
+            throw e;
+        }
+    }
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Bulkhead bulkhead = bulkheads.get(ContextoCarga.actual());
+        if (bulkhead == null) {
+            return obtainTargetDataSource().getConnection(username, password);
+        }
+        bulkhead.adquirir();
+        try {
+            return conCupo(obtainTargetDataSource().getConnection(username, password), bulkhead);
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.liberar();
+            throw e;
+        }
+    }
+    int disponibles(CargaTrabajo carga) {
+        Bulkhead bulkhead = bulkheads.get(carga);
+        return bulkhead != null ? bulkhead.disponibles() : -1;
+    }
+    private Connection conCupo(Connection conexion, Bulkhead bulkhead) {
+        AtomicBoolean liberado = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if (method.getName().equals("close") && liberado.compareAndSet(false, true)) {
+                            bulkhead.liberar();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,8 @@
+package Fullsound.Fullsound.datasource;
+import Fullsound.Fullsound.exception.ServiceUnavailableException;
+public class BulkheadLlenoException extends ServiceUnavailableException {
+    public BulkheadLlenoException(CargaTrabajo carga, int capacidad) {
+        super("Capacidad de base de datos agotada para " + carga.name().toLowerCase()
+                + " (" + capacidad + " conexiones); reintente en unos segundos", 1);
+    }
+}
@@ -0,0 +1,16 @@
+package Fullsound.Fullsound.datasource;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+/**
+ * Clase de carga con la que el método (o todos los de la clase) obtiene conexiones.
+ * La anotación del método tiene prioridad sobre la de la clase y sobre la ruta.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Carga {
+    CargaTrabajo value();
+}
@@ -0,0 +1,7 @@
+package Fullsound.Fullsound.datasource;
+public enum CargaTrabajo {
+    TIENDA,
+    CHECKOUT,
+    ADMIN,
+    TAREAS
+}
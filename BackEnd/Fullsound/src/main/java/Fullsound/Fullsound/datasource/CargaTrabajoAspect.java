@@ -0,0 +1,35 @@
+package Fullsound.Fullsound.datasource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+/**
+ * Aplica {@link Carga} antes que @Transactional, para que la conexión de la transacción
+ * ya se tome con la clase de carga correcta.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class CargaTrabajoAspect {
+    @Around("@within(Fullsound.Fullsound.datasource.Carga) || @annotation(Fullsound.Fullsound.datasource.Carga)")
+    public Object aplicar(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature firma = (MethodSignature) joinPoint.getSignature();
+        Carga carga = AnnotatedElementUtils.findMergedAnnotation(firma.getMethod(), Carga.class);
+        if (carga == null) {
+            carga = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), Carga.class);
+        }
+        if (carga == null) {
+            return joinPoint.proceed();
+        }
+        CargaTrabajo anterior = ContextoCarga.establecer(carga.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ContextoCarga.restaurar(anterior);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package Fullsound.Fullsound.datasource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+/**
+ * Asigna la clase de carga según datasource.cargas.rutas; sin coincidencia la solicitud
+ * queda como TIENDA (o lo que indique @Carga en el controller).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class CargaTrabajoFilter extends OncePerRequestFilter {
+    private final CargasTrabajoProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || properties.getRutas().isEmpty();
+    }
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CargaTrabajo carga = resolver(request.getRequestURI());
+        if (carga == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        CargaTrabajo anterior = ContextoCarga.establecer(carga);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContextoCarga.restaurar(anterior);
+        }
+    }
+    CargaTrabajo resolver(String uri) {
+        for (Map.Entry<CargaTrabajo, List<String>> entrada : properties.getRutas().entrySet()) {
+            for (String patron : entrada.getValue()) {
+                if (matcher.match(patron, uri)) {
+                    return entrada.getKey();
+                }
+            }
+        }
+        return null;
+    }
+}
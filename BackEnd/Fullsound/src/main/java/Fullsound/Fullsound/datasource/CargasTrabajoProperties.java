@@ -0,0 +1,27 @@
+package Fullsound.Fullsound.datasource;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.cargas")
+public class CargasTrabajoProperties {
+    private boolean enabled = true;
+    /**
+     * Conexiones simultáneas y espera máxima por clase de carga; sin entrada, sin límite.
+     */
+    private Map<CargaTrabajo, Limite> limites = new EnumMap<>(CargaTrabajo.class);
+    /**
+     * Patrones de ruta (p. ej. /api/data/**) asignados a cada clase de carga.
+     */
+    private Map<CargaTrabajo, List<String>> rutas = new EnumMap<>(CargaTrabajo.class);
+    @Data
+    public static class Limite {
+        private int maxConexiones;
+        private Duration espera = Duration.ofMillis(100);
+    }
+}
@@ -0,0 +1,100 @@
+package Fullsound.Fullsound.datasource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * Read-your-writes sobre la réplica. Tras confirmar una escritura se devuelve en
+ * {@code X-Consistency-Token} la posición del WAL del primario (LSN); si el cliente la reenvía
+ * (o el mismo usuario escribió hace poco en este nodo) las lecturas van al primario hasta que
+ * la réplica haya reproducido esa posición. Al ser del WAL, no depende del reloj de cada nodo.
+ */
+@Component
+public class ConsistenciaLecturaFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Consistency-Token";
+    private static final ThreadLocal<Solicitud> SOLICITUD = new ThreadLocal<>();
+    private final Map<String, Escritura> ultimasEscrituras = new ConcurrentHashMap<>();
+    @Value("${spring.datasource.replica.ventana-consistencia-ms:30000}")
+    private long ventanaConsistenciaMs = 30000;
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String usuario = usuarioActual();
+        Escritura ultima = usuario != null ? ultimasEscrituras.get(usuario) : null;
+        long requerido = Math.max(parsear(request.getHeader(HEADER)), ultima != null ? ultima.lsn() : 0L);
+        SOLICITUD.set(new Solicitud(response, usuario, requerido));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SOLICITUD.remove();
+        }
+    }
+    /**
+     * LSN que la réplica debe haber reproducido para servir esta solicitud, o 0.
+     */
+    public long requeridoActual() {
+        Solicitud solicitud = SOLICITUD.get();
+        return solicitud != null ? solicitud.requerido : 0L;
+    }
+    /**
+     * Registra el LSN del primario tras un commit. {@code Long.MAX_VALUE} (no se pudo leer) deja
+     * la solicitud y al usuario en el primario durante la ventana, sin devolver token.
+     */
+    public void escrituraConfirmada(long lsn) {
+        Solicitud solicitud = SOLICITUD.get();
+        if (solicitud == null) {
+            return;
+        }
+        solicitud.requerido = Math.max(solicitud.requerido, lsn);
+        if (solicitud.usuario != null) {
+            Escritura escritura = new Escritura(lsn, System.currentTimeMillis());
+            ultimasEscrituras.merge(solicitud.usuario, escritura,
+                    (anterior, nueva) -> new Escritura(Math.max(anterior.lsn(), nueva.lsn()), nueva.instante()));
+        }
+        if (solicitud.requerido < Long.MAX_VALUE && !solicitud.response.isCommitted()) {
+            solicitud.response.setHeader(HEADER, Long.toString(solicitud.requerido));
+        }
+    }
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.ventana-consistencia-ms:30000}")
+    public void purgar() {
+        long limite = System.currentTimeMillis() - ventanaConsistenciaMs;
+        ultimasEscrituras.values().removeIf(escritura -> escritura.instante() < limite);
+    }
+    private static long parsear(String token) {
+        if (token == null || token.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(token.trim()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+    private static String usuarioActual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && !"anonymousUser".equals(authentication.getPrincipal()) ? authentication.getName() : null;
+    }
+    private record Escritura(long lsn, long instante) {
+    }
+    private static final class Solicitud {
+        private final HttpServletResponse response;
+        private final String usuario;
+        private long requerido;
+        private Solicitud(HttpServletResponse response, String usuario, long requerido) {
+            this.response = response;
+            this.usuario = usuario;
+            this.requerido = requerido;
+        }
+    }
+}
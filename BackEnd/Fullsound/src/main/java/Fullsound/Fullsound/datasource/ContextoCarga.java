@@ -0,0 +1,28 @@
+package Fullsound.Fullsound.datasource;
+/**
+ * Clase de carga del hilo actual; sin contexto se asume {@link CargaTrabajo#TIENDA}.
+ */
+public final class ContextoCarga {
+    private static final ThreadLocal<CargaTrabajo> ACTUAL = new ThreadLocal<>();
+    private ContextoCarga() {
+    }
+    public static CargaTrabajo actual() {
+        CargaTrabajo carga = ACTUAL.get();
+        return carga != null ? carga : CargaTrabajo.TIENDA;
+    }
+    /**
+     * Fija la carga y devuelve la anterior (posiblemente null) para restaurarla.
+     */
+    static CargaTrabajo establecer(CargaTrabajo carga) {
+        CargaTrabajo anterior = ACTUAL.get();
+        ACTUAL.set(carga);
+        return anterior;
+    }
+    static void restaurar(CargaTrabajo anterior) {
+        if (anterior == null) {
+            ACTUAL.remove();
+        } else {
+            ACTUAL.set(anterior);
+        }
+    }
+}
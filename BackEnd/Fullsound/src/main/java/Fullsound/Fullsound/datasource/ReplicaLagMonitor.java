@@ -0,0 +1,66 @@
+package Fullsound.Fullsound.datasource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+/**
+ * Mide periódicamente el retraso de replicación. Si la réplica no responde o supera el retraso
+ * máximo deja de recibir lecturas hasta la siguiente verificación exitosa. También guarda la
+ * posición de WAL ya aplicada, con la que se decide si puede servir lecturas tras una escritura.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private final JdbcTemplate replica;
+    private final String consultaLag;
+    private final String consultaLsn;
+    private final long maxLagMs;
+    private volatile boolean disponible;
+    private volatile long lagMs = -1;
+    private volatile long aplicadoHasta;
+    public ReplicaLagMonitor(JdbcTemplate replica, String consultaLag, String consultaLsn, long maxLagMs,
+                             MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.consultaLag = consultaLag;
+        this.consultaLsn = consultaLsn;
+        this.maxLagMs = maxLagMs;
+        Gauge.builder("datasource.replica.lag", this, m -> m.lagMs)
+                .description("Retraso de replicación medido (ms, -1 si no responde)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.intervalo-verificacion-ms:2000}")
+    public void verificar() {
+        try {
+            // primero la posición: si la lectura del retraso es posterior, nunca se sobreestima lo aplicado
+            Number lsn = replica.queryForObject(consultaLsn, Number.class);
+            Number lag = replica.queryForObject(consultaLag, Number.class);
+            long medido = lag != null ? Math.max(0, lag.longValue()) : 0;
+            boolean estabaDisponible = disponible;
+            lagMs = medido;
+            aplicadoHasta = lsn != null ? lsn.longValue() : 0;
+            disponible = medido <= maxLagMs;
+            if (estabaDisponible != disponible) {
+                log.warn("Réplica {} (retraso {} ms)", disponible ? "disponible" : "fuera de servicio", medido);
+            }
+        } catch (RuntimeException e) {
+            if (disponible) {
+                log.warn("Réplica no responde, lecturas al primario: {}", e.getMessage());
+            }
+            disponible = false;
+            lagMs = -1;
+        }
+    }
+    public boolean isDisponible() {
+        return disponible;
+    }
+    /**
+     * Último LSN reproducido por la réplica (como número), o 0 si aún no se conoce.
+     */
+    public long getAplicadoHasta() {
+        return aplicadoHasta;
+    }
+    public long getLagMs() {
+        return lagMs;
+    }
+}
@@ -0,0 +1,113 @@
+package Fullsound.Fullsound.datasource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+/**
+ * Envía las transacciones {@code readOnly} a la réplica y el resto al primario. Debe usarse
+ * detrás de un {@code LazyConnectionDataSourceProxy}: la conexión física se pide en la primera
+ * sentencia, cuando el flag de solo lectura de la transacción ya está publicado.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Destino { PRIMARIO, REPLICA }
+    private static final Object ESCRITURA_REGISTRADA = new Object();
+    private final ReplicaLagMonitor monitor;
+    private final ConsistenciaLecturaFilter consistencia;
+    private final String consultaLsnPrimario;
+    private final Counter haciaPrimario;
+    private final Counter haciaReplica;
+    public ReplicaRoutingDataSource(DataSource primario, DataSource replica, ReplicaLagMonitor monitor,
+                                    ConsistenciaLecturaFilter consistencia, String consultaLsnPrimario,
+                                    MeterRegistry meterRegistry) {
+        this.monitor = monitor;
+        this.consistencia = consistencia;
+        this.consultaLsnPrimario = consultaLsnPrimario;
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        this.haciaPrimario = Counter.builder("datasource.enrutamiento").tag("destino", "primario").register(meterRegistry);
+        this.haciaReplica = Counter.builder("datasource.enrutamiento").tag("destino", "replica").register(meterRegistry);
+        afterPropertiesSet();
+    }
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recordar(super.getConnection());
+    }
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recordar(super.getConnection(username, password));
+    }
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Destino destino = resolverDestino();
+        (destino == Destino.REPLICA ? haciaReplica : haciaPrimario).increment();
+        return destino;
+    }
+    Destino resolverDestino() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registrarEscritura();
+            return Destino.PRIMARIO;
+        }
+        if (!monitor.isDisponible()) {
+            return Destino.PRIMARIO;
+        }
+        long requerido = consistencia.requeridoActual();
+        if (requerido > 0 && monitor.getAplicadoHasta() < requerido) {
+            return Destino.PRIMARIO;
+        }
+        return Destino.REPLICA;
+    }
+    private void registrarEscritura() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(ESCRITURA_REGISTRADA)) {
+            return;
+        }
+        Escritura escritura = new Escritura();
+        TransactionSynchronizationManager.bindResource(ESCRITURA_REGISTRADA, escritura);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                consistencia.escrituraConfirmada(lsnConfirmado(escritura.conexion));
+            }
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ESCRITURA_REGISTRADA);
+            }
+        });
+    }
+    private static Connection recordar(Connection conexion) {
+        if (TransactionSynchronizationManager.getResource(ESCRITURA_REGISTRADA) instanceof Escritura escritura
+                && escritura.conexion == null) {
+            escritura.conexion = conexion;
+        }
+        return conexion;
+    }
+    /**
+     * Posición del WAL del primario ya confirmada la escritura. Se lee por la misma conexión, que
+     * sigue asignada a la transacción hasta afterCompletion: no hace falta pedir otra al pool.
+     * Si no se puede leer, la solicitud y el usuario quedan en el primario (ver escrituraConfirmada).
+     */
+    private long lsnConfirmado(Connection conexion) {
+        if (conexion == null) {
+            return Long.MAX_VALUE;
+        }
+        try (Statement sentencia = conexion.createStatement();
+             ResultSet resultado = sentencia.executeQuery(consultaLsnPrimario)) {
+            return resultado.next() ? resultado.getLong(1) : Long.MAX_VALUE;
+        } catch (SQLException e) {
+            log.warn("No se pudo leer el LSN del primario tras la escritura: {}", e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+    private static final class Escritura {
+        private Connection conexion;
+    }
+}
@@ -0,0 +1,15 @@
+package Fullsound.Fullsound.dto.request;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BeatsLoteRequest {
+    @NotEmpty(message = "Debe incluir al menos un id")
+    private List<Integer> ids;
+}
@@ -0,0 +1,22 @@
+package Fullsound.Fullsound.dto.request;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Filtros de la búsqueda de usuarios para administración. Se admite un solo prefijo
+ * (nombreUsuario, correo o rut); el cursor es el que devolvió la página anterior.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BusquedaUsuariosRequest {
+    private String nombreUsuario;
+    private String correo;
+    private String rut;
+    private String rol;
+    private Boolean activo;
+    private String cursor;
+    private Integer limite;
+}
@@ -0,0 +1,18 @@
+package Fullsound.Fullsound.dto.request;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CambioEstadoLoteRequest {
+    @NotEmpty(message = "Debe incluir al menos un pedido")
+    private List<Integer> ids;
+    @NotBlank(message = "El estado es obligatorio")
+    private String estado;
+}
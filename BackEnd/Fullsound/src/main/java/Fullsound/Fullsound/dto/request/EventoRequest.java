@@ -0,0 +1,24 @@
+package Fullsound.Fullsound.dto.request;
+import Fullsound.Fullsound.eventos.TipoEvento;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoRequest {
+    @NotNull(message = "El id del beat es obligatorio")
+    private Integer beatId;
+    @NotNull(message = "El tipo de evento es obligatorio")
+    private TipoEvento tipo;
+    @Min(value = 0, message = "La duración no puede ser negativa")
+    private Integer duracionMs;
+    /**
+     * Momento del evento en epoch ms según el cliente; se acota a la última hora.
+     */
+    private Long instante;
+}
@@ -0,0 +1,16 @@
+package Fullsound.Fullsound.dto.request;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventosLoteRequest {
+    @NotEmpty(message = "Debe incluir al menos un evento")
+    private List<@Valid EventoRequest> eventos;
+}
@@ -15,6 +15,7 @@ import lombok.NoArgsConstructor;
 public class RegisterRequest {
     @NotBlank(message = "El nombre de usuario es obligatorio")
     @Size(min = 3, max = 50, message = "El nombre de usuario debe tener entre 3 y 50 caracteres")
+    @Pattern(regexp = "[^@]*", message = "El nombre de usuario no puede contener @")
     private String nombreUsuario;
     
     @NotBlank(message = "El RUT es obligatorio")
@@ -1,5 +1,6 @@
 package Fullsound.Fullsound.dto.request;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,7 @@ import lombok.NoArgsConstructor;
 @Builder
 public class UpdateUsuarioRequest {
     @Size(min = 3, max = 50, message = "El nombre de usuario debe tener entre 3 y 50 caracteres")
+    @Pattern(regexp = "[^@]*", message = "El nombre de usuario no puede contener @")
     private String nombreUsuario;
     @Email(message = "El correo debe ser válido")
     private String correo;
@@ -1,6 +1,7 @@
 package Fullsound.Fullsound.dto.request;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import lombok.NoArgsConstructor;
 public class UsuarioRequest {
     @NotBlank(message = "El nombre de usuario es obligatorio")
     @Size(min = 3, max = 50, message = "El nombre de usuario debe tener entre 3 y 50 caracteres")
+    @Pattern(regexp = "[^@]*", message = "El nombre de usuario no puede contener @")
     private String nombreUsuario;
     @NotBlank(message = "El correo es obligatorio")
     @Email(message = "El correo debe ser válido")
@@ -0,0 +1,14 @@
+package Fullsound.Fullsound.dto.response;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BeatsLoteResponse {
+    private List<BeatResponse> beats;
+    private List<Integer> noEncontrados;
+}
@@ -0,0 +1,21 @@
+package Fullsound.Fullsound.dto.response;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+/**
+ * Cambio de estado de un pedido o pago, tal como se envía por /api/notificaciones/stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CambioEstadoResponse {
+    private String tipo;
+    private Integer id;
+    private Integer pedidoId;
+    private String numeroPedido;
+    private String estado;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,18 @@
+package Fullsound.Fullsound.dto.response;
+import Fullsound.Fullsound.eventos.EventoEscucha;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventosDiarioResponse {
+    private List<EventoEscucha> eventos;
+    /**
+     * Offset desde el que pedir la siguiente página.
+     */
+    private long siguiente;
+}
@@ -0,0 +1,17 @@
+package Fullsound.Fullsound.dto.response;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsuariosPaginaResponse {
+    private List<UsuarioResponse> usuarios;
+    /**
+     * Cursor para pedir la página siguiente, o null si no hay más resultados.
+     */
+    private String siguienteCursor;
+}
@@ -12,4 +12,15 @@ public enum EstadoPedido {
     public String getDescripcion() {
         return descripcion;
     }
+    /**
+     * Transiciones permitidas; CANCELADO y REEMBOLSADO son finales.
+     */
+    public boolean puedePasarA(EstadoPedido destino) {
+        return switch (this) {
+            case PENDIENTE -> destino == PROCESANDO || destino == COMPLETADO || destino == CANCELADO;
+            case PROCESANDO -> destino == PENDIENTE || destino == COMPLETADO || destino == CANCELADO;
+            case COMPLETADO -> destino == REEMBOLSADO || destino == CANCELADO;
+            case CANCELADO, REEMBOLSADO -> false;
+        };
+    }
 }
@@ -0,0 +1,112 @@
+package Fullsound.Fullsound.estaticos;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+/**
+ * Indexa el build del frontend una sola vez al arrancar: contenido, ETag, tipo y variantes
+ * br/gz en memoria. Usa los .br/.gz que traiga el build y, si falta el gzip de un archivo
+ * comprimible, lo genera aquí para no comprimir en cada respuesta.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceRecursosEstaticos {
+    private final RecursosEstaticosProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private volatile Map<String, RecursoEstatico> recursos = Map.of();
+    @PostConstruct
+    public void indexar() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Resource raiz = resolver.getResource(properties.getUbicacion());
+        if (!raiz.exists()) {
+            log.info("Sin recursos estáticos en {}", properties.getUbicacion());
+            return;
+        }
+        String base = raiz.getURL().toString();
+        Map<String, byte[]> archivos = new HashMap<>();
+        for (Resource recurso : resolver.getResources(properties.getUbicacion() + "**/*")) {
+            String url = recurso.getURL().toString();
+            if (recurso.isReadable() && url.startsWith(base) && !url.endsWith("/")) {
+                try (InputStream in = recurso.getInputStream()) {
+                    archivos.put(UriUtils.decode(url.substring(base.length()), StandardCharsets.UTF_8), in.readAllBytes());
+                }
+            }
+        }
+        Map<String, RecursoEstatico> indice = new HashMap<>();
+        long bytes = 0;
+        int generados = 0;
+        for (Map.Entry<String, byte[]> archivo : archivos.entrySet()) {
+            String ruta = archivo.getKey();
+            if (esVariante(ruta, archivos)) {
+                continue;
+            }
+            byte[] contenido = archivo.getValue();
+            byte[] gzip = archivos.get(ruta + ".gz");
+            if (gzip == null && comprimible(ruta, contenido.length)) {
+                gzip = comprimir(contenido);
+                generados += gzip != null ? 1 : 0;
+            }
+            String tipo = MediaTypeFactory.getMediaType(ruta).map(MediaType::toString).orElse("application/octet-stream");
+            indice.put(ruta, new RecursoEstatico(tipo, cacheControl(ruta), hash(contenido), contenido, gzip, archivos.get(ruta + ".br")));
+            bytes += contenido.length;
+        }
+        recursos = Map.copyOf(indice);
+        log.info("Indexados {} recursos estáticos ({} KB, {} gzip generados al arrancar)", indice.size(), bytes / 1024, generados);
+    }
+    RecursoEstatico buscar(String ruta) {
+        return recursos.get(ruta);
+    }
+    int tamano() {
+        return recursos.size();
+    }
+    private boolean esVariante(String ruta, Map<String, byte[]> archivos) {
+        return (ruta.endsWith(".gz") || ruta.endsWith(".br")) && archivos.containsKey(ruta.substring(0, ruta.length() - 3));
+    }
+    private boolean comprimible(String ruta, int tamano) {
+        String extension = StringUtils.getFilenameExtension(ruta);
+        return tamano >= properties.getTamanoMinimoCompresion() && extension != null
+                && properties.getExtensionesComprimibles().contains(extension.toLowerCase(Locale.ROOT));
+    }
+    private String cacheControl(String ruta) {
+        for (String patron : properties.getInmutables()) {
+            if (matcher.match(patron, "/" + ruta)) {
+                return "public, max-age=" + properties.getMaxAgeInmutable().toSeconds() + ", immutable";
+            }
+        }
+        return "no-cache";
+    }
+    private static byte[] comprimir(byte[] contenido) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(contenido.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(contenido);
+        }
+        return salida.size() < contenido.length ? salida.toByteArray() : null;
+    }
+    private static String hash(byte[] contenido) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(contenido);
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package Fullsound.Fullsound.estaticos;
+/**
+ * Archivo del build del frontend en memoria con sus variantes precomprimidas.
+ */
+final class RecursoEstatico {
+    private final String tipo;
+    private final String cacheControl;
+    private final Variante identidad;
+    private final Variante gzip;
+    private final Variante brotli;
+    RecursoEstatico(String tipo, String cacheControl, String hash, byte[] contenido, byte[] gzip, byte[] brotli) {
+        this.tipo = tipo;
+        this.cacheControl = cacheControl;
+        this.identidad = new Variante(contenido, null, "\"" + hash + "\"");
+        this.gzip = gzip != null ? new Variante(gzip, "gzip", "\"" + hash + "-gz\"") : null;
+        this.brotli = brotli != null ? new Variante(brotli, "br", "\"" + hash + "-br\"") : null;
+    }
+    String getTipo() {
+        return tipo;
+    }
+    String getCacheControl() {
+        return cacheControl;
+    }
+    boolean tieneVariantes() {
+        return gzip != null || brotli != null;
+    }
+    Variante variante(String acceptEncoding) {
+        if (brotli != null && acepta(acceptEncoding, "br")) {
+            return brotli;
+        }
+        if (gzip != null && acepta(acceptEncoding, "gzip")) {
+            return gzip;
+        }
+        return identidad;
+    }
+    static boolean acepta(String acceptEncoding, String codificacion) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String parte : acceptEncoding.split(",")) {
+            String[] campos = parte.split(";");
+            if (!campos[0].trim().equalsIgnoreCase(codificacion)) {
+                continue;
+            }
+            for (int i = 1; i < campos.length; i++) {
+                String campo = campos[i].trim();
+                if (campo.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(campo.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    record Variante(byte[] contenido, String codificacion, String etag) {
+    }
+}
@@ -0,0 +1,65 @@
+package Fullsound.Fullsound.estaticos;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+/**
+ * Sirve los recursos del {@link IndiceRecursosEstaticos} negociando br/gzip por
+ * Accept-Encoding. Las rutas de la SPA sin extensión caen en index.html.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecursosEstaticosHandler implements HttpRequestHandler {
+    private static final String INDEX = "index.html";
+    private final IndiceRecursosEstaticos indice;
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+        String ruta = ruta(request);
+        RecursoEstatico recurso = indice.buscar(ruta.isEmpty() ? INDEX : ruta);
+        if (recurso == null && esRutaSpa(ruta)) {
+            recurso = indice.buscar(INDEX);
+        }
+        if (recurso == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        RecursoEstatico.Variante variante = recurso.variante(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, recurso.getCacheControl());
+        if (recurso.tieneVariantes()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(variante.etag())) {
+            return;
+        }
+        response.setContentType(recurso.getTipo());
+        if (variante.codificacion() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, variante.codificacion());
+        }
+        response.setContentLength(variante.contenido().length);
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            response.getOutputStream().write(variante.contenido());
+        }
+    }
+    private static String ruta(HttpServletRequest request) {
+        Object atributo = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        String ruta = atributo != null ? atributo.toString() : request.getRequestURI().substring(request.getContextPath().length());
+        return ruta.startsWith("/") ? ruta.substring(1) : ruta;
+    }
+    private static boolean esRutaSpa(String ruta) {
+        if (ruta.startsWith("api/") || ruta.startsWith("actuator/")) {
+            return false;
+        }
+        return ruta.substring(ruta.lastIndexOf('/') + 1).indexOf('.') < 0;
+    }
+}
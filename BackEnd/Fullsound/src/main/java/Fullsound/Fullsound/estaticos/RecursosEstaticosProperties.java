@@ -0,0 +1,24 @@
+package Fullsound.Fullsound.estaticos;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+@Data
+@Component
+@ConfigurationProperties(prefix = "recursos.estaticos")
+public class RecursosEstaticosProperties {
+    private String ubicacion = "classpath:/static/";
+    /**
+     * Rutas con nombre versionado por hash (p. ej. /assets/**); se sirven como immutable.
+     */
+    private List<String> inmutables = new ArrayList<>(List.of("/assets/**"));
+    private Duration maxAgeInmutable = Duration.ofDays(365);
+    /**
+     * Tamaño mínimo para generar la variante gzip al indexar cuando el build no la trae.
+     */
+    private int tamanoMinimoCompresion = 1024;
+    private List<String> extensionesComprimibles = new ArrayList<>(
+            List.of("html", "js", "mjs", "css", "json", "map", "svg", "txt", "xml", "webmanifest", "ico", "wasm"));
+}
@@ -0,0 +1,17 @@
+package Fullsound.Fullsound.eventos;
+import java.util.List;
+/**
+ * Consumidor del diario de eventos. {@link DistribuidorEventos} le entrega los eventos en orden
+ * y avanza su offset solo si procesar termina sin excepción (al menos una vez).
+ */
+public interface ConsumidorEventos {
+    String nombre();
+    void procesar(List<EventoEscucha> eventos);
+    /**
+     * Si es true el offset se guarda junto al diario y se continúa desde ahí al reiniciar; si es
+     * false (estado en memoria) se relee todo lo retenido en cada arranque.
+     */
+    default boolean persistente() {
+        return true;
+    }
+}
@@ -0,0 +1,37 @@
+package Fullsound.Fullsound.eventos;
+import Fullsound.Fullsound.repository.BeatRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+/**
+ * Lleva las reproducciones del diario a beat.reproducciones: un UPDATE por beat y lote en vez
+ * de uno por evento. Los beats se actualizan en orden de id para no cruzar bloqueos.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContadorReproducciones implements ConsumidorEventos {
+    private final BeatRepository beatRepository;
+    private final PlatformTransactionManager transactionManager;
+    @Override
+    public String nombre() {
+        return "contador-reproducciones";
+    }
+    @Override
+    public void procesar(List<EventoEscucha> eventos) {
+        Map<Integer, Integer> porBeat = new TreeMap<>();
+        for (EventoEscucha evento : eventos) {
+            if (evento.tipo() == TipoEvento.REPRODUCCION) {
+                porBeat.merge(evento.beatId(), 1, Integer::sum);
+            }
+        }
+        if (porBeat.isEmpty()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                porBeat.forEach(beatRepository::sumarReproducciones));
+    }
+}
@@ -0,0 +1,176 @@
+package Fullsound.Fullsound.eventos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+/**
+ * Diario de eventos de escucha: solo se agrega al final, en segmentos de tamaño fijo mapeados
+ * en memoria, con registros binarios de {@value EventoEscucha#TAMANO} bytes. Cada evento tiene
+ * un offset global (su número de orden) que los consumidores usan para releer desde donde
+ * quedaron. Un solo escritor a la vez; las lecturas no bloquean y solo ven registros por debajo
+ * de {@link #siguienteOffset()}, que se publica después de escribirlos. Los datos llegan al disco
+ * con la sincronización periódica, así que una caída puede perder el último intervalo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiarioEventos {
+    private final DiarioEventosProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final NavigableMap<Long, Segmento> segmentos = new ConcurrentSkipListMap<>();
+    private Path directorio;
+    private volatile Segmento activo;
+    private volatile long siguiente;
+    private Counter agregados;
+    @PostConstruct
+    public void abrir() throws IOException {
+        directorio = Paths.get(properties.getDirectorio());
+        Files.createDirectories(directorio);
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(archivo -> archivo.getFileName().toString().endsWith(Segmento.EXTENSION))
+                    .sorted()
+                    .forEach(archivo -> {
+                        try {
+                            Segmento segmento = Segmento.abrir(archivo);
+                            segmentos.put(segmento.base, segmento);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        }
+        if (segmentos.isEmpty()) {
+            activo = Segmento.crear(directorio, 0, properties.getTamanoSegmento().toBytes());
+            segmentos.put(0L, activo);
+        } else {
+            activo = segmentos.lastEntry().getValue();
+        }
+        siguiente = activo.base + activo.contarValidos();
+        agregados = Counter.builder("eventos.diario.agregados")
+                .description("Eventos agregados al diario")
+                .register(meterRegistry);
+        Gauge.builder("eventos.diario.segmentos", segmentos, Map::size)
+                .description("Segmentos retenidos del diario de eventos")
+                .register(meterRegistry);
+        log.info("Diario de eventos abierto en {}: {} segmentos, siguiente offset {}", directorio, segmentos.size(), siguiente);
+    }
+    /**
+     * Agrega los eventos en orden y devuelve el offset del primero.
+     */
+    public synchronized long agregar(List<EventoEscucha> eventos) {
+        long primero = siguiente;
+        long offset = primero;
+        try {
+            for (EventoEscucha evento : eventos) {
+                if (offset == activo.fin()) {
+                    rotar(offset);
+                }
+                activo.escribir(offset++, evento);
+            }
+        } finally {
+            siguiente = offset;
+        }
+        agregados.increment(offset - primero);
+        return primero;
+    }
+    public long agregar(EventoEscucha evento) {
+        return agregar(List.of(evento));
+    }
+    /**
+     * Agrega a destino hasta maximo eventos desde el offset indicado y devuelve el offset
+     * siguiente al último leído. Si el offset ya fue eliminado por retención se empieza por el
+     * primero disponible.
+     */
+    public long leer(long desde, int maximo, List<EventoEscucha> destino) {
+        long limite = siguiente;
+        long offset = Math.min(Math.max(desde, primerOffset()), limite);
+        limite = Math.min(limite, offset + maximo);
+        while (offset < limite) {
+            Map.Entry<Long, Segmento> entrada = segmentos.floorEntry(offset);
+            if (entrada == null) {
+                break;
+            }
+            Segmento segmento = entrada.getValue();
+            long fin = Math.min(limite, segmento.fin());
+            for (; offset < fin; offset++) {
+                EventoEscucha evento = segmento.leer(offset);
+                if (evento != null) {
+                    destino.add(evento);
+                }
+            }
+        }
+        return offset;
+    }
+    public long primerOffset() {
+        Map.Entry<Long, Segmento> primero = segmentos.firstEntry();
+        return primero == null ? siguiente : primero.getKey();
+    }
+    public long siguienteOffset() {
+        return siguiente;
+    }
+    public Path getDirectorio() {
+        return directorio;
+    }
+    @Scheduled(fixedDelayString = "${eventos.diario.intervalo-sincronizacion-ms:1000}")
+    public void sincronizar() {
+        Segmento segmento = activo;
+        if (segmento != null) {
+            segmento.buffer.force();
+        }
+    }
+    /**
+     * Elimina los segmentos cerrados cuyo último evento supera la retención.
+     */
+    @Scheduled(fixedDelayString = "${eventos.diario.intervalo-retencion-ms:3600000}")
+    public synchronized int aplicarRetencion() {
+        long corte = System.currentTimeMillis() - properties.getRetencion().toMillis();
+        int eliminados = 0;
+        for (Segmento segmento : segmentos.values()) {
+            if (segmento == activo) {
+                break;
+            }
+            EventoEscucha ultimo = segmento.leer(segmento.fin() - 1);
+            if (ultimo != null && ultimo.instante() >= corte) {
+                break;
+            }
+            segmentos.remove(segmento.base);
+            try {
+                Files.deleteIfExists(segmento.archivo);
+                eliminados++;
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el segmento {}: {}", segmento.archivo, e.getMessage());
+            }
+        }
+        if (eliminados > 0) {
+            log.info("Retención del diario de eventos: {} segmentos eliminados", eliminados);
+        }
+        return eliminados;
+    }
+    @PreDestroy
+    public void cerrar() {
+        sincronizar();
+    }
+    private void rotar(long base) {
+        activo.buffer.force();
+        try {
+            activo = Segmento.crear(directorio, base, properties.getTamanoSegmento().toBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el segmento " + base, e);
+        }
+        segmentos.put(base, activo);
+    }
+}
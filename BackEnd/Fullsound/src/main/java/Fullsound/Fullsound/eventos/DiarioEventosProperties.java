@@ -0,0 +1,33 @@
+package Fullsound.Fullsound.eventos;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import java.time.Duration;
+@Data
+@Component
+@ConfigurationProperties(prefix = "eventos.diario")
+public class DiarioEventosProperties {
+    private String directorio = "data/eventos";
+    /**
+     * Tamaño fijo de cada archivo de segmento; se redondea a registros completos.
+     */
+    private DataSize tamanoSegmento = DataSize.ofMegabytes(64);
+    /**
+     * Segmentos cerrados cuyo último evento es más antiguo que esto se eliminan.
+     */
+    private Duration retencion = Duration.ofDays(7);
+    private int maxEventosPorLote = 500;
+    /**
+     * Reproducciones que un cliente (usuario o IP) puede registrar por POST /api/eventos: ráfaga y
+     * recarga por segundo, como la política "play". Las que exceden, o repiten beat en el mismo
+     * lote, se descartan.
+     */
+    private int reproduccionesRafaga = 30;
+    private double reproduccionesPorSegundo = 1.0;
+    /**
+     * Cupo aparte para las vistas, que solo se escriben en el diario.
+     */
+    private int vistasRafaga = 100;
+    private double vistasPorSegundo = 5.0;
+}
@@ -0,0 +1,98 @@
+package Fullsound.Fullsound.eventos;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * Relee el diario para cada {@link ConsumidorEventos} desde su offset. Los offsets persistentes
+ * se guardan en archivos junto a los segmentos, así un diario borrado no deja offsets huérfanos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DistribuidorEventos {
+    private final DiarioEventos diario;
+    private final List<ConsumidorEventos> consumidores;
+    private final MeterRegistry meterRegistry;
+    @Value("${eventos.consumidores.lote:10000}")
+    private int lote;
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+    private Path directorioOffsets;
+    @PostConstruct
+    void inicializar() throws IOException {
+        directorioOffsets = diario.getDirectorio().resolve("consumidores");
+        Files.createDirectories(directorioOffsets);
+        for (ConsumidorEventos consumidor : consumidores) {
+            offsets.put(consumidor.nombre(), consumidor.persistente() ? leerOffset(consumidor) : diario.primerOffset());
+            Gauge.builder("eventos.consumidores.retraso", this, distribuidor -> diario.siguienteOffset() - distribuidor.offset(consumidor.nombre()))
+                    .description("Eventos del diario pendientes para el consumidor")
+                    .tag("consumidor", consumidor.nombre())
+                    .register(meterRegistry);
+        }
+    }
+    @Scheduled(fixedDelayString = "${eventos.consumidores.intervalo-ms:1000}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void distribuir() {
+        for (ConsumidorEventos consumidor : consumidores) {
+            try {
+                distribuir(consumidor);
+            } catch (RuntimeException e) {
+                log.warn("El consumidor de eventos {} falló en el offset {}, se reintentará: {}",
+                        consumidor.nombre(), offset(consumidor.nombre()), e.getMessage());
+            }
+        }
+    }
+    long offset(String consumidor) {
+        return offsets.getOrDefault(consumidor, 0L);
+    }
+    private void distribuir(ConsumidorEventos consumidor) {
+        long offset = offset(consumidor.nombre());
+        while (offset < diario.siguienteOffset()) {
+            List<EventoEscucha> eventos = new ArrayList<>();
+            long siguiente = diario.leer(offset, lote, eventos);
+            if (siguiente == offset) {
+                return;
+            }
+            if (!eventos.isEmpty()) {
+                consumidor.procesar(eventos);
+            }
+            offset = siguiente;
+            offsets.put(consumidor.nombre(), offset);
+            if (consumidor.persistente()) {
+                guardarOffset(consumidor, offset);
+            }
+        }
+    }
+    private long leerOffset(ConsumidorEventos consumidor) throws IOException {
+        Path archivo = directorioOffsets.resolve(consumidor.nombre() + ".offset");
+        if (!Files.exists(archivo)) {
+            return diario.primerOffset();
+        }
+        return Math.min(Long.parseLong(Files.readString(archivo, StandardCharsets.US_ASCII).trim()), diario.siguienteOffset());
+    }
+    private void guardarOffset(ConsumidorEventos consumidor, long offset) {
+        Path archivo = directorioOffsets.resolve(consumidor.nombre() + ".offset");
+        Path temporal = directorioOffsets.resolve(consumidor.nombre() + ".offset.tmp");
+        try {
+            Files.writeString(temporal, Long.toString(offset), StandardCharsets.US_ASCII);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el offset de {}: {}", consumidor.nombre(), e.getMessage());
+        }
+    }
+}
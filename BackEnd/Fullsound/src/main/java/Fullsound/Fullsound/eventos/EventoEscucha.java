@@ -0,0 +1,37 @@
+package Fullsound.Fullsound.eventos;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+/**
+ * Evento de escucha o vista tal como se guarda en el diario. Registro binario de tamaño fijo:
+ * instante (8), beat (4), usuario (4, 0 = anónimo), duración en ms (4), tipo (1), 3 bytes
+ * reservados, CRC32C de los 24 bytes anteriores (4) y 4 bytes reservados.
+ */
+public record EventoEscucha(long instante, int beatId, int usuarioId, int duracionMs, TipoEvento tipo) {
+    static final int TAMANO = 32;
+    private static final int BYTES_CON_CRC = 24;
+    void escribir(ByteBuffer buffer, int posicion) {
+        buffer.putLong(posicion, instante);
+        buffer.putInt(posicion + 8, beatId);
+        buffer.putInt(posicion + 12, usuarioId);
+        buffer.putInt(posicion + 16, duracionMs);
+        buffer.putInt(posicion + 20, tipo.getCodigo() << 24);
+        buffer.putInt(posicion + 24, crc(buffer, posicion));
+        buffer.putInt(posicion + 28, 0);
+    }
+    /**
+     * Lee el registro en la posición indicada, o null si está vacío o no pasa el CRC.
+     */
+    static EventoEscucha leer(ByteBuffer buffer, int posicion) {
+        TipoEvento tipo = TipoEvento.desdeCodigo(buffer.get(posicion + 20));
+        if (tipo == null || buffer.getInt(posicion + 24) != crc(buffer, posicion)) {
+            return null;
+        }
+        return new EventoEscucha(buffer.getLong(posicion), buffer.getInt(posicion + 8),
+                buffer.getInt(posicion + 12), buffer.getInt(posicion + 16), tipo);
+    }
+    private static int crc(ByteBuffer buffer, int posicion) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(posicion, BYTES_CON_CRC));
+        return (int) crc.getValue();
+    }
+}
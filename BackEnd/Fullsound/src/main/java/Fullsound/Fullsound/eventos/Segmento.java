@@ -0,0 +1,58 @@
+package Fullsound.Fullsound.eventos;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+/**
+ * Archivo de segmento mapeado en memoria. El nombre es el offset del primer registro.
+ */
+final class Segmento {
+    static final String EXTENSION = ".seg";
+    final long base;
+    final int capacidad;
+    final Path archivo;
+    final MappedByteBuffer buffer;
+    private Segmento(long base, Path archivo, MappedByteBuffer buffer) {
+        this.base = base;
+        this.archivo = archivo;
+        this.buffer = buffer;
+        this.capacidad = buffer.capacity() / EventoEscucha.TAMANO;
+    }
+    static Segmento crear(Path directorio, long base, long tamano) throws IOException {
+        return mapear(base, directorio.resolve(nombre(base)), tamano - tamano % EventoEscucha.TAMANO);
+    }
+    static Segmento abrir(Path archivo) throws IOException {
+        String nombre = archivo.getFileName().toString();
+        long base = Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length()));
+        return mapear(base, archivo, -1);
+    }
+    private static Segmento mapear(long base, Path archivo, long tamano) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long bytes = tamano >= 0 ? tamano : canal.size() - canal.size() % EventoEscucha.TAMANO;
+            return new Segmento(base, archivo, canal.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+        }
+    }
+    static String nombre(long base) {
+        return String.format("%020d%s", base, EXTENSION);
+    }
+    EventoEscucha leer(long offset) {
+        return EventoEscucha.leer(buffer, (int) (offset - base) * EventoEscucha.TAMANO);
+    }
+    void escribir(long offset, EventoEscucha evento) {
+        evento.escribir(buffer, (int) (offset - base) * EventoEscucha.TAMANO);
+    }
+    /**
+     * Registros válidos consecutivos desde el inicio; un registro roto corta la recuperación.
+     */
+    int contarValidos() {
+        int cantidad = 0;
+        while (cantidad < capacidad && leer(base + cantidad) != null) {
+            cantidad++;
+        }
+        return cantidad;
+    }
+    long fin() {
+        return base + capacidad;
+    }
+}
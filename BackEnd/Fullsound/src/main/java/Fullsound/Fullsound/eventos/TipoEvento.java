@@ -0,0 +1,19 @@
+package Fullsound.Fullsound.eventos;
+public enum TipoEvento {
+    REPRODUCCION(1),
+    VISTA(2);
+    private final byte codigo;
+    TipoEvento(int codigo) {
+        this.codigo = (byte) codigo;
+    }
+    public byte getCodigo() {
+        return codigo;
+    }
+    static TipoEvento desdeCodigo(byte codigo) {
+        return switch (codigo) {
+            case 1 -> REPRODUCCION;
+            case 2 -> VISTA;
+            default -> null;
+        };
+    }
+}
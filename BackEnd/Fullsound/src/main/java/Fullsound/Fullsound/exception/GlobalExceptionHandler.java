@@ -1,5 +1,7 @@
 package Fullsound.Fullsound.exception;
 import Fullsound.Fullsound.dto.response.MessageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.util.HashMap;
 import java.util.Map;
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     @ExceptionHandler(ResourceNotFoundException.class)
@@ -28,6 +31,16 @@ public class GlobalExceptionHandler {
                 .build();
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<MessageResponse> handleServiceUnavailable(ServiceUnavailableException ex) {
+        MessageResponse response = MessageResponse.builder()
+                .message(ex.getMessage())
+                .success(false)
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
     @ExceptionHandler({UnauthorizedException.class, AuthenticationException.class})
     public ResponseEntity<MessageResponse> handleUnauthorized(Exception ex) {
         MessageResponse response = MessageResponse.builder()
@@ -60,7 +73,12 @@ public class GlobalExceptionHandler {
     }
     @ExceptionHandler(Exception.class)
     public ResponseEntity<MessageResponse> handleGlobalException(Exception ex) {
-        ex.printStackTrace();  
+        for (Throwable causa = ex.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof ServiceUnavailableException noDisponible) {
+                return handleServiceUnavailable(noDisponible);
+            }
+        }
+        log.error("Error no controlado: {}", ex.getMessage(), ex);
         MessageResponse response = MessageResponse.builder()
                 .message("Error interno del servidor: " + ex.getMessage())
                 .success(false)
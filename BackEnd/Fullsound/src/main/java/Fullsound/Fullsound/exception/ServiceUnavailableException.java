@@ -0,0 +1,14 @@
+package Fullsound.Fullsound.exception;
+public class ServiceUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+    public ServiceUnavailableException(String message) {
+        this(message, 1);
+    }
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,172 @@
+package Fullsound.Fullsound.idempotencia;
+import Fullsound.Fullsound.security.UserDetailsImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+/**
+ * Atiende la cabecera Idempotency-Key en las rutas configuradas: la primera solicitud se ejecuta y
+ * su respuesta 2xx se guarda; los reintentos con la misma clave y el mismo cuerpo reciben esa
+ * respuesta sin volver a ejecutarse.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotenciaFilter extends OncePerRequestFilter {
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final IdempotenciaProperties properties;
+    private final RegistroIdempotencia registro;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getHeader(CABECERA) == null || !aplica(request);
+    }
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clave = request.getHeader(CABECERA).trim();
+        if (clave.isEmpty() || clave.length() > properties.getMaxLongitudClave()) {
+            error(response, 400, "La cabecera " + CABECERA + " debe tener entre 1 y "
+                    + properties.getMaxLongitudClave() + " caracteres");
+            return;
+        }
+        byte[] cuerpo = StreamUtils.copyToByteArray(request.getInputStream());
+        HttpServletRequest releible = new CuerpoEnMemoria(request, cuerpo);
+        RegistroIdempotencia.Resultado resultado = registro.ejecutar(ambito(request), clave, huella(request, cuerpo), () -> {
+            ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(releible, captura);
+            RespuestaCapturada respuesta = new RespuestaCapturada(
+                    captura.getStatus(), captura.getContentType(), captura.getContentAsByteArray());
+            captura.copyBodyToResponse();
+            return respuesta;
+        });
+        switch (resultado.estado()) {
+            case EJECUTADA -> {
+            }
+            case REPETIDA -> repetir(response, resultado.respuesta());
+            case HUELLA_DISTINTA -> error(response, 422,
+                    "La " + CABECERA + " ya se usó con una solicitud distinta");
+            case EN_CURSO -> {
+                response.setHeader("Retry-After", "1");
+                error(response, 409, "Hay una solicitud con la misma " + CABECERA + " en curso");
+            }
+        }
+    }
+    private boolean aplica(HttpServletRequest request) {
+        String ruta = request.getServletPath();
+        for (String regla : properties.getRutas()) {
+            int espacio = regla.indexOf(' ');
+            if (regla.substring(0, espacio).equalsIgnoreCase(request.getMethod())
+                    && matcher.match(regla.substring(espacio + 1).trim(), ruta)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Las claves son por usuario (o por IP si es anónimo) y por ruta, para que dos clientes no
+     * choquen con la misma clave.
+     */
+    private static String ambito(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String quien = auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof UserDetailsImpl
+                ? "u:" + auth.getName()
+                : "ip:" + request.getRemoteAddr();
+        return quien + "|" + request.getMethod() + " " + request.getServletPath();
+    }
+    private static String huella(HttpServletRequest request, byte[] cuerpo) {
+        ByteArrayOutputStream datos = new ByteArrayOutputStream(cuerpo.length + 64);
+        String cabecera = request.getMethod() + " " + request.getServletPath() + "?"
+                + (request.getQueryString() == null ? "" : request.getQueryString()) + "\n";
+        datos.writeBytes(cabecera.getBytes(StandardCharsets.UTF_8));
+        datos.writeBytes(cuerpo);
+        return RegistroIdempotencia.hash(datos.toByteArray());
+    }
+    private static void repetir(HttpServletResponse response, RespuestaCapturada respuesta) throws IOException {
+        response.setStatus(respuesta.estado());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (respuesta.tipoContenido() != null) {
+            response.setContentType(respuesta.tipoContenido());
+        }
+        byte[] cuerpo = respuesta.cuerpo() == null ? new byte[0] : respuesta.cuerpo();
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+    private static void error(HttpServletResponse response, int estado, String mensaje) throws IOException {
+        response.setStatus(estado);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        MAPPER.writeValue(response.getOutputStream(), Map.of("success", false, "message", mensaje));
+    }
+    private static class CuerpoEnMemoria extends HttpServletRequestWrapper {
+        private final byte[] cuerpo;
+        CuerpoEnMemoria(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // todo el cuerpo ya está en memoria: se avisa enseguida y sin hilos de por medio
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package Fullsound.Fullsound.idempotencia;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+@Data
+@Component
+@ConfigurationProperties(prefix = "idempotencia")
+public class IdempotenciaProperties {
+    private boolean enabled = true;
+    /**
+     * Rutas que aceptan Idempotency-Key, como "MÉTODO patrón-ant".
+     */
+    private List<String> rutas = new ArrayList<>(List.of("POST /api/pedidos", "POST /api/pagos/create-intent"));
+    private Duration ttl = Duration.ofHours(24);
+    private int maxEntradasMemoria = 10_000;
+    /**
+     * Cuánto espera un duplicado a la ejecución en curso antes de responder 409.
+     */
+    private Duration esperaEnCurso = Duration.ofSeconds(15);
+    /**
+     * Una reserva sin respuesta más antigua que esto se considera abandonada (caída a mitad).
+     */
+    private Duration abandono = Duration.ofMinutes(5);
+    private int maxLongitudClave = 255;
+}
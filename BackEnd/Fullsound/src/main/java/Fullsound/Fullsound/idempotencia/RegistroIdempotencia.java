@@ -0,0 +1,217 @@
+package Fullsound.Fullsound.idempotencia;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.model.SolicitudIdempotente;
+import Fullsound.Fullsound.repository.SolicitudIdempotenteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+/**
+ * Registro de claves de idempotencia. Las respuestas recientes quedan en un LRU acotado, así un
+ * reintento cuesta una búsqueda en memoria; la tabla solicitud_idempotente es la fuente de verdad
+ * entre instancias y reinicios. Los duplicados que llegan mientras la original se ejecuta esperan
+ * su resultado en lugar de ejecutarse otra vez.
+ */
+@Slf4j
+@Component
+public class RegistroIdempotencia {
+    public enum Estado {
+        /** Se ejecutó ahora; la respuesta ya se escribió. */
+        EJECUTADA,
+        /** Ya existía una respuesta para la clave; hay que devolverla. */
+        REPETIDA,
+        /** La clave se usó antes con otra solicitud. */
+        HUELLA_DISTINTA,
+        /** La original sigue en curso (en otra instancia o más allá de la espera). */
+        EN_CURSO
+    }
+    public record Resultado(Estado estado, RespuestaCapturada respuesta) {
+    }
+    @FunctionalInterface
+    public interface Ejecucion {
+        RespuestaCapturada ejecutar() throws IOException, ServletException;
+    }
+    private record Entrada(String huella, RespuestaCapturada respuesta, LocalDateTime expiraEn) {
+    }
+    private final SolicitudIdempotenteRepository repository;
+    private final IdempotenciaProperties properties;
+    private final Map<String, Entrada> recientes;
+    private final Map<String, CompletableFuture<Entrada>> enCurso = new ConcurrentHashMap<>();
+    private final Map<Estado, Counter> contadores = new EnumMap<>(Estado.class);
+    public RegistroIdempotencia(SolicitudIdempotenteRepository repository,
+                                IdempotenciaProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        int maximo = properties.getMaxEntradasMemoria();
+        this.recientes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                return size() > maximo;
+            }
+        });
+        for (Estado estado : Estado.values()) {
+            contadores.put(estado, Counter.builder("idempotencia.solicitudes")
+                    .description("Solicitudes con Idempotency-Key por resultado")
+                    .tag("resultado", estado.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+    public Resultado ejecutar(String ambito, String clave, String huella, Ejecucion ejecucion)
+            throws IOException, ServletException {
+        Resultado resultado = resolver(hash(ambito + "\n" + clave), huella, ejecucion, true);
+        contadores.get(resultado.estado()).increment();
+        return resultado;
+    }
+    private Resultado resolver(String id, String huella, Ejecucion ejecucion, boolean puedeEsperar)
+            throws IOException, ServletException {
+        Entrada guardada = vigente(id);
+        if (guardada != null) {
+            return repetida(guardada, huella);
+        }
+        CompletableFuture<Entrada> propia = new CompletableFuture<>();
+        CompletableFuture<Entrada> original = enCurso.putIfAbsent(id, propia);
+        if (original != null) {
+            Entrada entrada = puedeEsperar ? esperar(original) : null;
+            if (entrada != null) {
+                return repetida(entrada, huella);
+            }
+            if (puedeEsperar && original.isDone()) {
+                // La original falló o no era guardable: esta solicitud se ejecuta por su cuenta
+                return resolver(id, huella, ejecucion, false);
+            }
+            return new Resultado(Estado.EN_CURSO, null);
+        }
+        Entrada entrada = null;
+        try {
+            Resultado resultado = ejecutarOriginal(id, huella, ejecucion);
+            entrada = resultado.estado() == Estado.EJECUTADA ? recientes.get(id) : vigente(id);
+            return resultado;
+        } finally {
+            enCurso.remove(id, propia);
+            propia.complete(entrada);
+        }
+    }
+    private Resultado ejecutarOriginal(String id, String huella, Ejecucion ejecucion)
+            throws IOException, ServletException {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime expiraEn = ahora.plus(properties.getTtl());
+        if (!reservar(id, huella, ahora, expiraEn)) {
+            SolicitudIdempotente existente = repository.findById(id).orElse(null);
+            if (existente == null || existente.getEstadoHttp() == null) {
+                return new Resultado(Estado.EN_CURSO, null);
+            }
+            Entrada entrada = new Entrada(existente.getHuella(),
+                    new RespuestaCapturada(existente.getEstadoHttp(), existente.getTipoContenido(), existente.getCuerpo()),
+                    existente.getExpiraEn());
+            recientes.put(id, entrada);
+            return repetida(entrada, huella);
+        }
+        RespuestaCapturada respuesta;
+        try {
+            respuesta = ejecucion.ejecutar();
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            liberar(id);
+            throw e;
+        }
+        if (!respuesta.exitosa()) {
+            // Un error no se fija a la clave: el cliente puede corregir y reintentar
+            liberar(id);
+            return new Resultado(Estado.EJECUTADA, respuesta);
+        }
+        try {
+            repository.completar(id, respuesta.estado(), respuesta.tipoContenido(), respuesta.cuerpo());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar la respuesta idempotente {}: {}", id, e.getMessage());
+        }
+        recientes.put(id, new Entrada(huella, respuesta, expiraEn));
+        return new Resultado(Estado.EJECUTADA, respuesta);
+    }
+    private boolean reservar(String id, String huella, LocalDateTime ahora, LocalDateTime expiraEn) {
+        if (insertar(id, huella, ahora, expiraEn)) {
+            return true;
+        }
+        LocalDateTime abandonadaAntesDe = ahora.minus(properties.getAbandono());
+        return repository.liberarSiCaducada(id, ahora, abandonadaAntesDe) == 1
+                && insertar(id, huella, ahora, expiraEn);
+    }
+    private boolean insertar(String id, String huella, LocalDateTime ahora, LocalDateTime expiraEn) {
+        try {
+            return repository.reservar(id, huella, ahora, expiraEn) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+    private void liberar(String id) {
+        try {
+            repository.liberar(id);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo liberar la clave idempotente {}: {}", id, e.getMessage());
+        }
+    }
+    private Entrada vigente(String id) {
+        Entrada entrada = recientes.get(id);
+        if (entrada != null && !entrada.expiraEn().isAfter(LocalDateTime.now())) {
+            recientes.remove(id);
+            return null;
+        }
+        return entrada;
+    }
+    private Entrada esperar(CompletableFuture<Entrada> original) throws IOException {
+        try {
+            return original.get(properties.getEsperaEnCurso().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando la solicitud original", e);
+        }
+    }
+    private static Resultado repetida(Entrada entrada, String huella) {
+        return entrada.huella().equals(huella)
+                ? new Resultado(Estado.REPETIDA, entrada.respuesta())
+                : new Resultado(Estado.HUELLA_DISTINTA, null);
+    }
+    @Scheduled(fixedDelayString = "${idempotencia.intervalo-limpieza-ms:3600000}",
+               initialDelayString = "${idempotencia.intervalo-limpieza-ms:3600000}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void eliminarVencidas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int eliminadas = repository.eliminarVencidas(ahora);
+        synchronized (recientes) {
+            recientes.values().removeIf(entrada -> !entrada.expiraEn().isAfter(ahora));
+        }
+        if (eliminadas > 0) {
+            log.info("Claves de idempotencia vencidas eliminadas: {}", eliminadas);
+        }
+    }
+    static String hash(String valor) {
+        return hash(valor.getBytes(StandardCharsets.UTF_8));
+    }
+    static String hash(byte[] valor) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(valor));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
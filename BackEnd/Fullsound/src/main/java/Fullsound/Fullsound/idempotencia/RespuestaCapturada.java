@@ -0,0 +1,9 @@
+package Fullsound.Fullsound.idempotencia;
+/**
+ * Estado, tipo de contenido y cuerpo de una respuesta, tal como se devuelven en un reintento.
+ */
+public record RespuestaCapturada(int estado, String tipoContenido, byte[] cuerpo) {
+    public boolean exitosa() {
+        return estado >= 200 && estado < 300;
+    }
+}
@@ -0,0 +1,166 @@
+package Fullsound.Fullsound.invalidacion;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.recomendacion.Transacciones;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+/**
+ * Avisa a las demás instancias de qué beats y usuarios cambiaron para que invaliden sus
+ * cachés en memoria (segundo nivel de Hibernate, índices de recomendación, filtros de Bloom).
+ * Los cambios se publican tras el commit y se agrupan: varias escrituras del mismo registro
+ * dentro de un intervalo de envío viajan como un solo aviso. Los avisos no llevan datos ni
+ * versión: el receptor relee el registro del primario, así que aplicarlos todos y en cualquier
+ * orden deja el mismo resultado (ordenarlos por el reloj de cada nodo perdía cambios reales con
+ * relojes desfasados). Si la escucha se corta, los avisos perdidos no se recuperan: se resincroniza todo.
+ */
+@Slf4j
+@Component
+public class BusInvalidacion implements TransporteInvalidacion.Suscriptor {
+    public static final String BEAT = "beat";
+    public static final String USUARIO = "usuario";
+    public static final String TODOS = "*";
+    record Cambio(String entidad, String id) {
+    }
+    /**
+     * El canal lo comparten otros suscriptores (CanalEstados); sus mensajes llegan sin cambios.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Mensaje(String origen, List<Cambio> cambios) {
+    }
+    private final TransporteInvalidacion transporte;
+    private final List<ReceptorInvalidacion> receptores;
+    private final InvalidacionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final String origen = UUID.randomUUID().toString();
+    private final Map<String, Cambio> pendientes = new LinkedHashMap<>();
+    private final Counter enviados;
+    private final Counter recibidos;
+    private final Counter resincronizaciones;
+    public BusInvalidacion(TransporteInvalidacion transporte,
+                           List<ReceptorInvalidacion> receptores,
+                           InvalidacionProperties properties,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.transporte = transporte;
+        this.receptores = receptores;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.enviados = Counter.builder("invalidacion.enviados").description("Cambios enviados a otras instancias").register(meterRegistry);
+        this.recibidos = Counter.builder("invalidacion.recibidos").description("Cambios aplicados desde otras instancias").register(meterRegistry);
+        this.resincronizaciones = Counter.builder("invalidacion.resincronizaciones").description("Recargas completas tras perder la escucha").register(meterRegistry);
+        transporte.suscribir(this);
+    }
+    /**
+     * Anuncia el cambio al confirmarse la transacción actual (o de inmediato si no hay una).
+     */
+    public void publicar(String entidad, Object id) {
+        publicar(entidad, List.of(id));
+    }
+    public void publicar(String entidad, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> claves = ids.stream().map(String::valueOf).toList();
+        Transacciones.alConfirmar(() -> encolar(entidad, claves));
+    }
+    public void publicarTodo(String entidad) {
+        publicar(entidad, List.of(TODOS));
+    }
+    private synchronized void encolar(String entidad, List<String> ids) {
+        if (pendientes.containsKey(clave(entidad, TODOS))) {
+            ids = List.of(TODOS);
+        }
+        for (String id : ids) {
+            if (TODOS.equals(id)) {
+                pendientes.values().removeIf(cambio -> cambio.entidad().equals(entidad));
+            }
+            pendientes.put(clave(entidad, id), new Cambio(entidad, id));
+        }
+    }
+    @Scheduled(fixedDelayString = "${invalidacion.intervalo-envio-ms:100}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void enviar() {
+        List<Cambio> lote;
+        synchronized (this) {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            lote = new ArrayList<>(pendientes.values());
+            pendientes.clear();
+        }
+        int tamano = Math.max(1, properties.getCambiosPorMensaje());
+        for (int desde = 0; desde < lote.size(); desde += tamano) {
+            List<Cambio> parte = lote.subList(desde, Math.min(lote.size(), desde + tamano));
+            try {
+                transporte.publicar(objectMapper.writeValueAsString(new Mensaje(origen, parte)));
+                enviados.increment(parte.size());
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("No se pudieron enviar {} invalidaciones, se reintentan: {}", lote.size() - desde, e.getMessage());
+                reencolar(lote.subList(desde, lote.size()));
+                return;
+            }
+        }
+    }
+    private synchronized void reencolar(List<Cambio> cambios) {
+        for (Cambio cambio : cambios) {
+            // lo que se publicó mientras tanto es más nuevo y ya invalida lo mismo
+            pendientes.putIfAbsent(clave(cambio.entidad(), cambio.id()), cambio);
+        }
+    }
+    @Override
+    public void recibir(String texto) {
+        Mensaje mensaje;
+        try {
+            mensaje = objectMapper.readValue(texto, Mensaje.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Invalidación ilegible descartada: {}", e.getOriginalMessage());
+            return;
+        }
+        if (origen.equals(mensaje.origen()) || mensaje.cambios() == null) {
+            return;
+        }
+        Map<String, Set<String>> porEntidad = new LinkedHashMap<>();
+        for (Cambio cambio : mensaje.cambios()) {
+            porEntidad.computeIfAbsent(cambio.entidad(), entidad -> new HashSet<>()).add(cambio.id());
+        }
+        porEntidad.forEach((entidad, ids) -> {
+            recibidos.increment(ids.size());
+            for (ReceptorInvalidacion receptor : receptores) {
+                try {
+                    receptor.invalidar(entidad, ids);
+                } catch (RuntimeException e) {
+                    log.warn("Error invalidando {} {}: {}", entidad, ids, e.getMessage());
+                }
+            }
+        });
+    }
+    @Override
+    public void reconectado() {
+        resincronizaciones.increment();
+        log.info("Escucha de invalidaciones restablecida, se recargan las cachés locales");
+        for (ReceptorInvalidacion receptor : receptores) {
+            try {
+                receptor.resincronizar();
+            } catch (RuntimeException e) {
+                log.warn("Error resincronizando {}: {}", receptor.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+    private static String clave(String entidad, String id) {
+        return entidad + ':' + id;
+    }
+}
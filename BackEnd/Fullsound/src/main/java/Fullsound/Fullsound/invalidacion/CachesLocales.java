@@ -0,0 +1,100 @@
+package Fullsound.Fullsound.invalidacion;
+import Fullsound.Fullsound.cache.IndiceUnicidadUsuarios;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.model.Usuario;
+import Fullsound.Fullsound.recomendacion.IndiceSimilitudBeats;
+import Fullsound.Fullsound.recomendacion.TendenciasBeats;
+import Fullsound.Fullsound.repository.BeatRepository;
+import Fullsound.Fullsound.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+/**
+ * Aplica las invalidaciones de otras instancias a las cachés en memoria de esta: segundo
+ * nivel de Hibernate, vecinos de similitud y filtros de unicidad. Los registros se releen del
+ * primario para no reindexar con datos de una réplica atrasada.
+ * Un aviso por ids (puede llegar cada 100 ms) solo desaloja esas entidades: las consultas
+ * cacheadas caducan por su TTL y las tendencias se recalculan en su ciclo programado. Solo
+ * una resincronización completa vacía las consultas y recalcula todo.
+ */
+@Component
+@RequiredArgsConstructor
+public class CachesLocales implements ReceptorInvalidacion {
+    private final EntityManagerFactory entityManagerFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final BeatRepository beatRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final IndiceSimilitudBeats indiceSimilitud;
+    private final TendenciasBeats tendencias;
+    private final IndiceUnicidadUsuarios indiceUnicidad;
+    @Override
+    public void invalidar(String entidad, Set<String> ids) {
+        if (ids.contains(BusInvalidacion.TODOS)) {
+            invalidarTodo(entidad);
+            return;
+        }
+        List<Integer> numericos = ids.stream().map(Integer::valueOf).toList();
+        switch (entidad) {
+            case BusInvalidacion.BEAT -> beats(numericos);
+            case BusInvalidacion.USUARIO -> usuarios(numericos);
+            default -> {
+            }
+        }
+    }
+    @Override
+    public void resincronizar() {
+        invalidarTodo(BusInvalidacion.BEAT);
+        invalidarTodo(BusInvalidacion.USUARIO);
+    }
+    private void invalidarTodo(String entidad) {
+        Cache cache = cache();
+        switch (entidad) {
+            case BusInvalidacion.BEAT -> {
+                cache.evictEntityData(Beat.class);
+                cache.evictQueryRegions();
+                indiceSimilitud.reconstruir();
+                tendencias.recalcular();
+            }
+            case BusInvalidacion.USUARIO -> {
+                cache.evictEntityData(Usuario.class);
+                cache.evictQueryRegions();
+                indiceUnicidad.reconstruir();
+            }
+            default -> {
+            }
+        }
+    }
+    private void beats(List<Integer> ids) {
+        Cache cache = cache();
+        ids.forEach(id -> cache.evictEntityData(Beat.class, id));
+        List<Beat> beats = escritura().execute(estado -> new ArrayList<>(beatRepository.cargarVarios(ids)));
+        for (int i = 0; i < ids.size(); i++) {
+            Beat beat = beats.get(i);
+            if (beat == null) {
+                indiceSimilitud.eliminar(ids.get(i));
+            } else {
+                indiceSimilitud.actualizar(beat);
+            }
+        }
+    }
+    private void usuarios(List<Integer> ids) {
+        Cache cache = cache();
+        ids.forEach(id -> cache.evictEntityData(Usuario.class, id));
+        escritura().executeWithoutResult(estado -> usuarioRepository.findAllById(ids)
+                .forEach(usuario -> indiceUnicidad.registrar(usuario.getNombreUsuario(), usuario.getCorreo())));
+    }
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+    private TransactionTemplate escritura() {
+        // sin readOnly la conexión sale del primario
+        return new TransactionTemplate(transactionManager);
+    }
+}
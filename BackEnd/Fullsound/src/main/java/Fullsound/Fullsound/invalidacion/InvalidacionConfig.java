@@ -0,0 +1,26 @@
+package Fullsound.Fullsound.invalidacion;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+@Configuration
+public class InvalidacionConfig {
+    @Bean
+    @ConditionalOnProperty(name = "invalidacion.transporte", havingValue = "postgres", matchIfMissing = true)
+    public TransportePostgres transportePostgres(DataSource dataSource,
+                                                 DataSourceProperties dataSourceProperties,
+                                                 InvalidacionProperties properties) {
+        // pg_notify va por el DataSource de rutas: fuera de una transacción de lectura sale por el primario
+        return new TransportePostgres(new JdbcTemplate(dataSource), properties,
+                properties.getUrl() != null ? properties.getUrl() : dataSourceProperties.determineUrl(),
+                properties.getUsuario() != null ? properties.getUsuario() : dataSourceProperties.determineUsername(),
+                properties.getContrasena() != null ? properties.getContrasena() : dataSourceProperties.determinePassword());
+    }
+    @Bean
+    @ConditionalOnProperty(name = "invalidacion.transporte", havingValue = "local")
+    public TransporteLocal transporteLocal() {
+        return new TransporteLocal();
+    }
+}
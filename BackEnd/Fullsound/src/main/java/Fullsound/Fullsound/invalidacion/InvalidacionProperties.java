@@ -0,0 +1,31 @@
+package Fullsound.Fullsound.invalidacion;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+@Data
+@Component
+@ConfigurationProperties(prefix = "invalidacion")
+public class InvalidacionProperties {
+    public enum Transporte {
+        POSTGRES,
+        /** Solo dentro de la JVM: una instancia, o tests. */
+        LOCAL
+    }
+    private Transporte transporte = Transporte.POSTGRES;
+    private String canal = "fullsound_invalidacion";
+    /**
+     * Conexión dedicada para LISTEN. Debe ser directa o en modo sesión: un pooler en modo
+     * transacción (Supabase :6543) no entrega las notificaciones y el arranque falla con él.
+     * Por defecto, spring.datasource.*.
+     */
+    private String url;
+    private String usuario;
+    private String contrasena;
+    private int cambiosPorMensaje = 100;
+    private Duration esperaReconexion = Duration.ofSeconds(5);
+    /**
+     * Cada cuánto se comprueba la conexión de escucha cuando no llegan notificaciones.
+     */
+    private Duration intervaloComprobacion = Duration.ofSeconds(10);
+}
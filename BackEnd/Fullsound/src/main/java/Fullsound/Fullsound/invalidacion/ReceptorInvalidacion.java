@@ -0,0 +1,15 @@
+package Fullsound.Fullsound.invalidacion;
+import java.util.Set;
+/**
+ * Caché en memoria que otro nodo puede dejar desactualizada.
+ */
+public interface ReceptorInvalidacion {
+    /**
+     * ids puede contener {@link BusInvalidacion#TODOS}.
+     */
+    void invalidar(String entidad, Set<String> ids);
+    /**
+     * Se perdieron mensajes: reconstruir todo desde la base de datos.
+     */
+    void resincronizar();
+}
@@ -0,0 +1,16 @@
+package Fullsound.Fullsound.invalidacion;
+/**
+ * Medio por el que los nodos se avisan de cambios. Entrega "como mucho una vez": si un nodo
+ * pierde mensajes (desconexión), el transporte lo avisa con {@link Suscriptor#reconectado()}.
+ */
+public interface TransporteInvalidacion {
+    void publicar(String mensaje);
+    void suscribir(Suscriptor suscriptor);
+    interface Suscriptor {
+        void recibir(String mensaje);
+        /**
+         * La escucha se cortó y se restableció; pudieron perderse mensajes.
+         */
+        void reconectado();
+    }
+}
@@ -0,0 +1,22 @@
+package Fullsound.Fullsound.invalidacion;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+/**
+ * Entrega los mensajes a los suscriptores de la misma JVM, de forma síncrona.
+ */
+public class TransporteLocal implements TransporteInvalidacion {
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+    @Override
+    public void publicar(String mensaje) {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.recibir(mensaje);
+        }
+    }
+    @Override
+    public void suscribir(Suscriptor suscriptor) {
+        suscriptores.add(suscriptor);
+    }
+    public void simularReconexion() {
+        suscriptores.forEach(Suscriptor::reconectado);
+    }
+}
@@ -0,0 +1,164 @@
+package Fullsound.Fullsound.invalidacion;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+/**
+ * LISTEN/NOTIFY de PostgreSQL. Publica con pg_notify por el pool normal y escucha con una
+ * conexión propia en un hilo daemon; si la conexión se cae, reconecta y avisa a los
+ * suscriptores para que se resincronicen, porque NOTIFY no guarda lo enviado mientras tanto.
+ * La escucha arranca como SmartLifecycle, al terminar el refresh del contexto: así no corre en
+ * la ejecución de entrenamiento CDS de la imagen (spring.context.exit=onRefresh).
+ */
+@Slf4j
+public class TransportePostgres implements TransporteInvalidacion, SmartLifecycle {
+    /**
+     * Pooler de Supabase en modo transacción: acepta LISTEN y el SELECT 1 de comprobación,
+     * pero nunca entrega las notificaciones.
+     */
+    private static final Pattern POOLER_TRANSACCION = Pattern.compile("^jdbc:postgresql://[^/?]*:6543([/?].*)?$");
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidacionProperties properties;
+    private final String url;
+    private final String usuario;
+    private final String contrasena;
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+    private volatile boolean activo;
+    private volatile Connection escucha;
+    private volatile boolean escuchando;
+    private Thread hilo;
+    public TransportePostgres(JdbcTemplate jdbcTemplate, InvalidacionProperties properties,
+                              String url, String usuario, String contrasena) {
+        if (!properties.getCanal().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Nombre de canal inválido: " + properties.getCanal());
+        }
+        if (url == null || POOLER_TRANSACCION.matcher(url).matches()) {
+            throw new IllegalStateException("invalidacion.url (" + url + ") debe ser una conexión directa o un pooler "
+                    + "en modo sesión (puerto 5432): el pooler en modo transacción (6543) no entrega NOTIFY. "
+                    + "Con una sola instancia usa invalidacion.transporte=local");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.url = url;
+        this.usuario = usuario;
+        this.contrasena = contrasena;
+    }
+    @Override
+    public void publicar(String mensaje) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, properties.getCanal(), mensaje);
+    }
+    @Override
+    public void suscribir(Suscriptor suscriptor) {
+        suscriptores.add(suscriptor);
+    }
+    public synchronized void iniciar() {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        hilo = new Thread(this::escuchar, "invalidacion-escucha");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    public synchronized void detener() {
+        activo = false;
+        cerrar(escucha);
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+    @Override
+    public void start() {
+        iniciar();
+    }
+    @Override
+    public void stop() {
+        detener();
+    }
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+    /**
+     * true cuando la conexión de escucha está abierta y con LISTEN hecho.
+     */
+    public boolean isEscuchando() {
+        return escuchando;
+    }
+    private void escuchar() {
+        boolean conectadoAntes = false;
+        while (activo) {
+            try (Connection conexion = DriverManager.getConnection(url, usuario, contrasena)) {
+                escucha = conexion;
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.execute("LISTEN " + properties.getCanal());
+                }
+                escuchando = true;
+                log.info("Escuchando invalidaciones en el canal {}", properties.getCanal());
+                if (conectadoAntes) {
+                    suscriptores.forEach(Suscriptor::reconectado);
+                }
+                conectadoAntes = true;
+                PGConnection pg = conexion.unwrap(PGConnection.class);
+                int espera = (int) properties.getIntervaloComprobacion().toMillis();
+                while (activo) {
+                    PGNotification[] avisos = pg.getNotifications(espera);
+                    if (avisos == null || avisos.length == 0) {
+                        try (Statement sentencia = conexion.createStatement()) {
+                            sentencia.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification aviso : avisos) {
+                        entregar(aviso.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (activo) {
+                    log.warn("Conexión de invalidaciones perdida, se reintenta en {}: {}",
+                            properties.getEsperaReconexion(), e.getMessage());
+                }
+            } finally {
+                escuchando = false;
+                escucha = null;
+            }
+            dormir();
+        }
+    }
+    private void entregar(String mensaje) {
+        for (Suscriptor suscriptor : suscriptores) {
+            try {
+                suscriptor.recibir(mensaje);
+            } catch (RuntimeException e) {
+                log.warn("Error aplicando una invalidación: {}", e.getMessage());
+            }
+        }
+    }
+    private void dormir() {
+        if (!activo) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getEsperaReconexion().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    private static void cerrar(Connection conexion) {
+        if (conexion != null) {
+            try {
+                conexion.close();
+            } catch (SQLException ignorada) {
+                // se está cerrando de todas formas
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package Fullsound.Fullsound.json;
+import Fullsound.Fullsound.dto.response.BeatResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import java.io.IOException;
+import static Fullsound.Fullsound.json.EscrituraJson.entero;
+import static Fullsound.Fullsound.json.EscrituraJson.fecha;
+import static Fullsound.Fullsound.json.EscrituraJson.texto;
+/**
+ * Serializa {@link BeatResponse} campo a campo (mismo orden y nombres que la versión
+ * reflexiva), sin introspección de getters en cada fila del catálogo.
+ */
+@JsonComponent
+public class BeatResponseSerializer extends StdSerializer<BeatResponse> {
+    private static final SerializedString ID_BEAT = new SerializedString("idBeat");
+    private static final SerializedString TITULO = new SerializedString("titulo");
+    private static final SerializedString SLUG = new SerializedString("slug");
+    private static final SerializedString ARTISTA = new SerializedString("artista");
+    private static final SerializedString PRECIO = new SerializedString("precio");
+    private static final SerializedString PRECIO_FORMATEADO = new SerializedString("precioFormateado");
+    private static final SerializedString BPM = new SerializedString("bpm");
+    private static final SerializedString TONALIDAD = new SerializedString("tonalidad");
+    private static final SerializedString DURACION = new SerializedString("duracion");
+    private static final SerializedString GENERO = new SerializedString("genero");
+    private static final SerializedString EMOCION = new SerializedString("emocion");
+    private static final SerializedString ETIQUETAS = new SerializedString("etiquetas");
+    private static final SerializedString DESCRIPCION = new SerializedString("descripcion");
+    private static final SerializedString IMAGEN_URL = new SerializedString("imagenUrl");
+    private static final SerializedString AUDIO_URL = new SerializedString("audioUrl");
+    private static final SerializedString AUDIO_DEMO_URL = new SerializedString("audioDemoUrl");
+    private static final SerializedString REPRODUCCIONES = new SerializedString("reproducciones");
+    private static final SerializedString ESTADO = new SerializedString("estado");
+    private static final SerializedString ENLACE_PRODUCTO = new SerializedString("enlaceProducto");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    public BeatResponseSerializer() {
+        super(BeatResponse.class);
+    }
+    @Override
+    public void serialize(BeatResponse beat, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(beat);
+        entero(gen, ID_BEAT, beat.getIdBeat());
+        texto(gen, TITULO, beat.getTitulo());
+        texto(gen, SLUG, beat.getSlug());
+        texto(gen, ARTISTA, beat.getArtista());
+        entero(gen, PRECIO, beat.getPrecio());
+        texto(gen, PRECIO_FORMATEADO, beat.getPrecioFormateado());
+        entero(gen, BPM, beat.getBpm());
+        texto(gen, TONALIDAD, beat.getTonalidad());
+        entero(gen, DURACION, beat.getDuracion());
+        texto(gen, GENERO, beat.getGenero());
+        texto(gen, EMOCION, beat.getEmocion());
+        texto(gen, ETIQUETAS, beat.getEtiquetas());
+        texto(gen, DESCRIPCION, beat.getDescripcion());
+        texto(gen, IMAGEN_URL, beat.getImagenUrl());
+        texto(gen, AUDIO_URL, beat.getAudioUrl());
+        texto(gen, AUDIO_DEMO_URL, beat.getAudioDemoUrl());
+        entero(gen, REPRODUCCIONES, beat.getReproducciones());
+        texto(gen, ESTADO, beat.getEstado());
+        texto(gen, ENLACE_PRODUCTO, beat.getEnlaceProducto());
+        fecha(gen, provider, CREATED_AT, beat.getCreatedAt());
+        fecha(gen, provider, UPDATED_AT, beat.getUpdatedAt());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,69 @@
+package Fullsound.Fullsound.json;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+import java.time.LocalDateTime;
+/**
+ * Utilidades de los serializadores de respuestas: nombres de campo ya escapados y fechas
+ * ISO-8601 escritas desde un buffer por hilo, con el mismo texto que ISO_LOCAL_DATE_TIME.
+ */
+final class EscrituraJson {
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[29]);
+    private EscrituraJson() {
+    }
+    static void entero(JsonGenerator gen, SerializableString campo, Integer valor) throws IOException {
+        gen.writeFieldName(campo);
+        if (valor == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(valor.intValue());
+        }
+    }
+    static void texto(JsonGenerator gen, SerializableString campo, String valor) throws IOException {
+        gen.writeFieldName(campo);
+        gen.writeString(valor);
+    }
+    static void fecha(JsonGenerator gen, SerializerProvider provider, SerializableString campo, LocalDateTime valor) throws IOException {
+        gen.writeFieldName(campo);
+        if (valor == null) {
+            gen.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) || valor.getYear() < 0 || valor.getYear() > 9999) {
+            provider.defaultSerializeValue(valor, gen);
+        } else {
+            char[] buffer = BUFFER.get();
+            gen.writeString(buffer, 0, formatear(valor, buffer));
+        }
+    }
+    static int formatear(LocalDateTime valor, char[] buffer) {
+        int pos = digitos(buffer, 0, valor.getYear(), 4);
+        buffer[pos++] = '-';
+        pos = digitos(buffer, pos, valor.getMonthValue(), 2);
+        buffer[pos++] = '-';
+        pos = digitos(buffer, pos, valor.getDayOfMonth(), 2);
+        buffer[pos++] = 'T';
+        pos = digitos(buffer, pos, valor.getHour(), 2);
+        buffer[pos++] = ':';
+        pos = digitos(buffer, pos, valor.getMinute(), 2);
+        buffer[pos++] = ':';
+        pos = digitos(buffer, pos, valor.getSecond(), 2);
+        int nanos = valor.getNano();
+        if (nanos > 0) {
+            buffer[pos++] = '.';
+            int fin = digitos(buffer, pos, nanos, 9);
+            while (buffer[fin - 1] == '0') {
+                fin--;
+            }
+            pos = fin;
+        }
+        return pos;
+    }
+    private static int digitos(char[] buffer, int pos, int valor, int ancho) {
+        for (int i = pos + ancho - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+        return pos + ancho;
+    }
+}
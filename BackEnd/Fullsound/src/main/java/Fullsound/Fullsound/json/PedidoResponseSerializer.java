@@ -0,0 +1,83 @@
+package Fullsound.Fullsound.json;
+import Fullsound.Fullsound.dto.response.PedidoItemResponse;
+import Fullsound.Fullsound.dto.response.PedidoResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import java.io.IOException;
+import java.util.List;
+import static Fullsound.Fullsound.json.EscrituraJson.entero;
+import static Fullsound.Fullsound.json.EscrituraJson.fecha;
+import static Fullsound.Fullsound.json.EscrituraJson.texto;
+/**
+ * Serializa {@link PedidoResponse} y sus ítems sin reflexión. El usuario embebido se
+ * delega al serializador que tenga registrado el ObjectMapper. JsonComponentModule registra
+ * también {@link ItemSerializer} para los ítems devueltos fuera de un pedido.
+ */
+@JsonComponent
+public class PedidoResponseSerializer extends StdSerializer<PedidoResponse> {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NUMERO_PEDIDO = new SerializedString("numeroPedido");
+    private static final SerializedString USUARIO = new SerializedString("usuario");
+    private static final SerializedString FECHA_COMPRA = new SerializedString("fechaCompra");
+    private static final SerializedString TOTAL = new SerializedString("total");
+    private static final SerializedString ESTADO = new SerializedString("estado");
+    private static final SerializedString METODO_PAGO = new SerializedString("metodoPago");
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private final ItemSerializer itemSerializer = new ItemSerializer();
+    public PedidoResponseSerializer() {
+        super(PedidoResponse.class);
+    }
+    @Override
+    public void serialize(PedidoResponse pedido, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(pedido);
+        entero(gen, ID, pedido.getId());
+        texto(gen, NUMERO_PEDIDO, pedido.getNumeroPedido());
+        gen.writeFieldName(USUARIO);
+        provider.defaultSerializeValue(pedido.getUsuario(), gen);
+        fecha(gen, provider, FECHA_COMPRA, pedido.getFechaCompra());
+        entero(gen, TOTAL, pedido.getTotal());
+        texto(gen, ESTADO, pedido.getEstado());
+        texto(gen, METODO_PAGO, pedido.getMetodoPago());
+        gen.writeFieldName(ITEMS);
+        List<PedidoItemResponse> items = pedido.getItems();
+        if (items == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(items, items.size());
+            for (PedidoItemResponse item : items) {
+                if (item == null) {
+                    gen.writeNull();
+                } else {
+                    itemSerializer.serialize(item, gen, provider);
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+    public static class ItemSerializer extends StdSerializer<PedidoItemResponse> {
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString BEAT_ID = new SerializedString("beatId");
+        private static final SerializedString NOMBRE_ITEM = new SerializedString("nombreItem");
+        private static final SerializedString CANTIDAD = new SerializedString("cantidad");
+        private static final SerializedString PRECIO_UNITARIO = new SerializedString("precioUnitario");
+        private static final SerializedString SUBTOTAL = new SerializedString("subtotal");
+        public ItemSerializer() {
+            super(PedidoItemResponse.class);
+        }
+        @Override
+        public void serialize(PedidoItemResponse item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(item);
+            entero(gen, ID, item.getId());
+            entero(gen, BEAT_ID, item.getBeatId());
+            texto(gen, NOMBRE_ITEM, item.getNombreItem());
+            entero(gen, CANTIDAD, item.getCantidad());
+            entero(gen, PRECIO_UNITARIO, item.getPrecioUnitario());
+            entero(gen, SUBTOTAL, item.getSubtotal());
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package Fullsound.Fullsound.logging;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.concurrent.atomic.LongAdder;
+/**
+ * AsyncAppender de logback que cuenta los eventos descartados. Con neverBlock=true el hilo
+ * que loguea nunca espera: por debajo del umbral de descarte se pierden TRACE/DEBUG/INFO y con
+ * la cola llena cualquier evento. El conteo se hace antes de encolar, así que es aproximado.
+ */
+public class AsyncAppenderConMetricas extends AsyncAppender {
+    private static volatile AsyncAppenderConMetricas activo;
+    private final LongAdder descartadosPorUmbral = new LongAdder();
+    private final LongAdder descartadosPorColaLlena = new LongAdder();
+    @Override
+    public void start() {
+        super.start();
+        activo = this;
+    }
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isStarted()) {
+            int restante = getRemainingCapacity();
+            if (restante < getDiscardingThreshold() && isDiscardable(event)) {
+                descartadosPorUmbral.increment();
+            } else if (restante == 0 && isNeverBlock()) {
+                descartadosPorColaLlena.increment();
+            }
+        }
+        super.append(event);
+    }
+    static AsyncAppenderConMetricas activo() {
+        return activo;
+    }
+    long getDescartadosPorUmbral() {
+        return descartadosPorUmbral.sum();
+    }
+    long getDescartadosPorColaLlena() {
+        return descartadosPorColaLlena.sum();
+    }
+}
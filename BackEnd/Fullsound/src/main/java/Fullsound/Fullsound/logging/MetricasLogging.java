@@ -0,0 +1,37 @@
+package Fullsound.Fullsound.logging;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import java.util.function.ToLongFunction;
+/**
+ * Expone la ocupación de la cola de logging asíncrono y los eventos descartados.
+ * El appender lo crea logback, no Spring, así que se consulta el activo en cada lectura.
+ */
+@Component
+public class MetricasLogging implements MeterBinder {
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        descartados(registry, "umbral", AsyncAppenderConMetricas::getDescartadosPorUmbral);
+        descartados(registry, "cola_llena", AsyncAppenderConMetricas::getDescartadosPorColaLlena);
+        FunctionCounter.builder("logging.muestreo.descartados", this, m -> MuestreoTurboFilter.getDescartados())
+                .description("Eventos DEBUG/TRACE omitidos por muestreo")
+                .register(registry);
+        Gauge.builder("logging.async.cola", this, m -> {
+                    AsyncAppenderConMetricas appender = AsyncAppenderConMetricas.activo();
+                    return appender != null ? appender.getNumberOfElementsInQueue() : 0;
+                })
+                .description("Eventos de log pendientes en la cola asíncrona")
+                .register(registry);
+    }
+    private void descartados(MeterRegistry registry, String motivo, ToLongFunction<AsyncAppenderConMetricas> valor) {
+        FunctionCounter.builder("logging.async.descartados", this, m -> {
+                    AsyncAppenderConMetricas appender = AsyncAppenderConMetricas.activo();
+                    return appender != null ? valor.applyAsLong(appender) : 0;
+                })
+                .description("Eventos de log descartados por el appender asíncrono")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+}
@@ -0,0 +1,50 @@
+package Fullsound.Fullsound.logging;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Deja pasar solo uno de cada N eventos DEBUG/TRACE de las categorías configuradas (p. ej.
+ * org.hibernate.SQL). INFO y superiores, y el resto de categorías, no se tocan.
+ */
+public class MuestreoTurboFilter extends TurboFilter {
+    private static final AtomicLong DESCARTADOS = new AtomicLong();
+    private final AtomicLong contador = new AtomicLong();
+    private String[] categorias = new String[0];
+    private int unoDe = 1;
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (unoDe <= 1 || level == null || level.isGreaterOrEqual(Level.INFO)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !aplica(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (contador.incrementAndGet() % unoDe == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        DESCARTADOS.incrementAndGet();
+        return FilterReply.DENY;
+    }
+    private boolean aplica(String nombre) {
+        for (String categoria : categorias) {
+            if (nombre.equals(categoria) || nombre.startsWith(categoria + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    public void setCategorias(String categorias) {
+        this.categorias = Arrays.stream(categorias.split(","))
+                .map(String::trim)
+                .filter(c -> !c.isEmpty())
+                .toArray(String[]::new);
+    }
+    public void setUnoDe(int unoDe) {
+        this.unoDe = unoDe;
+    }
+    static long getDescartados() {
+        return DESCARTADOS.get();
+    }
+}
@@ -0,0 +1,72 @@
+package Fullsound.Fullsound.logging;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Log de acceso de la API en el logger "fullsound.acceso", con los campos como pares
+ * clave-valor (salen como JSON con el encoder estructurado). Errores y solicitudes lentas
+ * se registran siempre; las exitosas se muestrean 1 de cada N.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class RegistroAccesoFilter extends OncePerRequestFilter {
+    private static final Logger ACCESO = LoggerFactory.getLogger("fullsound.acceso");
+    private final AtomicLong exitosas = new AtomicLong();
+    @Value("${logging.acceso.enabled:true}")
+    private boolean enabled;
+    @Value("${logging.acceso.umbral-lento-ms:1000}")
+    private long umbralLentoMs;
+    @Value("${logging.acceso.muestreo-exitos:1}")
+    private int muestreoExitos;
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/") || !ACCESO.isInfoEnabled();
+    }
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        int estado = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            estado = response.getStatus();
+        } finally {
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            if (debeRegistrar(estado, ms)) {
+                Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                ACCESO.atInfo()
+                        .setMessage("{} {} {} {}ms")
+                        .addArgument(request.getMethod())
+                        .addArgument(request.getRequestURI())
+                        .addArgument(estado)
+                        .addArgument(ms)
+                        .addKeyValue("metodo", request.getMethod())
+                        .addKeyValue("uri", request.getRequestURI())
+                        .addKeyValue("patron", patron != null ? patron.toString() : null)
+                        .addKeyValue("estado", estado)
+                        .addKeyValue("duracionMs", ms)
+                        .addKeyValue("ip", request.getRemoteAddr())
+                        .log();
+            }
+        }
+    }
+    private boolean debeRegistrar(int estado, long ms) {
+        if (estado >= 400 || ms >= umbralLentoMs || muestreoExitos <= 1) {
+            return true;
+        }
+        return exitosas.incrementAndGet() % muestreoExitos == 0;
+    }
+}
@@ -0,0 +1,59 @@
+package Fullsound.Fullsound.metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+/**
+ * Acumulado de sentencias SQL de la solicitud en curso (por hilo).
+ */
+public final class ContextoSql {
+    private static final ThreadLocal<ContextoSql> ACTUAL = new ThreadLocal<>();
+    private int sentencias;
+    private long nanos;
+    private long maxNanos;
+    private String masLenta;
+    private final HttpServletRequest request;
+    private ContextoSql(HttpServletRequest request) {
+        this.request = request;
+    }
+    static ContextoSql iniciar(HttpServletRequest request) {
+        ContextoSql contexto = new ContextoSql(request);
+        ACTUAL.set(contexto);
+        return contexto;
+    }
+    static ContextoSql actual() {
+        return ACTUAL.get();
+    }
+    static void terminar() {
+        ACTUAL.remove();
+    }
+    void sumar(String sql, long duracion) {
+        sentencias++;
+        nanos += duracion;
+        if (duracion > maxNanos) {
+            maxNanos = duracion;
+            masLenta = sql;
+        }
+    }
+    /**
+     * "METODO /patron" una vez resuelto el handler; antes, la URI concreta.
+     */
+    public String endpoint() {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (patron != null ? patron : request.getRequestURI());
+    }
+    public String patron() {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return patron != null ? patron.toString() : "UNKNOWN";
+    }
+    public int getSentencias() {
+        return sentencias;
+    }
+    public long getNanos() {
+        return nanos;
+    }
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+    public String getMasLenta() {
+        return masLenta;
+    }
+}
@@ -0,0 +1,34 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+/**
+ * Mide llamadas a servicios externos (Supabase, Stripe) como
+ * {@code fullsound.llamadas.externas{dependencia, operacion, resultado}}.
+ */
+@Component
+@RequiredArgsConstructor
+public class LlamadasExternas {
+    private final MeterRegistry meterRegistry;
+    @FunctionalInterface
+    public interface Llamada<T, E extends Exception> {
+        T ejecutar() throws E;
+    }
+    public <T, E extends Exception> T medir(String dependencia, String operacion, Llamada<T, E> llamada) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String resultado = "error";
+        try {
+            T respuesta = llamada.ejecutar();
+            resultado = "ok";
+            return respuesta;
+        } finally {
+            sample.stop(Timer.builder("fullsound.llamadas.externas")
+                    .description("Latencia de llamadas a dependencias externas")
+                    .tag("dependencia", dependencia)
+                    .tag("operacion", operacion)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+        }
+    }
+}
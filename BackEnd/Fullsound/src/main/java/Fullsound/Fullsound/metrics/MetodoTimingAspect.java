@@ -0,0 +1,57 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RestController;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+/**
+ * Mide cada método público de controllers y services como {@code fullsound.metodo}. Los
+ * timers se resuelven una sola vez por (método, excepción) para que el costo por llamada sea
+ * un lookup en un mapa más la medición.
+ */
+@Aspect
+@Component
+public class MetodoTimingAspect {
+    public static final String METRICA = "fullsound.metodo";
+    private static final String SIN_EXCEPCION = "none";
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+    public MetodoTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    @Around("execution(public * Fullsound.Fullsound..*(..)) && "
+            + "(@within(org.springframework.stereotype.Service) || @within(org.springframework.web.bind.annotation.RestController))")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+        long inicio = System.nanoTime();
+        String excepcion = SIN_EXCEPCION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            excepcion = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            timer(joinPoint, excepcion).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+    private Timer timer(ProceedingJoinPoint joinPoint, String excepcion) {
+        Method metodo = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return timers.computeIfAbsent(metodo, m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(excepcion, e -> {
+                    Class<?> clase = joinPoint.getTarget() != null ? joinPoint.getTarget().getClass() : metodo.getDeclaringClass();
+                    return Timer.builder(METRICA)
+                            .description("Duración de métodos de controllers y services")
+                            .tag("capa", clase.isAnnotationPresent(RestController.class) ? "controller" : "service")
+                            .tag("clase", clase.getSimpleName())
+                            .tag("metodo", metodo.getName())
+                            .tag("excepcion", e)
+                            .register(meterRegistry);
+                });
+    }
+}
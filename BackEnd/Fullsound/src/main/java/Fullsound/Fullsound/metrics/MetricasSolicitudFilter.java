@@ -0,0 +1,85 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+/**
+ * Registra cuántas sentencias SQL ejecutó cada solicitud a la API y su tiempo total en base de
+ * datos, etiquetado por el patrón de ruta (no la URI concreta, para no multiplicar series), y lo
+ * compara con el presupuesto del endpoint. En modo FALLAR (tests) un exceso lanza excepción.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class MetricasSolicitudFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    private final PresupuestoSqlProperties properties;
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContextoSql contexto = ContextoSql.iniciar(request);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContextoSql.terminar();
+            String patron = contexto.patron();
+            DistributionSummary.builder("fullsound.sql.sentencias")
+                    .description("Sentencias SQL por solicitud")
+                    .tag("metodo", request.getMethod())
+                    .tag("uri", patron)
+                    .register(meterRegistry)
+                    .record(contexto.getSentencias());
+            Timer.builder("fullsound.sql.tiempo")
+                    .description("Tiempo total en base de datos por solicitud")
+                    .tag("metodo", request.getMethod())
+                    .tag("uri", patron)
+                    .register(meterRegistry)
+                    .record(contexto.getNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (properties.isEnabled()) {
+            verificarPresupuesto(request.getMethod(), contexto);
+        }
+    }
+    private void verificarPresupuesto(String metodo, ContextoSql contexto) {
+        String endpoint = metodo + " " + contexto.patron();
+        PresupuestoSqlProperties.Presupuesto presupuesto =
+                properties.getEndpoints().getOrDefault(endpoint, properties.getPorDefecto());
+        long ms = TimeUnit.NANOSECONDS.toMillis(contexto.getNanos());
+        boolean excedeSentencias = contexto.getSentencias() > presupuesto.getSentencias();
+        boolean excedeTiempo = ms > presupuesto.getTiempo().toMillis();
+        if (!excedeSentencias && !excedeTiempo) {
+            return;
+        }
+        Counter.builder("fullsound.sql.presupuesto.excedido")
+                .description("Solicitudes que superaron su presupuesto SQL")
+                .tag("endpoint", endpoint)
+                .tag("motivo", excedeSentencias ? "sentencias" : "tiempo")
+                .register(meterRegistry)
+                .increment();
+        String mensaje = String.format("Presupuesto SQL excedido en %s: %d sentencias (máx %d), %d ms (máx %d); más lenta: %s",
+                endpoint, contexto.getSentencias(), presupuesto.getSentencias(), ms,
+                presupuesto.getTiempo().toMillis(), contexto.getMasLenta());
+        if (properties.getModo() == PresupuestoSqlProperties.Modo.FALLAR) {
+            throw new PresupuestoSqlExcedidoException(mensaje);
+        }
+        log.warn(mensaje);
+    }
+}
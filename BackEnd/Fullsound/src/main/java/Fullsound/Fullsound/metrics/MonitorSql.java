@@ -0,0 +1,56 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.TimeUnit;
+/**
+ * Recibe cada sentencia ejecutada por {@link MonitoredDataSource}: la suma al contexto de la
+ * solicitud y, si supera el umbral, la registra en el top de lentas junto al sitio de llamada.
+ */
+@Slf4j
+@Component
+public class MonitorSql {
+    private static final int MAX_SQL_LOG = 500;
+    private final PresupuestoSqlProperties properties;
+    private final RegistroSentenciasLentas lentas;
+    private final Timer duracion;
+    public MonitorSql(PresupuestoSqlProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.lentas = new RegistroSentenciasLentas(properties.getVentana().toNanos());
+        this.duracion = Timer.builder("fullsound.sql.duracion")
+                .description("Duración de cada sentencia SQL")
+                .register(meterRegistry);
+    }
+    void registrar(String sql, long nanos, int parametros) {
+        duracion.record(nanos, TimeUnit.NANOSECONDS);
+        ContextoSql contexto = ContextoSql.actual();
+        if (contexto != null) {
+            contexto.sumar(sql, nanos);
+        }
+        if (nanos >= properties.getUmbralLenta().toNanos()) {
+            String sitio = sitioLlamada();
+            String endpoint = contexto != null ? contexto.endpoint() : null;
+            lentas.agregar(sql, nanos, parametros, sitio, endpoint);
+            log.warn("Sentencia lenta ({} ms, {} parámetros) en {} [{}]: {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    parametros, sitio, endpoint, sql.length() > MAX_SQL_LOG ? sql.substring(0, MAX_SQL_LOG) + "..." : sql);
+        }
+    }
+    public RegistroSentenciasLentas getLentas() {
+        return lentas;
+    }
+    /**
+     * Primer frame de código propio fuera de este paquete (service, controller o repository).
+     */
+    static String sitioLlamada() {
+        StackTraceElement[] frames = new Throwable().getStackTrace();
+        String paquete = MonitorSql.class.getPackageName();
+        for (StackTraceElement frame : frames) {
+            String clase = frame.getClassName();
+            if (clase.startsWith("Fullsound.Fullsound.") && !clase.startsWith(paquete) && !clase.contains("$$")) {
+                return clase.substring(clase.lastIndexOf('.') + 1) + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "desconocido";
+    }
+}
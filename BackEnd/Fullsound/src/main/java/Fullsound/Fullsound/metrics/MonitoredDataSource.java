@@ -0,0 +1,84 @@
+package Fullsound.Fullsound.metrics;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+/**
+ * Envuelve conexiones y statements para medir cada ejecución y contar los parámetros
+ * enlazados. Todo lo demás se delega sin cambios.
+ */
+public class MonitoredDataSource extends DelegatingDataSource {
+    private final MonitorSql monitor;
+    public MonitoredDataSource(DataSource target, MonitorSql monitor) {
+        super(target);
+        this.monitor = monitor;
+    }
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(obtainTargetDataSource().getConnection());
+    }
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexion(obtainTargetDataSource().getConnection(username, password));
+    }
+    private Connection conexion(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object resultado = invocar(conexion, method, args);
+                    String nombre = method.getName();
+                    if (resultado instanceof CallableStatement cs && nombre.equals("prepareCall")) {
+                        return sentencia(cs, CallableStatement.class, (String) args[0]);
+                    }
+                    if (resultado instanceof PreparedStatement ps && nombre.equals("prepareStatement")) {
+                        return sentencia(ps, PreparedStatement.class, (String) args[0]);
+                    }
+                    if (resultado instanceof Statement st && nombre.equals("createStatement")) {
+                        return sentencia(st, Statement.class, null);
+                    }
+                    return resultado;
+                });
+    }
+    private Object sentencia(Statement statement, Class<? extends Statement> tipo, String sqlPreparado) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{tipo}, new InvocationHandler() {
+            private int parametros;
+            private String lote;
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String nombre = method.getName();
+                if (nombre.startsWith("set") && args != null && args.length >= 2) {
+                    parametros++;
+                } else if (nombre.equals("addBatch") && args != null && args.length == 1) {
+                    lote = (String) args[0];
+                } else if (nombre.equals("clearParameters")) {
+                    parametros = 0;
+                }
+                if (!nombre.startsWith("execute")) {
+                    return invocar(statement, method, args);
+                }
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                        : sqlPreparado != null ? sqlPreparado : lote;
+                long inicio = System.nanoTime();
+                try {
+                    return invocar(statement, method, args);
+                } finally {
+                    monitor.registrar(sql != null ? sql : "?", System.nanoTime() - inicio, parametros);
+                    parametros = 0;
+                }
+            }
+        });
+    }
+    private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
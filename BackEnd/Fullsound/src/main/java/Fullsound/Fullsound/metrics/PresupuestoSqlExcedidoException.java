@@ -0,0 +1,6 @@
+package Fullsound.Fullsound.metrics;
+public class PresupuestoSqlExcedidoException extends IllegalStateException {
+    public PresupuestoSqlExcedidoException(String message) {
+        super(message);
+    }
+}
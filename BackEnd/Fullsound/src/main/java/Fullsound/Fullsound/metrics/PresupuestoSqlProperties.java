@@ -0,0 +1,31 @@
+package Fullsound.Fullsound.metrics;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+@Data
+@Component
+@ConfigurationProperties(prefix = "sql.presupuesto")
+public class PresupuestoSqlProperties {
+    private boolean enabled = true;
+    private Modo modo = Modo.ADVERTIR;
+    private Duration umbralLenta = Duration.ofMillis(200);
+    private int topN = 20;
+    private Duration ventana = Duration.ofMinutes(15);
+    private Presupuesto porDefecto = new Presupuesto();
+    /**
+     * Clave: "METODO /patron/de/ruta", p. ej. "GET /api/beats/{id}".
+     */
+    private Map<String, Presupuesto> endpoints = new LinkedHashMap<>();
+    @Data
+    public static class Presupuesto {
+        private int sentencias = 25;
+        private Duration tiempo = Duration.ofMillis(500);
+    }
+    public enum Modo {
+        ADVERTIR,
+        FALLAR
+    }
+}
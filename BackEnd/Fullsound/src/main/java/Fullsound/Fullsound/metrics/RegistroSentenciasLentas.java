@@ -0,0 +1,102 @@
+package Fullsound.Fullsound.metrics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+/**
+ * Top-N de sentencias lentas en una ventana móvil. Usa dos generaciones que rotan cada
+ * ventana (la consulta combina ambas), así que lo reportado cubre entre una y dos ventanas.
+ */
+public class RegistroSentenciasLentas {
+    private static final int MAX_ENTRADAS = 1000;
+    private final long ventanaNanos;
+    private final LongSupplier reloj;
+    private volatile Map<String, Estadistica> actual = new ConcurrentHashMap<>();
+    private volatile Map<String, Estadistica> anterior = new ConcurrentHashMap<>();
+    private final AtomicLong proximaRotacion;
+    public RegistroSentenciasLentas(long ventanaNanos) {
+        this(ventanaNanos, System::nanoTime);
+    }
+    RegistroSentenciasLentas(long ventanaNanos, LongSupplier reloj) {
+        this.ventanaNanos = ventanaNanos;
+        this.reloj = reloj;
+        this.proximaRotacion = new AtomicLong(reloj.getAsLong() + ventanaNanos);
+    }
+    public void agregar(String sql, long nanos, int parametros, String sitio, String endpoint) {
+        rotarSiCorresponde();
+        Map<String, Estadistica> generacion = actual;
+        Estadistica estadistica = generacion.get(sql);
+        if (estadistica == null) {
+            if (generacion.size() >= MAX_ENTRADAS) {
+                return;
+            }
+            estadistica = generacion.computeIfAbsent(sql, s -> new Estadistica());
+        }
+        estadistica.registrar(nanos, parametros, sitio, endpoint);
+    }
+    public List<Map<String, Object>> top(int n) {
+        rotarSiCorresponde();
+        Map<String, Estadistica> combinadas = new HashMap<>(anterior);
+        actual.forEach((sql, e) -> combinadas.merge(sql, e, Estadistica::combinar));
+        List<Map.Entry<String, Estadistica>> ordenadas = new ArrayList<>(combinadas.entrySet());
+        ordenadas.sort(Comparator.comparingLong((Map.Entry<String, Estadistica> e) -> e.getValue().max.get()).reversed());
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (Map.Entry<String, Estadistica> entrada : ordenadas.subList(0, Math.min(n, ordenadas.size()))) {
+            Estadistica e = entrada.getValue();
+            long veces = e.veces.sum();
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("sql", entrada.getKey());
+            fila.put("veces", veces);
+            fila.put("maxMs", TimeUnit.NANOSECONDS.toMillis(e.max.get()));
+            fila.put("promedioMs", veces > 0 ? TimeUnit.NANOSECONDS.toMillis(e.total.sum() / veces) : 0);
+            fila.put("parametros", e.parametros);
+            fila.put("endpoint", e.endpoint);
+            fila.put("sitio", e.sitio);
+            resultado.add(fila);
+        }
+        return resultado;
+    }
+    private void rotarSiCorresponde() {
+        long ahora = reloj.getAsLong();
+        long limite = proximaRotacion.get();
+        if (ahora - limite >= 0 && proximaRotacion.compareAndSet(limite, ahora + ventanaNanos)) {
+            anterior = actual;
+            actual = new ConcurrentHashMap<>();
+        }
+    }
+    private static final class Estadistica {
+        private final LongAdder veces = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        private volatile int parametros;
+        private volatile String sitio;
+        private volatile String endpoint;
+        void registrar(long nanos, int parametros, String sitio, String endpoint) {
+            veces.increment();
+            total.add(nanos);
+            if (max.accumulateAndGet(nanos, Math::max) == nanos) {
+                this.parametros = parametros;
+                this.sitio = sitio;
+                this.endpoint = endpoint;
+            }
+        }
+        static Estadistica combinar(Estadistica a, Estadistica b) {
+            Estadistica suma = new Estadistica();
+            suma.veces.add(a.veces.sum() + b.veces.sum());
+            suma.total.add(a.total.sum() + b.total.sum());
+            Estadistica mayor = a.max.get() >= b.max.get() ? a : b;
+            suma.max.set(mayor.max.get());
+            suma.parametros = mayor.parametros;
+            suma.sitio = mayor.sitio;
+            suma.endpoint = mayor.endpoint;
+            return suma;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package Fullsound.Fullsound.metrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+/**
+ * /actuator/slowqueries: top de sentencias lentas de la ventana actual.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SentenciasLentasEndpoint {
+    private final MonitorSql monitorSql;
+    private final PresupuestoSqlProperties properties;
+    @ReadOperation
+    public List<Map<String, Object>> sentenciasLentas() {
+        return monitorSql.getLentas().top(properties.getTopN());
+    }
+}
@@ -0,0 +1,63 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+/**
+ * Al quedar lista la aplicación publica la duración de cada fase de arranque
+ * (fullsound.arranque.fase) y registra las más lentas, para detectar regresiones.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TiemposArranque {
+    private final MeterRegistry meterRegistry;
+    @Value("${inicio-rapido.top-fases:10}")
+    private int topFases;
+    @EventListener
+    public void informar(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            log.info("Aplicación lista en {} ms", tiempo(event));
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> eventos = buffering.getBufferedTimeline().getEvents();
+        for (StartupTimeline.TimelineEvent evento : eventos) {
+            Timer.builder("fullsound.arranque.fase")
+                    .description("Duración de las fases de arranque")
+                    .tag("fase", evento.getStartupStep().getName())
+                    .register(meterRegistry)
+                    .record(evento.getDuration());
+        }
+        String lentas = eventos.stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topFases)
+                .map(e -> e.getDuration().toMillis() + "ms " + describir(e.getStartupStep()))
+                .collect(Collectors.joining("\n  "));
+        log.info("Aplicación lista en {} ms ({} fases registradas). Fases más lentas:\n  {}",
+                tiempo(event), eventos.size(), lentas);
+    }
+    private static long tiempo(ApplicationReadyEvent event) {
+        Duration tiempo = event.getTimeTaken();
+        return tiempo != null ? tiempo.toMillis() : -1;
+    }
+    private static String describir(StartupStep paso) {
+        String tags = StreamSupport.stream(paso.getTags().spliterator(), false)
+                .map(t -> t.getKey() + "=" + t.getValue())
+                .collect(Collectors.joining(", "));
+        return tags.isEmpty() ? paso.getName() : paso.getName() + " [" + tags + "]";
+    }
+}
@@ -1,6 +1,8 @@
 package Fullsound.Fullsound.model;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
@@ -10,6 +12,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "beats")
 public class Beat {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -59,7 +63,7 @@ public class Beat {
     private LocalDateTime updatedAt;
     @Transient
     public String getPrecioFormateado() {
-        return precio != null ? String.format("$%,d", precio) : "$0";
+        return precio != null ? FormatoPrecio.formatear(precio) : "$0";
     }
     @Transient
     public String getEnlaceProducto() {
@@ -0,0 +1,40 @@
+package Fullsound.Fullsound.model;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+/**
+ * Equivalente a String.format("$%,d") sin pasar por Formatter. El catálogo repite pocos
+ * precios distintos, así que los ya formateados se reutilizan.
+ */
+final class FormatoPrecio {
+    private static final int MAX_CACHE = 4096;
+    private static final char SEPARADOR = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getGroupingSeparator();
+    private static final ConcurrentMap<Integer, String> CACHE = new ConcurrentHashMap<>();
+    private FormatoPrecio() {
+    }
+    static String formatear(int precio) {
+        String formateado = CACHE.get(precio);
+        if (formateado == null) {
+            formateado = construir(precio);
+            if (CACHE.size() < MAX_CACHE) {
+                CACHE.putIfAbsent(precio, formateado);
+            }
+        }
+        return formateado;
+    }
+    private static String construir(int precio) {
+        String digitos = Long.toString(Math.abs((long) precio));
+        StringBuilder sb = new StringBuilder(digitos.length() + digitos.length() / 3 + 2).append('$');
+        if (precio < 0) {
+            sb.append('-');
+        }
+        for (int i = 0; i < digitos.length(); i++) {
+            if (i > 0 && (digitos.length() - i) % 3 == 0) {
+                sb.append(SEPARADOR);
+            }
+            sb.append(digitos.charAt(i));
+        }
+        return sb.toString();
+    }
+}
@@ -1,12 +1,18 @@
 package Fullsound.Fullsound.model;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 @Entity
 @Table(name = "tipo_usuario")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 public class Rol {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,38 @@
+package Fullsound.Fullsound.model;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+/**
+ * Solicitud registrada con Idempotency-Key. Se reserva antes de ejecutarla (estadoHttp null)
+ * y guarda la respuesta al terminar bien, así un reintento con la misma clave no se repite.
+ */
+@Entity
+@Table(name = "solicitud_idempotente")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudIdempotente {
+    /**
+     * SHA-256 del ámbito (usuario + ruta) y la clave enviada por el cliente.
+     */
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+    @Column(name = "huella", nullable = false, length = 64)
+    private String huella;
+    @Column(name = "estado_http")
+    private Integer estadoHttp;
+    @Column(name = "tipo_contenido", length = 100)
+    private String tipoContenido;
+    @Column(name = "cuerpo", columnDefinition = "bytea")
+    private byte[] cuerpo;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+    @Override
+    public String toString() {
+        return "SolicitudIdempotente{id=" + id + ", estadoHttp=" + estadoHttp + ", expiraEn=" + expiraEn + "}";
+    }
+}
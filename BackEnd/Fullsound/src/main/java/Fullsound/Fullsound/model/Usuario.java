@@ -1,15 +1,20 @@
 package Fullsound.Fullsound.model;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
+import java.util.Locale;
 @Entity
 @Table(name = "usuario")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
 public class Usuario {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +25,11 @@ public class Usuario {
     
     @Column(name = "rut", length = 12)
     private String rut;
+    /**
+     * RUT sin puntos ni guion y con K mayúscula, para buscar por prefijo.
+     */
+    @Column(name = "rut_normalizado", length = 12)
+    private String rutNormalizado;
     
     @Column(name = "correo", nullable = false, unique = true, length = 100)
     private String correo;
@@ -43,6 +53,14 @@ public class Usuario {
     private String nombre;
     @Column(name = "apellido", length = 100)
     private String apellido;
+    @PrePersist
+    @PreUpdate
+    public void actualizarRutNormalizado() {
+        this.rutNormalizado = normalizarRut(rut);
+    }
+    public static String normalizarRut(String rut) {
+        return rut == null ? null : rut.replaceAll("[^0-9kK]", "").toUpperCase(Locale.ROOT);
+    }
     @Override
     public String toString() {
         return "Usuario{id=" + id + ", nombreUsuario='" + nombreUsuario + "', correo='" + correo + "'}";
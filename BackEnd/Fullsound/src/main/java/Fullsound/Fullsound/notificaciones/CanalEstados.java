@@ -0,0 +1,293 @@
+package Fullsound.Fullsound.notificaciones;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.dto.response.CambioEstadoResponse;
+import Fullsound.Fullsound.exception.ServiceUnavailableException;
+import Fullsound.Fullsound.model.Pago;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.invalidacion.TransporteInvalidacion;
+import Fullsound.Fullsound.recomendacion.Transacciones;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Conexiones SSE abiertas por usuario. Las conexiones inactivas no ocupan hilo (SseEmitter es
+ * asíncrono); los eventos se encolan en un buffer acotado por conexión y los envía un pool
+ * pequeño, así quien publica nunca espera a un cliente lento.
+ * El usuario puede estar conectado a otra instancia: cada cambio se entrega en esta y se difunde
+ * por el transporte de invalidación (LISTEN/NOTIFY) para que las demás lo entreguen a las suyas.
+ * Como NOTIFY, la difusión es "como mucho una vez"; al reconectar el cliente vuelve a consultar.
+ */
+@Slf4j
+@Component
+public class CanalEstados implements TransporteInvalidacion.Suscriptor {
+    private record Mensaje(long id, String nombre, Object datos) {
+    }
+    record Notificacion(Integer usuarioId, String nombre, CambioEstadoResponse cambio) {
+    }
+    /**
+     * Lo que viaja entre instancias. El canal es el mismo del bus de invalidación: cada
+     * suscriptor ignora los mensajes que no son suyos (aquí, los que no traen notificaciones).
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Difusion(String origen, List<Notificacion> notificaciones) {
+    }
+    private final NotificacionesProperties properties;
+    private final ThreadPoolExecutor envio;
+    private final TransporteInvalidacion transporte;
+    private final ObjectMapper objectMapper;
+    private final String origen = UUID.randomUUID().toString();
+    private final Queue<Notificacion> salientes = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, Queue<Conexion>> porUsuario = new ConcurrentHashMap<>();
+    private final AtomicInteger abiertas = new AtomicInteger();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final Counter desbordadas;
+    public CanalEstados(NotificacionesProperties properties,
+                        ThreadPoolExecutor notificacionesExecutor,
+                        TransporteInvalidacion transporte,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.envio = notificacionesExecutor;
+        this.transporte = transporte;
+        this.objectMapper = objectMapper;
+        Gauge.builder("notificaciones.sse.conexiones", abiertas, AtomicInteger::get)
+                .description("Conexiones SSE abiertas")
+                .register(meterRegistry);
+        this.desbordadas = Counter.builder("notificaciones.sse.desbordadas")
+                .description("Conexiones cerradas por llenar su buffer")
+                .register(meterRegistry);
+        transporte.suscribir(this);
+    }
+    public SseEmitter abrir(Integer usuarioId) {
+        if (abiertas.incrementAndGet() > properties.getMaxConexiones()) {
+            abiertas.decrementAndGet();
+            throw new ServiceUnavailableException("Demasiadas conexiones de notificaciones, intenta nuevamente", 30);
+        }
+        Conexion conexion = new Conexion(usuarioId, new SseEmitter(properties.getTimeout().toMillis()));
+        SseEmitter emitter = conexion.emitter;
+        emitter.onCompletion(conexion::cerrar);
+        // sin complete() Spring lanza AsyncRequestTimeoutException en cada conexión inactiva
+        emitter.onTimeout(conexion::terminar);
+        emitter.onError(error -> conexion.cerrar());
+        Queue<Conexion> delUsuario = porUsuario.compute(usuarioId, (id, conexiones) -> {
+            Queue<Conexion> actuales = conexiones != null ? conexiones : new ConcurrentLinkedQueue<>();
+            actuales.add(conexion);
+            return actuales;
+        });
+        while (delUsuario.size() > properties.getMaxConexionesPorUsuario()) {
+            Conexion antigua = delUsuario.poll();
+            if (antigua != null) {
+                antigua.terminar();
+            }
+        }
+        conexion.encolar(new Mensaje(secuencia.incrementAndGet(), "conectado", Map.of("usuarioId", usuarioId)));
+        return emitter;
+    }
+    public void publicar(Pedido pedido) {
+        CambioEstadoResponse cambio = CambioEstadoResponse.builder()
+                .tipo("pedido")
+                .id(pedido.getId())
+                .pedidoId(pedido.getId())
+                .numeroPedido(pedido.getNumeroPedido())
+                .estado(pedido.getEstado())
+                .fecha(LocalDateTime.now())
+                .build();
+        publicar(pedido.getUsuario().getId(), "pedido", cambio);
+    }
+    public void publicar(Pago pago) {
+        Pedido pedido = pago.getPedido();
+        CambioEstadoResponse cambio = CambioEstadoResponse.builder()
+                .tipo("pago")
+                .id(pago.getId())
+                .pedidoId(pedido.getId())
+                .numeroPedido(pedido.getNumeroPedido())
+                .estado(pago.getEstado())
+                .fecha(LocalDateTime.now())
+                .build();
+        publicar(pedido.getUsuario().getId(), "pago", cambio);
+    }
+    /**
+     * Entrega el cambio a las conexiones del usuario cuando se confirma la transacción actual y
+     * lo deja en cola para las demás instancias (sin tocar la base dentro del commit).
+     */
+    void publicar(Integer usuarioId, String nombre, CambioEstadoResponse cambio) {
+        if (usuarioId == null) {
+            return;
+        }
+        Transacciones.alConfirmar(() -> {
+            entregar(usuarioId, nombre, cambio);
+            salientes.add(new Notificacion(usuarioId, nombre, cambio));
+        });
+    }
+    private void entregar(Integer usuarioId, String nombre, CambioEstadoResponse cambio) {
+        Queue<Conexion> conexiones = porUsuario.get(usuarioId);
+        if (conexiones == null) {
+            return;
+        }
+        Mensaje mensaje = new Mensaje(secuencia.incrementAndGet(), nombre, cambio);
+        for (Conexion conexion : conexiones) {
+            conexion.encolar(mensaje);
+        }
+    }
+    /**
+     * Difunde lo pendiente en mensajes de hasta eventos-por-mensaje (pg_notify admite 8000 bytes).
+     * Si el transporte falla se descarta: los clientes de otras instancias se enteran al reconectar.
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.sse.intervalo-difusion-ms:100}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void difundir() {
+        List<Notificacion> lote = new ArrayList<>();
+        Notificacion notificacion;
+        while ((notificacion = salientes.poll()) != null) {
+            lote.add(notificacion);
+            if (lote.size() >= properties.getEventosPorMensaje() || salientes.isEmpty()) {
+                try {
+                    transporte.publicar(objectMapper.writeValueAsString(new Difusion(origen, lote)));
+                } catch (JsonProcessingException | RuntimeException e) {
+                    log.warn("No se pudieron difundir {} cambios de estado: {}", lote.size(), e.getMessage());
+                }
+                lote = new ArrayList<>();
+            }
+        }
+    }
+    @Override
+    public void recibir(String texto) {
+        Difusion difusion;
+        try {
+            difusion = objectMapper.readValue(texto, Difusion.class);
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        if (origen.equals(difusion.origen()) || difusion.notificaciones() == null) {
+            return;
+        }
+        for (Notificacion recibida : difusion.notificaciones()) {
+            if (recibida.usuarioId() != null) {
+                entregar(recibida.usuarioId(), recibida.nombre(), recibida.cambio());
+            }
+        }
+    }
+    @Override
+    public void reconectado() {
+        // lo perdido no se recupera: el cliente vuelve a consultar el estado al reconectar
+    }
+    /**
+     * Comentario periódico para que proxies y balanceadores no corten las conexiones inactivas
+     * y para detectar clientes que se fueron sin cerrar.
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.sse.intervalo-latido-ms:20000}")
+    public void latido() {
+        Mensaje latido = new Mensaje(0, null, null);
+        for (Queue<Conexion> conexiones : porUsuario.values()) {
+            for (Conexion conexion : conexiones) {
+                conexion.encolar(latido);
+            }
+        }
+    }
+    public int conexionesAbiertas() {
+        return abiertas.get();
+    }
+    private final class Conexion {
+        private final Integer usuarioId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Mensaje> pendientes = new ArrayBlockingQueue<>(properties.getCapacidadBuffer());
+        private final AtomicBoolean programada = new AtomicBoolean();
+        private final AtomicBoolean cerrada = new AtomicBoolean();
+        Conexion(Integer usuarioId, SseEmitter emitter) {
+            this.usuarioId = usuarioId;
+            this.emitter = emitter;
+        }
+        void encolar(Mensaje mensaje) {
+            if (cerrada.get()) {
+                return;
+            }
+            if (!pendientes.offer(mensaje)) {
+                // Cliente lento: se corta y al reconectar vuelve a consultar el estado
+                desbordadas.increment();
+                terminar();
+                return;
+            }
+            programar();
+        }
+        private void programar() {
+            if (programada.compareAndSet(false, true)) {
+                try {
+                    envio.execute(this::vaciar);
+                } catch (RejectedExecutionException e) {
+                    programada.set(false);
+                }
+            }
+        }
+        private void vaciar() {
+            try {
+                Mensaje mensaje;
+                while (!cerrada.get() && (mensaje = pendientes.poll()) != null) {
+                    emitter.send(evento(mensaje));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Conexión SSE del usuario {} cerrada: {}", usuarioId, e.getMessage());
+                cerrar();
+            } finally {
+                programada.set(false);
+            }
+            if (!cerrada.get() && !pendientes.isEmpty()) {
+                programar();
+            }
+        }
+        private SseEmitter.SseEventBuilder evento(Mensaje mensaje) {
+            if (mensaje.nombre() == null) {
+                return SseEmitter.event().comment("latido");
+            }
+            return SseEmitter.event()
+                    .id(String.valueOf(mensaje.id()))
+                    .name(mensaje.nombre())
+                    .reconnectTime(properties.getReintento().toMillis())
+                    .data(mensaje.datos(), MediaType.APPLICATION_JSON);
+        }
+        void terminar() {
+            if (!cerrada.get()) {
+                cerrar();
+                try {
+                    emitter.complete();
+                } catch (IllegalStateException ignorada) {
+                    // ya estaba completado
+                }
+            }
+        }
+        void cerrar() {
+            if (!cerrada.compareAndSet(false, true)) {
+                return;
+            }
+            pendientes.clear();
+            abiertas.decrementAndGet();
+            porUsuario.computeIfPresent(usuarioId, (id, conexiones) -> {
+                conexiones.remove(this);
+                return conexiones.isEmpty() ? null : conexiones;
+            });
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package Fullsound.Fullsound.notificaciones;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+@Data
+@Component
+@ConfigurationProperties(prefix = "notificaciones.sse")
+public class NotificacionesProperties {
+    /**
+     * Vida máxima de una conexión; el navegador reconecta solo al cerrarse.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+    private Duration reintento = Duration.ofSeconds(3);
+    private int maxConexiones = 10_000;
+    private int maxConexionesPorUsuario = 5;
+    /**
+     * Eventos pendientes por conexión; si un cliente lento la llena se cierra su conexión.
+     */
+    private int capacidadBuffer = 32;
+    private int hilosEnvio = 2;
+    /**
+     * Cambios por mensaje al difundirlos a las demás instancias.
+     */
+    private int eventosPorMensaje = 20;
+}
@@ -0,0 +1,129 @@
+package Fullsound.Fullsound.recomendacion;
+import Fullsound.Fullsound.model.Beat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * Codifica un beat como vector de rasgos musicales normalizado (coseno = producto punto):
+ * tempo en bandas suavizadas, tonalidad como ángulo en la rueda Camelot (relativas y vecinas
+ * quedan cerca), género y emoción one-hot por hash y etiquetas multi-hot por hash.
+ * Cada bloque se normaliza por separado y se pondera antes de normalizar el total.
+ */
+final class CaracteristicasBeat {
+    static final int BANDAS_TEMPO = 8;
+    static final int DIM_TONALIDAD = 3;
+    static final int DIM_GENERO = 8;
+    static final int DIM_EMOCION = 8;
+    static final int DIM_ETIQUETAS = 16;
+    static final int DIMENSION = BANDAS_TEMPO + DIM_TONALIDAD + DIM_GENERO + DIM_EMOCION + DIM_ETIQUETAS;
+    private static final float PESO_TEMPO = 1.0f;
+    private static final float PESO_TONALIDAD = 1.0f;
+    private static final float PESO_GENERO = 1.2f;
+    private static final float PESO_EMOCION = 0.8f;
+    private static final float PESO_ETIQUETAS = 1.0f;
+    private static final float BPM_MIN = 60f;
+    private static final float BPM_MAX = 180f;
+    private static final Pattern TONALIDAD = Pattern.compile(
+            "^(do|re|mi|fa|sol|la|si|[a-g])\\s*([#b♯♭]?)\\s*(m|min|minor|menor|maj|major|mayor)?$");
+    private static final Pattern CAMELOT = Pattern.compile("^(1[0-2]|[1-9])([ab])$");
+    private static final Map<String, Integer> NOTAS = Map.ofEntries(
+            Map.entry("c", 0), Map.entry("do", 0), Map.entry("d", 2), Map.entry("re", 2),
+            Map.entry("e", 4), Map.entry("mi", 4), Map.entry("f", 5), Map.entry("fa", 5),
+            Map.entry("g", 7), Map.entry("sol", 7), Map.entry("a", 9), Map.entry("la", 9),
+            Map.entry("b", 11), Map.entry("si", 11));
+    private CaracteristicasBeat() {
+    }
+    static float[] vector(Beat beat) {
+        float[] v = new float[DIMENSION];
+        int pos = 0;
+        if (beat.getBpm() != null && beat.getBpm() > 0) {
+            float banda = (Math.min(Math.max(beat.getBpm(), BPM_MIN), BPM_MAX) - BPM_MIN) / (BPM_MAX - BPM_MIN) * (BANDAS_TEMPO - 1);
+            for (int i = 0; i < BANDAS_TEMPO; i++) {
+                float d = banda - i;
+                v[pos + i] = (float) Math.exp(-d * d);
+            }
+            normalizar(v, pos, BANDAS_TEMPO, PESO_TEMPO);
+        }
+        pos += BANDAS_TEMPO;
+        int camelot = camelot(beat.getTonalidad());
+        if (camelot != 0) {
+            double angulo = 2 * Math.PI * (Math.abs(camelot) - 1) / 12;
+            v[pos] = (float) Math.cos(angulo);
+            v[pos + 1] = (float) Math.sin(angulo);
+            v[pos + 2] = camelot > 0 ? 0.35f : -0.35f;
+            normalizar(v, pos, DIM_TONALIDAD, PESO_TONALIDAD);
+        }
+        pos += DIM_TONALIDAD;
+        pos = oneHot(v, pos, DIM_GENERO, PESO_GENERO, beat.getGenero());
+        pos = oneHot(v, pos, DIM_EMOCION, PESO_EMOCION, beat.getEmocion());
+        if (beat.getEtiquetas() != null) {
+            for (String etiqueta : beat.getEtiquetas().split(",")) {
+                String limpia = etiqueta.trim().toLowerCase(Locale.ROOT);
+                if (!limpia.isEmpty()) {
+                    v[pos + Math.floorMod(limpia.hashCode(), DIM_ETIQUETAS)] += 1f;
+                }
+            }
+            normalizar(v, pos, DIM_ETIQUETAS, PESO_ETIQUETAS);
+        }
+        normalizar(v, 0, DIMENSION, 1f);
+        return v;
+    }
+    /**
+     * Número Camelot de la tonalidad: positivo para mayor (B), negativo para menor (A),
+     * 0 si no se reconoce. Acepta "Am", "F#", "Bb minor", "La menor" o "8A".
+     */
+    static int camelot(String tonalidad) {
+        if (tonalidad == null) {
+            return 0;
+        }
+        String texto = tonalidad.trim().toLowerCase(Locale.ROOT);
+        Matcher directo = CAMELOT.matcher(texto);
+        if (directo.matches()) {
+            int numero = Integer.parseInt(directo.group(1));
+            return directo.group(2).equals("b") ? numero : -numero;
+        }
+        Matcher m = TONALIDAD.matcher(texto);
+        if (!m.matches()) {
+            return 0;
+        }
+        int nota = NOTAS.get(m.group(1));
+        String alteracion = m.group(2);
+        if (alteracion.equals("#") || alteracion.equals("♯")) {
+            nota++;
+        } else if (alteracion.equals("b") || alteracion.equals("♭")) {
+            nota--;
+        }
+        String sufijo = m.group(3);
+        boolean menor = sufijo != null && (sufijo.equals("m") || sufijo.startsWith("min") || sufijo.equals("menor"));
+        int relativaMayor = Math.floorMod(menor ? nota + 3 : nota, 12);
+        int numero = Math.floorMod(7 * relativaMayor + 7, 12) + 1;
+        return menor ? -numero : numero;
+    }
+    static float similitud(float[] a, float[] b) {
+        float suma = 0;
+        for (int i = 0; i < a.length; i++) {
+            suma += a[i] * b[i];
+        }
+        return suma;
+    }
+    private static int oneHot(float[] v, int pos, int dimension, float peso, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            v[pos + Math.floorMod(valor.trim().toLowerCase(Locale.ROOT).hashCode(), dimension)] = peso;
+        }
+        return pos + dimension;
+    }
+    private static void normalizar(float[] v, int desde, int largo, float peso) {
+        double norma = 0;
+        for (int i = desde; i < desde + largo; i++) {
+            norma += v[i] * v[i];
+        }
+        if (norma == 0) {
+            return;
+        }
+        float factor = (float) (peso / Math.sqrt(norma));
+        for (int i = desde; i < desde + largo; i++) {
+            v[i] *= factor;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package Fullsound.Fullsound.recomendacion;
+import java.util.Arrays;
+/**
+ * Mapa int a int con direccionamiento abierto (sondeo lineal) para conteos dispersos: sin
+ * boxing ni una entrada por par. Un conteo que llega a 0 se elimina.
+ */
+final class ContadorEnteros {
+    private static final int VACIO = Integer.MIN_VALUE;
+    private int[] claves;
+    private int[] valores;
+    private int tamano;
+    ContadorEnteros() {
+        this(4);
+    }
+    ContadorEnteros(int capacidad) {
+        int largo = Integer.highestOneBit(Math.max(4, capacidad) * 2 - 1);
+        claves = new int[largo];
+        valores = new int[largo];
+        Arrays.fill(claves, VACIO);
+    }
+    int get(int clave) {
+        int mascara = claves.length - 1;
+        for (int i = mezclar(clave) & mascara; claves[i] != VACIO; i = (i + 1) & mascara) {
+            if (claves[i] == clave) {
+                return valores[i];
+            }
+        }
+        return 0;
+    }
+    int sumar(int clave, int delta) {
+        int mascara = claves.length - 1;
+        int i = mezclar(clave) & mascara;
+        while (claves[i] != VACIO) {
+            if (claves[i] == clave) {
+                valores[i] += delta;
+                int valor = valores[i];
+                if (valor == 0) {
+                    eliminarEn(i);
+                }
+                return valor;
+            }
+            i = (i + 1) & mascara;
+        }
+        if (delta == 0) {
+            return 0;
+        }
+        claves[i] = clave;
+        valores[i] = delta;
+        if (++tamano * 4 > claves.length * 3) {
+            crecer();
+        }
+        return delta;
+    }
+    int tamano() {
+        return tamano;
+    }
+    void forEach(Visitante visitante) {
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != VACIO) {
+                visitante.visitar(claves[i], valores[i]);
+            }
+        }
+    }
+    private void eliminarEn(int i) {
+        int mascara = claves.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (claves[j] == VACIO) {
+                break;
+            }
+            int ideal = mezclar(claves[j]) & mascara;
+            boolean enRango = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+            if (!enRango) {
+                claves[i] = claves[j];
+                valores[i] = valores[j];
+                i = j;
+            }
+        }
+        claves[i] = VACIO;
+        valores[i] = 0;
+        tamano--;
+    }
+    private void crecer() {
+        int[] viejasClaves = claves;
+        int[] viejosValores = valores;
+        claves = new int[viejasClaves.length * 2];
+        valores = new int[viejasClaves.length * 2];
+        Arrays.fill(claves, VACIO);
+        int mascara = claves.length - 1;
+        for (int k = 0; k < viejasClaves.length; k++) {
+            if (viejasClaves[k] != VACIO) {
+                int i = mezclar(viejasClaves[k]) & mascara;
+                while (claves[i] != VACIO) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = viejasClaves[k];
+                valores[i] = viejosValores[k];
+            }
+        }
+    }
+    private static int mezclar(int clave) {
+        int h = clave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    interface Visitante {
+        void visitar(int clave, int valor);
+    }
+}
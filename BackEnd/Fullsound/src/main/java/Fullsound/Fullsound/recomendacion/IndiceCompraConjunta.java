@@ -0,0 +1,242 @@
+package Fullsound.Fullsound.recomendacion;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.model.PedidoItem;
+import Fullsound.Fullsound.repository.PedidoItemRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+/**
+ * Modelo ítem a ítem de "comprados juntos" sobre los pedidos COMPLETADO. Se siembra con una
+ * pasada en streaming por compra_detalle y se mantiene con cada pedido que se completa (o que
+ * se cancela/reembolsa tras completarse). Los conteos viven en mapas de enteros primitivos y
+ * cada beat guarda su top-N por similitud coseno (co-compras / raíz de los pedidos de cada uno),
+ * así la consulta no hace joins.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceCompraConjunta {
+    private record Cambio(int pedido, int[] beats, int signo) {
+    }
+    private final PedidoItemRepository pedidoItemRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    @Value("${recomendacion.comprados-juntos.n:20}")
+    private int n;
+    @Value("${recomendacion.comprados-juntos.minimo:1}")
+    private int minimo;
+    private final Map<Integer, int[]> recomendaciones = new ConcurrentHashMap<>();
+    private Conteos conteos = new Conteos();
+    private List<Cambio> cambiosDuranteReconstruccion;
+    private Timer reconstruccion;
+    @PostConstruct
+    void registrarMetricas() {
+        reconstruccion = Timer.builder("recomendacion.comprados_juntos.reconstruccion")
+                .description("Duración de la pasada completa por el historial de pedidos")
+                .register(meterRegistry);
+        Gauge.builder("recomendacion.comprados_juntos.beats", recomendaciones, Map::size)
+                .description("Beats con recomendaciones de compra conjunta")
+                .register(meterRegistry);
+    }
+    @EventListener(ApplicationReadyEvent.class)
+    @Carga(CargaTrabajo.TAREAS)
+    public void alIniciar() {
+        reconstruir();
+    }
+    @Scheduled(fixedDelayString = "${recomendacion.comprados-juntos.intervalo-reconstruccion-ms:86400000}",
+               initialDelayString = "${recomendacion.comprados-juntos.intervalo-reconstruccion-ms:86400000}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void reconstruirProgramado() {
+        reconstruir();
+    }
+    public void reconstruir() {
+        synchronized (this) {
+            cambiosDuranteReconstruccion = new ArrayList<>();
+        }
+        try {
+            long inicio = System.nanoTime();
+            TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+            transaccion.setReadOnly(true);
+            Conteos nuevos = transaccion.execute(estado -> {
+                try (Stream<Object[]> filas = pedidoItemRepository.streamItemsCompletados()) {
+                    return Conteos.desde(filas.iterator());
+                }
+            });
+            synchronized (this) {
+                conteos = nuevos;
+                List<Cambio> pendientes = cambiosDuranteReconstruccion;
+                cambiosDuranteReconstruccion = null;
+                // La lista se abrió antes de la foto de la consulta: un cambio confirmado en medio ya
+                // está en los conteos nuevos. Se reaplica solo lo que cambia la pertenencia del pedido.
+                ContadorEnteros incluidos = nuevos.incluidos;
+                for (Cambio cambio : pendientes) {
+                    boolean incluido = incluidos.get(cambio.pedido()) > 0;
+                    if ((cambio.signo() > 0) != incluido) {
+                        conteos.sumarPedido(cambio.beats(), cambio.signo());
+                        incluidos.sumar(cambio.pedido(), cambio.signo());
+                    }
+                }
+                nuevos.incluidos = null;
+                Map<Integer, int[]> nuevas = new HashMap<>();
+                for (Integer beat : conteos.coocurrencias.keySet()) {
+                    nuevas.put(beat, calcular(beat));
+                }
+                recomendaciones.keySet().retainAll(nuevas.keySet());
+                recomendaciones.putAll(nuevas);
+            }
+            reconstruccion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            log.info("Índice de compra conjunta construido con {} líneas de {} pedidos", nuevos.lineas, nuevos.pedidos);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo construir el índice de compra conjunta: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                cambiosDuranteReconstruccion = null;
+            }
+        }
+    }
+    /**
+     * Ids de los beats más comprados junto al indicado, de mayor a menor afinidad.
+     */
+    public List<Integer> compradosJuntos(Integer beatId, int limite) {
+        int[] ids = recomendaciones.get(beatId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<Integer> resultado = new ArrayList<>(Math.min(limite, ids.length));
+        for (int i = 0; i < ids.length && i < limite; i++) {
+            resultado.add(ids[i]);
+        }
+        return resultado;
+    }
+    /**
+     * Suma (signo 1) o resta (signo -1) el pedido al modelo cuando se confirme la transacción.
+     */
+    public void registrarPedido(Pedido pedido, int signo) {
+        int pedidoId = pedido.getId();
+        int[] beats = pedido.getItems().stream()
+                .map(PedidoItem::getBeat)
+                .mapToInt(beat -> beat.getId())
+                .distinct()
+                .toArray();
+        Transacciones.alConfirmar(() -> aplicar(pedidoId, beats, signo));
+    }
+    synchronized void aplicar(int pedido, int[] beats, int signo) {
+        if (cambiosDuranteReconstruccion != null) {
+            cambiosDuranteReconstruccion.add(new Cambio(pedido, beats, signo));
+        }
+        conteos.sumarPedido(beats, signo);
+        Set<Integer> afectados = new HashSet<>();
+        for (int beat : beats) {
+            afectados.add(beat);
+            ContadorEnteros vecinos = conteos.coocurrencias.get(beat);
+            if (vecinos != null) {
+                vecinos.forEach((otro, cantidad) -> afectados.add(otro));
+            }
+        }
+        for (Integer beat : afectados) {
+            int[] ids = calcular(beat);
+            if (ids.length == 0) {
+                recomendaciones.remove(beat);
+            } else {
+                recomendaciones.put(beat, ids);
+            }
+        }
+    }
+    private int[] calcular(int beat) {
+        ContadorEnteros vecinos = conteos.coocurrencias.get(beat);
+        if (vecinos == null) {
+            return new int[0];
+        }
+        TopN top = new TopN(n);
+        double pedidosBeat = conteos.pedidosPorBeat.get(beat);
+        vecinos.forEach((otro, cantidad) -> {
+            if (cantidad >= minimo) {
+                top.ofrecer(otro, cantidad / Math.sqrt(pedidosBeat * conteos.pedidosPorBeat.get(otro)));
+            }
+        });
+        return top.ordenados();
+    }
+    /**
+     * Co-compras por beat y pedidos en que aparece cada beat.
+     */
+    static final class Conteos {
+        final Map<Integer, ContadorEnteros> coocurrencias = new HashMap<>();
+        final ContadorEnteros pedidosPorBeat = new ContadorEnteros(1024);
+        /**
+         * Pedidos leídos en la pasada completa; solo se guarda mientras se reaplican los cambios pendientes.
+         */
+        ContadorEnteros incluidos = new ContadorEnteros(1024);
+        long lineas;
+        long pedidos;
+        /**
+         * Consume filas (id_compra, id_beat) ordenadas por id_compra, un pedido a la vez.
+         */
+        static Conteos desde(Iterator<Object[]> filas) {
+            Conteos conteos = new Conteos();
+            int[] beats = new int[16];
+            int cantidad = 0;
+            Integer pedidoActual = null;
+            while (filas.hasNext()) {
+                Object[] fila = filas.next();
+                Integer pedido = (Integer) fila[0];
+                if (!pedido.equals(pedidoActual)) {
+                    conteos.sumarPedido(distintos(beats, cantidad), 1);
+                    conteos.incluidos.sumar(pedido, 1);
+                    pedidoActual = pedido;
+                    cantidad = 0;
+                }
+                if (cantidad == beats.length) {
+                    beats = Arrays.copyOf(beats, cantidad * 2);
+                }
+                beats[cantidad++] = (Integer) fila[1];
+                conteos.lineas++;
+            }
+            conteos.sumarPedido(distintos(beats, cantidad), 1);
+            return conteos;
+        }
+        void sumarPedido(int[] beats, int signo) {
+            if (beats.length == 0) {
+                return;
+            }
+            pedidos += signo;
+            for (int a : beats) {
+                pedidosPorBeat.sumar(a, signo);
+                for (int b : beats) {
+                    if (a != b) {
+                        ContadorEnteros vecinos = coocurrencias.computeIfAbsent(a, clave -> new ContadorEnteros());
+                        vecinos.sumar(b, signo);
+                        if (vecinos.tamano() == 0) {
+                            coocurrencias.remove(a);
+                        }
+                    }
+                }
+            }
+        }
+        private static int[] distintos(int[] beats, int cantidad) {
+            return Arrays.stream(beats, 0, cantidad).distinct().toArray();
+        }
+    }
+}
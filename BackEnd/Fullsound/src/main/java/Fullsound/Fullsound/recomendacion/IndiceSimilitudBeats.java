@@ -0,0 +1,245 @@
+package Fullsound.Fullsound.recomendacion;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.repository.BeatRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+/**
+ * Vecinos más parecidos de cada beat disponible, precalculados en memoria. La reconstrucción
+ * completa compara todos contra todos en un ForkJoinPool; los cambios de BeatService se
+ * aplican tras el commit actualizando solo las listas que el beat afecta. Las lecturas no
+ * bloquean: cada lista es inmutable y se reemplaza entera.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceSimilitudBeats {
+    private static final String DISPONIBLE = "DISPONIBLE";
+    private final BeatRepository beatRepository;
+    private final MeterRegistry meterRegistry;
+    @Value("${recomendacion.similares.k:20}")
+    private int k;
+    @Value("${recomendacion.similares.paralelismo:0}")
+    private int paralelismo;
+    private final Map<Integer, float[]> vectores = new ConcurrentHashMap<>();
+    private final Map<Integer, Vecinos> vecinos = new ConcurrentHashMap<>();
+    private List<Runnable> cambiosDuranteReconstruccion;
+    private volatile boolean construido;
+    private Timer reconstruccion;
+    @PostConstruct
+    void registrarMetricas() {
+        reconstruccion = Timer.builder("recomendacion.similares.reconstruccion")
+                .description("Duración del cálculo completo de vecinos")
+                .register(meterRegistry);
+        Gauge.builder("recomendacion.similares.beats", vecinos, Map::size)
+                .description("Beats con vecinos precalculados")
+                .register(meterRegistry);
+    }
+    @EventListener(ApplicationReadyEvent.class)
+    @Carga(CargaTrabajo.TAREAS)
+    public void alIniciar() {
+        reconstruir();
+    }
+    @Scheduled(fixedDelayString = "${recomendacion.similares.intervalo-reconstruccion-ms:21600000}",
+               initialDelayString = "${recomendacion.similares.intervalo-reconstruccion-ms:21600000}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void reconstruirProgramado() {
+        reconstruir();
+    }
+    public void reconstruir() {
+        synchronized (this) {
+            cambiosDuranteReconstruccion = new ArrayList<>();
+        }
+        try {
+            long inicio = System.nanoTime();
+            List<Beat> beats = beatRepository.findAllAvailable();
+            int n = beats.size();
+            int[] ids = new int[n];
+            float[][] matriz = new float[n][];
+            for (int i = 0; i < n; i++) {
+                ids[i] = beats.get(i).getId();
+                matriz[i] = CaracteristicasBeat.vector(beats.get(i));
+            }
+            Vecinos[] resultado = new Vecinos[n];
+            ForkJoinPool pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+            try {
+                pool.invoke(new CalculoVecinos(ids, matriz, resultado, 0, n));
+            } finally {
+                pool.shutdown();
+            }
+            Map<Integer, float[]> nuevosVectores = new HashMap<>(n * 2);
+            Map<Integer, Vecinos> nuevosVecinos = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                nuevosVectores.put(ids[i], matriz[i]);
+                nuevosVecinos.put(ids[i], resultado[i]);
+            }
+            synchronized (this) {
+                vectores.keySet().retainAll(nuevosVectores.keySet());
+                vectores.putAll(nuevosVectores);
+                vecinos.keySet().retainAll(nuevosVecinos.keySet());
+                vecinos.putAll(nuevosVecinos);
+                List<Runnable> pendientes = cambiosDuranteReconstruccion;
+                cambiosDuranteReconstruccion = null;
+                pendientes.forEach(Runnable::run);
+                construido = true;
+            }
+            reconstruccion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            log.info("Índice de beats similares construido con {} beats", n);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo construir el índice de beats similares: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                cambiosDuranteReconstruccion = null;
+            }
+        }
+    }
+    /**
+     * Ids de los beats más parecidos, de mayor a menor similitud; null si el beat no está indexado.
+     */
+    public List<Integer> similares(Integer id, int limite) {
+        Vecinos lista = vecinos.get(id);
+        if (lista == null) {
+            return null;
+        }
+        int largo = Math.min(limite, lista.ids().length);
+        List<Integer> resultado = new ArrayList<>(largo);
+        for (int i = 0; i < largo; i++) {
+            resultado.add(lista.ids()[i]);
+        }
+        return resultado;
+    }
+    /**
+     * Si el beat existe y está disponible. Mientras el índice no se haya construido todavía
+     * responde true para no perder los eventos del arranque.
+     */
+    public boolean contiene(Integer id) {
+        return !construido || vectores.containsKey(id);
+    }
+    /**
+     * Reindexa el beat al confirmarse la transacción actual (o de inmediato si no hay una).
+     */
+    public void actualizar(Beat beat) {
+        actualizar(beat, beat.getEstado());
+    }
+    /**
+     * Igual, con el estado leído aparte: tras un UPDATE masivo la entidad conserva el anterior.
+     */
+    public void actualizar(Beat beat, String estado) {
+        int id = beat.getId();
+        float[] vector = DISPONIBLE.equals(estado) ? CaracteristicasBeat.vector(beat) : null;
+        Transacciones.alConfirmar(() -> aplicar(id, vector));
+    }
+    public void eliminar(Integer id) {
+        Transacciones.alConfirmar(() -> aplicar(id, null));
+    }
+    synchronized void aplicar(int id, float[] vector) {
+        if (cambiosDuranteReconstruccion != null) {
+            cambiosDuranteReconstruccion.add(() -> aplicar(id, vector));
+        }
+        if (vector == null) {
+            vectores.remove(id);
+            vecinos.remove(id);
+        } else {
+            vectores.put(id, vector);
+        }
+        List<Integer> recalcular = new ArrayList<>();
+        for (Map.Entry<Integer, Vecinos> entrada : vecinos.entrySet()) {
+            int otro = entrada.getKey();
+            if (otro == id) {
+                continue;
+            }
+            Vecinos lista = entrada.getValue();
+            if (lista.contiene(id)) {
+                recalcular.add(otro);
+            } else if (vector != null) {
+                float s = CaracteristicasBeat.similitud(vectores.get(otro), vector);
+                if (lista.admite(s, k)) {
+                    entrada.setValue(lista.insertar(id, s, k));
+                }
+            }
+        }
+        if (vector != null) {
+            vecinos.put(id, calcular(id, vector));
+        }
+        for (Integer otro : recalcular) {
+            vecinos.put(otro, calcular(otro, vectores.get(otro)));
+        }
+    }
+    private Vecinos calcular(int id, float[] vector) {
+        Vecinos lista = Vecinos.VACIA;
+        for (Map.Entry<Integer, float[]> entrada : vectores.entrySet()) {
+            if (entrada.getKey() != id) {
+                float s = CaracteristicasBeat.similitud(vector, entrada.getValue());
+                if (lista.admite(s, k)) {
+                    lista = lista.insertar(entrada.getKey(), s, k);
+                }
+            }
+        }
+        return lista;
+    }
+    private final class CalculoVecinos extends RecursiveAction {
+        private static final int UMBRAL = 64;
+        private final int[] ids;
+        private final float[][] matriz;
+        private final Vecinos[] resultado;
+        private final int desde;
+        private final int hasta;
+        private CalculoVecinos(int[] ids, float[][] matriz, Vecinos[] resultado, int desde, int hasta) {
+            this.ids = ids;
+            this.matriz = matriz;
+            this.resultado = resultado;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+        @Override
+        protected void compute() {
+            if (hasta - desde > UMBRAL) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new CalculoVecinos(ids, matriz, resultado, desde, medio),
+                        new CalculoVecinos(ids, matriz, resultado, medio, hasta));
+                return;
+            }
+            int[] mejores = new int[k];
+            float[] puntajes = new float[k];
+            for (int i = desde; i < hasta; i++) {
+                int cantidad = 0;
+                for (int j = 0; j < matriz.length; j++) {
+                    if (j == i) {
+                        continue;
+                    }
+                    float s = CaracteristicasBeat.similitud(matriz[i], matriz[j]);
+                    if (cantidad < k || s > puntajes[cantidad - 1]) {
+                        int pos = cantidad < k ? cantidad++ : cantidad - 1;
+                        while (pos > 0 && puntajes[pos - 1] < s) {
+                            puntajes[pos] = puntajes[pos - 1];
+                            mejores[pos] = mejores[pos - 1];
+                            pos--;
+                        }
+                        puntajes[pos] = s;
+                        mejores[pos] = ids[j];
+                    }
+                }
+                resultado[i] = new Vecinos(Arrays.copyOf(mejores, cantidad), Arrays.copyOf(puntajes, cantidad));
+            }
+        }
+    }
+}
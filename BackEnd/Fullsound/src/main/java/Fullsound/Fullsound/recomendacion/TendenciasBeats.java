@@ -0,0 +1,251 @@
+package Fullsound.Fullsound.recomendacion;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.dto.response.BeatResponse;
+import Fullsound.Fullsound.eventos.ConsumidorEventos;
+import Fullsound.Fullsound.eventos.EventoEscucha;
+import Fullsound.Fullsound.eventos.TipoEvento;
+import Fullsound.Fullsound.mapper.BeatMapper;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.model.PedidoItem;
+import Fullsound.Fullsound.repository.BeatRepository;
+import Fullsound.Fullsound.repository.PedidoItemRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+/**
+ * Ranking "en tendencia" con decaimiento exponencial, alimentado por reproducciones y ventas
+ * completadas. Cada evento suma a un DoubleAdder por beat sin bloqueos, en decaimiento hacia
+ * adelante: vale peso * e^((t - base) / tau), así el orden entre beats no cambia con el paso
+ * del tiempo y no hay que reescalar en cada evento. Periódicamente se recalcula el top-K
+ * global y por género ya mapeado a BeatResponse; las lecturas no ordenan ni consultan la base.
+ * Las ventas se siembran al arrancar desde los pedidos recientes; las reproducciones llegan del
+ * diario de eventos, que se relee completo (lo retenido) en cada arranque.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TendenciasBeats implements ConsumidorEventos {
+    /**
+     * Exponente máximo antes de reescalar la base; e^40 sigue lejos del límite de un double.
+     */
+    private static final double EXPONENTE_MAXIMO = 40;
+    private final BeatRepository beatRepository;
+    private final PedidoItemRepository pedidoItemRepository;
+    private final BeatMapper beatMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    @Value("${recomendacion.tendencias.vida-media:3d}")
+    private Duration vidaMedia;
+    @Value("${recomendacion.tendencias.peso-reproduccion:1}")
+    private double pesoReproduccion;
+    @Value("${recomendacion.tendencias.peso-venta:10}")
+    private double pesoVenta;
+    @Value("${recomendacion.tendencias.k:50}")
+    private int k;
+    @Value("${recomendacion.tendencias.ventana-siembra:30d}")
+    private Duration ventanaSiembra;
+    private Clock reloj = Clock.systemDefaultZone();
+    private volatile Puntajes puntajes;
+    private volatile Ranking ranking;
+    private Timer recalculo;
+    @PostConstruct
+    void inicializar() {
+        puntajes = new Puntajes(reloj.millis());
+        recalculo = Timer.builder("recomendacion.tendencias.recalculo")
+                .description("Duración del recálculo de los rankings en tendencia")
+                .register(meterRegistry);
+        Gauge.builder("recomendacion.tendencias.beats", this, tendencias -> tendencias.puntajes.valores.size())
+                .description("Beats con puntaje de tendencia")
+                .register(meterRegistry);
+    }
+    @EventListener(ApplicationReadyEvent.class)
+    @Carga(CargaTrabajo.TAREAS)
+    public void alIniciar() {
+        sembrar();
+        recalcular();
+    }
+    @Scheduled(fixedDelayString = "${recomendacion.tendencias.intervalo-recalculo-ms:60000}",
+               initialDelayString = "${recomendacion.tendencias.intervalo-recalculo-ms:60000}")
+    @Carga(CargaTrabajo.TAREAS)
+    public void recalcularProgramado() {
+        recalcular();
+    }
+    @Override
+    public String nombre() {
+        return "tendencias";
+    }
+    @Override
+    public boolean persistente() {
+        return false;
+    }
+    @Override
+    public void procesar(List<EventoEscucha> eventos) {
+        for (EventoEscucha evento : eventos) {
+            if (evento.tipo() == TipoEvento.REPRODUCCION) {
+                sumar(evento.beatId(), pesoReproduccion, evento.instante());
+            }
+        }
+    }
+    public void registrarVenta(Pedido pedido) {
+        long ahora = reloj.millis();
+        List<Integer> beats = pedido.getItems().stream()
+                .map(PedidoItem::getBeat)
+                .map(Beat::getId)
+                .toList();
+        Transacciones.alConfirmar(() -> beats.forEach(beat -> sumar(beat, pesoVenta, ahora)));
+    }
+    /**
+     * Beats en tendencia de todo el catálogo, o null si el ranking aún no se ha calculado.
+     */
+    public List<BeatResponse> destacados(int limite) {
+        Ranking actual = ranking;
+        return actual == null ? null : recortar(actual.global(), limite);
+    }
+    /**
+     * Beats en tendencia de un género, o null si el ranking aún no se ha calculado.
+     */
+    public List<BeatResponse> destacadosPorGenero(String genero, int limite) {
+        Ranking actual = ranking;
+        if (actual == null) {
+            return null;
+        }
+        return recortar(actual.porGenero().getOrDefault(normalizar(genero), List.of()), limite);
+    }
+    void sembrar() {
+        LocalDateTime desde = LocalDateTime.now(reloj).minus(ventanaSiembra);
+        try {
+            TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+            transaccion.setReadOnly(true);
+            List<Object[]> ventas = transaccion.execute(estado -> pedidoItemRepository.findVentasCompletadasDesde(desde));
+            ZoneId zona = reloj.getZone();
+            for (Object[] venta : ventas) {
+                long instante = ((LocalDateTime) venta[1]).atZone(zona).toInstant().toEpochMilli();
+                sumar((Integer) venta[0], pesoVenta, instante);
+            }
+            log.info("Tendencias sembradas con {} ventas desde {}", ventas.size(), desde);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron sembrar las tendencias con las ventas recientes: {}", e.getMessage());
+        }
+    }
+    public void recalcular() {
+        long inicio = System.nanoTime();
+        try {
+            long ahora = reloj.millis();
+            Puntajes actuales = reescalarSiHaceFalta(ahora);
+            TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+            transaccion.setReadOnly(true);
+            List<Beat> disponibles = transaccion.execute(estado -> beatRepository.findAllAvailable());
+            Map<Integer, Double> valores = new HashMap<>(disponibles.size() * 2);
+            for (Beat beat : disponibles) {
+                valores.put(beat.getId(), actuales.valor(beat.getId()));
+            }
+            Comparator<Beat> orden = Comparator.<Beat>comparingDouble(beat -> valores.get(beat.getId())).reversed()
+                    .thenComparing(Beat::getReproducciones, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Beat::getId);
+            List<Beat> ordenados = new ArrayList<>(disponibles);
+            ordenados.sort(orden);
+            List<BeatResponse> global = new ArrayList<>(Math.min(k, ordenados.size()));
+            Map<String, List<BeatResponse>> porGenero = new HashMap<>();
+            for (Beat beat : ordenados) {
+                BeatResponse response = null;
+                if (global.size() < k) {
+                    response = beatMapper.toResponse(beat);
+                    global.add(response);
+                }
+                if (beat.getGenero() != null && !beat.getGenero().isBlank()) {
+                    List<BeatResponse> genero = porGenero.computeIfAbsent(normalizar(beat.getGenero()), clave -> new ArrayList<>());
+                    if (genero.size() < k) {
+                        genero.add(response != null ? response : beatMapper.toResponse(beat));
+                    }
+                }
+            }
+            porGenero.replaceAll((genero, lista) -> List.copyOf(lista));
+            ranking = new Ranking(List.copyOf(global), Map.copyOf(porGenero));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo recalcular el ranking de tendencias, se mantiene el anterior: {}", e.getMessage());
+        } finally {
+            recalculo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+    private void sumar(Integer beatId, double peso, long instante) {
+        puntajes.sumar(beatId, peso, instante, tau());
+    }
+    /**
+     * Cambia la base cuando el exponente crece demasiado. Un evento que llegue justo durante
+     * el cambio puede perderse; ocurre una vez cada decenas de vidas medias y no altera el ranking.
+     */
+    private Puntajes reescalarSiHaceFalta(long ahora) {
+        Puntajes actuales = puntajes;
+        double exponente = (ahora - actuales.base) / tau();
+        if (exponente < EXPONENTE_MAXIMO) {
+            return actuales;
+        }
+        Puntajes nuevos = new Puntajes(ahora);
+        double factor = Math.exp(-exponente);
+        actuales.valores.forEach((beat, valor) -> {
+            double reescalado = valor.sum() * factor;
+            if (reescalado > 1e-6) {
+                nuevos.valores.computeIfAbsent(beat, clave -> new DoubleAdder()).add(reescalado);
+            }
+        });
+        puntajes = nuevos;
+        return nuevos;
+    }
+    private double tau() {
+        return vidaMedia.toMillis() / Math.log(2);
+    }
+    private static List<BeatResponse> recortar(List<BeatResponse> lista, int limite) {
+        return lista.size() <= limite ? lista : lista.subList(0, limite);
+    }
+    private static String normalizar(String genero) {
+        return genero.trim().toLowerCase(Locale.ROOT);
+    }
+    /**
+     * Puntajes relativos a una base temporal; solo crecen salvo al reescalar.
+     */
+    private static final class Puntajes {
+        private final long base;
+        private final Map<Integer, DoubleAdder> valores = new ConcurrentHashMap<>();
+        private Puntajes(long base) {
+            this.base = base;
+        }
+        private void sumar(Integer beatId, double peso, long instante, double tau) {
+            DoubleAdder valor = valores.get(beatId);
+            if (valor == null) {
+                valor = valores.computeIfAbsent(beatId, clave -> new DoubleAdder());
+            }
+            valor.add(peso * Math.exp((instante - base) / tau));
+        }
+        private double valor(Integer beatId) {
+            DoubleAdder valor = valores.get(beatId);
+            return valor == null ? 0.0 : valor.sum();
+        }
+    }
+    private record Ranking(List<BeatResponse> global, Map<String, List<BeatResponse>> porGenero) {
+    }
+}
@@ -0,0 +1,78 @@
+package Fullsound.Fullsound.recomendacion;
+/**
+ * Montículo mínimo acotado a n elementos: conserva los n ids de mayor puntaje en O(log n)
+ * por oferta. En empate gana el id menor para que el resultado sea determinista.
+ */
+final class TopN {
+    private final int[] ids;
+    private final double[] puntajes;
+    private int tamano;
+    TopN(int n) {
+        ids = new int[n];
+        puntajes = new double[n];
+    }
+    void ofrecer(int id, double puntaje) {
+        if (ids.length == 0) {
+            return;
+        }
+        if (tamano < ids.length) {
+            ids[tamano] = id;
+            puntajes[tamano] = puntaje;
+            subir(tamano++);
+        } else if (mayor(id, puntaje, ids[0], puntajes[0])) {
+            ids[0] = id;
+            puntajes[0] = puntaje;
+            bajar(0);
+        }
+    }
+    /**
+     * Ids de mayor a menor puntaje; deja el montículo vacío.
+     */
+    int[] ordenados() {
+        int[] resultado = new int[tamano];
+        for (int i = resultado.length - 1; i >= 0; i--) {
+            resultado[i] = ids[0];
+            tamano--;
+            ids[0] = ids[tamano];
+            puntajes[0] = puntajes[tamano];
+            bajar(0);
+        }
+        return resultado;
+    }
+    private static boolean mayor(int id, double puntaje, int otroId, double otroPuntaje) {
+        return puntaje > otroPuntaje || (puntaje == otroPuntaje && id < otroId);
+    }
+    private void subir(int i) {
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (!mayor(ids[padre], puntajes[padre], ids[i], puntajes[i])) {
+                return;
+            }
+            intercambiar(i, padre);
+            i = padre;
+        }
+    }
+    private void bajar(int i) {
+        while (true) {
+            int menor = i;
+            for (int hijo = 2 * i + 1; hijo <= 2 * i + 2 && hijo < tamano; hijo++) {
+                if (mayor(ids[menor], puntajes[menor], ids[hijo], puntajes[hijo])) {
+                    menor = hijo;
+                }
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(i, menor);
+            i = menor;
+        }
+    }
+    private void intercambiar(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double puntaje = puntajes[a];
+        puntajes[a] = puntajes[b];
+        puntajes[b] = puntaje;
+    }
+}
@@ -0,0 +1,22 @@
+package Fullsound.Fullsound.recomendacion;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+public final class Transacciones {
+    private Transacciones() {
+    }
+    /**
+     * Ejecuta el cambio al confirmarse la transacción actual, o de inmediato si no hay una.
+     */
+    public static void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+}
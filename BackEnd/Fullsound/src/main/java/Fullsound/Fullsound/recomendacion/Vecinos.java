@@ -0,0 +1,40 @@
+package Fullsound.Fullsound.recomendacion;
+import java.util.Arrays;
+/**
+ * Lista inmutable de vecinos ordenada por similitud descendente.
+ */
+record Vecinos(int[] ids, float[] puntajes) {
+    static final Vecinos VACIA = new Vecinos(new int[0], new float[0]);
+    boolean contiene(int id) {
+        for (int vecino : ids) {
+            if (vecino == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+    boolean admite(float puntaje, int k) {
+        return ids.length < k || puntaje > puntajes[ids.length - 1];
+    }
+    Vecinos insertar(int id, float puntaje, int k) {
+        int largo = Math.min(ids.length + 1, k);
+        int[] nuevosIds = new int[largo];
+        float[] nuevosPuntajes = new float[largo];
+        int pos = 0;
+        while (pos < ids.length && puntajes[pos] >= puntaje) {
+            pos++;
+        }
+        System.arraycopy(ids, 0, nuevosIds, 0, pos);
+        System.arraycopy(puntajes, 0, nuevosPuntajes, 0, pos);
+        nuevosIds[pos] = id;
+        nuevosPuntajes[pos] = puntaje;
+        int resto = largo - pos - 1;
+        System.arraycopy(ids, pos, nuevosIds, pos + 1, resto);
+        System.arraycopy(puntajes, pos, nuevosPuntajes, pos + 1, resto);
+        return new Vecinos(nuevosIds, nuevosPuntajes);
+    }
+    @Override
+    public String toString() {
+        return "Vecinos" + Arrays.toString(ids);
+    }
+}
@@ -1,13 +1,18 @@
 package Fullsound.Fullsound.repository;
 import Fullsound.Fullsound.model.Beat;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
-public interface BeatRepository extends JpaRepository<Beat, Integer> {
+public interface BeatRepository extends JpaRepository<Beat, Integer>, BeatRepositoryCustom {
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"), @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-beats")})
     Optional<Beat> findBySlug(String slug);
     List<Beat> findByEstado(String estado);
     @Query("SELECT b FROM Beat b WHERE b.estado = 'DISPONIBLE'")
@@ -16,6 +21,7 @@ public interface BeatRepository extends JpaRepository<Beat, Integer> {
     List<Beat> findByBpmBetween(Integer bpmMin, Integer bpmMax);
     List<Beat> findByTonalidad(String tonalidad);
     List<Beat> findByGeneroContainingIgnoreCase(String genero);
+    List<Beat> findByAudioUrlIn(Collection<String> audioUrls);
     @Query("SELECT b FROM Beat b WHERE b.estado = 'DISPONIBLE' AND " +
            "(LOWER(b.titulo) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(b.artista) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
@@ -26,4 +32,18 @@ public interface BeatRepository extends JpaRepository<Beat, Integer> {
     List<Beat> findTopByOrderByReproduccionesDesc(@Param("limit") int limit);
     @Query("SELECT b FROM Beat b WHERE b.estado = 'DISPONIBLE' ORDER BY b.createdAt DESC LIMIT :limit")
     List<Beat> findTopByOrderByCreatedAtDesc(@Param("limit") int limit);
+    /**
+     * Cambia en una sola sentencia el estado de los beats de los pedidos dados que estén en alguno de los estados de origen.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Beat b SET b.estado = :estado, b.updatedAt = CURRENT_TIMESTAMP WHERE b.estado IN :desde " +
+           "AND b.id IN (SELECT i.beat.id FROM PedidoItem i WHERE i.pedido.id IN :pedidoIds)")
+    int cambiarEstadoPorPedidos(@Param("pedidoIds") Collection<Integer> pedidoIds,
+                                @Param("desde") Collection<String> desde,
+                                @Param("estado") String estado);
+    /**
+     * Pares [id, estado] leídos de la base: tras un UPDATE masivo las entidades ya cargadas no se enteran.
+     */
+    @Query("SELECT b.id, b.estado FROM Beat b WHERE b.id IN :ids")
+    List<Object[]> findEstados(@Param("ids") Collection<Integer> ids);
 }
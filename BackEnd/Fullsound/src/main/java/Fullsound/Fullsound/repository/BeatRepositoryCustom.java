@@ -0,0 +1,17 @@
+package Fullsound.Fullsound.repository;
+import Fullsound.Fullsound.model.Beat;
+import java.util.List;
+public interface BeatRepositoryCustom {
+    /**
+     * Carga varios beats en el orden de los ids pedidos, con null en la posición de los que
+     * no existen. Resuelve primero contra la sesión y la caché de segundo nivel y solo
+     * consulta a la base los que falten, en una sola sentencia IN.
+     */
+    List<Beat> cargarVarios(List<Integer> ids);
+    /**
+     * Suma reproducciones con SQL nativo sin invalidar la región "beats" completa (como haría
+     * un UPDATE JPQL): solo se desaloja el beat tocado, al confirmarse. Las consultas cacheadas
+     * que ordenan por reproducciones pueden ir un poco atrasadas.
+     */
+    int sumarReproducciones(Integer id, int cantidad);
+}
@@ -0,0 +1,39 @@
+package Fullsound.Fullsound.repository;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.recomendacion.Transacciones;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+public class BeatRepositoryImpl implements BeatRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Override
+    @Transactional(readOnly = true)
+    public List<Beat> cargarVarios(List<Integer> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Beat.class)
+                .with(CacheMode.NORMAL)
+                .withBatchSize(ids.size())
+                .multiLoad(ids);
+    }
+    @Override
+    @Transactional
+    public int sumarReproducciones(Integer id, int cantidad) {
+        Session session = entityManager.unwrap(Session.class);
+        int filas = session.createNativeQuery("UPDATE beat SET reproducciones = reproducciones + :cantidad WHERE id_beat = :id")
+                // espacio vacío: Hibernate no invalida ninguna región ni consulta cacheada
+                .addSynchronizedQuerySpace("")
+                .setParameter("cantidad", cantidad)
+                .setParameter("id", id)
+                .executeUpdate();
+        if (filas > 0) {
+            SessionFactory sessionFactory = session.getSessionFactory();
+            Transacciones.alConfirmar(() -> sessionFactory.getCache().evictEntityData(Beat.class, id));
+        }
+        return filas;
+    }
+}
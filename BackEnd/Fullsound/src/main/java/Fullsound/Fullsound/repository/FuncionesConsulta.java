@@ -0,0 +1,19 @@
+package Fullsound.Fullsound.repository;
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+/**
+ * Funciones HQL propias. {@code orden_binario(x)} compara y ordena {@code x} por bytes
+ * ({@code COLLATE "C"}): con la colación lingüística de la base (en_US...) la puntuación no
+ * ordena por código y un rango [prefijo, siguiente) deja fuera coincidencias válidas.
+ * H2 no admite COLLATE en expresiones y ya ordena por código, así que ahí no hace nada.
+ */
+public class FuncionesConsulta implements FunctionContributor {
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String patron = functionContributions.getDialect() instanceof PostgreSQLDialect ? "(?1 collate \"C\")" : "(?1)";
+        functionContributions.getFunctionRegistry().registerPattern("orden_binario", patron,
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.STRING));
+    }
+}
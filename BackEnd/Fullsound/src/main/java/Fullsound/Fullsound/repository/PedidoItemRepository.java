@@ -1,7 +1,26 @@
 package Fullsound.Fullsound.repository;
 import Fullsound.Fullsound.model.PedidoItem;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 @Repository
 public interface PedidoItemRepository extends JpaRepository<PedidoItem, Integer> {
+    /**
+     * Pares (id_compra, id_beat) de los pedidos completados, agrupados por pedido. Debe
+     * consumirse dentro de una transacción y cerrarse.
+     */
+    @QueryHints({@QueryHint(name = "org.hibernate.fetchSize", value = "2000"), @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("SELECT i.pedido.id, i.beat.id FROM PedidoItem i WHERE i.pedido.estado = 'COMPLETADO' ORDER BY i.pedido.id")
+    Stream<Object[]> streamItemsCompletados();
+    /**
+     * Pares (id_beat, fecha_compra) de los pedidos completados desde la fecha indicada.
+     */
+    @Query("SELECT i.beat.id, i.pedido.fechaCompra FROM PedidoItem i WHERE i.pedido.estado = 'COMPLETADO' AND i.pedido.fechaCompra >= :desde")
+    List<Object[]> findVentasCompletadasDesde(@Param("desde") LocalDateTime desde);
 }
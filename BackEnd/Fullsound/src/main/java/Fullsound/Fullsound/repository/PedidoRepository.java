@@ -1,16 +1,20 @@
 package Fullsound.Fullsound.repository;
 import Fullsound.Fullsound.model.Pedido;
 import Fullsound.Fullsound.model.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Integer> {
     Optional<Pedido> findByNumeroPedido(String numeroPedido);
+    @EntityGraph(attributePaths = {"items", "usuario"})
+    List<Pedido> findConItemsByIdIn(Collection<Integer> ids);
     List<Pedido> findByUsuarioOrderByFechaCompraDesc(Usuario usuario);
     List<Pedido> findByUsuarioAndEstado(Usuario usuario, String estado);
     List<Pedido> findByEstadoOrderByFechaCompraDesc(String estado);
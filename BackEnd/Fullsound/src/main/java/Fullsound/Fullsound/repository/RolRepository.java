@@ -1,10 +1,13 @@
 package Fullsound.Fullsound.repository;
 import Fullsound.Fullsound.model.Rol;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 @Repository
 public interface RolRepository extends JpaRepository<Rol, Integer> {
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"), @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-roles")})
     Optional<Rol> findByTipo(String tipo);
     boolean existsByTipo(String tipo);
 }
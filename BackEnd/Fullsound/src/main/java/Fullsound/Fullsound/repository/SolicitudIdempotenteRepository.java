@@ -0,0 +1,43 @@
+package Fullsound.Fullsound.repository;
+import Fullsound.Fullsound.model.SolicitudIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+@Repository
+public interface SolicitudIdempotenteRepository extends JpaRepository<SolicitudIdempotente, String> {
+    /**
+     * Reserva la clave; devuelve 0 si ya existe (otra ejecución o una respuesta guardada).
+     * Dos reservas simultáneas pueden pasar el NOT EXISTS: la segunda falla por la clave primaria.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO solicitud_idempotente (id, huella, created_at, expira_en) SELECT :id, :huella, :ahora, :expiraEn " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM solicitud_idempotente WHERE id = :id)", nativeQuery = true)
+    int reservar(@Param("id") String id, @Param("huella") String huella,
+                 @Param("ahora") LocalDateTime ahora, @Param("expiraEn") LocalDateTime expiraEn);
+    @Modifying
+    @Transactional
+    @Query("UPDATE SolicitudIdempotente s SET s.estadoHttp = :estadoHttp, s.tipoContenido = :tipoContenido, s.cuerpo = :cuerpo WHERE s.id = :id")
+    int completar(@Param("id") String id, @Param("estadoHttp") int estadoHttp,
+                  @Param("tipoContenido") String tipoContenido, @Param("cuerpo") byte[] cuerpo);
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SolicitudIdempotente s WHERE s.id = :id")
+    int liberar(@Param("id") String id);
+    /**
+     * Borra la clave si venció o si quedó reservada sin terminar desde antes de abandonadaAntesDe.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SolicitudIdempotente s WHERE s.id = :id AND (s.expiraEn < :ahora OR (s.estadoHttp IS NULL AND s.createdAt < :abandonadaAntesDe))")
+    int liberarSiCaducada(@Param("id") String id, @Param("ahora") LocalDateTime ahora,
+                          @Param("abandonadaAntesDe") LocalDateTime abandonadaAntesDe);
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SolicitudIdempotente s WHERE s.expiraEn < :ahora")
+    int eliminarVencidas(@Param("ahora") LocalDateTime ahora);
+}
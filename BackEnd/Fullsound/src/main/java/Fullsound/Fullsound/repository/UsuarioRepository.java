@@ -1,17 +1,68 @@
 package Fullsound.Fullsound.repository;
 import Fullsound.Fullsound.model.Usuario;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"), @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-usuarios")})
     Optional<Usuario> findByNombreUsuario(String nombreUsuario);
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"), @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-usuarios")})
     Optional<Usuario> findByCorreo(String correo);
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"), @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-usuarios")})
+    @Query("SELECT u FROM Usuario u LEFT JOIN FETCH u.rol WHERE u.nombreUsuario = :nombreUsuario")
+    Optional<Usuario> findParaLoginPorNombreUsuario(@Param("nombreUsuario") String nombreUsuario);
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"), @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-usuarios")})
+    @Query("SELECT u FROM Usuario u LEFT JOIN FETCH u.rol WHERE u.correo = :correo")
+    Optional<Usuario> findParaLoginPorCorreo(@Param("correo") String correo);
     boolean existsByNombreUsuario(String nombreUsuario);
     boolean existsByCorreo(String correo);
     List<Usuario> findByActivo(Boolean activo);
+    @Query("SELECT u.nombreUsuario, u.correo FROM Usuario u")
+    List<Object[]> findNombresYCorreos();
     @Query("SELECT u FROM Usuario u WHERE u.rol.tipo = :rolTipo")
     List<Usuario> findByRolTipo(String rolTipo);
+    /**
+     * Búsqueda para administración paginada por id (keyset): sin prefijo, solo filtros.
+     */
+    @Query("SELECT u FROM Usuario u JOIN FETCH u.rol r WHERE u.id > :despuesDeId " +
+           "AND (:rol IS NULL OR r.tipo = :rol) AND (:activo IS NULL OR u.activo = :activo) " +
+           "ORDER BY u.id LIMIT :limite")
+    List<Usuario> buscarPorId(@Param("despuesDeId") int despuesDeId, @Param("rol") String rol,
+                              @Param("activo") Boolean activo, @Param("limite") int limite);
+    /**
+     * Prefijo de nombre de usuario sin distinguir mayúsculas. El rango [desde, hasta) permite usar
+     * el índice también con plan genérico; el LIKE descarta lo que el rango deja pasar de más.
+     * Rango, cursor y orden van con orden_binario (COLLATE "C", ver V5): solo ordenando por
+     * bytes el rango contiene todo lo que empieza por el prefijo.
+     */
+    @Query("SELECT u FROM Usuario u JOIN FETCH u.rol r " +
+           "WHERE orden_binario(LOWER(u.nombreUsuario)) >= :desde AND orden_binario(LOWER(u.nombreUsuario)) < :hasta AND LOWER(u.nombreUsuario) LIKE :patron ESCAPE '!' " +
+           "AND (orden_binario(LOWER(u.nombreUsuario)), u.id) > (:despuesDe, :despuesDeId) " +
+           "AND (:rol IS NULL OR r.tipo = :rol) AND (:activo IS NULL OR u.activo = :activo) " +
+           "ORDER BY orden_binario(LOWER(u.nombreUsuario)), u.id LIMIT :limite")
+    List<Usuario> buscarPorNombreUsuario(@Param("desde") String desde, @Param("hasta") String hasta, @Param("patron") String patron,
+                                         @Param("despuesDe") String despuesDe, @Param("despuesDeId") int despuesDeId,
+                                         @Param("rol") String rol, @Param("activo") Boolean activo, @Param("limite") int limite);
+    @Query("SELECT u FROM Usuario u JOIN FETCH u.rol r " +
+           "WHERE orden_binario(LOWER(u.correo)) >= :desde AND orden_binario(LOWER(u.correo)) < :hasta AND LOWER(u.correo) LIKE :patron ESCAPE '!' " +
+           "AND (orden_binario(LOWER(u.correo)), u.id) > (:despuesDe, :despuesDeId) " +
+           "AND (:rol IS NULL OR r.tipo = :rol) AND (:activo IS NULL OR u.activo = :activo) " +
+           "ORDER BY orden_binario(LOWER(u.correo)), u.id LIMIT :limite")
+    List<Usuario> buscarPorCorreo(@Param("desde") String desde, @Param("hasta") String hasta, @Param("patron") String patron,
+                                  @Param("despuesDe") String despuesDe, @Param("despuesDeId") int despuesDeId,
+                                  @Param("rol") String rol, @Param("activo") Boolean activo, @Param("limite") int limite);
+    @Query("SELECT u FROM Usuario u JOIN FETCH u.rol r " +
+           "WHERE orden_binario(u.rutNormalizado) >= :desde AND orden_binario(u.rutNormalizado) < :hasta AND u.rutNormalizado LIKE :patron ESCAPE '!' " +
+           "AND (orden_binario(u.rutNormalizado), u.id) > (:despuesDe, :despuesDeId) " +
+           "AND (:rol IS NULL OR r.tipo = :rol) AND (:activo IS NULL OR u.activo = :activo) " +
+           "ORDER BY orden_binario(u.rutNormalizado), u.id LIMIT :limite")
+    List<Usuario> buscarPorRut(@Param("desde") String desde, @Param("hasta") String hasta, @Param("patron") String patron,
+                               @Param("despuesDe") String despuesDe, @Param("despuesDeId") int despuesDeId,
+                               @Param("rol") String rol, @Param("activo") Boolean activo, @Param("limite") int limite);
 }
@@ -0,0 +1,26 @@
+package Fullsound.Fullsound.security;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+/**
+ * Elige el costo de BCrypt midiendo el hardware al arrancar: cada punto de costo duplica el
+ * tiempo, así que se mide con el mínimo y se sube mientras quepa en el objetivo.
+ */
+public final class BcryptStrength {
+    private BcryptStrength() {
+    }
+    public static int resolver(String configurado, long objetivoMs, int minimo, int maximo) {
+        if (configurado != null && !configurado.isBlank() && !"auto".equalsIgnoreCase(configurado.trim())) {
+            return Math.max(4, Math.min(31, Integer.parseInt(configurado.trim())));
+        }
+        BCryptPasswordEncoder prueba = new BCryptPasswordEncoder(minimo);
+        prueba.encode("calentamiento");
+        long inicio = System.nanoTime();
+        prueba.encode("calibracion-bcrypt");
+        double ms = (System.nanoTime() - inicio) / 1e6;
+        int strength = minimo;
+        while (strength < maximo && ms * 2 <= objetivoMs) {
+            strength++;
+            ms *= 2;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,90 @@
+package Fullsound.Fullsound.security;
+import Fullsound.Fullsound.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Ejecuta el hashing en un pool propio y acotado para que una ráfaga de logins no ocupe todos
+ * los hilos de Tomcat con BCrypt. Cuando la cola está llena rechaza de inmediato (503) en vez
+ * de encolar trabajo que igual terminaría en timeout.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxEsperaMs;
+    private final Timer latenciaEncode;
+    private final Timer latenciaMatches;
+    private final Timer esperaCola;
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int hilos, int capacidadCola, long maxEsperaMs,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxEsperaMs = maxEsperaMs;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "password-hash-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.latenciaEncode = Timer.builder("password.hash.latencia").tag("operacion", "encode").register(meterRegistry);
+        this.latenciaMatches = Timer.builder("password.hash.latencia").tag("operacion", "matches").register(meterRegistry);
+        this.esperaCola = Timer.builder("password.hash.espera").description("Tiempo en cola antes de hashear").register(meterRegistry);
+        Gauge.builder("password.hash.cola", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> delegate.encode(rawPassword), latenciaEncode);
+    }
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> delegate.matches(rawPassword, encodedPassword), latenciaMatches);
+    }
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+    private <T> T ejecutar(Callable<T> hash, Timer latencia) {
+        long encolado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                esperaCola.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return latencia.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Servicio de autenticación saturado, intenta nuevamente");
+        }
+        try {
+            return futuro.get(maxEsperaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw new ServiceUnavailableException("Servicio de autenticación saturado, intenta nuevamente");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.cancel(true);
+            throw new ServiceUnavailableException("Operación interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
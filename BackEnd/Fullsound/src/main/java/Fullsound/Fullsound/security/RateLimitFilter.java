@@ -0,0 +1,107 @@
+package Fullsound.Fullsound.security;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final RateLimitProperties properties;
+    private final List<Limite> limites;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        long ttl = properties.getTtlInactividad().toNanos();
+        this.limites = properties.getPoliticas().stream()
+                .map(p -> new Limite(p, new RateLimiter(p.getCapacidad(), p.getRecargaPorSegundo(), ttl),
+                        Counter.builder("ratelimit.rechazos")
+                                .description("Peticiones rechazadas por el rate limiter")
+                                .tag("politica", p.getNombre())
+                                .register(meterRegistry)))
+                .toList();
+    }
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || limites.isEmpty();
+    }
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String ruta = request.getServletPath();
+        for (Limite limite : limites) {
+            RateLimitProperties.Politica politica = limite.politica();
+            if (politica.getMetodo() != null && !politica.getMetodo().equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (!matcher.match(politica.getRuta(), ruta)) {
+                continue;
+            }
+            long esperaNanos = limite.limiter().intentar(politica.getNombre() + "|" + clave(politica, request));
+            if (esperaNanos > 0) {
+                limite.rechazos().increment();
+                rechazar(response, esperaNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+    private String clave(RateLimitProperties.Politica politica, HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String usuario = auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof UserDetailsImpl
+                ? auth.getName()
+                : null;
+        return switch (politica.getClave()) {
+            case IP -> ipCliente(request, properties.getProxiesConfiables());
+            case USUARIO -> usuario != null ? "u:" + usuario : ipCliente(request, properties.getProxiesConfiables());
+            case IP_USUARIO -> ipCliente(request, properties.getProxiesConfiables()) + (usuario != null ? "|u:" + usuario : "");
+        };
+    }
+    /**
+     * IP del cliente según el último proxy confiable. No se usa getRemoteAddr(): con
+     * server.forward-headers-strategy=framework sale de la primera entrada de X-Forwarded-For,
+     * que escribe el propio cliente. Se lee la petición original (sin ForwardedHeaderFilter)
+     * y se cuenta desde la derecha, donde cada proxy agregó la dirección de quien le habló.
+     */
+    public static String ipCliente(HttpServletRequest request, int proxiesConfiables) {
+        HttpServletRequest original = request;
+        while (original instanceof HttpServletRequestWrapper envoltorio
+                && envoltorio.getRequest() instanceof HttpServletRequest interna) {
+            original = interna;
+        }
+        String socket = original.getRemoteAddr();
+        String reenviado = original.getHeader("X-Forwarded-For");
+        if (proxiesConfiables <= 0 || reenviado == null || reenviado.isBlank()) {
+            return socket;
+        }
+        String[] saltos = reenviado.split(",");
+        int indice = Math.max(0, saltos.length - proxiesConfiables);
+        String ip = saltos[indice].trim();
+        return ip.isEmpty() ? socket : ip;
+    }
+    private void rechazar(HttpServletResponse response, long esperaNanos) throws IOException {
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999L));
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        MAPPER.writeValue(response.getOutputStream(), Map.of(
+                "success", false,
+                "message", "Demasiadas solicitudes, intenta nuevamente en " + segundos + " segundos"));
+    }
+    private record Limite(RateLimitProperties.Politica politica, RateLimiter limiter, Counter rechazos) {
+    }
+}
@@ -0,0 +1,35 @@
+package Fullsound.Fullsound.security;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+@Data
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private Duration ttlInactividad = Duration.ofMinutes(10);
+    /**
+     * Proxies propios delante de la aplicación que agregan una entrada a X-Forwarded-For.
+     * La IP del cliente es la que agregó el más externo; lo que haya a su izquierda lo
+     * escribió el cliente y no se usa. Con 0 se usa la dirección del socket.
+     */
+    private int proxiesConfiables = 0;
+    private List<Politica> politicas = new ArrayList<>();
+    @Data
+    public static class Politica {
+        private String nombre;
+        private String metodo;
+        private String ruta;
+        private int capacidad = 10;
+        private double recargaPorSegundo = 1.0;
+        private Clave clave = Clave.IP;
+    }
+    public enum Clave {
+        IP,
+        USUARIO,
+        IP_USUARIO
+    }
+}
@@ -0,0 +1,67 @@
+package Fullsound.Fullsound.security;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+/**
+ * Token buckets sin locks implementados con GCRA: cada bucket es un único AtomicLong con el
+ * "theoretical arrival time" y se actualiza con CAS.
+ * Las claves inactivas se descartan por generaciones: cada ttl la generación actual pasa a ser
+ * la anterior y la anterior se suelta completa, por lo que la expiración cuesta O(1).
+ */
+public class RateLimiter {
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    private volatile ConcurrentHashMap<String, AtomicLong> actual = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<String, AtomicLong> anterior = new ConcurrentHashMap<>();
+    private final AtomicLong siguienteRotacion;
+    public RateLimiter(int capacidad, double recargaPorSegundo, long ttlNanos, LongSupplier reloj) {
+        this.intervaloNanos = (long) (1_000_000_000L / recargaPorSegundo);
+        this.toleranciaNanos = intervaloNanos * (Math.max(1, capacidad) - 1);
+        this.ttlNanos = ttlNanos;
+        this.reloj = reloj;
+        this.siguienteRotacion = new AtomicLong(reloj.getAsLong() + ttlNanos);
+    }
+    public RateLimiter(int capacidad, double recargaPorSegundo, long ttlNanos) {
+        this(capacidad, recargaPorSegundo, ttlNanos, System::nanoTime);
+    }
+    /**
+     * @return 0 si la petición se admite, o los nanosegundos que faltan para que vuelva a haber un token.
+     */
+    public long intentar(String clave) {
+        long ahora = reloj.getAsLong();
+        rotarSiCorresponde(ahora);
+        AtomicLong bucket = bucket(clave);
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, ahora);
+            if (base - ahora > toleranciaNanos) {
+                return base - toleranciaNanos - ahora;
+            }
+            if (bucket.compareAndSet(tat, base + intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+    public int claves() {
+        return actual.size() + anterior.size();
+    }
+    private AtomicLong bucket(String clave) {
+        AtomicLong bucket = actual.get(clave);
+        if (bucket != null) {
+            return bucket;
+        }
+        AtomicLong previo = anterior.get(clave);
+        AtomicLong nuevo = previo != null ? previo : new AtomicLong(Long.MIN_VALUE);
+        AtomicLong existente = actual.putIfAbsent(clave, nuevo);
+        return existente != null ? existente : nuevo;
+    }
+    private void rotarSiCorresponde(long ahora) {
+        long rotacion = siguienteRotacion.get();
+        if (ahora - rotacion >= 0 && siguienteRotacion.compareAndSet(rotacion, ahora + ttlNanos)) {
+            anterior = actual;
+            actual = new ConcurrentHashMap<>();
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package Fullsound.Fullsound.security;
+import Fullsound.Fullsound.idempotencia.IdempotenciaFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -19,6 +24,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
 import java.util.List;
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -27,15 +33,43 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final IdempotenciaFilter idempotenciaFilter;
+    private final MeterRegistry meterRegistry;
+    @Value("${security.password.bcrypt.strength:auto}")
+    private String bcryptStrength;
+    @Value("${security.password.bcrypt.objetivo-ms:250}")
+    private long bcryptObjetivoMs;
+    @Value("${security.password.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+    @Value("${security.password.bcrypt.max-strength:14}")
+    private int bcryptMaxStrength;
+    @Value("${security.password.hilos:0}")
+    private int hilosHash;
+    @Value("${security.password.capacidad-cola:64}")
+    private int capacidadColaHash;
+    @Value("${security.password.max-espera-ms:5000}")
+    private long maxEsperaHashMs;
+    /**
+     * Puerto propio de actuator (management.server.port), sin ruta pública: ahí Prometheus raspa
+     * sin JWT. Sin él, los endpoints de métricas van por el puerto de la API y piden administrador.
+     */
+    @Value("${management.server.port:-1}")
+    private int puertoGestion;
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = BcryptStrength.resolver(bcryptStrength, bcryptObjetivoMs, bcryptMinStrength, bcryptMaxStrength);
+        int hilos = hilosHash > 0 ? hilosHash : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        log.info("BCrypt con strength {} en {} hilos (cola {})", strength, hilos, capacidadColaHash);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), hilos, capacidadColaHash,
+                maxEsperaHashMs, meterRegistry);
     }
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
     @Bean
@@ -49,18 +83,26 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // El JWT ya se validó en el despacho original; los SSE terminan con un despacho ASYNC sin cabeceras nuevas
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/fix/**").permitAll()
                 .requestMatchers("/api/upload/**").authenticated()
+                .requestMatchers(request -> puertoGestion > 0 && request.getLocalPort() == puertoGestion).permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/prometheus", "/actuator/metrics/**", "/actuator/slowqueries", "/actuator/startup").hasAuthority("administrador")
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html", "/api-docs/**", "/api-docs").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/beats/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/beats/lote").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/eventos").permitAll()
                 .requestMatchers("/carrito", "/carrito/**", "/api/carrito/**").permitAll()
                 .requestMatchers("/", "/index.html", "/static/**", "/assets/**", "/*.js", "/*.css", "/*.ico", "/*.png").permitAll()
                 .anyRequest().authenticated()
             );
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+        http.addFilterAfter(idempotenciaFilter, RateLimitFilter.class);
         return http.build();
     }
     @Bean
@@ -73,7 +115,7 @@ public class SecurityConfig {
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Access-Control-Allow-Origin"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Access-Control-Allow-Origin", "X-Consistency-Token"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -3,19 +3,35 @@ import Fullsound.Fullsound.model.Usuario;
 import Fullsound.Fullsound.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UsuarioRepository usuarioRepository;
+    /**
+     * Un identificador con '@' es un correo y solo se busca como correo; los nombres de usuario
+     * no pueden contener '@', así nadie puede registrar como nombre el correo de otro.
+     */
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByNombreUsuario(username)
+        Usuario usuario = (username.indexOf('@') >= 0
+                ? usuarioRepository.findParaLoginPorCorreo(username)
+                : usuarioRepository.findParaLoginPorNombreUsuario(username))
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
         return UserDetailsImpl.build(usuario);
     }
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByNombreUsuario(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + user.getUsername()));
+        usuario.setContraseña(newPassword);
+        usuarioRepository.save(usuario);
+        return UserDetailsImpl.build(usuario);
+    }
 }
@@ -0,0 +1,7 @@
+package Fullsound.Fullsound.service;
+import java.util.Map;
+public interface AnalisisAudioService {
+    boolean programar(String audioUrl, int prioridad);
+    int escribirResultados();
+    Map<String, Object> getEstadisticas();
+}
@@ -3,7 +3,9 @@ import Fullsound.Fullsound.dto.request.LoginRequest;
 import Fullsound.Fullsound.dto.request.RegisterRequest;
 import Fullsound.Fullsound.dto.response.AuthResponse;
 import Fullsound.Fullsound.dto.response.MessageResponse;
+import java.util.Map;
 public interface AuthService {
     MessageResponse register(RegisterRequest request);
     AuthResponse login(LoginRequest request);
+    Map<String, Boolean> verificarDisponibilidad(String nombreUsuario, String correo);
 }
@@ -1,6 +1,7 @@
 package Fullsound.Fullsound.service;
 import Fullsound.Fullsound.dto.request.BeatRequest;
 import Fullsound.Fullsound.dto.response.BeatResponse;
+import Fullsound.Fullsound.dto.response.BeatsLoteResponse;
 import java.math.BigDecimal;
 import java.util.List;
 public interface BeatService {
@@ -8,12 +9,15 @@ public interface BeatService {
     BeatResponse update(Integer id, BeatRequest request);
     BeatResponse getById(Integer id);
     BeatResponse getBySlug(String slug);
+    BeatsLoteResponse getByIds(List<Integer> ids);
+    List<BeatResponse> getSimilares(Integer id, int limite);
+    List<BeatResponse> getCompradosJuntos(Integer id, int limite);
     List<BeatResponse> getAllActive();
-    List<BeatResponse> getFeatured();
+    List<BeatResponse> getFeatured(int limite, String genero);
     List<BeatResponse> search(String query);
     List<BeatResponse> filterByPrice(Integer min, Integer max);
     List<BeatResponse> filterByBpm(Integer min, Integer max);
     void delete(Integer id);
-    void incrementPlays(Integer id);
+    void incrementPlays(Integer id, Integer usuarioId);
     void incrementLikes(Integer id);
 }
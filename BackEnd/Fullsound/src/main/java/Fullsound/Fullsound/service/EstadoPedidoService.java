@@ -0,0 +1,14 @@
+package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.model.Pedido;
+import java.util.List;
+/**
+ * Máquina de estados de pedidos: valida la transición y cambia los beats de todos los pedidos
+ * con un UPDATE por conjunto, sin cargar cada beat.
+ */
+public interface EstadoPedidoService {
+    void cambiarEstado(Pedido pedido, String estado);
+    /**
+     * Aplica la misma transición a varios pedidos; si alguno no puede pasar al estado no se cambia ninguno.
+     */
+    void cambiarEstado(List<Pedido> pedidos, String estado);
+}
@@ -0,0 +1,11 @@
+package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.dto.request.EventoRequest;
+import Fullsound.Fullsound.dto.response.EventosDiarioResponse;
+import java.util.List;
+public interface EventoService {
+    /**
+     * cliente identifica a quien envía (usuario o IP) para acotar sus reproducciones.
+     */
+    int registrar(List<EventoRequest> eventos, Integer usuarioId, String cliente);
+    EventosDiarioResponse leer(long desde, int maximo);
+}
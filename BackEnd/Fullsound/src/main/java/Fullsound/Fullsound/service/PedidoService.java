@@ -1,4 +1,5 @@
 package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.dto.request.CambioEstadoLoteRequest;
 import Fullsound.Fullsound.dto.request.PedidoRequest;
 import Fullsound.Fullsound.dto.response.PedidoResponse;
 import java.util.List;
@@ -9,4 +10,5 @@ public interface PedidoService {
     List<PedidoResponse> getByUsuario(Integer usuarioId);
     List<PedidoResponse> getAll();
     PedidoResponse updateEstado(Integer id, String estado);
+    List<PedidoResponse> updateEstadoLote(CambioEstadoLoteRequest request);
 }
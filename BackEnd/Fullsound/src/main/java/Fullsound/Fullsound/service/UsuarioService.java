@@ -1,11 +1,14 @@
 package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.dto.request.BusquedaUsuariosRequest;
 import Fullsound.Fullsound.dto.request.UpdateUsuarioRequest;
 import Fullsound.Fullsound.dto.response.UsuarioResponse;
+import Fullsound.Fullsound.dto.response.UsuariosPaginaResponse;
 import java.util.List;
 public interface UsuarioService {
     UsuarioResponse getById(Integer id);
     UsuarioResponse getByNombreUsuario(String nombreUsuario);
     List<UsuarioResponse> getAll();
+    UsuariosPaginaResponse buscar(BusquedaUsuariosRequest filtros);
     UsuarioResponse updateProfile(String nombreUsuario, UpdateUsuarioRequest request);
     UsuarioResponse updateById(Integer id, UpdateUsuarioRequest request);
     void deactivate(Integer id);
@@ -0,0 +1,188 @@
+package Fullsound.Fullsound.service.impl;
+import Fullsound.Fullsound.audio.AnalisisAudio;
+import Fullsound.Fullsound.audio.AnalizadorAudio;
+import Fullsound.Fullsound.datasource.Carga;
+import Fullsound.Fullsound.datasource.CargaTrabajo;
+import Fullsound.Fullsound.metrics.LlamadasExternas;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.repository.BeatRepository;
+import Fullsound.Fullsound.service.AnalisisAudioService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.Collectors;
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalisisAudioServiceImpl implements AnalisisAudioService {
+    private final ThreadPoolExecutor analisisAudioExecutor;
+    private final AnalizadorAudio analizadorAudio;
+    private final BeatRepository beatRepository;
+    private final LlamadasExternas llamadasExternas;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private final Map<String, AnalisisAudio> pendientes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> intentos = new ConcurrentHashMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final AtomicLong analizados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private final DoubleAdder segundosAudio = new DoubleAdder();
+    private final DoubleAdder segundosCpu = new DoubleAdder();
+    @Value("${audio.analisis.capacidad-cola:100}")
+    private int capacidadCola;
+    @Value("${audio.analisis.lote:50}")
+    private int lote;
+    @Value("${audio.analisis.max-intentos-escritura:30}")
+    private int maxIntentosEscritura;
+    @Override
+    public boolean programar(String audioUrl, int prioridad) {
+        if (enCola.incrementAndGet() > capacidadCola) {
+            enCola.decrementAndGet();
+            rechazados.incrementAndGet();
+            return false;
+        }
+        try {
+            analisisAudioExecutor.execute(new TareaAnalisis(audioUrl, prioridad, secuencia.incrementAndGet()));
+            return true;
+        } catch (RejectedExecutionException e) {
+            enCola.decrementAndGet();
+            rechazados.incrementAndGet();
+            return false;
+        }
+    }
+    @Override
+    @Scheduled(fixedDelayString = "${audio.analisis.intervalo-escritura-ms:10000}")
+    @Carga(CargaTrabajo.TAREAS)
+    @Transactional
+    public int escribirResultados() {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+        List<String> urls = pendientes.keySet().stream().limit(lote).collect(Collectors.toList());
+        List<Beat> beats = beatRepository.findByAudioUrlIn(urls);
+        for (Beat beat : beats) {
+            AnalisisAudio analisis = pendientes.get(beat.getAudioUrl());
+            if (analisis.getDuracion() != null) {
+                beat.setDuracion(analisis.getDuracion());
+            }
+            if (analisis.getBpm() != null && analisis.getBpm() >= 1 && analisis.getBpm() <= 300) {
+                beat.setBpm(analisis.getBpm());
+            }
+            if (analisis.getTonalidad() != null && beat.getTonalidad() == null) {
+                beat.setTonalidad(analisis.getTonalidad());
+            }
+        }
+        beatRepository.saveAll(beats);
+        Set<String> escritas = beats.stream().map(Beat::getAudioUrl).collect(Collectors.toSet());
+        for (String url : urls) {
+            if (escritas.contains(url) || intentos.merge(url, 1, Integer::sum) >= maxIntentosEscritura) {
+                pendientes.remove(url);
+                intentos.remove(url);
+            }
+        }
+        return beats.size();
+    }
+    @Override
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        double audio = segundosAudio.sum();
+        double cpu = segundosCpu.sum();
+        stats.put("enCola", enCola.get());
+        stats.put("analizados", analizados.get());
+        stats.put("fallidos", fallidos.get());
+        stats.put("rechazados", rechazados.get());
+        stats.put("pendientesDeEscritura", pendientes.size());
+        stats.put("segundosAudio", audio);
+        stats.put("segundosCpu", cpu);
+        stats.put("segundosAudioPorSegundoCpu", cpu > 0 ? audio / cpu : 0.0);
+        return stats;
+    }
+    private void analizar(String audioUrl) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(audioUrl))
+                    .timeout(Duration.ofMinutes(2))
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response = llamadasExternas.medir("supabase", "storage.descargar", () -> {
+                try {
+                    return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Descarga interrumpida: " + audioUrl);
+                }
+            });
+            try (InputStream cuerpo = response.body()) {
+                if (response.statusCode() != 200) {
+                    fallidos.incrementAndGet();
+                    log.warn("No se pudo descargar {} para análisis (status {})", audioUrl, response.statusCode());
+                    return;
+                }
+                AnalisisAudio analisis = analizadorAudio.analizar(cuerpo);
+                analisis.setAudioUrl(audioUrl);
+                pendientes.put(audioUrl, analisis);
+                analizados.incrementAndGet();
+                segundosAudio.add(analisis.getSegundosAudio());
+                segundosCpu.add(analisis.getSegundosCpu());
+                log.debug("Audio analizado {}: duracion={}s bpm={} tonalidad={}", audioUrl,
+                        analisis.getDuracion(), analisis.getBpm(), analisis.getTonalidad());
+            }
+        } catch (UnsupportedAudioFileException e) {
+            fallidos.incrementAndGet();
+            log.info("Formato de audio no soportado para análisis: {}", audioUrl);
+        } catch (InterruptedIOException e) {
+            log.debug("Análisis interrumpido: {}", audioUrl);
+        } catch (IOException | IllegalArgumentException e) {
+            fallidos.incrementAndGet();
+            log.warn("Error al analizar {}: {}", audioUrl, e.getMessage());
+        } catch (RuntimeException e) {
+            fallidos.incrementAndGet();
+            log.error("Error inesperado al analizar {}", audioUrl, e);
+        }
+    }
+    private final class TareaAnalisis implements Runnable, Comparable<TareaAnalisis> {
+        private final String audioUrl;
+        private final int prioridad;
+        private final long orden;
+        private TareaAnalisis(String audioUrl, int prioridad, long orden) {
+            this.audioUrl = audioUrl;
+            this.prioridad = prioridad;
+            this.orden = orden;
+        }
+        @Override
+        public void run() {
+            enCola.decrementAndGet();
+            analizar(audioUrl);
+        }
+        @Override
+        public int compareTo(TareaAnalisis otra) {
+            int comparacion = Integer.compare(otra.prioridad, prioridad);
+            return comparacion != 0 ? comparacion : Long.compare(orden, otra.orden);
+        }
+    }
+}
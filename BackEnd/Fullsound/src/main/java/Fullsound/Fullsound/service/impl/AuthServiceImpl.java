@@ -1,9 +1,11 @@
 package Fullsound.Fullsound.service.impl;
+import Fullsound.Fullsound.cache.IndiceUnicidadUsuarios;
 import Fullsound.Fullsound.dto.request.LoginRequest;
 import Fullsound.Fullsound.dto.request.RegisterRequest;
 import Fullsound.Fullsound.dto.response.AuthResponse;
 import Fullsound.Fullsound.dto.response.MessageResponse;
 import Fullsound.Fullsound.exception.BadRequestException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
 import Fullsound.Fullsound.model.Rol;
 import Fullsound.Fullsound.model.Usuario;
 import Fullsound.Fullsound.repository.RolRepository;
@@ -12,15 +14,19 @@ import Fullsound.Fullsound.security.JwtTokenProvider;
 import Fullsound.Fullsound.security.UserDetailsImpl;
 import Fullsound.Fullsound.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
@@ -29,13 +35,15 @@ public class AuthServiceImpl implements AuthService {
     private final RolRepository rolRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final IndiceUnicidadUsuarios indiceUnicidad;
+    private final BusInvalidacion busInvalidacion;
     @Override
     @Transactional
     public MessageResponse register(RegisterRequest request) {
-        if (usuarioRepository.existsByNombreUsuario(request.getNombreUsuario())) {
+        if (nombreUsuarioEnUso(request.getNombreUsuario())) {
             throw new BadRequestException("El nombre de usuario ya está en uso");
         }
-        if (usuarioRepository.existsByCorreo(request.getCorreo())) {
+        if (correoEnUso(request.getCorreo())) {
             throw new BadRequestException("El correo ya está registrado");
         }
         String tipoRol = (request.getRol() != null && !request.getRol().isEmpty()) 
@@ -53,7 +61,14 @@ public class AuthServiceImpl implements AuthService {
                 .activo(true)
                 .rol(rol)
                 .build();
-        usuarioRepository.save(usuario);
+        try {
+            usuarioRepository.saveAndFlush(usuario);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("El nombre de usuario o correo ya está en uso");
+        }
+        indiceUnicidad.registrar(usuario.getNombreUsuario(), usuario.getCorreo());
+        // los filtros de Bloom de las demás instancias dirían que el nombre sigue libre
+        busInvalidacion.publicar(BusInvalidacion.USUARIO, usuario.getId());
         return MessageResponse.builder()
                 .message("Usuario registrado exitosamente")
                 .success(true)
@@ -61,27 +76,18 @@ public class AuthServiceImpl implements AuthService {
     }
     @Override
     public AuthResponse login(LoginRequest request) {
-        String identifier = request.getNombreUsuario();
-        String username = identifier;
-        if (identifier.contains("@")) {
-            Usuario usuario = usuarioRepository.findByCorreo(identifier)
-                    .orElseThrow(() -> new BadRequestException("Credenciales inválidas"));
-            username = usuario.getNombreUsuario();
-        }
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
-                        username,
+                        request.getNombreUsuario(),
                         request.getContraseña()
                 )
         );
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = tokenProvider.generateToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        Usuario usuario = usuarioRepository.findByNombreUsuario(userDetails.getUsername())
-                .orElseThrow(() -> new BadRequestException("Usuario no encontrado"));
-        List<String> roles = usuario.getRol() != null 
-                ? Collections.singletonList(usuario.getRol().getTipo())
-                : Collections.emptyList();
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
         return new AuthResponse(
                 jwt,
                 userDetails.getId(),
@@ -90,4 +96,23 @@ public class AuthServiceImpl implements AuthService {
                 roles
         );
     }
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Boolean> verificarDisponibilidad(String nombreUsuario, String correo) {
+        Map<String, Boolean> disponibilidad = new LinkedHashMap<>();
+        if (nombreUsuario != null && !nombreUsuario.isBlank()) {
+            disponibilidad.put("nombreUsuario", !nombreUsuarioEnUso(nombreUsuario));
+        }
+        if (correo != null && !correo.isBlank()) {
+            disponibilidad.put("correo", !correoEnUso(correo));
+        }
+        return disponibilidad;
+    }
+    private boolean nombreUsuarioEnUso(String nombreUsuario) {
+        return indiceUnicidad.puedeExistirNombreUsuario(nombreUsuario)
+                && usuarioRepository.existsByNombreUsuario(nombreUsuario);
+    }
+    private boolean correoEnUso(String correo) {
+        return indiceUnicidad.puedeExistirCorreo(correo) && usuarioRepository.existsByCorreo(correo);
+    }
 }
@@ -1,28 +1,50 @@
 package Fullsound.Fullsound.service.impl;
 import Fullsound.Fullsound.dto.request.BeatRequest;
 import Fullsound.Fullsound.dto.response.BeatResponse;
+import Fullsound.Fullsound.dto.response.BeatsLoteResponse;
+import Fullsound.Fullsound.eventos.DiarioEventos;
+import Fullsound.Fullsound.eventos.EventoEscucha;
+import Fullsound.Fullsound.eventos.TipoEvento;
+import Fullsound.Fullsound.exception.BadRequestException;
 import Fullsound.Fullsound.exception.ResourceNotFoundException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
 import Fullsound.Fullsound.mapper.BeatMapper;
 import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.recomendacion.IndiceCompraConjunta;
+import Fullsound.Fullsound.recomendacion.IndiceSimilitudBeats;
+import Fullsound.Fullsound.recomendacion.TendenciasBeats;
 import Fullsound.Fullsound.repository.BeatRepository;
 import Fullsound.Fullsound.service.BeatService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class BeatServiceImpl implements BeatService {
     private final BeatRepository beatRepository;
     private final BeatMapper beatMapper;
+    private final IndiceSimilitudBeats indiceSimilitud;
+    private final IndiceCompraConjunta indiceCompraConjunta;
+    private final TendenciasBeats tendencias;
+    private final DiarioEventos diarioEventos;
+    private final BusInvalidacion busInvalidacion;
+    @Value("${beats.lote.max-ids:100}")
+    private int maxIdsLote;
     @Override
     @Transactional
     public BeatResponse create(BeatRequest request) {
         Beat beat = beatMapper.toEntity(request);
         beat.setSlug(generateSlug(request.getTitulo()));
         Beat savedBeat = beatRepository.save(beat);
+        indiceSimilitud.actualizar(savedBeat);
+        busInvalidacion.publicar(BusInvalidacion.BEAT, savedBeat.getId());
         return beatMapper.toResponse(savedBeat);
     }
     @Override
@@ -35,6 +57,8 @@ public class BeatServiceImpl implements BeatService {
             beat.setSlug(generateSlug(request.getTitulo()));
         }
         Beat updatedBeat = beatRepository.save(beat);
+        indiceSimilitud.actualizar(updatedBeat);
+        busInvalidacion.publicar(BusInvalidacion.BEAT, id);
         return beatMapper.toResponse(updatedBeat);
     }
     @Override
@@ -53,18 +77,87 @@ public class BeatServiceImpl implements BeatService {
     }
     @Override
     @Transactional(readOnly = true)
-    public List<BeatResponse> getAllActive() {
-        return beatRepository.findAll().stream()
+    public BeatsLoteResponse getByIds(List<Integer> ids) {
+        List<Integer> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        unicos.remove(null);
+        if (unicos.size() > maxIdsLote) {
+            throw new BadRequestException("Se pueden pedir como máximo " + maxIdsLote + " beats por solicitud");
+        }
+        List<Beat> beats = unicos.isEmpty() ? List.of() : beatRepository.cargarVarios(unicos);
+        List<BeatResponse> encontrados = new ArrayList<>(unicos.size());
+        List<Integer> noEncontrados = new ArrayList<>();
+        for (int i = 0; i < unicos.size(); i++) {
+            Beat beat = beats.get(i);
+            if (beat == null) {
+                noEncontrados.add(unicos.get(i));
+            } else {
+                encontrados.add(beatMapper.toResponse(beat));
+            }
+        }
+        return BeatsLoteResponse.builder().beats(encontrados).noEncontrados(noEncontrados).build();
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public List<BeatResponse> getSimilares(Integer id, int limite) {
+        List<Integer> ids = indiceSimilitud.similares(id, limite);
+        if (ids == null) {
+            if (!beatRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Beat", "id", id);
+            }
+            return List.of();
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return beatRepository.cargarVarios(ids).stream()
+                .filter(Objects::nonNull)
+                .map(beatMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+    @Override
+    @Transactional(readOnly = true)
+    public List<BeatResponse> getCompradosJuntos(Integer id, int limite) {
+        List<Integer> ids = indiceCompraConjunta.compradosJuntos(id, limite);
+        if (ids.isEmpty()) {
+            if (!beatRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Beat", "id", id);
+            }
+            return List.of();
+        }
+        return beatRepository.cargarVarios(ids).stream()
+                .filter(beat -> beat != null && "DISPONIBLE".equals(beat.getEstado()))
                 .map(beatMapper::toResponse)
                 .collect(Collectors.toList());
     }
     @Override
     @Transactional(readOnly = true)
-    public List<BeatResponse> getFeatured() {
+    public List<BeatResponse> getAllActive() {
         return beatRepository.findAll().stream()
                 .map(beatMapper::toResponse)
                 .collect(Collectors.toList());
     }
+    /**
+     * Sin @Transactional: lo precalculado no toca la base y no debe pedir conexión al pool. El
+     * respaldo usa las transacciones de solo lectura del repositorio (Beat no tiene relaciones lazy).
+     */
+    @Override
+    public List<BeatResponse> getFeatured(int limite, String genero) {
+        List<BeatResponse> destacados = genero == null
+                ? tendencias.destacados(limite)
+                : tendencias.destacadosPorGenero(genero, limite);
+        if (destacados != null) {
+            return destacados;
+        }
+        List<Beat> beats = genero == null
+                ? beatRepository.findTopByOrderByReproduccionesDesc(limite)
+                : beatRepository.findByGeneroContainingIgnoreCase(genero).stream()
+                        .filter(beat -> "DISPONIBLE".equals(beat.getEstado()))
+                        .limit(limite)
+                        .toList();
+        return beats.stream()
+                .map(beatMapper::toResponse)
+                .collect(Collectors.toList());
+    }
     @Override
     @Transactional(readOnly = true)
     public List<BeatResponse> search(String query) {
@@ -94,14 +187,16 @@ public class BeatServiceImpl implements BeatService {
         Beat beat = beatRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Beat", "id", id));
         beatRepository.delete(beat);
+        indiceSimilitud.eliminar(id);
+        busInvalidacion.publicar(BusInvalidacion.BEAT, id);
     }
     @Override
-    @Transactional
-    public void incrementPlays(Integer id) {
-        Beat beat = beatRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Beat", "id", id));
-        beat.setReproducciones(beat.getReproducciones() + 1);
-        beatRepository.save(beat);
+    @Transactional(readOnly = true)
+    public void incrementPlays(Integer id, Integer usuarioId) {
+        if (beatRepository.findById(id).isEmpty()) {
+            throw new ResourceNotFoundException("Beat", "id", id);
+        }
+        diarioEventos.agregar(new EventoEscucha(System.currentTimeMillis(), id, usuarioId == null ? 0 : usuarioId, 0, TipoEvento.REPRODUCCION));
     }
     @Override
     @Transactional
@@ -0,0 +1,112 @@
+package Fullsound.Fullsound.service.impl;
+import Fullsound.Fullsound.enums.EstadoPedido;
+import Fullsound.Fullsound.exception.BadRequestException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.model.PedidoItem;
+import Fullsound.Fullsound.notificaciones.CanalEstados;
+import Fullsound.Fullsound.recomendacion.IndiceCompraConjunta;
+import Fullsound.Fullsound.recomendacion.IndiceSimilitudBeats;
+import Fullsound.Fullsound.recomendacion.TendenciasBeats;
+import Fullsound.Fullsound.repository.BeatRepository;
+import Fullsound.Fullsound.service.EstadoPedidoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+@Service
+@RequiredArgsConstructor
+public class EstadoPedidoServiceImpl implements EstadoPedidoService {
+    private static final List<String> SIN_VENDER = List.of("DISPONIBLE", "RESERVADO", "INACTIVO");
+    private static final List<String> VENDIDO_O_RESERVADO = List.of("VENDIDO", "RESERVADO");
+    private static final List<String> RESERVADO = List.of("RESERVADO");
+    private final BeatRepository beatRepository;
+    private final IndiceCompraConjunta indiceCompraConjunta;
+    private final TendenciasBeats tendencias;
+    private final CanalEstados canalEstados;
+    private final BusInvalidacion busInvalidacion;
+    private final IndiceSimilitudBeats indiceSimilitud;
+    @Override
+    @Transactional
+    public void cambiarEstado(Pedido pedido, String estado) {
+        cambiarEstado(List.of(pedido), estado);
+    }
+    @Override
+    @Transactional
+    public void cambiarEstado(List<Pedido> pedidos, String estado) {
+        EstadoPedido destino = parsear(estado);
+        List<Pedido> cambian = new ArrayList<>();
+        List<String> rechazados = new ArrayList<>();
+        for (Pedido pedido : pedidos) {
+            EstadoPedido actual = parsear(pedido.getEstado());
+            if (actual == destino) {
+                continue;
+            }
+            if (actual.puedePasarA(destino)) {
+                cambian.add(pedido);
+            } else {
+                rechazados.add((pedido.getNumeroPedido() != null ? pedido.getNumeroPedido() : "#" + pedido.getId()) + " (" + actual + ")");
+            }
+        }
+        if (!rechazados.isEmpty()) {
+            throw new BadRequestException("No se puede pasar a " + destino + ": " + String.join(", ", rechazados));
+        }
+        if (cambian.isEmpty()) {
+            return;
+        }
+        // Solo los pedidos completados marcaron sus beats como VENDIDO; los demás solo pueden liberar reservas
+        List<Integer> completados = new ArrayList<>();
+        List<Integer> otros = new ArrayList<>();
+        for (Pedido pedido : cambian) {
+            boolean estabaCompletado = EstadoPedido.COMPLETADO.name().equals(pedido.getEstado());
+            (estabaCompletado ? completados : otros).add(pedido.getId());
+            if (destino == EstadoPedido.COMPLETADO) {
+                indiceCompraConjunta.registrarPedido(pedido, 1);
+                tendencias.registrarVenta(pedido);
+            } else if (estabaCompletado) {
+                indiceCompraConjunta.registrarPedido(pedido, -1);
+            }
+            pedido.setEstado(destino.name());
+            canalEstados.publicar(pedido);
+        }
+        switch (destino) {
+            case COMPLETADO -> cambiarBeats(otros, SIN_VENDER, "VENDIDO");
+            case CANCELADO, REEMBOLSADO -> {
+                cambiarBeats(completados, VENDIDO_O_RESERVADO, "DISPONIBLE");
+                cambiarBeats(otros, RESERVADO, "DISPONIBLE");
+            }
+            default -> {
+                return;
+            }
+        }
+        Map<Integer, Beat> beats = new HashMap<>();
+        for (Pedido pedido : cambian) {
+            for (PedidoItem item : pedido.getItems()) {
+                beats.put(item.getBeat().getId(), item.getBeat());
+            }
+        }
+        busInvalidacion.publicar(BusInvalidacion.BEAT, beats.keySet());
+        // el bus no se entrega a la propia instancia: los vecinos de similitud locales se rehacen aquí.
+        // El estado nuevo se lee en esta misma transacción; el índice solo se toca al confirmar
+        for (Object[] fila : beatRepository.findEstados(beats.keySet())) {
+            indiceSimilitud.actualizar(beats.get((Integer) fila[0]), (String) fila[1]);
+        }
+    }
+    private void cambiarBeats(List<Integer> pedidoIds, List<String> desde, String estado) {
+        if (!pedidoIds.isEmpty()) {
+            beatRepository.cambiarEstadoPorPedidos(pedidoIds, desde, estado);
+        }
+    }
+    private static EstadoPedido parsear(String estado) {
+        try {
+            return EstadoPedido.valueOf(estado.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadRequestException("Estado de pedido inválido: " + estado);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package Fullsound.Fullsound.service.impl;
+import Fullsound.Fullsound.dto.request.EventoRequest;
+import Fullsound.Fullsound.dto.response.EventosDiarioResponse;
+import Fullsound.Fullsound.eventos.DiarioEventos;
+import Fullsound.Fullsound.eventos.DiarioEventosProperties;
+import Fullsound.Fullsound.eventos.EventoEscucha;
+import Fullsound.Fullsound.eventos.TipoEvento;
+import Fullsound.Fullsound.exception.BadRequestException;
+import Fullsound.Fullsound.recomendacion.IndiceSimilitudBeats;
+import Fullsound.Fullsound.security.RateLimiter;
+import Fullsound.Fullsound.service.EventoService;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+@Service
+public class EventoServiceImpl implements EventoService {
+    private static final long ANTIGUEDAD_MAXIMA_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int MAXIMO_LECTURA = 10_000;
+    private final DiarioEventos diario;
+    private final DiarioEventosProperties properties;
+    private final IndiceSimilitudBeats beatsConocidos;
+    private final RateLimiter reproducciones;
+    private final RateLimiter vistas;
+    public EventoServiceImpl(DiarioEventos diario, DiarioEventosProperties properties, IndiceSimilitudBeats beatsConocidos) {
+        this.diario = diario;
+        this.properties = properties;
+        this.beatsConocidos = beatsConocidos;
+        this.reproducciones = new RateLimiter(properties.getReproduccionesRafaga(),
+                properties.getReproduccionesPorSegundo(), TimeUnit.MINUTES.toNanos(10));
+        this.vistas = new RateLimiter(properties.getVistasRafaga(),
+                properties.getVistasPorSegundo(), TimeUnit.MINUTES.toNanos(10));
+    }
+    @Override
+    public int registrar(List<EventoRequest> eventos, Integer usuarioId, String cliente) {
+        if (eventos.size() > properties.getMaxEventosPorLote()) {
+            throw new BadRequestException("Se pueden enviar como máximo " + properties.getMaxEventosPorLote() + " eventos por solicitud");
+        }
+        long ahora = System.currentTimeMillis();
+        int usuario = usuarioId == null ? 0 : usuarioId;
+        List<EventoEscucha> registros = new ArrayList<>(eventos.size());
+        Set<Integer> reproducidos = new HashSet<>();
+        for (EventoRequest evento : eventos) {
+            // un beatId inventado crearía entradas en el diario y en las tendencias que nadie poda
+            if (!beatsConocidos.contiene(evento.getBeatId())) {
+                continue;
+            }
+            // las reproducciones suben beat.reproducciones y las tendencias: una por beat y lote, y con cupo por cliente
+            if (evento.getTipo() == TipoEvento.REPRODUCCION
+                    && (!reproducidos.add(evento.getBeatId()) || reproducciones.intentar(cliente) > 0)) {
+                continue;
+            }
+            if (evento.getTipo() == TipoEvento.VISTA && vistas.intentar(cliente) > 0) {
+                continue;
+            }
+            long instante = evento.getInstante() == null
+                    ? ahora
+                    : Math.min(ahora, Math.max(ahora - ANTIGUEDAD_MAXIMA_MS, evento.getInstante()));
+            int duracion = evento.getDuracionMs() == null ? 0 : evento.getDuracionMs();
+            registros.add(new EventoEscucha(instante, evento.getBeatId(), usuario, duracion, evento.getTipo()));
+        }
+        if (!registros.isEmpty()) {
+            diario.agregar(registros);
+        }
+        return registros.size();
+    }
+    @Override
+    public EventosDiarioResponse leer(long desde, int maximo) {
+        List<EventoEscucha> eventos = new ArrayList<>();
+        long siguiente = diario.leer(desde, Math.min(Math.max(maximo, 0), MAXIMO_LECTURA), eventos);
+        return EventosDiarioResponse.builder().eventos(eventos).siguiente(siguiente).build();
+    }
+}
@@ -4,10 +4,13 @@ import Fullsound.Fullsound.dto.response.PagoResponse;
 import Fullsound.Fullsound.exception.BadRequestException;
 import Fullsound.Fullsound.exception.ResourceNotFoundException;
 import Fullsound.Fullsound.mapper.PagoMapper;
+import Fullsound.Fullsound.metrics.LlamadasExternas;
 import Fullsound.Fullsound.model.Pago;
 import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.notificaciones.CanalEstados;
 import Fullsound.Fullsound.repository.PagoRepository;
 import Fullsound.Fullsound.repository.PedidoRepository;
+import Fullsound.Fullsound.service.EstadoPedidoService;
 import Fullsound.Fullsound.service.PagoService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
@@ -25,6 +28,9 @@ public class PagoServiceImpl implements PagoService {
     private final PagoRepository pagoRepository;
     private final PedidoRepository pedidoRepository;
     private final PagoMapper pagoMapper;
+    private final LlamadasExternas llamadasExternas;
+    private final EstadoPedidoService estadoPedidoService;
+    private final CanalEstados canalEstados;
     @Value("${stripe.api.key}")
     private String stripeApiKey;
     @Override
@@ -37,6 +43,9 @@ public class PagoServiceImpl implements PagoService {
                 .anyMatch(p -> "COMPLETADO".equals(p.getEstado()))) {
             throw new BadRequestException("El pedido ya tiene un pago exitoso");
         }
+        if (!"PENDIENTE".equals(pedido.getEstado()) && !"PROCESANDO".equals(pedido.getEstado())) {
+            throw new BadRequestException("El pedido no admite pagos en estado " + pedido.getEstado());
+        }
         try {
             long amount = pedido.getTotal().longValue();
             Map<String, String> metadata = new HashMap<>();
@@ -50,7 +59,8 @@ public class PagoServiceImpl implements PagoService {
                     .putAllMetadata(metadata)
                     .setConfirm(false)  
                     .build();
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
+            PaymentIntent paymentIntent = llamadasExternas.medir("stripe", "payment_intent.crear",
+                    () -> PaymentIntent.create(params));
             Pago pago = new Pago();
             pago.setPedido(pedido);
             pago.setStripePaymentIntentId(paymentIntent.getId());
@@ -59,7 +69,8 @@ public class PagoServiceImpl implements PagoService {
             pago.setMoneda("USD");
             pago.setCreatedAt(LocalDateTime.now());
             Pago pagoGuardado = pagoRepository.save(pago);
-            pedido.setEstado("PROCESANDO");
+            canalEstados.publicar(pago);
+            estadoPedidoService.cambiarEstado(pedido, "PROCESANDO");
             pedidoRepository.save(pedido);
             return pagoMapper.toResponse(pagoGuardado);
         } catch (StripeException e) {
@@ -77,6 +88,7 @@ public class PagoServiceImpl implements PagoService {
         pago.setEstado("PROCESANDO");
         pago.setProcessedAt(LocalDateTime.now());
         Pago pagoActualizado = pagoRepository.save(pago);
+        canalEstados.publicar(pago);
         return pagoMapper.toResponse(pagoActualizado);
     }
     @Override
@@ -93,23 +105,25 @@ public class PagoServiceImpl implements PagoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Pago", "stripePaymentIntentId", stripePaymentIntentId));
         try {
             Stripe.apiKey = stripeApiKey;
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(stripePaymentIntentId);
+            PaymentIntent paymentIntent = llamadasExternas.medir("stripe", "payment_intent.consultar",
+                    () -> PaymentIntent.retrieve(stripePaymentIntentId));
             if ("succeeded".equals(paymentIntent.getStatus())) {
                 pago.setEstado("COMPLETADO");
                 pago.setStripeChargeId(paymentIntent.getLatestCharge());
                 pago.setProcessedAt(LocalDateTime.now());
                 Pedido pedido = pago.getPedido();
-                pedido.setEstado("COMPLETADO");
+                estadoPedidoService.cambiarEstado(pedido, "COMPLETADO");
                 pedidoRepository.save(pedido);
             } else if ("canceled".equals(paymentIntent.getStatus())) {
                 pago.setEstado("FALLIDO");
                 Pedido pedido = pago.getPedido();
-                pedido.setEstado("CANCELADO");
+                estadoPedidoService.cambiarEstado(pedido, "CANCELADO");
                 pedidoRepository.save(pedido);
             } else {
                 pago.setEstado("PROCESANDO");
             }
             Pago pagoActualizado = pagoRepository.save(pago);
+            canalEstados.publicar(pago);
             return pagoMapper.toResponse(pagoActualizado);
         } catch (StripeException e) {
             throw new BadRequestException("Error al confirmar pago: " + e.getMessage());
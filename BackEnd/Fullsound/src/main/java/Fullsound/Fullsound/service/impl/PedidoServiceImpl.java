@@ -1,4 +1,5 @@
 package Fullsound.Fullsound.service.impl;
+import Fullsound.Fullsound.dto.request.CambioEstadoLoteRequest;
 import Fullsound.Fullsound.dto.request.PedidoRequest;
 import Fullsound.Fullsound.dto.response.PedidoResponse;
 import Fullsound.Fullsound.exception.BadRequestException;
@@ -11,13 +12,18 @@ import Fullsound.Fullsound.model.Usuario;
 import Fullsound.Fullsound.repository.BeatRepository;
 import Fullsound.Fullsound.repository.PedidoRepository;
 import Fullsound.Fullsound.repository.UsuarioRepository;
+import Fullsound.Fullsound.service.EstadoPedidoService;
 import Fullsound.Fullsound.service.PedidoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
@@ -26,6 +32,9 @@ public class PedidoServiceImpl implements PedidoService {
     private final UsuarioRepository usuarioRepository;
     private final BeatRepository beatRepository;
     private final PedidoMapper pedidoMapper;
+    private final EstadoPedidoService estadoPedidoService;
+    @Value("${pedidos.lote.max-ids:100}")
+    private int maxIdsLote;
     @Override
     @Transactional
     public PedidoResponse create(PedidoRequest request, Integer usuarioId) {
@@ -102,24 +111,31 @@ public class PedidoServiceImpl implements PedidoService {
     public PedidoResponse updateEstado(Integer id, String estado) {
         Pedido pedido = pedidoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido", "id", id.toString()));
-        pedido.setEstado(estado);
-        if ("COMPLETADO".equals(estado)) {
-            for (PedidoItem item : pedido.getItems()) {
-                Beat beat = item.getBeat();
-                beat.setEstado("VENDIDO");
-                beatRepository.save(beat);
-            }
+        estadoPedidoService.cambiarEstado(pedido, estado);
+        Pedido pedidoActualizado = pedidoRepository.save(pedido);
+        return pedidoMapper.toResponse(pedidoActualizado);
+    }
+    @Override
+    @Transactional
+    public List<PedidoResponse> updateEstadoLote(CambioEstadoLoteRequest request) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        ids.remove(null);
+        if (ids.size() > maxIdsLote) {
+            throw new BadRequestException("Se pueden cambiar como máximo " + maxIdsLote + " pedidos por solicitud");
         }
-        if ("CANCELADO".equals(estado) || "REEMBOLSADO".equals(estado)) {
-            for (PedidoItem item : pedido.getItems()) {
-                Beat beat = item.getBeat();
-                if ("VENDIDO".equals(beat.getEstado()) || "RESERVADO".equals(beat.getEstado())) {
-                    beat.setEstado("DISPONIBLE");
-                    beatRepository.save(beat);
-                }
+        Map<Integer, Pedido> porId = pedidoRepository.findConItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Pedido::getId, Function.identity()));
+        List<Pedido> pedidos = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Pedido pedido = porId.get(id);
+            if (pedido == null) {
+                throw new ResourceNotFoundException("Pedido", "id", id.toString());
             }
+            pedidos.add(pedido);
         }
-        Pedido pedidoActualizado = pedidoRepository.save(pedido);
-        return pedidoMapper.toResponse(pedidoActualizado);
+        estadoPedidoService.cambiarEstado(pedidos, request.getEstado());
+        return pedidos.stream()
+                .map(pedidoMapper::toResponse)
+                .collect(Collectors.toList());
     }
 }
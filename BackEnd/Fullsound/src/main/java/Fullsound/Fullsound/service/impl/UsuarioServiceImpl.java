@@ -1,24 +1,41 @@
 package Fullsound.Fullsound.service.impl;
+import Fullsound.Fullsound.cache.IndiceUnicidadUsuarios;
+import Fullsound.Fullsound.dto.request.BusquedaUsuariosRequest;
 import Fullsound.Fullsound.dto.request.UpdateUsuarioRequest;
 import Fullsound.Fullsound.dto.response.UsuarioResponse;
+import Fullsound.Fullsound.dto.response.UsuariosPaginaResponse;
 import Fullsound.Fullsound.exception.BadRequestException;
 import Fullsound.Fullsound.exception.ResourceNotFoundException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
 import Fullsound.Fullsound.mapper.UsuarioMapper;
 import Fullsound.Fullsound.model.Usuario;
 import Fullsound.Fullsound.repository.UsuarioRepository;
 import Fullsound.Fullsound.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 @Service
 @RequiredArgsConstructor
 public class UsuarioServiceImpl implements UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final UsuarioMapper usuarioMapper;
     private final PasswordEncoder passwordEncoder;
+    private final IndiceUnicidadUsuarios indiceUnicidad;
+    private final BusInvalidacion busInvalidacion;
+    @Value("${usuarios.busqueda.limite-por-defecto:50}")
+    private int limitePorDefecto;
+    @Value("${usuarios.busqueda.limite-maximo:100}")
+    private int limiteMaximo;
     @Override
     @Transactional(readOnly = true)
     public UsuarioResponse getById(Integer id) {
@@ -41,13 +58,70 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .map(usuarioMapper::toResponse)
                 .collect(Collectors.toList());
     }
+    /**
+     * Paginación por keyset sobre el campo buscado (o el id si no hay prefijo): cada página
+     * recorre solo su tramo del índice, sin OFFSET ni COUNT.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UsuariosPaginaResponse buscar(BusquedaUsuariosRequest filtros) {
+        int limite = filtros.getLimite() == null ? limitePorDefecto : filtros.getLimite();
+        if (limite < 1 || limite > limiteMaximo) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + limiteMaximo);
+        }
+        String nombreUsuario = sinVacio(filtros.getNombreUsuario());
+        String correo = sinVacio(filtros.getCorreo());
+        String rut = sinVacio(filtros.getRut());
+        if (Stream.of(nombreUsuario, correo, rut).filter(Objects::nonNull).count() > 1) {
+            throw new BadRequestException("Solo se puede buscar por un prefijo a la vez: nombreUsuario, correo o rut");
+        }
+        String rol = sinVacio(filtros.getRol());
+        Boolean activo = filtros.getActivo();
+        String[] cursor = leerCursor(filtros.getCursor());
+        String despuesDe = cursor[0];
+        int despuesDeId = Integer.parseInt(cursor[1]);
+        List<Usuario> usuarios;
+        Function<Usuario, String> clave;
+        if (nombreUsuario != null) {
+            String prefijo = nombreUsuario.toLowerCase(Locale.ROOT);
+            usuarios = usuarioRepository.buscarPorNombreUsuario(prefijo, siguientePrefijo(prefijo), patronPrefijo(prefijo),
+                    despuesDe, despuesDeId, rol, activo, limite + 1);
+            clave = usuario -> usuario.getNombreUsuario().toLowerCase(Locale.ROOT);
+        } else if (correo != null) {
+            String prefijo = correo.toLowerCase(Locale.ROOT);
+            usuarios = usuarioRepository.buscarPorCorreo(prefijo, siguientePrefijo(prefijo), patronPrefijo(prefijo),
+                    despuesDe, despuesDeId, rol, activo, limite + 1);
+            clave = usuario -> usuario.getCorreo().toLowerCase(Locale.ROOT);
+        } else if (rut != null) {
+            String prefijo = Usuario.normalizarRut(rut);
+            if (prefijo.isEmpty()) {
+                throw new BadRequestException("El RUT a buscar debe contener dígitos");
+            }
+            usuarios = usuarioRepository.buscarPorRut(prefijo, siguientePrefijo(prefijo), patronPrefijo(prefijo),
+                    despuesDe, despuesDeId, rol, activo, limite + 1);
+            clave = Usuario::getRutNormalizado;
+        } else {
+            usuarios = usuarioRepository.buscarPorId(despuesDeId, rol, activo, limite + 1);
+            clave = usuario -> "";
+        }
+        String siguienteCursor = null;
+        if (usuarios.size() > limite) {
+            usuarios = usuarios.subList(0, limite);
+            Usuario ultimo = usuarios.get(limite - 1);
+            siguienteCursor = escribirCursor(clave.apply(ultimo), ultimo.getId());
+        }
+        return UsuariosPaginaResponse.builder()
+                .usuarios(usuarios.stream().map(usuarioMapper::toResponse).collect(Collectors.toList()))
+                .siguienteCursor(siguienteCursor)
+                .build();
+    }
     @Override
     @Transactional
     public UsuarioResponse updateProfile(String nombreUsuario, UpdateUsuarioRequest request) {
         Usuario usuario = usuarioRepository.findByNombreUsuario(nombreUsuario)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "nombreUsuario", nombreUsuario));
         if (request.getCorreo() != null && !request.getCorreo().isEmpty()) {
-            if (usuarioRepository.existsByCorreo(request.getCorreo()) && 
+            if (indiceUnicidad.puedeExistirCorreo(request.getCorreo()) && usuarioRepository.existsByCorreo(request.getCorreo()) && 
                 !usuario.getCorreo().equals(request.getCorreo())) {
                 throw new BadRequestException("El correo ya está en uso");
             }
@@ -57,6 +131,8 @@ public class UsuarioServiceImpl implements UsuarioService {
             usuario.setContraseña(passwordEncoder.encode(request.getContraseña()));
         }
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
+        indiceUnicidad.registrar(usuarioActualizado.getNombreUsuario(), usuarioActualizado.getCorreo());
+        busInvalidacion.publicar(BusInvalidacion.USUARIO, usuario.getId());
         return usuarioMapper.toResponse(usuarioActualizado);
     }
     
@@ -69,7 +145,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         // Actualizar nombre de usuario si se proporciona
         if (request.getNombreUsuario() != null && !request.getNombreUsuario().isEmpty()) {
             // Verificar que el nombre de usuario no esté en uso por otro usuario
-            if (usuarioRepository.existsByNombreUsuario(request.getNombreUsuario()) && 
+            if (indiceUnicidad.puedeExistirNombreUsuario(request.getNombreUsuario()) && usuarioRepository.existsByNombreUsuario(request.getNombreUsuario()) && 
                 !usuario.getNombreUsuario().equals(request.getNombreUsuario())) {
                 throw new BadRequestException("El nombre de usuario ya está en uso");
             }
@@ -79,7 +155,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         // Actualizar correo si se proporciona
         if (request.getCorreo() != null && !request.getCorreo().isEmpty()) {
             // Verificar que el correo no esté en uso por otro usuario
-            if (usuarioRepository.existsByCorreo(request.getCorreo()) && 
+            if (indiceUnicidad.puedeExistirCorreo(request.getCorreo()) && usuarioRepository.existsByCorreo(request.getCorreo()) && 
                 !usuario.getCorreo().equals(request.getCorreo())) {
                 throw new BadRequestException("El correo ya está en uso");
             }
@@ -97,6 +173,8 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
+        indiceUnicidad.registrar(usuarioActualizado.getNombreUsuario(), usuarioActualizado.getCorreo());
+        busInvalidacion.publicar(BusInvalidacion.USUARIO, usuario.getId());
         return usuarioMapper.toResponse(usuarioActualizado);
     }
 
@@ -107,6 +185,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id.toString()));
         usuario.setActivo(false);
         usuarioRepository.save(usuario);
+        busInvalidacion.publicar(BusInvalidacion.USUARIO, usuario.getId());
     }
     @Override
     @Transactional
@@ -115,6 +194,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id.toString()));
         usuario.setActivo(true);
         usuarioRepository.save(usuario);
+        busInvalidacion.publicar(BusInvalidacion.USUARIO, usuario.getId());
     }
     @Override
     @Transactional
@@ -126,5 +206,45 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
         usuario.setContraseña(passwordEncoder.encode(passwordNueva));
         usuarioRepository.save(usuario);
+        busInvalidacion.publicar(BusInvalidacion.USUARIO, usuario.getId());
+    }
+    private static String sinVacio(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+    /**
+     * Menor cadena mayor que todas las que empiezan con el prefijo.
+     */
+    static String siguientePrefijo(String prefijo) {
+        StringBuilder siguiente = new StringBuilder(prefijo);
+        while (siguiente.length() > 0) {
+            char ultimo = siguiente.charAt(siguiente.length() - 1);
+            if (ultimo != Character.MAX_VALUE) {
+                siguiente.setCharAt(siguiente.length() - 1, (char) (ultimo + 1));
+                return siguiente.toString();
+            }
+            siguiente.setLength(siguiente.length() - 1);
+        }
+        return String.valueOf(Character.MAX_VALUE);
+    }
+    private static String patronPrefijo(String prefijo) {
+        return prefijo.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+    private static String escribirCursor(String clave, Integer id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((clave + '\u0000' + id).getBytes(StandardCharsets.UTF_8));
+    }
+    private static String[] leerCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new String[]{"", "0"};
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf('\u0000');
+            String[] partes = {texto.substring(0, separador), texto.substring(separador + 1)};
+            Integer.parseInt(partes[1]);
+            return partes;
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new BadRequestException("Cursor de búsqueda inválido");
+        }
     }
 }
@@ -0,0 +1,89 @@
+-- ============================================================
+-- FULLSOUND - Esquema inicial (equivalente al generado por Hibernate)
+-- ============================================================
+-- En bases existentes creadas con ddl-auto=update esta versión se marca como
+-- baseline (spring.flyway.baseline-on-migrate) y no se ejecuta.
+
+CREATE TABLE IF NOT EXISTS tipo_usuario (
+    id_tipo_usuario INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo            VARCHAR(50)  NOT NULL,
+    descripcion     VARCHAR(255),
+    CONSTRAINT uk_tipo_usuario_tipo UNIQUE (tipo)
+);
+
+CREATE TABLE IF NOT EXISTS usuario (
+    id_usuario     INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre_usuario VARCHAR(50)  NOT NULL,
+    rut            VARCHAR(12),
+    correo         VARCHAR(100) NOT NULL,
+    contraseña     VARCHAR(255) NOT NULL,
+    activo         BOOLEAN      NOT NULL DEFAULT TRUE,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    id_rol         INTEGER      NOT NULL REFERENCES tipo_usuario (id_tipo_usuario),
+    nombre         VARCHAR(100),
+    apellido       VARCHAR(100),
+    CONSTRAINT uk_usuario_nombre_usuario UNIQUE (nombre_usuario),
+    CONSTRAINT uk_usuario_correo UNIQUE (correo)
+);
+
+CREATE TABLE IF NOT EXISTS beat (
+    id_beat        INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    titulo         VARCHAR(255) NOT NULL,
+    slug           VARCHAR(255),
+    artista        VARCHAR(100),
+    precio         INTEGER      NOT NULL,
+    bpm            INTEGER,
+    tonalidad      VARCHAR(10),
+    duracion       INTEGER,
+    genero         VARCHAR(50),
+    emocion        VARCHAR(50),
+    etiquetas      TEXT,
+    descripcion    TEXT,
+    imagen_url     VARCHAR(500),
+    audio_url      VARCHAR(500),
+    audio_demo_url VARCHAR(500),
+    reproducciones INTEGER      NOT NULL DEFAULT 0,
+    estado         VARCHAR(20)  NOT NULL DEFAULT 'DISPONIBLE',
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT uk_beat_slug UNIQUE (slug)
+);
+
+CREATE TABLE IF NOT EXISTS compra (
+    id_compra     INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_usuario    INTEGER      NOT NULL REFERENCES usuario (id_usuario),
+    numero_pedido VARCHAR(50),
+    fecha_compra  TIMESTAMP(6) NOT NULL,
+    total         INTEGER      NOT NULL,
+    estado        VARCHAR(20)  NOT NULL DEFAULT 'PENDIENTE',
+    metodo_pago   VARCHAR(20),
+    CONSTRAINT uk_compra_numero_pedido UNIQUE (numero_pedido)
+);
+
+CREATE TABLE IF NOT EXISTS compra_detalle (
+    id_detalle      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_compra       INTEGER      NOT NULL REFERENCES compra (id_compra),
+    id_beat         INTEGER      NOT NULL REFERENCES beat (id_beat),
+    nombre_item     VARCHAR(255) NOT NULL,
+    cantidad        INTEGER      NOT NULL DEFAULT 1,
+    precio_unitario INTEGER      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS pago (
+    id_pago                  INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_compra                INTEGER      NOT NULL REFERENCES compra (id_compra),
+    stripe_payment_intent_id VARCHAR(255),
+    stripe_charge_id         VARCHAR(255),
+    estado                   VARCHAR(20)  NOT NULL DEFAULT 'PENDIENTE',
+    monto                    INTEGER      NOT NULL,
+    moneda                   VARCHAR(3),
+    created_at               TIMESTAMP(6) NOT NULL,
+    processed_at             TIMESTAMP(6),
+    CONSTRAINT uk_pago_stripe_payment_intent_id UNIQUE (stripe_payment_intent_id)
+);
+
+INSERT INTO tipo_usuario (tipo, descripcion) VALUES
+    ('cliente', 'Cliente de la tienda'),
+    ('administrador', 'Administrador de la plataforma')
+ON CONFLICT (tipo) DO NOTHING;
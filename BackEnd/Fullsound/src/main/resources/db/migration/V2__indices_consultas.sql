@@ -0,0 +1,53 @@
+-- ============================================================
+-- FULLSOUND - Índices para las consultas de los repositorios
+-- ============================================================
+-- Cada índice indica el método que lo usa. Los parciales sobre estado = 'DISPONIBLE'
+-- cubren el catálogo público, que nunca lista beats en otro estado.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ==================== BEAT ====================
+-- findByEstado, findAllAvailable
+CREATE INDEX IF NOT EXISTS idx_beat_estado ON beat (estado);
+-- findTopByOrderByReproduccionesDesc
+CREATE INDEX IF NOT EXISTS idx_beat_disponible_reproducciones ON beat (reproducciones DESC) WHERE estado = 'DISPONIBLE';
+-- findTopByOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_beat_disponible_created_at ON beat (created_at DESC) WHERE estado = 'DISPONIBLE';
+-- findByPrecioBetween
+CREATE INDEX IF NOT EXISTS idx_beat_precio ON beat (precio);
+-- findByBpmBetween
+CREATE INDEX IF NOT EXISTS idx_beat_bpm ON beat (bpm);
+-- findByTonalidad
+CREATE INDEX IF NOT EXISTS idx_beat_tonalidad ON beat (tonalidad);
+-- findByAudioUrlIn
+CREATE INDEX IF NOT EXISTS idx_beat_audio_url ON beat (audio_url);
+-- findByGeneroContainingIgnoreCase (Spring Data compara con upper(...) like upper(...))
+CREATE INDEX IF NOT EXISTS idx_beat_genero_trgm ON beat USING gin (upper(genero) gin_trgm_ops);
+-- search: LOWER(columna) LIKE '%texto%' sobre el catálogo disponible
+CREATE INDEX IF NOT EXISTS idx_beat_disponible_titulo_trgm ON beat USING gin (lower(titulo) gin_trgm_ops) WHERE estado = 'DISPONIBLE';
+CREATE INDEX IF NOT EXISTS idx_beat_disponible_artista_trgm ON beat USING gin (lower(artista) gin_trgm_ops) WHERE estado = 'DISPONIBLE';
+CREATE INDEX IF NOT EXISTS idx_beat_disponible_etiquetas_trgm ON beat USING gin (lower(etiquetas) gin_trgm_ops) WHERE estado = 'DISPONIBLE';
+CREATE INDEX IF NOT EXISTS idx_beat_disponible_genero_trgm ON beat USING gin (lower(genero) gin_trgm_ops) WHERE estado = 'DISPONIBLE';
+
+-- ==================== COMPRA ====================
+-- findByUsuarioOrderByFechaCompraDesc
+CREATE INDEX IF NOT EXISTS idx_compra_usuario_fecha ON compra (id_usuario, fecha_compra DESC);
+-- findByUsuarioAndEstado, countCompletedOrdersByUser, getTotalSpentByUser (solo índice gracias a INCLUDE)
+CREATE INDEX IF NOT EXISTS idx_compra_usuario_estado ON compra (id_usuario, estado) INCLUDE (total);
+-- findByEstadoOrderByFechaCompraDesc
+CREATE INDEX IF NOT EXISTS idx_compra_estado_fecha ON compra (estado, fecha_compra DESC);
+-- findByFechaCompraBetween, findRecentOrders
+CREATE INDEX IF NOT EXISTS idx_compra_fecha ON compra (fecha_compra DESC);
+
+-- ==================== COMPRA_DETALLE ====================
+-- Pedido.items (carga por id_compra) y borrado en cascada
+CREATE INDEX IF NOT EXISTS idx_compra_detalle_compra ON compra_detalle (id_compra);
+CREATE INDEX IF NOT EXISTS idx_compra_detalle_beat ON compra_detalle (id_beat);
+
+-- ==================== PAGO ====================
+-- findByPedido, existsByPedido
+CREATE INDEX IF NOT EXISTS idx_pago_compra ON pago (id_compra);
+-- findByEstado
+CREATE INDEX IF NOT EXISTS idx_pago_estado ON pago (estado);
+-- findByStripeChargeId
+CREATE INDEX IF NOT EXISTS idx_pago_stripe_charge_id ON pago (stripe_charge_id);
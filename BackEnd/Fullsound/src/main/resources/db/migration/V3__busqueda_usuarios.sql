@@ -0,0 +1,16 @@
+-- ============================================================
+-- FULLSOUND - Búsqueda de usuarios para administración
+-- ============================================================
+-- UsuarioRepository.buscarPor*: prefijo sin distinguir mayúsculas y paginación por keyset.
+-- Cada índice termina en id_usuario para que (clave, id) > (cursor) sea un rango del índice
+-- y el ORDER BY ... LIMIT no necesite ordenar.
+
+ALTER TABLE usuario ADD COLUMN IF NOT EXISTS rut_normalizado VARCHAR(12);
+UPDATE usuario SET rut_normalizado = upper(regexp_replace(rut, '[^0-9kK]', '', 'g')) WHERE rut IS NOT NULL;
+
+-- buscarPorNombreUsuario
+CREATE INDEX IF NOT EXISTS idx_usuario_nombre_usuario_lower ON usuario (lower(nombre_usuario), id_usuario);
+-- buscarPorCorreo
+CREATE INDEX IF NOT EXISTS idx_usuario_correo_lower ON usuario (lower(correo), id_usuario);
+-- buscarPorRut
+CREATE INDEX IF NOT EXISTS idx_usuario_rut_normalizado ON usuario (rut_normalizado, id_usuario);
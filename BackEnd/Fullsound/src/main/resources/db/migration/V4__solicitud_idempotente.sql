@@ -0,0 +1,19 @@
+-- ============================================================
+-- FULLSOUND - Claves de idempotencia
+-- ============================================================
+-- RegistroIdempotencia: una fila por Idempotency-Key (id = SHA-256 de usuario + ruta + clave).
+-- estado_http NULL mientras la solicitud original está en curso; al terminar con 2xx
+-- guarda la respuesta para devolverla en los reintentos hasta expira_en.
+
+CREATE TABLE IF NOT EXISTS solicitud_idempotente (
+    id VARCHAR(64) PRIMARY KEY,
+    huella VARCHAR(64) NOT NULL,
+    estado_http INTEGER,
+    tipo_contenido VARCHAR(100),
+    cuerpo BYTEA,
+    created_at TIMESTAMP(6) NOT NULL,
+    expira_en TIMESTAMP(6) NOT NULL
+);
+
+-- eliminarVencidas
+CREATE INDEX IF NOT EXISTS idx_solicitud_idempotente_expira_en ON solicitud_idempotente (expira_en);
@@ -0,0 +1,18 @@
+-- ============================================================
+-- FULLSOUND - Índices de búsqueda de usuarios con COLLATE "C"
+-- ============================================================
+-- UsuarioRepository.buscarPor* compara con orden_binario(...) = COLLATE "C": el rango
+-- [prefijo, siguiente) solo equivale al prefijo ordenando por bytes. Los índices de V3 usan
+-- la colación de la base y ya no sirven para esas comparaciones ni para el ORDER BY.
+-- lower() se calcula antes del COLLATE para seguir pasando a minúsculas letras no ASCII.
+
+DROP INDEX IF EXISTS idx_usuario_nombre_usuario_lower;
+DROP INDEX IF EXISTS idx_usuario_correo_lower;
+DROP INDEX IF EXISTS idx_usuario_rut_normalizado;
+
+-- buscarPorNombreUsuario
+CREATE INDEX IF NOT EXISTS idx_usuario_nombre_usuario_lower_c ON usuario ((lower(nombre_usuario) COLLATE "C"), id_usuario);
+-- buscarPorCorreo
+CREATE INDEX IF NOT EXISTS idx_usuario_correo_lower_c ON usuario ((lower(correo) COLLATE "C"), id_usuario);
+-- buscarPorRut
+CREATE INDEX IF NOT EXISTS idx_usuario_rut_normalizado_c ON usuario ((rut_normalizado COLLATE "C"), id_usuario);
@@ -0,0 +1,73 @@
+package Fullsound.Fullsound.audio;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+class AnalizadorAudioTest {
+    private static final float TASA = 22050f;
+    private final AnalizadorAudio analizador = new AnalizadorAudio();
+    @Test
+    @DisplayName("Should estimate duration and tempo of a click track")
+    void shouldEstimateDurationAndTempo() throws Exception {
+        AnalisisAudio analisis = analizador.analizar(wav(pista(20, 128, new double[]{})));
+        assertEquals(20, analisis.getDuracion());
+        assertNotNull(analisis.getBpm());
+        assertTrue(Math.abs(analisis.getBpm() - 128) <= 2, "BPM estimado: " + analisis.getBpm());
+        assertTrue(analisis.getSegundosAudio() > 19.9);
+    }
+    @Test
+    @DisplayName("Should prefer the base tempo over half time")
+    void shouldPreferBaseTempo() throws Exception {
+        AnalisisAudio analisis = analizador.analizar(wav(pista(30, 90, new double[]{})));
+        assertTrue(Math.abs(analisis.getBpm() - 90) <= 2, "BPM estimado: " + analisis.getBpm());
+    }
+    @Test
+    @DisplayName("Should estimate key from a sustained triad")
+    void shouldEstimateKey() throws Exception {
+        double[] doMayor = {261.63, 329.63, 392.00};
+        AnalisisAudio analisis = analizador.analizar(wav(pista(10, 120, doMayor)));
+        assertEquals("C", analisis.getTonalidad());
+    }
+    @Test
+    @DisplayName("Should not guess a tempo for very short audio")
+    void shouldNotGuessTempoForShortAudio() throws Exception {
+        AnalisisAudio analisis = analizador.analizar(wav(pista(2, 120, new double[]{})));
+        assertEquals(2, analisis.getDuracion());
+        assertNull(analisis.getBpm());
+    }
+    private static short[] pista(int segundos, double bpm, double[] acorde) {
+        int total = (int) (segundos * TASA);
+        short[] muestras = new short[total];
+        int periodo = (int) Math.round(60.0 / bpm * TASA);
+        int largoClick = (int) (0.02 * TASA);
+        for (int i = 0; i < total; i++) {
+            double valor = 0;
+            int fase = i % periodo;
+            if (fase < largoClick) {
+                valor += 0.8 * Math.sin(2 * Math.PI * 1000 * i / TASA) * (1 - fase / (double) largoClick);
+            }
+            for (double frecuencia : acorde) {
+                valor += 0.2 * Math.sin(2 * Math.PI * frecuencia * i / TASA);
+            }
+            muestras[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, valor * 16000));
+        }
+        return muestras;
+    }
+    private static ByteArrayInputStream wav(short[] muestras) throws Exception {
+        byte[] pcm = new byte[muestras.length * 2];
+        for (int i = 0; i < muestras.length; i++) {
+            pcm[2 * i] = (byte) muestras[i];
+            pcm[2 * i + 1] = (byte) (muestras[i] >> 8);
+        }
+        AudioFormat formato = new AudioFormat(TASA, 16, 1, true, false);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), formato, muestras.length),
+                AudioFileFormat.Type.WAVE, salida);
+        return new ByteArrayInputStream(salida.toByteArray());
+    }
+}
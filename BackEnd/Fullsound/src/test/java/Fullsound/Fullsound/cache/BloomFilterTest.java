@@ -0,0 +1,44 @@
+package Fullsound.Fullsound.cache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+class BloomFilterTest {
+    @Test
+    @DisplayName("Should never report a false negative")
+    void shouldNeverReportFalseNegative() {
+        BloomFilter filtro = new BloomFilter(5000, 0.01);
+        for (int i = 0; i < 5000; i++) {
+            filtro.agregar("usuario" + i + "@example.com");
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(filtro.puedeContener("usuario" + i + "@example.com"));
+        }
+        assertFalse(filtro.saturado());
+    }
+    @Test
+    @DisplayName("Should keep the false positive rate near the configured target")
+    void shouldKeepFalsePositiveRateNearTarget() {
+        BloomFilter filtro = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("nombre-" + i);
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.puedeContener("otro-" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+    }
+    @Test
+    @DisplayName("Should report saturation past its capacity")
+    void shouldReportSaturation() {
+        BloomFilter filtro = new BloomFilter(2, 0.01);
+        filtro.agregar("a");
+        filtro.agregar("b");
+        assertFalse(filtro.saturado());
+        filtro.agregar("c");
+        assertTrue(filtro.saturado());
+        assertEquals(3, filtro.getElementos());
+    }
+}
@@ -0,0 +1,76 @@
+package Fullsound.Fullsound.datasource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+class BulkheadDataSourceTest {
+    private SimpleMeterRegistry registry;
+    private BulkheadDataSource dataSource;
+    private CargasTrabajoProperties properties;
+    private CargaTrabajo anterior;
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+        properties = new CargasTrabajoProperties();
+        CargasTrabajoProperties.Limite admin = new CargasTrabajoProperties.Limite();
+        admin.setMaxConexiones(1);
+        admin.setEspera(Duration.ofMillis(50));
+        properties.getLimites().put(CargaTrabajo.ADMIN, admin);
+        properties.getRutas().put(CargaTrabajo.ADMIN, List.of("/api/data/**"));
+        registry = new SimpleMeterRegistry();
+        dataSource = new BulkheadDataSource(h2, properties, registry);
+        anterior = ContextoCarga.establecer(CargaTrabajo.ADMIN);
+    }
+    @AfterEach
+    void tearDown() {
+        ContextoCarga.restaurar(anterior);
+    }
+    @Test
+    @DisplayName("Rejects a connection when the workload quota is exhausted")
+    void rechazaSinCupo() throws Exception {
+        try (Connection conexion = dataSource.getConnection()) {
+            assertEquals(0, dataSource.disponibles(CargaTrabajo.ADMIN));
+            assertThrows(BulkheadLlenoException.class, dataSource::getConnection);
+            assertTrue(conexion.isValid(1));
+        }
+        assertEquals(1.0, registry.get("datasource.bulkhead.rechazos").tag("carga", "admin").counter().count());
+    }
+    @Test
+    @DisplayName("Other workloads are unaffected by a full quota")
+    void otrasCargasNoSeVenAfectadas() throws Exception {
+        try (Connection admin = dataSource.getConnection()) {
+            CargaTrabajo previa = ContextoCarga.establecer(CargaTrabajo.TIENDA);
+            try (Connection tienda = dataSource.getConnection()) {
+                assertTrue(tienda.isValid(1));
+            } finally {
+                ContextoCarga.restaurar(previa);
+            }
+        }
+        assertEquals(-1, dataSource.disponibles(CargaTrabajo.TIENDA));
+    }
+    @Test
+    @DisplayName("Closing releases the permit exactly once")
+    void cerrarLiberaUnaVez() throws Exception {
+        Connection conexion = dataSource.getConnection();
+        conexion.close();
+        conexion.close();
+        assertEquals(1, dataSource.disponibles(CargaTrabajo.ADMIN));
+        try (Connection otra = dataSource.getConnection()) {
+            assertEquals(0, dataSource.disponibles(CargaTrabajo.ADMIN));
+        }
+    }
+    @Test
+    @DisplayName("Filter maps configured routes to their workload")
+    void filtroResuelveRutas() {
+        CargaTrabajoFilter filtro = new CargaTrabajoFilter(properties);
+        assertEquals(CargaTrabajo.ADMIN, filtro.resolver("/api/data/beats"));
+        assertNull(filtro.resolver("/api/beats/1"));
+    }
+}
@@ -0,0 +1,140 @@
+package Fullsound.Fullsound.datasource;
+import Fullsound.Fullsound.config.DataSourceConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primario;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.replica.consulta-lag=SELECT 0",
+        "spring.datasource.replica.consulta-lsn=SELECT 0",
+        "spring.datasource.replica.consulta-lsn-primario=SELECT 42",
+        "spring.datasource.replica.max-lag-ms=5000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({DataSourceConfig.class, ConsistenciaLecturaFilter.class, ReplicaRoutingDataSourceTest.Metricas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingDataSourceTest {
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ConsistenciaLecturaFilter consistencia;
+    @Autowired
+    @Qualifier("primarioDataSource")
+    private DataSource primario;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+    @BeforeEach
+    void setUp() {
+        for (DataSource dataSource : new DataSource[]{primario, replica}) {
+            String nombre = dataSource == primario ? "primario" : "replica";
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("CREATE TABLE IF NOT EXISTS origen (nombre VARCHAR(20))");
+            jdbc.update("DELETE FROM origen");
+            jdbc.update("INSERT INTO origen (nombre) VALUES (?)", nombre);
+        }
+    }
+    @Test
+    @DisplayName("Should send read-only transactions to the replica and writes to the primary")
+    void shouldRouteByTransactionType() {
+        assertEquals("replica", leerOrigen(true));
+        assertEquals("primario", leerOrigen(false));
+    }
+    @Test
+    @DisplayName("Should pin reads to the primary after a write in the same request")
+    void shouldReadYourWrites() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/pedidos");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> leidoTrasEscribir = new AtomicReference<>();
+        consistencia.doFilter(request, response, (req, res) -> {
+            assertEquals("replica", leerOrigen(true));
+            leerOrigen(false);
+            leidoTrasEscribir.set(leerOrigen(true));
+        });
+        assertEquals("primario", leidoTrasEscribir.get());
+        String token = response.getHeader(ConsistenciaLecturaFilter.HEADER);
+        assertEquals("42", token);
+        MockHttpServletRequest siguiente = new MockHttpServletRequest("GET", "/api/pedidos/mis-pedidos");
+        siguiente.addHeader(ConsistenciaLecturaFilter.HEADER, token);
+        AtomicReference<String> leidoConToken = new AtomicReference<>();
+        consistencia.doFilter(siguiente, new MockHttpServletResponse(),
+                (req, res) -> leidoConToken.set(leerOrigen(true)));
+        assertEquals("primario", leidoConToken.get());
+    }
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags too far behind")
+    void shouldFallBackWhenLagging() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReplicaLagMonitor atrasada = new ReplicaLagMonitor(new JdbcTemplate(replica), "SELECT 60000", "SELECT 0", 5000, registry);
+        atrasada.verificar();
+        assertFalse(atrasada.isDisponible());
+        assertEquals("primario", leerOrigen(atrasada, null));
+    }
+    @Test
+    @DisplayName("Should serve a consistency token from the replica once it has replayed that WAL position")
+    void shouldCompareTokenWithReplayedLsn() throws Exception {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(new JdbcTemplate(replica), "SELECT 0", "SELECT 100", 5000, new SimpleMeterRegistry());
+        monitor.verificar();
+        assertEquals(100, monitor.getAplicadoHasta());
+        assertEquals("replica", leerOrigen(monitor, "100"));
+        assertEquals("primario", leerOrigen(monitor, "101"));
+    }
+    private String leerOrigen(ReplicaLagMonitor monitor, String token) {
+        DataSource proxy = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primario, replica, monitor, consistencia, "SELECT 0", new SimpleMeterRegistry()));
+        TransactionTemplate soloLectura = new TransactionTemplate(new DataSourceTransactionManager(proxy));
+        soloLectura.setReadOnly(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/beats");
+        if (token != null) {
+            request.addHeader(ConsistenciaLecturaFilter.HEADER, token);
+        }
+        AtomicReference<String> origen = new AtomicReference<>();
+        try {
+            consistencia.doFilter(request, new MockHttpServletResponse(), (req, res) -> origen.set(soloLectura.execute(status ->
+                    new JdbcTemplate(proxy).queryForObject("SELECT nombre FROM origen", String.class))));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return origen.get();
+    }
+    private String leerOrigen(boolean soloLectura) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(soloLectura);
+        return template.execute(status ->
+                (String) entityManager.createNativeQuery("SELECT nombre FROM origen").getSingleResult());
+    }
+}
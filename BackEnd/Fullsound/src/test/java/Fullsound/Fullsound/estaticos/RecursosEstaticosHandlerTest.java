@@ -0,0 +1,86 @@
+package Fullsound.Fullsound.estaticos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.*;
+class RecursosEstaticosHandlerTest {
+    @TempDir
+    Path dist;
+    private RecursosEstaticosHandler handler;
+    private String script;
+    @BeforeEach
+    void setUp() throws Exception {
+        script = "console.log('fullsound');\n".repeat(200);
+        Files.createDirectories(dist.resolve("assets"));
+        Files.writeString(dist.resolve("index.html"), "<!doctype html><div id=\"root\"></div>");
+        Files.writeString(dist.resolve("assets/index-BxYz12Ab.js"), script);
+        Files.write(dist.resolve("assets/index-BxYz12Ab.js.br"), new byte[]{1, 2, 3});
+        RecursosEstaticosProperties properties = new RecursosEstaticosProperties();
+        properties.setUbicacion(dist.toUri().toString());
+        IndiceRecursosEstaticos indice = new IndiceRecursosEstaticos(properties);
+        indice.indexar();
+        assertEquals(2, indice.tamano());
+        handler = new RecursosEstaticosHandler(indice);
+    }
+    private MockHttpServletResponse get(String uri, String acceptEncoding, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        return response;
+    }
+    @Test
+    @DisplayName("Hashed assets are immutable and negotiate the prebuilt brotli variant")
+    void assetsInmutablesConBrotli() throws Exception {
+        MockHttpServletResponse response = get("/assets/index-BxYz12Ab.js", "gzip, deflate, br", null);
+        assertEquals(200, response.getStatus());
+        assertEquals("br", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+        assertArrayEquals(new byte[]{1, 2, 3}, response.getContentAsByteArray());
+    }
+    @Test
+    @DisplayName("Gzip variant is generated at startup when the build has none")
+    void gzipGeneradoAlIndexar() throws Exception {
+        MockHttpServletResponse response = get("/assets/index-BxYz12Ab.js", "gzip, br;q=0", null);
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(script, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        MockHttpServletResponse identidad = get("/assets/index-BxYz12Ab.js", null, null);
+        assertNull(identidad.getHeader("Content-Encoding"));
+        assertEquals(script, identidad.getContentAsString());
+    }
+    @Test
+    @DisplayName("Matching ETag returns 304 without a body")
+    void etagDevuelveNoModificado() throws Exception {
+        String etag = get("/index.html", null, null).getHeader("ETag");
+        assertNotNull(etag);
+        MockHttpServletResponse response = get("/index.html", null, etag);
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentLength());
+    }
+    @Test
+    @DisplayName("SPA routes fall back to index.html, missing files and API paths do not")
+    void fallbackSpa() throws Exception {
+        MockHttpServletResponse response = get("/beats/trap-oscuro", null, null);
+        assertEquals(200, response.getStatus());
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+        assertTrue(response.getContentAsString().contains("root"));
+        assertEquals(404, get("/assets/missing.js", null, null).getStatus());
+        assertEquals(404, get("/api/desconocido", null, null).getStatus());
+    }
+}
@@ -0,0 +1,135 @@
+package Fullsound.Fullsound.eventos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+class DiarioEventosTest {
+    @TempDir
+    Path directorio;
+    private DiarioEventosProperties properties;
+    @BeforeEach
+    void setUp() {
+        properties = new DiarioEventosProperties();
+        properties.setDirectorio(directorio.toString());
+        properties.setTamanoSegmento(DataSize.ofBytes(10L * EventoEscucha.TAMANO));
+        properties.setRetencion(Duration.ofDays(1));
+    }
+    private DiarioEventos abrir() throws Exception {
+        DiarioEventos diario = new DiarioEventos(properties, new SimpleMeterRegistry());
+        diario.abrir();
+        return diario;
+    }
+    private static List<EventoEscucha> eventos(long instante, int desde, int cantidad) {
+        return IntStream.range(desde, desde + cantidad)
+                .mapToObj(i -> new EventoEscucha(instante, i, i % 3, i * 1000, i % 2 == 0 ? TipoEvento.REPRODUCCION : TipoEvento.VISTA))
+                .toList();
+    }
+    private static List<EventoEscucha> leerTodo(DiarioEventos diario, long desde) {
+        List<EventoEscucha> leidos = new ArrayList<>();
+        diario.leer(desde, Integer.MAX_VALUE, leidos);
+        return leidos;
+    }
+    private long segmentos() throws Exception {
+        try (var archivos = Files.list(directorio)) {
+            return archivos.filter(archivo -> archivo.toString().endsWith(Segmento.EXTENSION)).count();
+        }
+    }
+    @Test
+    @DisplayName("Appended events are read back from any offset across segment rollovers")
+    void leeDesdeCualquierOffset() throws Exception {
+        DiarioEventos diario = abrir();
+        List<EventoEscucha> escritos = eventos(System.currentTimeMillis(), 1, 25);
+        assertEquals(0, diario.agregar(escritos.subList(0, 7)));
+        assertEquals(7, diario.agregar(escritos.subList(7, 25)));
+        assertEquals(25, diario.siguienteOffset());
+        assertEquals(3, segmentos());
+        assertEquals(escritos, leerTodo(diario, 0));
+        List<EventoEscucha> pagina = new ArrayList<>();
+        assertEquals(13, diario.leer(8, 5, pagina));
+        assertEquals(escritos.subList(8, 13), pagina);
+        assertEquals(25, diario.leer(40, 5, new ArrayList<>()));
+    }
+    @Test
+    @DisplayName("Reopening recovers the end offset and stops at a torn record")
+    void recuperaAlReabrir() throws Exception {
+        DiarioEventos diario = abrir();
+        List<EventoEscucha> escritos = eventos(System.currentTimeMillis(), 1, 14);
+        diario.agregar(escritos);
+        diario.cerrar();
+        try (RandomAccessFile archivo = new RandomAccessFile(directorio.resolve(Segmento.nombre(10)).toFile(), "rw")) {
+            archivo.seek(2L * EventoEscucha.TAMANO + 9);
+            archivo.write(0x7f);
+        }
+        DiarioEventos reabierto = abrir();
+        assertEquals(12, reabierto.siguienteOffset());
+        assertEquals(escritos.subList(0, 12), leerTodo(reabierto, 0));
+        reabierto.agregar(eventos(System.currentTimeMillis(), 100, 1));
+        assertEquals(100, leerTodo(reabierto, 12).get(0).beatId());
+    }
+    @Test
+    @DisplayName("Retention drops closed segments whose last event is too old")
+    void retencionEliminaSegmentosViejos() throws Exception {
+        DiarioEventos diario = abrir();
+        long viejo = System.currentTimeMillis() - Duration.ofDays(2).toMillis();
+        diario.agregar(eventos(viejo, 1, 20));
+        diario.agregar(eventos(System.currentTimeMillis(), 21, 5));
+        assertEquals(2, diario.aplicarRetencion());
+        assertEquals(20, diario.primerOffset());
+        assertEquals(1, segmentos());
+        assertEquals(5, leerTodo(diario, 0).size());
+    }
+    @Test
+    @DisplayName("Persistent consumers resume from their saved offset, in-memory ones replay")
+    void consumidoresRetomanDesdeSuOffset() throws Exception {
+        DiarioEventos diario = abrir();
+        diario.agregar(eventos(System.currentTimeMillis(), 1, 12));
+        List<EventoEscucha> persistidos = new ArrayList<>();
+        List<EventoEscucha> enMemoria = new ArrayList<>();
+        distribuidor(diario, persistidos, enMemoria).distribuir();
+        assertEquals(12, persistidos.size());
+        assertEquals(12, enMemoria.size());
+        diario.agregar(eventos(System.currentTimeMillis(), 13, 3));
+        persistidos.clear();
+        enMemoria.clear();
+        distribuidor(diario, persistidos, enMemoria).distribuir();
+        assertEquals(eventos(0, 13, 3).stream().map(EventoEscucha::beatId).toList(),
+                persistidos.stream().map(EventoEscucha::beatId).toList());
+        assertEquals(15, enMemoria.size());
+    }
+    private static DistribuidorEventos distribuidor(DiarioEventos diario, List<EventoEscucha> persistidos,
+                                                    List<EventoEscucha> enMemoria) throws Exception {
+        DistribuidorEventos distribuidor = new DistribuidorEventos(diario,
+                List.of(consumidor("persistente", true, persistidos), consumidor("memoria", false, enMemoria)),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(distribuidor, "lote", 4);
+        distribuidor.inicializar();
+        return distribuidor;
+    }
+    private static ConsumidorEventos consumidor(String nombre, boolean persistente, List<EventoEscucha> destino) {
+        return new ConsumidorEventos() {
+            @Override
+            public String nombre() {
+                return nombre;
+            }
+            @Override
+            public void procesar(List<EventoEscucha> eventos) {
+                destino.addAll(eventos);
+            }
+            @Override
+            public boolean persistente() {
+                return persistente;
+            }
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package Fullsound.Fullsound.idempotencia;
+import Fullsound.Fullsound.repository.SolicitudIdempotenteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotenciaTest {
+    @Autowired
+    private SolicitudIdempotenteRepository repository;
+    private IdempotenciaProperties properties;
+    private RegistroIdempotencia registro;
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotenciaProperties();
+        properties.setEsperaEnCurso(Duration.ofSeconds(5));
+        registro = new RegistroIdempotencia(repository, properties, new SimpleMeterRegistry());
+    }
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+    private RegistroIdempotencia.Resultado ejecutar(String clave, String huella, int estado) throws IOException, ServletException {
+        return registro.ejecutar("u:ana|POST /api/pedidos", clave, huella, () -> {
+            ejecuciones.incrementAndGet();
+            return new RespuestaCapturada(estado, "application/json", ("{\"n\":" + ejecuciones.get() + "}").getBytes());
+        });
+    }
+    @Test
+    @DisplayName("A retry with the same key replays the stored response without executing again")
+    void reintentoRepiteRespuesta() throws Exception {
+        assertEquals(RegistroIdempotencia.Estado.EJECUTADA, ejecutar("k1", "h1", 201).estado());
+        RegistroIdempotencia.Resultado repetida = ejecutar("k1", "h1", 201);
+        assertEquals(RegistroIdempotencia.Estado.REPETIDA, repetida.estado());
+        assertEquals(201, repetida.respuesta().estado());
+        assertEquals("{\"n\":1}", new String(repetida.respuesta().cuerpo()));
+        assertEquals(1, ejecuciones.get());
+        assertEquals(RegistroIdempotencia.Estado.HUELLA_DISTINTA, ejecutar("k1", "otra", 201).estado());
+        assertEquals(1, ejecuciones.get());
+    }
+    @Test
+    @DisplayName("Other instances replay stored responses and see in-flight reservations")
+    void respuestaPersistida() throws Exception {
+        ejecutar("k1", "h1", 201);
+        RegistroIdempotencia otraInstancia = new RegistroIdempotencia(repository, properties, new SimpleMeterRegistry());
+        RegistroIdempotencia.Resultado repetida = otraInstancia.ejecutar("u:ana|POST /api/pedidos", "k1", "h1",
+                () -> fail("no debe ejecutarse"));
+        assertEquals(RegistroIdempotencia.Estado.REPETIDA, repetida.estado());
+        assertEquals("{\"n\":1}", new String(repetida.respuesta().cuerpo()));
+        RegistroIdempotencia.Resultado[] mientras = new RegistroIdempotencia.Resultado[1];
+        otraInstancia.ejecutar("u:ana|POST /api/pedidos", "k2", "h2", () -> {
+            mientras[0] = ejecutar("k2", "h2", 201);
+            return new RespuestaCapturada(201, null, new byte[0]);
+        });
+        assertEquals(RegistroIdempotencia.Estado.EN_CURSO, mientras[0].estado());
+        assertEquals(1, ejecuciones.get());
+    }
+    @Test
+    @DisplayName("Errors are not stored, so the client can retry with the same key")
+    void erroresNoSeGuardan() throws Exception {
+        assertEquals(400, ejecutar("k1", "h1", 400).respuesta().estado());
+        assertEquals(0, repository.count());
+        assertEquals(RegistroIdempotencia.Estado.EJECUTADA, ejecutar("k1", "h1", 201).estado());
+        assertEquals(2, ejecuciones.get());
+    }
+    @Test
+    @DisplayName("Concurrent duplicates wait for the in-flight execution instead of running twice")
+    void duplicadosConcurrentes() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            Future<RegistroIdempotencia.Resultado> original = hilos.submit(() ->
+                    registro.ejecutar("u:ana|POST /api/pedidos", "k1", "h1", () -> {
+                        ejecuciones.incrementAndGet();
+                        dentro.countDown();
+                        try {
+                            liberar.await();
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        return new RespuestaCapturada(201, "application/json", "{}".getBytes());
+                    }));
+            assertTrue(dentro.await(5, TimeUnit.SECONDS));
+            Future<RegistroIdempotencia.Resultado> duplicado1 = hilos.submit(() -> ejecutar("k1", "h1", 201));
+            Future<RegistroIdempotencia.Resultado> duplicado2 = hilos.submit(() -> ejecutar("k1", "h1", 201));
+            Thread.sleep(100);
+            liberar.countDown();
+            assertEquals(RegistroIdempotencia.Estado.EJECUTADA, original.get(5, TimeUnit.SECONDS).estado());
+            assertEquals(RegistroIdempotencia.Estado.REPETIDA, duplicado1.get(5, TimeUnit.SECONDS).estado());
+            assertEquals(RegistroIdempotencia.Estado.REPETIDA, duplicado2.get(5, TimeUnit.SECONDS).estado());
+            assertEquals(1, ejecuciones.get());
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+    @Test
+    @DisplayName("Expired keys are purged and can be reused")
+    void clavesVencidas() throws Exception {
+        properties.setTtl(Duration.ofMillis(-1));
+        ejecutar("k1", "h1", 201);
+        assertEquals(RegistroIdempotencia.Estado.EJECUTADA, ejecutar("k1", "otra", 201).estado());
+        registro.eliminarVencidas();
+        assertEquals(0, repository.count());
+        assertEquals(0, repository.eliminarVencidas(LocalDateTime.now()));
+    }
+    @Test
+    @DisplayName("Filter replays the response with the replay header and rejects a different body")
+    void filtroRepiteRespuesta() throws Exception {
+        IdempotenciaFilter filtro = new IdempotenciaFilter(properties, registro);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ejecuciones.incrementAndGet();
+                String cuerpo = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                response.setStatus(201);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"recibido\":" + cuerpo + "}");
+            }
+        };
+        MockHttpServletResponse primera = enviar(filtro, servlet, "{\"a\":1}");
+        MockHttpServletResponse segunda = enviar(filtro, servlet, "{\"a\":1}");
+        MockHttpServletResponse distinta = enviar(filtro, servlet, "{\"a\":2}");
+        assertEquals(201, primera.getStatus());
+        assertEquals("{\"recibido\":{\"a\":1}}", primera.getContentAsString());
+        assertNull(primera.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals(201, segunda.getStatus());
+        assertEquals(primera.getContentAsString(), segunda.getContentAsString());
+        assertEquals("true", segunda.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals(422, distinta.getStatus());
+        assertEquals(1, ejecuciones.get());
+    }
+    @Test
+    @DisplayName("Bodies read through a ReadListener and large responses are stored and replayed")
+    void lecturaAsincronaYRespuestaGrande() throws Exception {
+        IdempotenciaFilter filtro = new IdempotenciaFilter(properties, registro);
+        String grande = "x".repeat(4096);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ejecuciones.incrementAndGet();
+                ServletInputStream entrada = request.getInputStream();
+                ByteArrayOutputStream leido = new ByteArrayOutputStream();
+                entrada.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        leido.write(entrada.readAllBytes());
+                    }
+                    @Override
+                    public void onAllDataRead() throws IOException {
+                        response.setStatus(201);
+                        response.getWriter().write(leido.toString(StandardCharsets.UTF_8) + grande);
+                    }
+                    @Override
+                    public void onError(Throwable t) {
+                        fail(t);
+                    }
+                });
+            }
+        };
+        MockHttpServletResponse primera = enviar(filtro, servlet, "{\"a\":1}");
+        MockHttpServletResponse segunda = enviar(filtro, servlet, "{\"a\":1}");
+        assertEquals("{\"a\":1}" + grande, primera.getContentAsString());
+        assertEquals(primera.getContentAsString(), segunda.getContentAsString());
+        assertEquals("true", segunda.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals(1, ejecuciones.get());
+    }
+    private static MockHttpServletResponse enviar(IdempotenciaFilter filtro, HttpServlet servlet, String cuerpo) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/pedidos");
+        request.setServletPath("/api/pedidos");
+        request.addHeader(IdempotenciaFilter.CABECERA, "pedido-1");
+        request.setContentType("application/json");
+        request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+}
@@ -0,0 +1,119 @@
+package Fullsound.Fullsound.invalidacion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+class BusInvalidacionTest {
+    static class Receptor implements ReceptorInvalidacion {
+        final List<String> invalidados = new ArrayList<>();
+        int resincronizaciones;
+        @Override
+        public void invalidar(String entidad, Set<String> ids) {
+            ids.stream().sorted().forEach(id -> invalidados.add(entidad + ":" + id));
+        }
+        @Override
+        public void resincronizar() {
+            resincronizaciones++;
+        }
+    }
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InvalidacionProperties properties = new InvalidacionProperties();
+    private TransporteLocal transporte;
+    private Receptor receptorA;
+    private Receptor receptorB;
+    private BusInvalidacion nodoA;
+    private BusInvalidacion nodoB;
+    private final List<String> enviados = new ArrayList<>();
+    @BeforeEach
+    void setUp() {
+        transporte = new TransporteLocal() {
+            @Override
+            public void publicar(String mensaje) {
+                enviados.add(mensaje);
+                super.publicar(mensaje);
+            }
+        };
+        receptorA = new Receptor();
+        receptorB = new Receptor();
+        nodoA = new BusInvalidacion(transporte, List.of(receptorA), properties, objectMapper, new SimpleMeterRegistry());
+        nodoB = new BusInvalidacion(transporte, List.of(receptorB), properties, objectMapper, new SimpleMeterRegistry());
+    }
+    @Test
+    @DisplayName("Repeated changes are coalesced and only other nodes apply them")
+    void coalesceYNoSeAplicaASiMismo() {
+        nodoA.publicar(BusInvalidacion.BEAT, 1);
+        nodoA.publicar(BusInvalidacion.BEAT, 1);
+        nodoA.publicar(BusInvalidacion.BEAT, List.of(1, 2));
+        nodoA.publicar(BusInvalidacion.USUARIO, 1);
+        nodoA.enviar();
+        assertEquals(1, enviados.size());
+        assertEquals(List.of("beat:1", "beat:2", "usuario:1"), receptorB.invalidados);
+        assertTrue(receptorA.invalidados.isEmpty());
+        nodoA.enviar();
+        assertEquals(1, enviados.size());
+    }
+    @Test
+    @DisplayName("Batches are split by the configured size")
+    void divideEnMensajes() {
+        properties.setCambiosPorMensaje(2);
+        nodoA.publicar(BusInvalidacion.BEAT, List.of(1, 2, 3, 4, 5));
+        nodoA.enviar();
+        assertEquals(3, enviados.size());
+        assertEquals(5, receptorB.invalidados.size());
+    }
+    @Test
+    @DisplayName("A full invalidation replaces pending ids of the same entity")
+    void todosReemplazaIds() {
+        nodoA.publicar(BusInvalidacion.BEAT, List.of(1, 2));
+        nodoA.publicarTodo(BusInvalidacion.BEAT);
+        nodoA.publicar(BusInvalidacion.BEAT, 3);
+        nodoA.publicar(BusInvalidacion.USUARIO, 7);
+        nodoA.enviar();
+        assertEquals(List.of("beat:*", "usuario:7"), receptorB.invalidados);
+    }
+    @Test
+    @DisplayName("Every received invalidation is applied, whatever order it arrives in")
+    void aplicaTodoSinOrden() {
+        String uno = "{\"origen\":\"x\",\"cambios\":[{\"entidad\":\"beat\",\"id\":\"1\"}]}";
+        String dos = "{\"origen\":\"y\",\"cambios\":[{\"entidad\":\"beat\",\"id\":\"1\"},"
+                + "{\"entidad\":\"beat\",\"id\":\"2\"}]}";
+        nodoB.recibir(uno);
+        nodoB.recibir(dos);
+        nodoB.recibir(uno);
+        assertEquals(List.of("beat:1", "beat:1", "beat:2", "beat:1"), receptorB.invalidados);
+    }
+    @Test
+    @DisplayName("Failed sends are retried on the next run")
+    void reintentaEnvioFallido() {
+        BusInvalidacion caido = new BusInvalidacion(new TransporteLocal() {
+            boolean fallar = true;
+            @Override
+            public void publicar(String mensaje) {
+                if (fallar) {
+                    fallar = false;
+                    throw new IllegalStateException("sin conexión");
+                }
+                enviados.add(mensaje);
+            }
+        }, List.of(), properties, objectMapper, new SimpleMeterRegistry());
+        caido.publicar(BusInvalidacion.BEAT, 1);
+        caido.enviar();
+        assertTrue(enviados.isEmpty());
+        caido.enviar();
+        assertEquals(1, enviados.size());
+    }
+    @Test
+    @DisplayName("A reconnection triggers a full resync and bad messages are ignored")
+    void resincronizaAlReconectar() {
+        nodoB.recibir("no es json");
+        transporte.simularReconexion();
+        assertEquals(1, receptorA.resincronizaciones);
+        assertEquals(1, receptorB.resincronizaciones);
+        assertTrue(receptorB.invalidados.isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package Fullsound.Fullsound.invalidacion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+@Testcontainers(disabledWithoutDocker = true)
+class TransportePostgresTest {
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    private final List<TransportePostgres> transportes = new ArrayList<>();
+    @AfterEach
+    void tearDown() {
+        transportes.forEach(TransportePostgres::detener);
+    }
+    @Test
+    @DisplayName("Notifications reach other listeners and a dropped connection triggers a resync")
+    void entregaYReconecta() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        BlockingQueue<String> recibidos = new LinkedBlockingQueue<>();
+        BlockingQueue<Boolean> reconexiones = new LinkedBlockingQueue<>();
+        TransportePostgres emisor = nuevo(jdbcTemplate);
+        TransportePostgres receptor = nuevo(jdbcTemplate);
+        receptor.suscribir(new TransporteInvalidacion.Suscriptor() {
+            @Override
+            public void recibir(String mensaje) {
+                recibidos.add(mensaje);
+            }
+            @Override
+            public void reconectado() {
+                reconexiones.add(true);
+            }
+        });
+        esperarEscucha(receptor);
+        emisor.publicar("{\"hola\":1}");
+        assertEquals("{\"hola\":1}", recibidos.poll(5, TimeUnit.SECONDS));
+        jdbcTemplate.execute("SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                + "WHERE query LIKE 'LISTEN%' OR query = 'SELECT 1'");
+        assertEquals(Boolean.TRUE, reconexiones.poll(10, TimeUnit.SECONDS));
+        esperarEscucha(receptor);
+        emisor.publicar("otra");
+        assertEquals("otra", recibidos.poll(5, TimeUnit.SECONDS));
+    }
+    @Test
+    @DisplayName("A transaction-mode pooler URL is rejected because it never delivers notifications")
+    void rechazaPoolerTransaccion() {
+        InvalidacionProperties properties = new InvalidacionProperties();
+        assertThrows(IllegalStateException.class, () -> new TransportePostgres(null, properties,
+                "jdbc:postgresql://aws-0-us-west-2.pooler.supabase.com:6543/postgres?sslmode=require", "u", "p"));
+        assertThrows(IllegalStateException.class, () -> new TransportePostgres(null, properties, null, "u", "p"));
+        assertDoesNotThrow(() -> new TransportePostgres(null, properties,
+                "jdbc:postgresql://aws-0-us-west-2.pooler.supabase.com:5432/postgres?sslmode=require", "u", "p"));
+    }
+    private TransportePostgres nuevo(JdbcTemplate jdbcTemplate) {
+        InvalidacionProperties properties = new InvalidacionProperties();
+        properties.setEsperaReconexion(Duration.ofMillis(100));
+        properties.setIntervaloComprobacion(Duration.ofMillis(200));
+        TransportePostgres transporte = new TransportePostgres(jdbcTemplate, properties,
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        transporte.iniciar();
+        transportes.add(transporte);
+        return transporte;
+    }
+    private static void esperarEscucha(TransportePostgres transporte) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!transporte.isEscuchando() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertTrue(transporte.isEscuchando());
+    }
+}
@@ -0,0 +1,67 @@
+package Fullsound.Fullsound.json;
+import Fullsound.Fullsound.dto.response.BeatResponse;
+import Fullsound.Fullsound.dto.response.PedidoItemResponse;
+import Fullsound.Fullsound.dto.response.PedidoResponse;
+import Fullsound.Fullsound.dto.response.UsuarioResponse;
+import Fullsound.Fullsound.model.Beat;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+class ResponseSerializersTest {
+    private final JsonMapper reflexivo = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final JsonMapper especializado = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new SimpleModule()
+                    .addSerializer(new BeatResponseSerializer())
+                    .addSerializer(new PedidoResponseSerializer())
+                    .addSerializer(new PedidoResponseSerializer.ItemSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    @Test
+    @DisplayName("BeatResponse output is identical to reflective serialization")
+    void beatIdentico() throws Exception {
+        BeatResponse completo = BeatResponse.builder()
+                .idBeat(7).titulo("Noche \"Trap\"").slug("noche-trap").artista("Vector").precio(15000)
+                .precioFormateado("$15,000").bpm(140).tonalidad("Am").duracion(180).genero("trap")
+                .emocion("oscuro").etiquetas("trap,808").descripcion("línea\nnueva").imagenUrl("/img.png")
+                .audioUrl("/a.mp3").audioDemoUrl("/d.mp3").reproducciones(12).estado("DISPONIBLE")
+                .enlaceProducto("/beats/noche-trap")
+                .createdAt(LocalDateTime.of(2025, 11, 13, 9, 5, 0))
+                .updatedAt(LocalDateTime.of(2025, 11, 13, 9, 5, 7, 120_000_000))
+                .build();
+        BeatResponse vacio = new BeatResponse();
+        for (BeatResponse beat : List.of(completo, vacio)) {
+            assertEquals(reflexivo.writeValueAsString(beat), especializado.writeValueAsString(beat));
+        }
+    }
+    @Test
+    @DisplayName("PedidoResponse and its items match reflective serialization")
+    void pedidoIdentico() throws Exception {
+        PedidoResponse pedido = PedidoResponse.builder()
+                .id(3).numeroPedido("FS-0003").total(30000).estado("PENDIENTE").metodoPago("STRIPE")
+                .fechaCompra(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 6))
+                .usuario(UsuarioResponse.builder().id(1).nombreUsuario("ana").roles(List.of("cliente")).build())
+                .items(List.of(PedidoItemResponse.builder().id(1).beatId(7).nombreItem("Noche").cantidad(2)
+                        .precioUnitario(15000).subtotal(30000).build()))
+                .build();
+        assertEquals(reflexivo.writeValueAsString(pedido), especializado.writeValueAsString(pedido));
+        assertEquals(reflexivo.writeValueAsString(new PedidoResponse()), especializado.writeValueAsString(new PedidoResponse()));
+    }
+    @Test
+    @DisplayName("Formatted price matches String.format grouping")
+    void precioFormateado() {
+        for (int precio : new int[]{0, 999, 1000, 15000, 1234567, -2500, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            Beat beat = Beat.builder().precio(precio).build();
+            assertEquals(String.format("$%,d", precio), beat.getPrecioFormateado());
+        }
+    }
+}
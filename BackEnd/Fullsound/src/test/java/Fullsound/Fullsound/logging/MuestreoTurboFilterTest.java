@@ -0,0 +1,84 @@
+package Fullsound.Fullsound.logging;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+class MuestreoTurboFilterTest {
+    private final LoggerContext context = new LoggerContext();
+    private final MuestreoTurboFilter filtro = new MuestreoTurboFilter();
+    private Logger sql;
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        filtro.setCategorias("org.hibernate.SQL, org.springframework.security");
+        filtro.setUnoDe(10);
+        sql = context.getLogger("org.hibernate.SQL");
+        sql.setLevel(Level.DEBUG);
+    }
+    private int aceptados(Logger logger, Level level, int eventos) {
+        int aceptados = 0;
+        for (int i = 0; i < eventos; i++) {
+            if (filtro.decide(null, logger, level, "select 1", null, null) == FilterReply.NEUTRAL) {
+                aceptados++;
+            }
+        }
+        return aceptados;
+    }
+    @Test
+    @DisplayName("Should keep one in N debug events of sampled categories")
+    void shouldSampleDebugEvents() {
+        assertEquals(10, aceptados(sql, Level.DEBUG, 100));
+    }
+    @Test
+    @DisplayName("Should never sample INFO and above")
+    void shouldNotSampleInfo() {
+        assertEquals(100, aceptados(sql, Level.WARN, 100));
+    }
+    @Test
+    @DisplayName("Should not touch other categories or disabled levels")
+    void shouldIgnoreOtherCategories() {
+        Logger propio = context.getLogger("Fullsound.Fullsound.service");
+        propio.setLevel(Level.DEBUG);
+        assertEquals(100, aceptados(propio, Level.DEBUG, 100));
+        assertEquals(100, aceptados(context.getLogger("org.hibernate.SQLOtro"), Level.DEBUG, 100));
+        sql.setLevel(Level.INFO);
+        assertEquals(100, aceptados(sql, Level.DEBUG, 100));
+    }
+    @Test
+    @DisplayName("Async appender should count events dropped when the queue is full")
+    void shouldCountDroppedEvents() {
+        AsyncAppenderConMetricas appender = new AsyncAppenderConMetricas();
+        appender.setContext(context);
+        appender.setQueueSize(1);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        AppenderBase<ILoggingEvent> lento = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        lento.setContext(context);
+        lento.start();
+        appender.addAppender(lento);
+        appender.start();
+        Logger logger = context.getLogger("prueba");
+        logger.addAppender(appender);
+        for (int i = 0; i < 20; i++) {
+            logger.warn("evento {}", i);
+        }
+        assertTrue(appender.getDescartadosPorColaLlena() > 0);
+        appender.stop();
+    }
+}
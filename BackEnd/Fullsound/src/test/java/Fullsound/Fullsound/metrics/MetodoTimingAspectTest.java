@@ -0,0 +1,61 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import static org.junit.jupiter.api.Assertions.*;
+class MetodoTimingAspectTest {
+    @Service
+    public static class CatalogoFalso {
+        public String buscar(String texto) {
+            return texto.toUpperCase();
+        }
+        public void fallar() {
+            throw new IllegalStateException("fallo");
+        }
+    }
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private CatalogoFalso proxy;
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new CatalogoFalso());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new MetodoTimingAspect(registry));
+        proxy = factory.getProxy();
+    }
+    @Test
+    @DisplayName("Should time service methods tagged by layer, class and method")
+    void shouldTimeServiceMethods() {
+        assertEquals("BEAT", proxy.buscar("beat"));
+        assertEquals("BEAT", proxy.buscar("beat"));
+        Timer timer = registry.get(MetodoTimingAspect.METRICA)
+                .tags("capa", "service", "clase", "CatalogoFalso", "metodo", "buscar", "excepcion", "none")
+                .timer();
+        assertEquals(2, timer.count());
+    }
+    @Test
+    @DisplayName("Should tag failures with the exception type and rethrow")
+    void shouldTagExceptions() {
+        assertThrows(IllegalStateException.class, () -> proxy.fallar());
+        assertEquals(1, registry.get(MetodoTimingAspect.METRICA)
+                .tags("metodo", "fallar", "excepcion", "IllegalStateException")
+                .timer().count());
+    }
+    @Test
+    @DisplayName("Should time outbound calls by dependency and outcome")
+    void shouldTimeOutboundCalls() throws Exception {
+        LlamadasExternas llamadas = new LlamadasExternas(registry);
+        assertEquals("ok", llamadas.medir("stripe", "payment_intent.crear", () -> "ok"));
+        assertThrows(IOException.class, () -> llamadas.medir("supabase", "storage.subir", () -> {
+            throw new IOException("timeout");
+        }));
+        assertEquals(1, registry.get("fullsound.llamadas.externas")
+                .tags("dependencia", "stripe", "resultado", "ok").timer().count());
+        assertEquals(1, registry.get("fullsound.llamadas.externas")
+                .tags("dependencia", "supabase", "resultado", "error").timer().count());
+    }
+}
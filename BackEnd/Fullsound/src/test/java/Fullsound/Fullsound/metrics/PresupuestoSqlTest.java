@@ -0,0 +1,114 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+class PresupuestoSqlTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PresupuestoSqlProperties properties;
+    private MonitorSql monitor;
+    private DataSource dataSource;
+    private MetricasSolicitudFilter filter;
+    @BeforeEach
+    void setUp() throws SQLException {
+        properties = new PresupuestoSqlProperties();
+        properties.setModo(PresupuestoSqlProperties.Modo.FALLAR);
+        properties.setUmbralLenta(Duration.ZERO);
+        monitor = new MonitorSql(properties, registry);
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:presupuesto;DB_CLOSE_DELAY=-1");
+        dataSource = new MonitoredDataSource(h2, monitor);
+        try (Connection conexion = h2.getConnection(); Statement st = conexion.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS beat (id INT PRIMARY KEY, titulo VARCHAR(50))");
+            st.execute("MERGE INTO beat KEY (id) VALUES (1, 'uno')");
+        }
+        filter = new MetricasSolicitudFilter(registry, properties);
+    }
+    private MockHttpServletRequest solicitud() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/beats/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/beats/{id}");
+        return request;
+    }
+    private void consultar(int veces) throws SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            for (int i = 0; i < veces; i++) {
+                try (PreparedStatement ps = conexion.prepareStatement("SELECT titulo FROM beat WHERE id = ? AND titulo <> ?")) {
+                    ps.setInt(1, 1);
+                    ps.setString(2, "x");
+                    ps.executeQuery().close();
+                }
+            }
+        }
+    }
+    @Test
+    @DisplayName("Should attribute statements and DB time to the request pattern")
+    void shouldAttributeStatementsToRequest() throws Exception {
+        filter.doFilter(solicitud(), new MockHttpServletResponse(), (req, res) -> {
+            try {
+                consultar(3);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(3.0, registry.get("fullsound.sql.sentencias")
+                .tags("metodo", "GET", "uri", "/api/beats/{id}").summary().totalAmount());
+        assertEquals(1, registry.get("fullsound.sql.tiempo").tags("uri", "/api/beats/{id}").timer().count());
+        assertNull(ContextoSql.actual());
+    }
+    @Test
+    @DisplayName("Should fail the request when it exceeds the endpoint statement budget")
+    void shouldFailWhenBudgetExceeded() {
+        PresupuestoSqlProperties.Presupuesto presupuesto = new PresupuestoSqlProperties.Presupuesto();
+        presupuesto.setSentencias(2);
+        properties.getEndpoints().put("GET /api/beats/{id}", presupuesto);
+        PresupuestoSqlExcedidoException e = assertThrows(PresupuestoSqlExcedidoException.class, () ->
+                filter.doFilter(solicitud(), new MockHttpServletResponse(), (req, res) -> {
+                    try {
+                        consultar(3);
+                    } catch (SQLException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }));
+        assertTrue(e.getMessage().contains("3 sentencias (máx 2)"));
+        assertEquals(1.0, registry.get("fullsound.sql.presupuesto.excedido").counter().count());
+    }
+    @Test
+    @DisplayName("Should only warn when budget mode is ADVERTIR")
+    void shouldOnlyWarnInAdvertirMode() throws Exception {
+        properties.setModo(PresupuestoSqlProperties.Modo.ADVERTIR);
+        properties.getPorDefecto().setSentencias(0);
+        filter.doFilter(solicitud(), new MockHttpServletResponse(), (req, res) -> {
+            try {
+                consultar(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(1.0, registry.get("fullsound.sql.presupuesto.excedido").counter().count());
+    }
+    @Test
+    @DisplayName("Should record slow statements with bound parameter count and call site")
+    void shouldRecordSlowStatements() throws Exception {
+        consultar(2);
+        List<Map<String, Object>> top = monitor.getLentas().top(5);
+        Map<String, Object> entrada = top.stream()
+                .filter(m -> m.get("sql").toString().startsWith("SELECT titulo"))
+                .findFirst().orElseThrow();
+        assertEquals(2L, ((Number) entrada.get("veces")).longValue());
+        assertEquals(2, ((Number) entrada.get("parametros")).intValue());
+        assertEquals(2, registry.get("fullsound.sql.duracion").timer().count());
+    }
+}
@@ -0,0 +1,41 @@
+package Fullsound.Fullsound.metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.*;
+class TiemposArranqueTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TiemposArranque tiemposArranque = new TiemposArranque(registry);
+    private ApplicationReadyEvent evento(GenericApplicationContext context) {
+        return new ApplicationReadyEvent(new SpringApplication(), new String[0], context, Duration.ofMillis(1500));
+    }
+    @Test
+    @DisplayName("Should publish a timer per startup phase from the buffered timeline")
+    void shouldPublishPhaseTimers() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+        startup.startRecording();
+        StartupStep refresh = startup.start("spring.context.refresh");
+        StartupStep bean = startup.start("spring.beans.instantiate").tag("beanName", "entityManagerFactory");
+        bean.end();
+        StartupStep otro = startup.start("spring.beans.instantiate").tag("beanName", "beatService");
+        otro.end();
+        refresh.end();
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.setApplicationStartup(startup);
+        tiemposArranque.informar(evento(context));
+        assertEquals(2, registry.get("fullsound.arranque.fase").tag("fase", "spring.beans.instantiate").timer().count());
+        assertEquals(1, registry.get("fullsound.arranque.fase").tag("fase", "spring.context.refresh").timer().count());
+    }
+    @Test
+    @DisplayName("Should skip phase timers when startup is not buffered")
+    void shouldSkipWithoutBufferingStartup() {
+        tiemposArranque.informar(evento(new GenericApplicationContext()));
+        assertTrue(registry.find("fullsound.arranque.fase").timers().isEmpty());
+    }
+}
@@ -0,0 +1,149 @@
+package Fullsound.Fullsound.notificaciones;
+import Fullsound.Fullsound.controller.NotificacionController;
+import Fullsound.Fullsound.dto.response.CambioEstadoResponse;
+import Fullsound.Fullsound.exception.ServiceUnavailableException;
+import Fullsound.Fullsound.invalidacion.TransporteLocal;
+import Fullsound.Fullsound.security.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+class CanalEstadosTest {
+    private NotificacionesProperties properties;
+    private ThreadPoolExecutor envio;
+    private TransporteLocal transporte;
+    private CanalEstados canal;
+    private MockMvc mockMvc;
+    @BeforeEach
+    void setUp() {
+        properties = new NotificacionesProperties();
+        envio = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        transporte = new TransporteLocal();
+        canal = nodo();
+        mockMvc = MockMvcBuilders.standaloneSetup(new NotificacionController(canal)).build();
+    }
+    @AfterEach
+    void tearDown() {
+        envio.shutdownNow();
+    }
+    private CanalEstados nodo() {
+        return new CanalEstados(properties, envio, transporte, Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry());
+    }
+    private MockHttpServletResponse conectar(int usuarioId) throws Exception {
+        return abrir(usuarioId).getResponse();
+    }
+    private MvcResult abrir(int usuarioId) throws Exception {
+        UserDetailsImpl usuario = new UserDetailsImpl(usuarioId, "u" + usuarioId, "u" + usuarioId + "@fullsound.cl", "x", true, List.of());
+        return mockMvc.perform(get("/api/notificaciones/stream")
+                        .principal(new UsernamePasswordAuthenticationToken(usuario, null, List.of())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+    private static CambioEstadoResponse cambio(int pedidoId, String estado) {
+        return CambioEstadoResponse.builder().tipo("pedido").id(pedidoId).pedidoId(pedidoId).estado(estado).build();
+    }
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "condición no cumplida a tiempo");
+            Thread.sleep(10);
+        }
+    }
+    private static String contenido(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    @Test
+    @DisplayName("State changes are pushed only to the connections of their user")
+    void entregaPorUsuario() throws Exception {
+        MockHttpServletResponse ana = conectar(1);
+        MockHttpServletResponse bruno = conectar(2);
+        canal.publicar(1, "pedido", cambio(10, "COMPLETADO"));
+        esperar(() -> contenido(ana).contains("\"estado\":\"COMPLETADO\""));
+        assertTrue(contenido(ana).contains("event:pedido"));
+        assertTrue(contenido(ana).contains("event:conectado"));
+        esperar(() -> contenido(bruno).contains("{\"usuarioId\":2}"));
+        assertFalse(contenido(bruno).contains("event:pedido"));
+        canal.latido();
+        esperar(() -> contenido(bruno).contains(":latido"));
+        assertEquals(2, canal.conexionesAbiertas());
+    }
+    @Test
+    @DisplayName("State changes committed on another instance reach the user's stream on this one")
+    void entregaDesdeOtraInstancia() throws Exception {
+        CanalEstados otroNodo = nodo();
+        MockHttpServletResponse ana = conectar(1);
+        otroNodo.publicar(1, "pago", cambio(10, "APROBADO"));
+        otroNodo.difundir();
+        esperar(() -> contenido(ana).contains("\"estado\":\"APROBADO\""));
+        assertTrue(contenido(ana).contains("event:pago"));
+        canal.difundir();
+        assertEquals(1, contenido(ana).split("APROBADO", -1).length - 1);
+    }
+    @Test
+    @DisplayName("An idle connection that times out is completed instead of failing with a timeout error")
+    void expiraSinError() throws Exception {
+        MvcResult resultado = abrir(1);
+        MockAsyncContext contexto = (MockAsyncContext) resultado.getRequest().getAsyncContext();
+        for (AsyncListener listener : contexto.getListeners()) {
+            listener.onTimeout(new AsyncEvent(contexto));
+        }
+        assertEquals(0, canal.conexionesAbiertas());
+        assertFalse(resultado.getAsyncResult(1000) instanceof AsyncRequestTimeoutException);
+    }
+    @Test
+    @DisplayName("Opening more than the per-user limit closes the oldest connection")
+    void limitePorUsuario() throws Exception {
+        properties.setMaxConexionesPorUsuario(2);
+        conectar(1);
+        conectar(1);
+        conectar(1);
+        assertEquals(2, canal.conexionesAbiertas());
+        properties.setMaxConexiones(3);
+        conectar(2);
+        assertThrows(ServiceUnavailableException.class, () -> canal.abrir(3));
+        assertEquals(3, canal.conexionesAbiertas());
+    }
+    @Test
+    @DisplayName("A client that fills its buffer is disconnected without blocking the publisher")
+    void bufferLleno() throws Exception {
+        properties.setCapacidadBuffer(4);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        envio.execute(() -> {
+            try {
+                bloqueo.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        conectar(1);
+        for (int i = 0; i < 10; i++) {
+            canal.publicar(1, "pedido", cambio(i, "PENDIENTE"));
+        }
+        assertEquals(0, canal.conexionesAbiertas());
+        bloqueo.countDown();
+    }
+}
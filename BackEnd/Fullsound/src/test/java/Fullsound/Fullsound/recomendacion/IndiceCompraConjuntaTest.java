@@ -0,0 +1,115 @@
+package Fullsound.Fullsound.recomendacion;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.model.PedidoItem;
+import Fullsound.Fullsound.repository.PedidoItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+class IndiceCompraConjuntaTest {
+    private PedidoItemRepository pedidoItemRepository;
+    private List<Object[]> historial;
+    @BeforeEach
+    void setUp() {
+        pedidoItemRepository = mock(PedidoItemRepository.class);
+        historial = new ArrayList<>();
+        pedido(1, 10, 20);
+        pedido(2, 10, 20, 30);
+        pedido(3, 10, 40);
+        pedido(4, 50);
+        when(pedidoItemRepository.streamItemsCompletados()).thenAnswer(invocation -> List.copyOf(historial).stream());
+    }
+    private void pedido(int id, int... beats) {
+        for (int beat : beats) {
+            historial.add(new Object[]{id, beat});
+        }
+    }
+    private IndiceCompraConjunta indice() {
+        IndiceCompraConjunta indice = new IndiceCompraConjunta(pedidoItemRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(indice, "n", 3);
+        ReflectionTestUtils.setField(indice, "minimo", 1);
+        indice.registrarMetricas();
+        indice.reconstruir();
+        return indice;
+    }
+    private static Pedido pedidoCon(int pedidoId, int... beats) {
+        Pedido pedido = new Pedido();
+        pedido.setId(pedidoId);
+        pedido.setItems(IntStream.of(beats)
+                .mapToObj(id -> PedidoItem.builder().beat(Beat.builder().id(id).build()).build())
+                .toList());
+        return pedido;
+    }
+    @Test
+    @DisplayName("Ranks beats bought in the same orders, strongest first")
+    void rankingPorCoCompra() {
+        IndiceCompraConjunta indice = indice();
+        assertEquals(List.of(20, 30, 40), indice.compradosJuntos(10, 10));
+        assertEquals(List.of(20), indice.compradosJuntos(10, 1));
+        assertEquals(List.of(), indice.compradosJuntos(50, 10));
+    }
+    @Test
+    @DisplayName("Completing and refunding orders matches a full rebuild")
+    void incrementalIgualAReconstruccion() {
+        IndiceCompraConjunta incremental = indice();
+        incremental.registrarPedido(pedidoCon(5, 30, 40, 50), 1);
+        pedido(5, 30, 40, 50);
+        incremental.registrarPedido(pedidoCon(3, 10, 40), -1);
+        historial.removeIf(fila -> (Integer) fila[0] == 3);
+        IndiceCompraConjunta completo = indice();
+        for (int beat : new int[]{10, 20, 30, 40, 50}) {
+            assertEquals(completo.compradosJuntos(beat, 10), incremental.compradosJuntos(beat, 10), "beat " + beat);
+        }
+    }
+    @Test
+    @DisplayName("Orders committed while the rebuild query runs are counted once")
+    void cambiosDuranteLaConsultaNoSeDuplican() {
+        IndiceCompraConjunta esperado = indice();
+        IndiceCompraConjunta indice = indice();
+        when(pedidoItemRepository.streamItemsCompletados()).thenAnswer(invocation -> {
+            // confirmados tras abrir la lista de pendientes pero antes de la foto de la consulta
+            indice.registrarPedido(pedidoCon(6, 20, 30), 1);
+            pedido(6, 20, 30);
+            indice.registrarPedido(pedidoCon(2, 10, 20, 30), -1);
+            historial.removeIf(fila -> (Integer) fila[0] == 2);
+            return List.copyOf(historial).stream();
+        });
+        indice.reconstruir();
+        indice.registrarPedido(pedidoCon(2, 10, 20, 30), 1);
+        indice.registrarPedido(pedidoCon(6, 20, 30), -1);
+        for (int beat : new int[]{10, 20, 30, 40, 50}) {
+            assertEquals(esperado.compradosJuntos(beat, 10), indice.compradosJuntos(beat, 10), "beat " + beat);
+        }
+    }
+    @Test
+    @DisplayName("Primitive counter behaves like a HashMap under random updates")
+    void contadorComoHashMap() {
+        ContadorEnteros contador = new ContadorEnteros();
+        Map<Integer, Integer> esperado = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int clave = random.nextInt(500);
+            int delta = random.nextBoolean() ? 1 : -1;
+            contador.sumar(clave, delta);
+            esperado.merge(clave, delta, Integer::sum);
+            esperado.remove(clave, 0);
+        }
+        assertEquals(esperado.size(), contador.tamano());
+        esperado.forEach((clave, valor) -> assertEquals(valor, contador.get(clave)));
+        Map<Integer, Integer> visto = new HashMap<>();
+        contador.forEach(visto::put);
+        assertEquals(esperado, visto);
+    }
+}
@@ -0,0 +1,79 @@
+package Fullsound.Fullsound.recomendacion;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.repository.BeatRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+class IndiceSimilitudBeatsTest {
+    private BeatRepository beatRepository;
+    private List<Beat> catalogo;
+    @BeforeEach
+    void setUp() {
+        beatRepository = mock(BeatRepository.class);
+        catalogo = new ArrayList<>(List.of(
+                beat(1, 140, "Am", "Trap", "Oscuro", "trap,808,dark"),
+                beat(2, 142, "Em", "Trap", "Oscuro", "trap,808"),
+                beat(3, 80, "C", "Lofi", "Relajado", "lofi,chill"),
+                beat(4, 84, "G", "Lofi", "Relajado", "lofi,piano"),
+                beat(5, 95, "F#m", "Reggaeton", "Alegre", "perreo")));
+        when(beatRepository.findAllAvailable()).thenAnswer(invocation -> List.copyOf(catalogo));
+    }
+    private static Beat beat(int id, int bpm, String tonalidad, String genero, String emocion, String etiquetas) {
+        return Beat.builder().id(id).titulo("Beat " + id).precio(10000).bpm(bpm).tonalidad(tonalidad)
+                .genero(genero).emocion(emocion).etiquetas(etiquetas).estado("DISPONIBLE").build();
+    }
+    private IndiceSimilitudBeats indice(int k) {
+        IndiceSimilitudBeats indice = new IndiceSimilitudBeats(beatRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(indice, "k", k);
+        ReflectionTestUtils.setField(indice, "paralelismo", 2);
+        indice.registrarMetricas();
+        indice.reconstruir();
+        return indice;
+    }
+    @Test
+    @DisplayName("Parses common key notations onto the Camelot wheel")
+    void camelot() {
+        assertEquals(-8, CaracteristicasBeat.camelot("Am"));
+        assertEquals(8, CaracteristicasBeat.camelot("C"));
+        assertEquals(-11, CaracteristicasBeat.camelot("F#m"));
+        assertEquals(6, CaracteristicasBeat.camelot("Bb"));
+        assertEquals(-8, CaracteristicasBeat.camelot("8A"));
+        assertEquals(8, CaracteristicasBeat.camelot("Do mayor"));
+        assertEquals(-8, CaracteristicasBeat.camelot("La menor"));
+        assertEquals(0, CaracteristicasBeat.camelot("desconocida"));
+    }
+    @Test
+    @DisplayName("Nearest neighbours share genre, mood and tempo")
+    void vecinosMasParecidos() {
+        IndiceSimilitudBeats indice = indice(3);
+        assertEquals(2, indice.similares(1, 1).get(0));
+        assertEquals(4, indice.similares(3, 1).get(0));
+        assertEquals(3, indice.similares(1, 10).size());
+        assertNull(indice.similares(99, 5));
+    }
+    @Test
+    @DisplayName("Incremental updates give the same lists as a full rebuild")
+    void incrementalIgualAReconstruccion() {
+        IndiceSimilitudBeats incremental = indice(2);
+        Beat cambiado = beat(3, 141, "Am", "Trap", "Oscuro", "trap,dark");
+        catalogo.set(2, cambiado);
+        incremental.actualizar(cambiado);
+        Beat nuevo = beat(6, 82, "C", "Lofi", "Relajado", "lofi,chill");
+        catalogo.add(nuevo);
+        incremental.actualizar(nuevo);
+        catalogo.remove(1);
+        incremental.eliminar(2);
+        IndiceSimilitudBeats completo = indice(2);
+        for (Beat beat : catalogo) {
+            assertEquals(completo.similares(beat.getId(), 2), incremental.similares(beat.getId(), 2), "beat " + beat.getId());
+        }
+        assertNull(incremental.similares(2, 2));
+    }
+}
@@ -0,0 +1,124 @@
+package Fullsound.Fullsound.recomendacion;
+import Fullsound.Fullsound.dto.response.BeatResponse;
+import Fullsound.Fullsound.eventos.EventoEscucha;
+import Fullsound.Fullsound.eventos.TipoEvento;
+import Fullsound.Fullsound.mapper.BeatMapper;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.model.PedidoItem;
+import Fullsound.Fullsound.repository.BeatRepository;
+import Fullsound.Fullsound.repository.PedidoItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+class TendenciasBeatsTest {
+    private static final Instant INICIO = Instant.parse("2025-11-01T12:00:00Z");
+    private BeatRepository beatRepository;
+    private PedidoItemRepository pedidoItemRepository;
+    private TendenciasBeats tendencias;
+    private Instant ahora;
+    @BeforeEach
+    void setUp() {
+        beatRepository = mock(BeatRepository.class);
+        pedidoItemRepository = mock(PedidoItemRepository.class);
+        BeatMapper beatMapper = mock(BeatMapper.class);
+        when(beatMapper.toResponse(any(Beat.class))).thenAnswer(invocation -> {
+            Beat beat = invocation.getArgument(0);
+            return BeatResponse.builder().idBeat(beat.getId()).genero(beat.getGenero()).build();
+        });
+        when(beatRepository.findAllAvailable()).thenReturn(List.of(
+                beat(1, "Trap", 5000),
+                beat(2, "trap ", 10),
+                beat(3, "Drill", 0),
+                beat(4, null, 20)));
+        tendencias = new TendenciasBeats(beatRepository, pedidoItemRepository, beatMapper,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tendencias, "vidaMedia", Duration.ofDays(1));
+        ReflectionTestUtils.setField(tendencias, "pesoReproduccion", 1.0);
+        ReflectionTestUtils.setField(tendencias, "pesoVenta", 10.0);
+        ReflectionTestUtils.setField(tendencias, "k", 2);
+        ReflectionTestUtils.setField(tendencias, "ventanaSiembra", Duration.ofDays(30));
+        reloj(INICIO);
+        tendencias.inicializar();
+    }
+    private static Beat beat(int id, String genero, int reproducciones) {
+        return Beat.builder().id(id).genero(genero).reproducciones(reproducciones).estado("DISPONIBLE").build();
+    }
+    private void reloj(Instant instante) {
+        ahora = instante;
+        ReflectionTestUtils.setField(tendencias, "reloj", Clock.fixed(instante, ZoneOffset.UTC));
+    }
+    private void reproducir(int beatId) {
+        tendencias.procesar(List.of(new EventoEscucha(ahora.toEpochMilli(), beatId, 0, 0, TipoEvento.REPRODUCCION)));
+    }
+    private static List<Integer> ids(List<BeatResponse> beats) {
+        return beats.stream().map(BeatResponse::getIdBeat).toList();
+    }
+    @Test
+    @DisplayName("Without recent activity the shelf falls back to all-time plays")
+    void sinActividadOrdenaPorReproducciones() {
+        assertNull(tendencias.destacados(10));
+        tendencias.recalcular();
+        assertEquals(List.of(1, 4), ids(tendencias.destacados(10)));
+        assertEquals(List.of(1), ids(tendencias.destacados(1)));
+        assertEquals(List.of(1, 2), ids(tendencias.destacadosPorGenero("TRAP", 10)));
+        assertEquals(List.of(), tendencias.destacadosPorGenero("house", 10));
+    }
+    @Test
+    @DisplayName("Recent plays overtake old hits and older activity decays")
+    void actividadRecienteDecae() {
+        for (int i = 0; i < 8; i++) {
+            reproducir(3);
+        }
+        reloj(INICIO.plus(Duration.ofDays(3)));
+        reproducir(2);
+        reproducir(2);
+        tendencias.recalcular();
+        assertEquals(List.of(2, 3), ids(tendencias.destacados(10)));
+        assertEquals(List.of(3), ids(tendencias.destacadosPorGenero("drill", 10)));
+    }
+    @Test
+    @DisplayName("Completed sales and seeded history weigh more than plays")
+    void ventasPesanMas() {
+        when(pedidoItemRepository.findVentasCompletadasDesde(LocalDateTime.ofInstant(INICIO, ZoneOffset.UTC).minusDays(30)))
+                .thenReturn(List.<Object[]>of(new Object[]{4, LocalDateTime.ofInstant(INICIO, ZoneOffset.UTC).minusDays(1)}));
+        tendencias.sembrar();
+        Pedido pedido = new Pedido();
+        pedido.setItems(List.of(PedidoItem.builder().beat(beat(3, "Drill", 0)).build()));
+        for (int i = 0; i < 9; i++) {
+            reproducir(2);
+        }
+        tendencias.registrarVenta(pedido);
+        tendencias.recalcular();
+        assertEquals(List.of(3, 2), ids(tendencias.destacados(10)));
+        assertEquals(List.of(3, 2, 4), ids(conK(3).destacados(10)));
+    }
+    @Test
+    @DisplayName("Rebasing after many half-lives keeps the ranking finite and ordered")
+    void reescalaLaBase() {
+        reproducir(3);
+        reloj(INICIO.plus(Duration.ofDays(365)));
+        reproducir(2);
+        tendencias.recalcular();
+        reproducir(2);
+        tendencias.recalcular();
+        assertEquals(List.of(2, 1), ids(tendencias.destacados(10)));
+    }
+    private TendenciasBeats conK(int k) {
+        ReflectionTestUtils.setField(tendencias, "k", k);
+        tendencias.recalcular();
+        return tendencias;
+    }
+}
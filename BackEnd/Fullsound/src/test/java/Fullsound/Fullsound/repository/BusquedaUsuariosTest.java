@@ -0,0 +1,91 @@
+package Fullsound.Fullsound.repository;
+import Fullsound.Fullsound.dto.request.BusquedaUsuariosRequest;
+import Fullsound.Fullsound.dto.response.UsuarioResponse;
+import Fullsound.Fullsound.dto.response.UsuariosPaginaResponse;
+import Fullsound.Fullsound.exception.BadRequestException;
+import Fullsound.Fullsound.mapper.UsuarioMapperImpl;
+import Fullsound.Fullsound.model.Rol;
+import Fullsound.Fullsound.model.Usuario;
+import Fullsound.Fullsound.service.impl.UsuarioServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest
+@ActiveProfiles("test")
+class BusquedaUsuariosTest {
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    private UsuarioServiceImpl usuarioService;
+    @BeforeEach
+    void setUp() {
+        Rol cliente = entityManager.persist(Rol.builder().tipo("cliente").build());
+        Rol administrador = entityManager.persist(Rol.builder().tipo("administrador").build());
+        String[] nombres = {"Ana", "andres", "Andrea", "anibal", "bruno", "an_tonia", "anX", "ANTONIO"};
+        for (int i = 0; i < nombres.length; i++) {
+            entityManager.persist(Usuario.builder()
+                    .nombreUsuario(nombres[i])
+                    .correo(nombres[i].toLowerCase() + "@fullsound.cl")
+                    .rut((12 + i) + ".345.678-" + (i == 2 ? "k" : String.valueOf(i)))
+                    .contraseña("x")
+                    .activo(i != 3)
+                    .rol(i == 1 ? administrador : cliente)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        usuarioService = new UsuarioServiceImpl(usuarioRepository, new UsuarioMapperImpl(), null, null, null);
+        ReflectionTestUtils.setField(usuarioService, "limitePorDefecto", 50);
+        ReflectionTestUtils.setField(usuarioService, "limiteMaximo", 100);
+    }
+    private List<String> recorrer(BusquedaUsuariosRequest filtros) {
+        List<String> nombres = new ArrayList<>();
+        String cursor = null;
+        do {
+            filtros.setCursor(cursor);
+            UsuariosPaginaResponse pagina = usuarioService.buscar(filtros);
+            assertTrue(pagina.getUsuarios().size() <= filtros.getLimite());
+            pagina.getUsuarios().stream().map(UsuarioResponse::getNombreUsuario).forEach(nombres::add);
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+        return nombres;
+    }
+    @Test
+    @DisplayName("Username prefix search is case-insensitive and pages by keyset without gaps")
+    void prefijoNombrePaginado() {
+        List<String> nombres = recorrer(BusquedaUsuariosRequest.builder().nombreUsuario("AN").limite(2).build());
+        assertEquals(List.of("an_tonia", "Ana", "Andrea", "andres", "anibal", "ANTONIO", "anX"), nombres);
+        assertEquals(List.of("an_tonia"), recorrer(BusquedaUsuariosRequest.builder().nombreUsuario("an_").limite(2).build()));
+    }
+    @Test
+    @DisplayName("Role and activo filters combine with prefix and id-ordered listings")
+    void filtros() {
+        assertEquals(List.of("Ana", "Andrea", "an_tonia", "anX", "ANTONIO"),
+                recorrer(BusquedaUsuariosRequest.builder().rol("cliente").activo(true).limite(3).build())
+                        .stream().filter(nombre -> nombre.toLowerCase().startsWith("an")).toList());
+        assertEquals(List.of("andres"), recorrer(BusquedaUsuariosRequest.builder().correo("AND").rol("administrador").limite(5).build()));
+        assertEquals(List.of("anibal"), recorrer(BusquedaUsuariosRequest.builder().nombreUsuario("ani").activo(false).limite(5).build()));
+    }
+    @Test
+    @DisplayName("RUT search matches the normalized prefix regardless of dots, dash or k case")
+    void prefijoRut() {
+        assertEquals(List.of("Andrea"), recorrer(BusquedaUsuariosRequest.builder().rut("14.345.678-K").limite(5).build()));
+        assertEquals(8, recorrer(BusquedaUsuariosRequest.builder().rut("1").limite(3).build()).size());
+    }
+    @Test
+    @DisplayName("Rejects several prefixes, oversized limits and tampered cursors")
+    void validaciones() {
+        assertThrows(BadRequestException.class, () -> usuarioService.buscar(BusquedaUsuariosRequest.builder().nombreUsuario("a").correo("a").build()));
+        assertThrows(BadRequestException.class, () -> usuarioService.buscar(BusquedaUsuariosRequest.builder().limite(1000).build()));
+        assertThrows(BadRequestException.class, () -> usuarioService.buscar(BusquedaUsuariosRequest.builder().cursor("no-es-un-cursor").build()));
+    }
+}
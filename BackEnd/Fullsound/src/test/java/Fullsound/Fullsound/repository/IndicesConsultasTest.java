@@ -0,0 +1,159 @@
+package Fullsound.Fullsound.repository;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.model.Usuario;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+/**
+ * Aplica las migraciones sobre PostgreSQL real y comprueba con EXPLAIN que cada consulta de
+ * los repositorios puede resolverse con un índice: se prepara con plan genérico (sin valores
+ * concretos) y con enable_seqscan=off, así que solo aparece un Seq Scan si no hay índice aplicable.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=Fullsound.Fullsound.repository.IndicesConsultasTest$SqlCapturado"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class IndicesConsultasTest {
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    public static class SqlCapturado implements StatementInspector {
+        static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+        @Override
+        public String inspect(String sql) {
+            SENTENCIAS.add(sql);
+            return sql;
+        }
+    }
+    @Autowired
+    private BeatRepository beatRepository;
+    @Autowired
+    private PedidoRepository pedidoRepository;
+    @Autowired
+    private PedidoItemRepository pedidoItemRepository;
+    @Autowired
+    private PagoRepository pagoRepository;
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private SolicitudIdempotenteRepository solicitudIdempotenteRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private final Usuario usuario = Usuario.builder().id(1).build();
+    private final Pedido pedido = Pedido.builder().id(1).build();
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+    }
+    private Map<String, Runnable> consultas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<String, Runnable> consultas = new LinkedHashMap<>();
+        consultas.put("BeatRepository.findBySlug", () -> beatRepository.findBySlug("noche"));
+        consultas.put("BeatRepository.findByEstado", () -> beatRepository.findByEstado("DISPONIBLE"));
+        consultas.put("BeatRepository.findAllAvailable", () -> beatRepository.findAllAvailable());
+        consultas.put("BeatRepository.findByPrecioBetween", () -> beatRepository.findByPrecioBetween(1000, 5000));
+        consultas.put("BeatRepository.findByBpmBetween", () -> beatRepository.findByBpmBetween(80, 100));
+        consultas.put("BeatRepository.findByTonalidad", () -> beatRepository.findByTonalidad("Am"));
+        consultas.put("BeatRepository.findByGeneroContainingIgnoreCase", () -> beatRepository.findByGeneroContainingIgnoreCase("trap"));
+        consultas.put("BeatRepository.findByAudioUrlIn", () -> beatRepository.findByAudioUrlIn(List.of("a.mp3", "b.mp3")));
+        consultas.put("BeatRepository.search", () -> beatRepository.search("noche"));
+        consultas.put("BeatRepository.findTopByOrderByReproduccionesDesc", () -> beatRepository.findTopByOrderByReproduccionesDesc(10));
+        consultas.put("BeatRepository.findTopByOrderByCreatedAtDesc", () -> beatRepository.findTopByOrderByCreatedAtDesc(10));
+        consultas.put("BeatRepository.cargarVarios", () -> beatRepository.cargarVarios(List.of(-1, -2)));
+        consultas.put("BeatRepository.sumarReproducciones", () -> beatRepository.sumarReproducciones(-1, 1));
+        consultas.put("BeatRepository.findEstados", () -> beatRepository.findEstados(List.of(-1, -2)));
+        consultas.put("BeatRepository.cambiarEstadoPorPedidos", () -> beatRepository.cambiarEstadoPorPedidos(List.of(-1, -2), List.of("VENDIDO", "RESERVADO"), "DISPONIBLE"));
+        consultas.put("PedidoItemRepository.streamItemsCompletados", () -> {
+            try (Stream<Object[]> filas = pedidoItemRepository.streamItemsCompletados()) {
+                filas.count();
+            }
+        });
+        consultas.put("PedidoItemRepository.findVentasCompletadasDesde", () -> pedidoItemRepository.findVentasCompletadasDesde(ahora.minusDays(30)));
+        consultas.put("PedidoRepository.findByNumeroPedido", () -> pedidoRepository.findByNumeroPedido("FS-1"));
+        consultas.put("PedidoRepository.findConItemsByIdIn", () -> pedidoRepository.findConItemsByIdIn(List.of(1, 2)));
+        consultas.put("PedidoRepository.findByUsuarioOrderByFechaCompraDesc", () -> pedidoRepository.findByUsuarioOrderByFechaCompraDesc(usuario));
+        consultas.put("PedidoRepository.findByUsuarioAndEstado", () -> pedidoRepository.findByUsuarioAndEstado(usuario, "PENDIENTE"));
+        consultas.put("PedidoRepository.findByEstadoOrderByFechaCompraDesc", () -> pedidoRepository.findByEstadoOrderByFechaCompraDesc("PENDIENTE"));
+        consultas.put("PedidoRepository.findByFechaCompraBetween", () -> pedidoRepository.findByFechaCompraBetween(ahora.minusDays(7), ahora));
+        consultas.put("PedidoRepository.countCompletedOrdersByUser", () -> pedidoRepository.countCompletedOrdersByUser(usuario));
+        consultas.put("PedidoRepository.getTotalSpentByUser", () -> pedidoRepository.getTotalSpentByUser(usuario));
+        consultas.put("PedidoRepository.findRecentOrders", () -> pedidoRepository.findRecentOrders(10));
+        consultas.put("UsuarioRepository.findParaLoginPorNombreUsuario", () -> usuarioRepository.findParaLoginPorNombreUsuario("ana"));
+        consultas.put("UsuarioRepository.findParaLoginPorCorreo", () -> usuarioRepository.findParaLoginPorCorreo("ana@example.com"));
+        consultas.put("UsuarioRepository.buscarPorId", () -> usuarioRepository.buscarPorId(0, "cliente", true, 51));
+        consultas.put("UsuarioRepository.buscarPorNombreUsuario", () -> usuarioRepository.buscarPorNombreUsuario("an", "ao", "an%", "", 0, null, null, 51));
+        consultas.put("UsuarioRepository.buscarPorCorreo", () -> usuarioRepository.buscarPorCorreo("an", "ao", "an%", "", 0, null, null, 51));
+        consultas.put("UsuarioRepository.buscarPorRut", () -> usuarioRepository.buscarPorRut("12", "13", "12%", "", 0, null, null, 51));
+        consultas.put("PagoRepository.findByStripePaymentIntentId", () -> pagoRepository.findByStripePaymentIntentId("pi_1"));
+        consultas.put("PagoRepository.findByStripeChargeId", () -> pagoRepository.findByStripeChargeId("ch_1"));
+        consultas.put("PagoRepository.findByPedido", () -> pagoRepository.findByPedido(pedido));
+        consultas.put("PagoRepository.findByEstado", () -> pagoRepository.findByEstado("PENDIENTE"));
+        consultas.put("PagoRepository.existsByPedido", () -> pagoRepository.existsByPedido(pedido));
+        consultas.put("SolicitudIdempotenteRepository.reservar", () -> solicitudIdempotenteRepository.reservar("x", "h", ahora, ahora));
+        consultas.put("SolicitudIdempotenteRepository.completar", () -> solicitudIdempotenteRepository.completar("x", 201, null, null));
+        consultas.put("SolicitudIdempotenteRepository.liberarSiCaducada", () -> solicitudIdempotenteRepository.liberarSiCaducada("x", ahora, ahora));
+        consultas.put("SolicitudIdempotenteRepository.eliminarVencidas", () -> solicitudIdempotenteRepository.eliminarVencidas(ahora));
+        return consultas;
+    }
+    @Test
+    @DisplayName("Every repository query should be able to use an index")
+    void everyRepositoryQueryShouldUseAnIndex() {
+        List<String> sinIndice = new ArrayList<>();
+        consultas().forEach((nombre, consulta) -> {
+            SqlCapturado.SENTENCIAS.clear();
+            consulta.run();
+            assertFalse(SqlCapturado.SENTENCIAS.isEmpty(), nombre + " no ejecutó SQL");
+            for (String sql : SqlCapturado.SENTENCIAS) {
+                String plan = explicar(sql);
+                if (plan.contains("Seq Scan")) {
+                    sinIndice.add(nombre + ":\n" + sql + "\n" + plan);
+                }
+            }
+        });
+        assertTrue(sinIndice.isEmpty(), "Consultas sin índice:\n" + String.join("\n\n", sinIndice));
+    }
+    private String explicar(String sql) {
+        StringBuilder numerada = new StringBuilder();
+        List<String> valores = new ArrayList<>();
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                valores.add("NULL");
+                numerada.append('$').append(valores.size());
+            } else {
+                numerada.append(c);
+            }
+        }
+        jdbcTemplate.execute("PREPARE consulta AS " + numerada);
+        try {
+            String ejecutar = valores.isEmpty() ? "consulta" : "consulta(" + String.join(", ", valores) + ")";
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN EXECUTE " + ejecutar, String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE consulta");
+        }
+    }
+}
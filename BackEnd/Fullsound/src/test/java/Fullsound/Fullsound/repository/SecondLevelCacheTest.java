@@ -0,0 +1,93 @@
+package Fullsound.Fullsound.repository;
+import Fullsound.Fullsound.model.Beat;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+    @Autowired
+    private BeatRepository beatRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private Beat beat;
+    @BeforeEach
+    void setUp() {
+        beat = beatRepository.save(Beat.builder().titulo("Noche").slug("noche").precio(10000).build());
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    @AfterEach
+    void tearDown() {
+        beatRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+    @Test
+    @DisplayName("Should serve repeated findById from the beats region")
+    void shouldServeFindByIdFromCache() {
+        beatRepository.findById(beat.getId()).orElseThrow();
+        beatRepository.findById(beat.getId()).orElseThrow();
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("beats").getHitCount());
+    }
+    @Test
+    @DisplayName("Should not serve stale data after a write")
+    void shouldRefreshAfterWrite() {
+        Beat cargado = beatRepository.findById(beat.getId()).orElseThrow();
+        cargado.setTitulo("Noche remix");
+        beatRepository.save(cargado);
+        assertEquals("Noche remix", beatRepository.findById(beat.getId()).orElseThrow().getTitulo());
+    }
+    @Test
+    @DisplayName("Should cache slug lookups and invalidate them when the table changes")
+    void shouldCacheSlugQueryUntilTableChanges() {
+        beatRepository.findBySlug("noche").orElseThrow();
+        beatRepository.findBySlug("noche").orElseThrow();
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        beatRepository.save(Beat.builder().titulo("Otro").slug("otro").precio(5000).build());
+        long antes = statistics.getPrepareStatementCount();
+        beatRepository.findBySlug("noche").orElseThrow();
+        assertEquals(antes + 1, statistics.getPrepareStatementCount());
+    }
+    @Test
+    @DisplayName("Should evict only the beat whose plays were added")
+    void shouldKeepOtherBeatsCachedWhenAddingPlays() {
+        Beat otro = beatRepository.save(Beat.builder().titulo("Otro").slug("otro").precio(5000).build());
+        beatRepository.cargarVarios(List.of(beat.getId(), otro.getId()));
+        assertEquals(1, beatRepository.sumarReproducciones(beat.getId(), 3));
+        assertTrue(entityManagerFactory.getCache().contains(Beat.class, otro.getId()));
+        assertFalse(entityManagerFactory.getCache().contains(Beat.class, beat.getId()));
+        assertEquals(3, beatRepository.findById(beat.getId()).orElseThrow().getReproducciones());
+    }
+    @Test
+    @DisplayName("Should multi-load beats in request order, loading only cache misses")
+    void shouldMultiLoadInOrderUsingCache() {
+        Beat otro = beatRepository.save(Beat.builder().titulo("Otro").slug("otro").precio(5000).build());
+        entityManagerFactory.getCache().evictAll();
+        beatRepository.findById(beat.getId()).orElseThrow();
+        statistics.clear();
+        List<Beat> beats = beatRepository.cargarVarios(Arrays.asList(otro.getId(), -1, beat.getId()));
+        assertEquals(3, beats.size());
+        assertEquals(otro.getId(), beats.get(0).getId());
+        assertNull(beats.get(1));
+        assertEquals(beat.getId(), beats.get(2).getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("beats").getHitCount());
+    }
+}
@@ -0,0 +1,118 @@
+package Fullsound.Fullsound.repository;
+import Fullsound.Fullsound.exception.BadRequestException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
+import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.model.Pedido;
+import Fullsound.Fullsound.model.PedidoItem;
+import Fullsound.Fullsound.model.Rol;
+import Fullsound.Fullsound.model.Usuario;
+import Fullsound.Fullsound.notificaciones.CanalEstados;
+import Fullsound.Fullsound.recomendacion.IndiceCompraConjunta;
+import Fullsound.Fullsound.recomendacion.IndiceSimilitudBeats;
+import Fullsound.Fullsound.recomendacion.TendenciasBeats;
+import Fullsound.Fullsound.service.impl.EstadoPedidoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+@DataJpaTest
+@ActiveProfiles("test")
+class TransicionesPedidoTest {
+    @Autowired
+    private BeatRepository beatRepository;
+    @Autowired
+    private PedidoRepository pedidoRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    private final IndiceSimilitudBeats indiceSimilitud = mock(IndiceSimilitudBeats.class);
+    private EstadoPedidoServiceImpl estadoPedidoService;
+    private Usuario usuario;
+    private final Beat[] beats = new Beat[5];
+    @BeforeEach
+    void setUp() {
+        estadoPedidoService = new EstadoPedidoServiceImpl(beatRepository, mock(IndiceCompraConjunta.class), mock(TendenciasBeats.class),
+                mock(CanalEstados.class), mock(BusInvalidacion.class), indiceSimilitud);
+        Rol rol = entityManager.persist(Rol.builder().tipo("cliente").build());
+        usuario = entityManager.persist(Usuario.builder()
+                .nombreUsuario("ana").correo("ana@fullsound.cl").contraseña("x").activo(true).rol(rol).build());
+        for (int i = 0; i < beats.length; i++) {
+            beats[i] = entityManager.persist(Beat.builder().titulo("Beat " + i).precio(1000).reproducciones(0).build());
+        }
+    }
+    private Pedido pedido(String numero, String estado, Beat... incluidos) {
+        Pedido pedido = Pedido.builder().numeroPedido(numero).usuario(usuario).total(1000 * incluidos.length).estado(estado).build();
+        for (Beat beat : incluidos) {
+            pedido.addItem(PedidoItem.builder().beat(beat).nombreItem(beat.getTitulo()).cantidad(1).precioUnitario(1000).build());
+        }
+        return entityManager.persist(pedido);
+    }
+    private List<Pedido> recargar(Pedido... pedidos) {
+        entityManager.flush();
+        entityManager.clear();
+        return pedidoRepository.findConItemsByIdIn(Arrays.stream(pedidos).map(Pedido::getId).toList());
+    }
+    private String estadoBeat(int i) {
+        entityManager.flush();
+        entityManager.clear();
+        return beatRepository.findById(beats[i].getId()).orElseThrow().getEstado();
+    }
+    @Test
+    @DisplayName("Completing a batch marks every beat of those orders as sold and leaves the rest alone")
+    void completarLote() {
+        Pedido a = pedido("FS-A", "PENDIENTE", beats[0], beats[1]);
+        Pedido b = pedido("FS-B", "PROCESANDO", beats[2]);
+        pedido("FS-C", "PENDIENTE", beats[3]);
+        List<Pedido> pedidos = recargar(a, b);
+        estadoPedidoService.cambiarEstado(pedidos, "COMPLETADO");
+        assertEquals(List.of("VENDIDO", "VENDIDO", "VENDIDO", "DISPONIBLE", "DISPONIBLE"),
+                List.of(estadoBeat(0), estadoBeat(1), estadoBeat(2), estadoBeat(3), estadoBeat(4)));
+        assertEquals("COMPLETADO", pedidoRepository.findById(a.getId()).orElseThrow().getEstado());
+        assertEquals("COMPLETADO", pedidoRepository.findById(b.getId()).orElseThrow().getEstado());
+    }
+    @Test
+    @DisplayName("Cancelling releases sold beats only for orders that had been completed")
+    void cancelarLibera() {
+        Pedido completado = pedido("FS-A", "PENDIENTE", beats[0]);
+        Pedido pendiente = pedido("FS-B", "PENDIENTE", beats[1]);
+        beats[1].setEstado("VENDIDO");
+        estadoPedidoService.cambiarEstado(recargar(completado), "COMPLETADO");
+        estadoPedidoService.cambiarEstado(recargar(completado, pendiente), "CANCELADO");
+        assertEquals("DISPONIBLE", estadoBeat(0));
+        assertEquals("VENDIDO", estadoBeat(1));
+    }
+    @Test
+    @DisplayName("The local similarity index gets the state written by the bulk update")
+    void similitudConEstadoNuevo() {
+        Pedido completado = pedido("FS-A", "PENDIENTE", beats[0], beats[1]);
+        estadoPedidoService.cambiarEstado(recargar(completado), "COMPLETADO");
+        verify(indiceSimilitud).actualizar(argThat(beat -> beat.getId().equals(beats[0].getId())), eq("VENDIDO"));
+        verify(indiceSimilitud).actualizar(argThat(beat -> beat.getId().equals(beats[1].getId())), eq("VENDIDO"));
+        estadoPedidoService.cambiarEstado(recargar(completado), "REEMBOLSADO");
+        verify(indiceSimilitud).actualizar(argThat(beat -> beat.getId().equals(beats[0].getId())), eq("DISPONIBLE"));
+        verify(indiceSimilitud, never()).actualizar(argThat(beat -> beat.getId().equals(beats[2].getId())), any());
+    }
+    @Test
+    @DisplayName("An invalid transition rejects the whole batch")
+    void transicionInvalida() {
+        Pedido pendiente = pedido("FS-A", "PENDIENTE", beats[0]);
+        Pedido cancelado = pedido("FS-B", "CANCELADO", beats[1]);
+        List<Pedido> pedidos = recargar(pendiente, cancelado);
+        BadRequestException error = assertThrows(BadRequestException.class,
+                () -> estadoPedidoService.cambiarEstado(pedidos, "COMPLETADO"));
+        assertTrue(error.getMessage().contains("FS-B"));
+        assertEquals("DISPONIBLE", estadoBeat(0));
+        assertThrows(BadRequestException.class, () -> estadoPedidoService.cambiarEstado(recargar(pendiente), "ENVIADO"));
+    }
+}
@@ -0,0 +1,84 @@
+package Fullsound.Fullsound.security;
+import Fullsound.Fullsound.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+class BoundedPasswordEncoderTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService llamadores = Executors.newFixedThreadPool(2);
+    private BoundedPasswordEncoder encoder;
+    @AfterEach
+    void tearDown() {
+        llamadores.shutdownNow();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+    @Test
+    @DisplayName("Should encode and match through the bounded pool and record timings")
+    void shouldEncodeAndMatch() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, 5000, registry);
+        String hash = encoder.encode("secreto123");
+        assertTrue(encoder.matches("secreto123", hash));
+        assertFalse(encoder.matches("otra", hash));
+        assertEquals(1, registry.get("password.hash.latencia").tag("operacion", "encode").timer().count());
+        assertEquals(2, registry.get("password.hash.latencia").tag("operacion", "matches").timer().count());
+        assertEquals(3, registry.get("password.hash.espera").timer().count());
+    }
+    @Test
+    @DisplayName("Should reject immediately when the queue is full")
+    void shouldRejectWhenSaturated() throws Exception {
+        CountDownLatch iniciado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                iniciado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(lento, 1, 1, 5000, registry);
+        Future<String> enCurso = llamadores.submit(() -> encoder.encode("uno"));
+        assertTrue(iniciado.await(5, TimeUnit.SECONDS));
+        Future<String> encolado = llamadores.submit(() -> encoder.encode("dos"));
+        while (registry.get("password.hash.cola").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        assertThrows(ServiceUnavailableException.class, () -> encoder.encode("tres"));
+        liberar.countDown();
+        assertNotNull(enCurso.get(5, TimeUnit.SECONDS));
+        assertNotNull(encolado.get(5, TimeUnit.SECONDS));
+    }
+    @Test
+    @DisplayName("Should request an upgrade for hashes made with a lower cost")
+    void shouldUpgradeLowerCostHashes() {
+        String antiguo = new BCryptPasswordEncoder(4).encode("secreto123");
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4, 5000, registry);
+        assertTrue(encoder.upgradeEncoding(antiguo));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secreto123")));
+        assertTrue(encoder.matches("secreto123", antiguo));
+    }
+    @Test
+    @DisplayName("Should use the configured strength or calibrate within bounds")
+    void shouldResolveStrength() {
+        assertEquals(12, BcryptStrength.resolver("12", 250, 10, 14));
+        int calibrado = BcryptStrength.resolver("auto", 0, 4, 6);
+        assertEquals(4, calibrado);
+        int acotado = BcryptStrength.resolver("auto", 60_000, 4, 6);
+        assertEquals(6, acotado);
+    }
+}
@@ -0,0 +1,93 @@
+package Fullsound.Fullsound.security;
+import Fullsound.Fullsound.model.Rol;
+import Fullsound.Fullsound.model.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(UserDetailsServiceImpl.class)
+class LoginQueryCountTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    private DaoAuthenticationProvider provider;
+    private Statistics statistics;
+    private Rol rol;
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        rol = entityManager.persist(Rol.builder().tipo("cliente").descripcion("Usuario cliente").build());
+        entityManager.persist(Usuario.builder()
+                .nombreUsuario("testuser")
+                .correo("test@example.com")
+                .contraseña(encoder.encode("password123"))
+                .activo(true)
+                .rol(rol)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    @Test
+    @DisplayName("Should resolve an email login with a single query")
+    void shouldLoginByEmailWithOneQuery() {
+        Authentication authentication = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("test@example.com", "password123"));
+        UserDetailsImpl principal = (UserDetailsImpl) authentication.getPrincipal();
+        assertEquals("testuser", principal.getUsername());
+        assertEquals("cliente", principal.getAuthorities().iterator().next().getAuthority());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    @Test
+    @DisplayName("Should resolve a username login with a single query")
+    void shouldLoginByUsernameWithOneQuery() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("testuser", "password123"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    @Test
+    @DisplayName("Should resolve an email login to the email owner even if a username equals that email")
+    void shouldNotLetAUsernameShadowAnEmail() {
+        entityManager.persist(Usuario.builder()
+                .nombreUsuario("test@example.com")
+                .correo("otro@example.com")
+                .contraseña(new BCryptPasswordEncoder(4).encode("otra"))
+                .activo(true)
+                .rol(rol)
+                .build());
+        entityManager.flush();
+        Authentication authentication = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("test@example.com", "password123"));
+        assertEquals("testuser", authentication.getName());
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                new UsernamePasswordAuthenticationToken("test@example.com", "otra")));
+    }
+    @Test
+    @DisplayName("Should reject unknown identifiers after one query")
+    void shouldRejectUnknownIdentifier() {
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                new UsernamePasswordAuthenticationToken("nadie@example.com", "password123")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
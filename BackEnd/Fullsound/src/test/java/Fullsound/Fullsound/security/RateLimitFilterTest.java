@@ -0,0 +1,36 @@
+package Fullsound.Fullsound.security;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import static org.junit.jupiter.api.Assertions.*;
+class RateLimitFilterTest {
+    private static MockHttpServletRequest peticion(String socket, String reenviado) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(socket);
+        if (reenviado != null) {
+            request.addHeader("X-Forwarded-For", reenviado);
+        }
+        return request;
+    }
+    @Test
+    @DisplayName("Client-written X-Forwarded-For entries are ignored behind a trusted proxy")
+    void usaElSaltoDelProxy() {
+        assertEquals("203.0.113.7", RateLimitFilter.ipCliente(peticion("10.0.0.2", "1.2.3.4, 203.0.113.7"), 1));
+        assertEquals("203.0.113.7", RateLimitFilter.ipCliente(peticion("10.0.0.2", "9.9.9.9, 203.0.113.7, 10.0.0.1"), 2));
+        assertEquals("203.0.113.7", RateLimitFilter.ipCliente(peticion("10.0.0.2", "203.0.113.7"), 3));
+    }
+    @Test
+    @DisplayName("Without trusted proxies the socket address is used, even through request wrappers")
+    void sinProxiesUsaElSocket() {
+        MockHttpServletRequest original = peticion("198.51.100.4", "1.2.3.4");
+        HttpServletRequestWrapper envuelta = new HttpServletRequestWrapper(original) {
+            @Override
+            public String getRemoteAddr() {
+                return "1.2.3.4";
+            }
+        };
+        assertEquals("198.51.100.4", RateLimitFilter.ipCliente(envuelta, 0));
+        assertEquals("198.51.100.4", RateLimitFilter.ipCliente(peticion("198.51.100.4", null), 1));
+    }
+}
@@ -0,0 +1,57 @@
+package Fullsound.Fullsound.security;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+class RateLimiterTest {
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+    private final RateLimiter limiter = new RateLimiter(3, 1.0, TimeUnit.MINUTES.toNanos(10), reloj::get);
+    @Test
+    @DisplayName("Should allow a burst up to capacity and then reject")
+    void shouldAllowBurstThenReject() {
+        assertEquals(0, limiter.intentar("ip"));
+        assertEquals(0, limiter.intentar("ip"));
+        assertEquals(0, limiter.intentar("ip"));
+        long espera = limiter.intentar("ip");
+        assertTrue(espera > 0);
+        assertTrue(espera <= TimeUnit.SECONDS.toNanos(1));
+    }
+    @Test
+    @DisplayName("Should refill tokens over time")
+    void shouldRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.intentar("ip");
+        }
+        assertTrue(limiter.intentar("ip") > 0);
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.intentar("ip"));
+        assertTrue(limiter.intentar("ip") > 0);
+    }
+    @Test
+    @DisplayName("Should keep independent buckets per key")
+    void shouldKeepIndependentBuckets() {
+        for (int i = 0; i < 3; i++) {
+            limiter.intentar("a");
+        }
+        assertTrue(limiter.intentar("a") > 0);
+        assertEquals(0, limiter.intentar("b"));
+    }
+    @Test
+    @DisplayName("Should keep state of active keys and drop idle keys across generations")
+    void shouldEvictIdleKeys() {
+        for (int i = 0; i < 3; i++) {
+            limiter.intentar("activa");
+        }
+        limiter.intentar("inactiva");
+        assertEquals(2, limiter.claves());
+        reloj.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        limiter.intentar("activa");
+        reloj.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        limiter.intentar("activa");
+        // "activa" vive en ambas generaciones; "inactiva" se descartó junto con su generación
+        assertEquals(2, limiter.claves());
+        reloj.addAndGet(TimeUnit.MINUTES.toNanos(20));
+        assertEquals(0, limiter.intentar("inactiva"));
+    }
+}
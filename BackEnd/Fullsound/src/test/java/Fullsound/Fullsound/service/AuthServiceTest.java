@@ -1,9 +1,11 @@
 package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.cache.IndiceUnicidadUsuarios;
 import Fullsound.Fullsound.dto.request.LoginRequest;
 import Fullsound.Fullsound.dto.request.RegisterRequest;
 import Fullsound.Fullsound.dto.response.AuthResponse;
 import Fullsound.Fullsound.dto.response.MessageResponse;
 import Fullsound.Fullsound.exception.BadRequestException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
 import Fullsound.Fullsound.model.Rol;
 import Fullsound.Fullsound.model.Usuario;
 import Fullsound.Fullsound.repository.RolRepository;
@@ -19,7 +21,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,6 +32,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
@@ -41,6 +46,10 @@ class AuthServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private JwtTokenProvider tokenProvider;
+    @Mock
+    private IndiceUnicidadUsuarios indiceUnicidad;
+    @Mock
+    private BusInvalidacion busInvalidacion;
     @InjectMocks
     private AuthServiceImpl authService;
     private RegisterRequest registerRequest;
@@ -49,6 +58,8 @@ class AuthServiceTest {
     private Rol rol;
     @BeforeEach
     void setUp() {
+        lenient().when(indiceUnicidad.puedeExistirNombreUsuario(anyString())).thenReturn(true);
+        lenient().when(indiceUnicidad.puedeExistirCorreo(anyString())).thenReturn(true);
         rol = Rol.builder()
                 .id(1)
                 .tipo("cliente")
@@ -89,19 +100,19 @@ class AuthServiceTest {
             when(usuarioRepository.existsByCorreo(anyString())).thenReturn(false);
             when(rolRepository.findByTipo("cliente")).thenReturn(Optional.of(rol));
             when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-            when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario);
+            when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenReturn(usuario);
             MessageResponse response = authService.register(registerRequest);
             assertNotNull(response);
             assertTrue(response.getSuccess());
             assertEquals("Usuario registrado exitosamente", response.getMessage());
-            verify(usuarioRepository, times(1)).save(any(Usuario.class));
+            verify(usuarioRepository, times(1)).saveAndFlush(any(Usuario.class));
         }
         @Test
         @DisplayName("Should throw exception when username exists")
         void shouldThrowExceptionWhenUsernameExists() {
             when(usuarioRepository.existsByNombreUsuario("testuser")).thenReturn(true);
             assertThrows(BadRequestException.class, () -> authService.register(registerRequest));
-            verify(usuarioRepository, never()).save(any(Usuario.class));
+            verify(usuarioRepository, never()).saveAndFlush(any(Usuario.class));
         }
         @Test
         @DisplayName("Should throw exception when email exists")
@@ -109,7 +120,7 @@ class AuthServiceTest {
             when(usuarioRepository.existsByNombreUsuario(anyString())).thenReturn(false);
             when(usuarioRepository.existsByCorreo("test@example.com")).thenReturn(true);
             assertThrows(BadRequestException.class, () -> authService.register(registerRequest));
-            verify(usuarioRepository, never()).save(any(Usuario.class));
+            verify(usuarioRepository, never()).saveAndFlush(any(Usuario.class));
         }
         @Test
         @DisplayName("Should register with default role when no role specified")
@@ -125,7 +136,7 @@ class AuthServiceTest {
             when(usuarioRepository.existsByCorreo(anyString())).thenReturn(false);
             when(rolRepository.findByTipo("cliente")).thenReturn(Optional.of(rol));
             when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-            when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario);
+            when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenReturn(usuario);
             MessageResponse response = authService.register(requestWithoutRole);
             assertNotNull(response);
             assertTrue(response.getSuccess());
@@ -138,7 +149,32 @@ class AuthServiceTest {
             when(usuarioRepository.existsByCorreo(anyString())).thenReturn(false);
             when(rolRepository.findByTipo("cliente")).thenReturn(Optional.empty());
             assertThrows(BadRequestException.class, () -> authService.register(registerRequest));
-            verify(usuarioRepository, never()).save(any(Usuario.class));
+            verify(usuarioRepository, never()).saveAndFlush(any(Usuario.class));
+        }
+        @Test
+        @DisplayName("Should skip uniqueness queries when the index rules the values out")
+        void shouldSkipQueriesWhenIndexRulesOut() {
+            when(indiceUnicidad.puedeExistirNombreUsuario("testuser")).thenReturn(false);
+            when(indiceUnicidad.puedeExistirCorreo("test@example.com")).thenReturn(false);
+            when(rolRepository.findByTipo("cliente")).thenReturn(Optional.of(rol));
+            when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+            when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenReturn(usuario);
+            authService.register(registerRequest);
+            verify(usuarioRepository, never()).existsByNombreUsuario(anyString());
+            verify(usuarioRepository, never()).existsByCorreo(anyString());
+            verify(indiceUnicidad).registrar("testuser", "test@example.com");
+        }
+        @Test
+        @DisplayName("Should map a unique constraint violation to bad request")
+        void shouldMapConstraintViolation() {
+            when(usuarioRepository.existsByNombreUsuario(anyString())).thenReturn(false);
+            when(usuarioRepository.existsByCorreo(anyString())).thenReturn(false);
+            when(rolRepository.findByTipo("cliente")).thenReturn(Optional.of(rol));
+            when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+            when(usuarioRepository.saveAndFlush(any(Usuario.class)))
+                    .thenThrow(new DataIntegrityViolationException("uk_correo"));
+            assertThrows(BadRequestException.class, () -> authService.register(registerRequest));
+            verify(indiceUnicidad, never()).registrar(anyString(), anyString());
         }
     }
     @Nested
@@ -148,14 +184,11 @@ class AuthServiceTest {
         @DisplayName("Should login successfully with username")
         void shouldLoginSuccessfullyWithUsername() {
             Authentication authentication = mock(Authentication.class);
-            UserDetailsImpl userDetails = new UserDetailsImpl(
-                    1, "testuser", "test@example.com", "encodedPassword", true, null
-            );
+            UserDetailsImpl userDetails = UserDetailsImpl.build(usuario);
             when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                     .thenReturn(authentication);
             when(authentication.getPrincipal()).thenReturn(userDetails);
             when(tokenProvider.generateToken(authentication)).thenReturn("jwt-token");
-            when(usuarioRepository.findByNombreUsuario("testuser")).thenReturn(Optional.of(usuario));
             AuthResponse response = authService.login(loginRequest);
             assertNotNull(response);
             assertEquals("jwt-token", response.getToken());
@@ -165,50 +198,44 @@ class AuthServiceTest {
             assertTrue(response.getRoles().contains("cliente"));
         }
         @Test
-        @DisplayName("Should login successfully with email")
+        @DisplayName("Should login with email passing the identifier straight to authentication")
         void shouldLoginSuccessfullyWithEmail() {
             LoginRequest emailLoginRequest = LoginRequest.builder()
                     .nombreUsuario("test@example.com")
                     .contraseña("password123")
                     .build();
             Authentication authentication = mock(Authentication.class);
-            UserDetailsImpl userDetails = new UserDetailsImpl(
-                    1, "testuser", "test@example.com", "encodedPassword", true, null
-            );
-            when(usuarioRepository.findByCorreo("test@example.com")).thenReturn(Optional.of(usuario));
             when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                     .thenReturn(authentication);
-            when(authentication.getPrincipal()).thenReturn(userDetails);
+            when(authentication.getPrincipal()).thenReturn(UserDetailsImpl.build(usuario));
             when(tokenProvider.generateToken(authentication)).thenReturn("jwt-token");
-            when(usuarioRepository.findByNombreUsuario("testuser")).thenReturn(Optional.of(usuario));
             AuthResponse response = authService.login(emailLoginRequest);
             assertNotNull(response);
             assertEquals("jwt-token", response.getToken());
-            verify(usuarioRepository, times(1)).findByCorreo("test@example.com");
+            assertEquals("testuser", response.getNombreUsuario());
+            verify(authenticationManager).authenticate(argThat(token -> "test@example.com".equals(token.getPrincipal())));
         }
         @Test
-        @DisplayName("Should throw exception when email not found")
+        @DisplayName("Should propagate bad credentials when email not found")
         void shouldThrowExceptionWhenEmailNotFound() {
             LoginRequest emailLoginRequest = LoginRequest.builder()
                     .nombreUsuario("notfound@example.com")
                     .contraseña("password123")
                     .build();
-            when(usuarioRepository.findByCorreo("notfound@example.com")).thenReturn(Optional.empty());
-            assertThrows(BadRequestException.class, () -> authService.login(emailLoginRequest));
+            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                    .thenThrow(new BadCredentialsException("Bad credentials"));
+            assertThrows(BadCredentialsException.class, () -> authService.login(emailLoginRequest));
         }
         @Test
-        @DisplayName("Should throw exception when user not found after authentication")
-        void shouldThrowExceptionWhenUserNotFoundAfterAuth() {
+        @DisplayName("Should not query the repository after authentication")
+        void shouldNotReloadUserAfterAuth() {
             Authentication authentication = mock(Authentication.class);
-            UserDetailsImpl userDetails = new UserDetailsImpl(
-                    1, "testuser", "test@example.com", "encodedPassword", true, null
-            );
             when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                     .thenReturn(authentication);
-            when(authentication.getPrincipal()).thenReturn(userDetails);
+            when(authentication.getPrincipal()).thenReturn(UserDetailsImpl.build(usuario));
             when(tokenProvider.generateToken(authentication)).thenReturn("jwt-token");
-            when(usuarioRepository.findByNombreUsuario("testuser")).thenReturn(Optional.empty());
-            assertThrows(BadRequestException.class, () -> authService.login(loginRequest));
+            authService.login(loginRequest);
+            verifyNoInteractions(usuarioRepository);
         }
     }
 }
@@ -1,9 +1,18 @@
 package Fullsound.Fullsound.service;
 import Fullsound.Fullsound.dto.request.BeatRequest;
 import Fullsound.Fullsound.dto.response.BeatResponse;
+import Fullsound.Fullsound.dto.response.BeatsLoteResponse;
+import Fullsound.Fullsound.eventos.DiarioEventos;
+import Fullsound.Fullsound.eventos.EventoEscucha;
+import Fullsound.Fullsound.eventos.TipoEvento;
+import Fullsound.Fullsound.exception.BadRequestException;
 import Fullsound.Fullsound.exception.ResourceNotFoundException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
 import Fullsound.Fullsound.mapper.BeatMapper;
 import Fullsound.Fullsound.model.Beat;
+import Fullsound.Fullsound.recomendacion.IndiceCompraConjunta;
+import Fullsound.Fullsound.recomendacion.IndiceSimilitudBeats;
+import Fullsound.Fullsound.recomendacion.TendenciasBeats;
 import Fullsound.Fullsound.repository.BeatRepository;
 import Fullsound.Fullsound.service.impl.BeatServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +23,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -28,6 +38,16 @@ class BeatServiceTest {
     private BeatRepository beatRepository;
     @Mock
     private BeatMapper beatMapper;
+    @Mock
+    private IndiceSimilitudBeats indiceSimilitud;
+    @Mock
+    private IndiceCompraConjunta indiceCompraConjunta;
+    @Mock
+    private TendenciasBeats tendencias;
+    @Mock
+    private DiarioEventos diarioEventos;
+    @Mock
+    private BusInvalidacion busInvalidacion;
     @InjectMocks
     private BeatServiceImpl beatService;
     private Beat beat;
@@ -124,6 +144,28 @@ class BeatServiceTest {
         }
     }
     @Nested
+    @DisplayName("Multi-get Beat Tests")
+    class MultiGetBeatTests {
+        @Test
+        @DisplayName("Should keep request order, drop duplicates and report missing ids")
+        void shouldKeepOrderAndReportMissing() {
+            ReflectionTestUtils.setField(beatService, "maxIdsLote", 100);
+            when(beatRepository.cargarVarios(List.of(1, 99))).thenReturn(Arrays.asList(beat, null));
+            when(beatMapper.toResponse(beat)).thenReturn(beatResponse);
+            BeatsLoteResponse result = beatService.getByIds(List.of(1, 99, 1));
+            assertEquals(List.of(beatResponse), result.getBeats());
+            assertEquals(List.of(99), result.getNoEncontrados());
+            verify(beatRepository, never()).findById(any());
+        }
+        @Test
+        @DisplayName("Should reject requests over the id limit")
+        void shouldRejectTooManyIds() {
+            ReflectionTestUtils.setField(beatService, "maxIdsLote", 2);
+            assertThrows(BadRequestException.class, () -> beatService.getByIds(List.of(1, 2, 3)));
+            verifyNoInteractions(beatRepository);
+        }
+    }
+    @Nested
     @DisplayName("Read Beat Tests")
     class ReadBeatTests {
         @Test
@@ -236,6 +278,7 @@ class BeatServiceTest {
             assertNotNull(result);
             assertEquals("Updated Beat", result.getTitulo());
             verify(beatRepository, times(1)).save(any(Beat.class));
+            verify(busInvalidacion).publicar(BusInvalidacion.BEAT, (Object) 1);
         }
         @Test
         @DisplayName("Should throw exception when updating non-existent beat")
@@ -254,6 +297,7 @@ class BeatServiceTest {
             doNothing().when(beatRepository).delete(beat);
             assertDoesNotThrow(() -> beatService.delete(1));
             verify(beatRepository, times(1)).delete(beat);
+            verify(busInvalidacion).publicar(BusInvalidacion.BEAT, (Object) 1);
         }
         @Test
         @DisplayName("Should throw exception when deleting non-existent beat")
@@ -269,17 +313,17 @@ class BeatServiceTest {
         @DisplayName("Should increment play count")
         void shouldIncrementPlayCount() {
             when(beatRepository.findById(1)).thenReturn(Optional.of(beat));
-            when(beatRepository.save(any(Beat.class))).thenReturn(beat);
-            beatService.incrementPlays(1);
-            verify(beatRepository, times(1)).save(argThat(savedBeat -> 
-                savedBeat.getReproducciones() == 1
+            beatService.incrementPlays(1, 7);
+            verify(diarioEventos).agregar(argThat((EventoEscucha evento) ->
+                evento.beatId() == 1 && evento.usuarioId() == 7 && evento.tipo() == TipoEvento.REPRODUCCION
             ));
+            verify(beatRepository, never()).save(any(Beat.class));
         }
         @Test
         @DisplayName("Should throw exception when incrementing plays for non-existent beat")
         void shouldThrowExceptionWhenIncrementingPlaysForNonExistentBeat() {
             when(beatRepository.findById(999)).thenReturn(Optional.empty());
-            assertThrows(ResourceNotFoundException.class, () -> beatService.incrementPlays(999));
+            assertThrows(ResourceNotFoundException.class, () -> beatService.incrementPlays(999, null));
         }
         @Test
         @DisplayName("Should throw UnsupportedOperationException for incrementLikes")
@@ -0,0 +1,91 @@
+package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.dto.request.EventoRequest;
+import Fullsound.Fullsound.eventos.DiarioEventos;
+import Fullsound.Fullsound.eventos.DiarioEventosProperties;
+import Fullsound.Fullsound.eventos.EventoEscucha;
+import Fullsound.Fullsound.eventos.TipoEvento;
+import Fullsound.Fullsound.exception.BadRequestException;
+import Fullsound.Fullsound.recomendacion.IndiceSimilitudBeats;
+import Fullsound.Fullsound.service.impl.EventoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+class EventoServiceTest {
+    private DiarioEventos diario;
+    private IndiceSimilitudBeats indice;
+    private EventoServiceImpl eventoService;
+    @BeforeEach
+    void setUp() {
+        diario = mock(DiarioEventos.class);
+        DiarioEventosProperties properties = new DiarioEventosProperties();
+        properties.setReproduccionesRafaga(3);
+        properties.setReproduccionesPorSegundo(0.001);
+        properties.setVistasRafaga(4);
+        properties.setVistasPorSegundo(0.001);
+        indice = mock(IndiceSimilitudBeats.class);
+        when(indice.contiene(any())).thenReturn(true);
+        eventoService = new EventoServiceImpl(diario, properties, indice);
+    }
+    private static EventoRequest evento(int beatId, TipoEvento tipo) {
+        return EventoRequest.builder().beatId(beatId).tipo(tipo).build();
+    }
+    @SuppressWarnings("unchecked")
+    private List<EventoEscucha> registrados() {
+        ArgumentCaptor<List<EventoEscucha>> captor = ArgumentCaptor.forClass(List.class);
+        verify(diario, atLeastOnce()).agregar(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+    @Test
+    @DisplayName("Should count one play per beat in a batch and keep every view")
+    void shouldDeduplicatePlaysPerBatch() {
+        List<EventoRequest> lote = new ArrayList<>(Collections.nCopies(100, evento(7, TipoEvento.REPRODUCCION)));
+        lote.add(evento(7, TipoEvento.VISTA));
+        lote.add(evento(7, TipoEvento.VISTA));
+        assertEquals(3, eventoService.registrar(lote, null, "ip:1.2.3.4"));
+        assertEquals(1, registrados().stream().filter(e -> e.tipo() == TipoEvento.REPRODUCCION).count());
+    }
+    @Test
+    @DisplayName("Should drop plays beyond the per-client budget without affecting other clients")
+    void shouldCapPlaysPerClient() {
+        List<EventoRequest> lote = new ArrayList<>();
+        for (int beat = 1; beat <= 10; beat++) {
+            lote.add(evento(beat, TipoEvento.REPRODUCCION));
+        }
+        assertEquals(3, eventoService.registrar(lote, null, "ip:1.2.3.4"));
+        assertEquals(0, eventoService.registrar(lote, null, "ip:1.2.3.4"));
+        assertEquals(3, eventoService.registrar(lote, 5, "u:5"));
+        verify(diario, times(2)).agregar(anyList());
+    }
+    @Test
+    @DisplayName("Should drop views beyond the per-client budget")
+    void shouldCapViewsPerClient() {
+        List<EventoRequest> lote = Collections.nCopies(10, evento(1, TipoEvento.VISTA));
+        assertEquals(4, eventoService.registrar(lote, null, "ip:1.2.3.4"));
+        assertEquals(0, eventoService.registrar(lote, null, "ip:1.2.3.4"));
+        assertEquals(4, eventoService.registrar(lote, 5, "u:5"));
+    }
+    @Test
+    @DisplayName("Should drop events for beats that are not in the catalog")
+    void shouldDropUnknownBeats() {
+        when(indice.contiene(999)).thenReturn(false);
+        List<EventoRequest> lote = List.of(evento(999, TipoEvento.REPRODUCCION), evento(999, TipoEvento.VISTA),
+                evento(7, TipoEvento.REPRODUCCION));
+        assertEquals(1, eventoService.registrar(lote, null, "ip:1.2.3.4"));
+        assertTrue(registrados().stream().allMatch(e -> e.beatId() == 7));
+    }
+    @Test
+    @DisplayName("Should reject batches over the size limit")
+    void shouldRejectOversizedBatch() {
+        List<EventoRequest> lote = Collections.nCopies(501, evento(1, TipoEvento.VISTA));
+        assertThrows(BadRequestException.class, () -> eventoService.registrar(lote, null, "ip:1.2.3.4"));
+        verifyNoInteractions(diario);
+    }
+}
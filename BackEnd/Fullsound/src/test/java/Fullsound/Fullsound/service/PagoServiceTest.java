@@ -8,6 +8,7 @@ import Fullsound.Fullsound.model.Pago;
 import Fullsound.Fullsound.model.Pedido;
 import Fullsound.Fullsound.model.Usuario;
 import Fullsound.Fullsound.model.Rol;
+import Fullsound.Fullsound.notificaciones.CanalEstados;
 import Fullsound.Fullsound.repository.PagoRepository;
 import Fullsound.Fullsound.repository.PedidoRepository;
 import Fullsound.Fullsound.service.impl.PagoServiceImpl;
@@ -35,6 +36,10 @@ class PagoServiceTest {
     private PedidoRepository pedidoRepository;
     @Mock
     private PagoMapper pagoMapper;
+    @Mock
+    private EstadoPedidoService estadoPedidoService;
+    @Mock
+    private CanalEstados canalEstados;
     @InjectMocks
     private PagoServiceImpl pagoService;
     private Pedido pedido;
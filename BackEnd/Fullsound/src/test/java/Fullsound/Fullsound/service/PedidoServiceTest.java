@@ -1,4 +1,5 @@
 package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.dto.request.CambioEstadoLoteRequest;
 import Fullsound.Fullsound.dto.request.PedidoRequest;
 import Fullsound.Fullsound.dto.response.PedidoItemResponse;
 import Fullsound.Fullsound.dto.response.PedidoResponse;
@@ -23,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -41,6 +43,8 @@ class PedidoServiceTest {
     private BeatRepository beatRepository;
     @Mock
     private PedidoMapper pedidoMapper;
+    @Mock
+    private EstadoPedidoService estadoPedidoService;
     @InjectMocks
     private PedidoServiceImpl pedidoService;
     private Usuario usuario;
@@ -329,57 +333,35 @@ class PedidoServiceTest {
                 pedidoService.updateEstado(999, "COMPLETADO"));
         }
         @Test
-        @DisplayName("Should mark beats as sold when pedido is completed")
-        void shouldMarkBeatsAsSoldWhenPedidoIsCompleted() {
+        @DisplayName("Should delegate the transition to the order state machine")
+        void shouldDelegateTransitionToStateMachine() {
             when(pedidoRepository.findById(1)).thenReturn(Optional.of(pedido));
-            when(beatRepository.save(any(Beat.class))).thenReturn(beat);
             when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedido);
-            PedidoResponse completedResponse = PedidoResponse.builder()
-                    .id(1)
-                    .estado("COMPLETADO")
-                    .build();
-            when(pedidoMapper.toResponse(any(Pedido.class))).thenReturn(completedResponse);
-            PedidoResponse result = pedidoService.updateEstado(1, "COMPLETADO");
-            assertNotNull(result);
-            verify(beatRepository, atLeast(1)).save(argThat(savedBeat -> 
-                "VENDIDO".equals(savedBeat.getEstado())
-            ));
+            when(pedidoMapper.toResponse(any(Pedido.class))).thenReturn(pedidoResponse);
+            pedidoService.updateEstado(1, "COMPLETADO");
+            verify(estadoPedidoService).cambiarEstado(pedido, "COMPLETADO");
+            verify(beatRepository, never()).save(any(Beat.class));
         }
         @Test
-        @DisplayName("Should release beats when pedido is cancelled")
-        void shouldReleaseBeatsWhenPedidoIsCancelled() {
-            beat.setEstado("VENDIDO");
-            when(pedidoRepository.findById(1)).thenReturn(Optional.of(pedido));
-            when(beatRepository.save(any(Beat.class))).thenReturn(beat);
-            when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedido);
-            PedidoResponse cancelledResponse = PedidoResponse.builder()
-                    .id(1)
-                    .estado("CANCELADO")
-                    .build();
-            when(pedidoMapper.toResponse(any(Pedido.class))).thenReturn(cancelledResponse);
-            PedidoResponse result = pedidoService.updateEstado(1, "CANCELADO");
-            assertNotNull(result);
-            verify(beatRepository, atLeast(1)).save(argThat(savedBeat -> 
-                "DISPONIBLE".equals(savedBeat.getEstado())
-            ));
+        @DisplayName("Should transition a batch of pedidos loaded in one query")
+        void shouldTransitionBatchOfPedidos() {
+            ReflectionTestUtils.setField(pedidoService, "maxIdsLote", 100);
+            Pedido otro = Pedido.builder().id(2).estado("PENDIENTE").items(new ArrayList<>()).build();
+            when(pedidoRepository.findConItemsByIdIn(List.of(2, 1))).thenReturn(List.of(pedido, otro));
+            when(pedidoMapper.toResponse(any(Pedido.class))).thenReturn(pedidoResponse);
+            List<PedidoResponse> result = pedidoService.updateEstadoLote(new CambioEstadoLoteRequest(List.of(2, 1, 2), "CANCELADO"));
+            assertEquals(2, result.size());
+            verify(estadoPedidoService).cambiarEstado(List.of(otro, pedido), "CANCELADO");
+            verify(pedidoRepository, never()).findById(any());
         }
         @Test
-        @DisplayName("Should release beats when pedido is refunded")
-        void shouldReleaseBeatsWhenPedidoIsRefunded() {
-            beat.setEstado("RESERVADO");
-            when(pedidoRepository.findById(1)).thenReturn(Optional.of(pedido));
-            when(beatRepository.save(any(Beat.class))).thenReturn(beat);
-            when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedido);
-            PedidoResponse refundedResponse = PedidoResponse.builder()
-                    .id(1)
-                    .estado("REEMBOLSADO")
-                    .build();
-            when(pedidoMapper.toResponse(any(Pedido.class))).thenReturn(refundedResponse);
-            PedidoResponse result = pedidoService.updateEstado(1, "REEMBOLSADO");
-            assertNotNull(result);
-            verify(beatRepository, atLeast(1)).save(argThat(savedBeat -> 
-                "DISPONIBLE".equals(savedBeat.getEstado())
-            ));
+        @DisplayName("Should fail the batch when a pedido does not exist")
+        void shouldFailBatchWhenPedidoDoesNotExist() {
+            ReflectionTestUtils.setField(pedidoService, "maxIdsLote", 100);
+            when(pedidoRepository.findConItemsByIdIn(List.of(1, 999))).thenReturn(List.of(pedido));
+            assertThrows(ResourceNotFoundException.class, () ->
+                pedidoService.updateEstadoLote(new CambioEstadoLoteRequest(List.of(1, 999), "CANCELADO")));
+            verifyNoInteractions(estadoPedidoService);
         }
     }
 }
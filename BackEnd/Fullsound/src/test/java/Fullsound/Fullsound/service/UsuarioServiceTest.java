@@ -1,8 +1,10 @@
 package Fullsound.Fullsound.service;
+import Fullsound.Fullsound.cache.IndiceUnicidadUsuarios;
 import Fullsound.Fullsound.dto.request.UpdateUsuarioRequest;
 import Fullsound.Fullsound.dto.response.UsuarioResponse;
 import Fullsound.Fullsound.exception.BadRequestException;
 import Fullsound.Fullsound.exception.ResourceNotFoundException;
+import Fullsound.Fullsound.invalidacion.BusInvalidacion;
 import Fullsound.Fullsound.mapper.UsuarioMapper;
 import Fullsound.Fullsound.model.Rol;
 import Fullsound.Fullsound.model.Usuario;
@@ -33,6 +35,10 @@ class UsuarioServiceTest {
     private UsuarioMapper usuarioMapper;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private IndiceUnicidadUsuarios indiceUnicidad;
+    @Mock
+    private BusInvalidacion busInvalidacion;
     @InjectMocks
     private UsuarioServiceImpl usuarioService;
     private Usuario usuario;
@@ -41,6 +47,8 @@ class UsuarioServiceTest {
     private UpdateUsuarioRequest updateRequest;
     @BeforeEach
     void setUp() {
+        lenient().when(indiceUnicidad.puedeExistirNombreUsuario(anyString())).thenReturn(true);
+        lenient().when(indiceUnicidad.puedeExistirCorreo(anyString())).thenReturn(true);
         rol = Rol.builder()
                 .id(1)
                 .tipo("cliente")